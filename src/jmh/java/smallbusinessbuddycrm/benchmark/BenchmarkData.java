@@ -0,0 +1,107 @@
+package smallbusinessbuddycrm.benchmark;
+
+import smallbusinessbuddycrm.database.DatabaseConnection;
+import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.model.Organization;
+import smallbusinessbuddycrm.model.PaymentTemplate;
+import smallbusinessbuddycrm.model.UnderagedMember;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sample data and database setup shared by the benchmarks.
+ *
+ * Values use Croatian names and diacritics so text handling is measured on
+ * realistic input. Benchmarks that need a database call useTemporaryDatabase()
+ * before anything touches DatabaseConnection, so they never write to the real
+ * application database.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public final class BenchmarkData {
+
+    public static final String DESCRIPTION_TEMPLATE =
+            "Članarina {{custom_text.ožujak}} - {{contact_attributes.first_name}} {{contact_attributes.last_name}}, " +
+            "dijete {{underaged_attributes.first_name}} ({{underaged_attributes.age}} god.)";
+
+    private static File databaseFile;
+
+    private BenchmarkData() {
+    }
+
+    public static Contact contact(int index) {
+        Contact contact = new Contact();
+        contact.setId(index + 1);
+        contact.setFirstName("Ivana");
+        contact.setLastName("Šimunović-Đurić " + index);
+        contact.setBirthday(LocalDate.of(1985, 3, 14));
+        contact.setPin(String.format("%011d", 12345678900L + index));
+        contact.setStreetName("Ulica kneza Branimira");
+        contact.setStreetNum(String.valueOf(10 + index % 90));
+        contact.setPostalCode("10000");
+        contact.setCity("Zagreb");
+        contact.setEmail("ivana" + index + "@example.com");
+        contact.setPhoneNum("+385 91 123 " + String.format("%04d", index % 10000));
+        contact.setMember(index % 3 != 0);
+        contact.setMemberSince(LocalDate.of(2020, 9, 1));
+        contact.setMemberUntil(LocalDate.of(2026, 8, 31));
+        contact.setCreatedAt("2024-01-15 10:00:00");
+        contact.setUpdatedAt("2024-01-15 10:00:00");
+        return contact;
+    }
+
+    public static UnderagedMember underagedMember(int contactId) {
+        UnderagedMember member = new UnderagedMember();
+        member.setId(contactId);
+        member.setContactId(contactId);
+        member.setFirstName("Luka");
+        member.setLastName("Šimunović");
+        member.setBirthDate(LocalDate.of(2015, 6, 2));
+        member.setAge(10);
+        member.setMember(true);
+        return member;
+    }
+
+    public static Organization organization() {
+        Organization organization = new Organization();
+        organization.setId(1);
+        organization.setName("Udruga Čvorak");
+        organization.setIban("HR1210010051863000160");
+        organization.setStreetName("Ilica");
+        organization.setStreetNum("242");
+        organization.setPostalCode("10000");
+        organization.setCity("Zagreb");
+        return organization;
+    }
+
+    public static PaymentTemplate paymentTemplate() {
+        PaymentTemplate template = new PaymentTemplate();
+        template.setId(1);
+        template.setName("Mjesečna članarina");
+        template.setAmount(new BigDecimal("25.50"));
+        template.setModelOfPayment("HR01");
+        template.setPozivNaBroj("202503");
+        template.setDescription(DESCRIPTION_TEMPLATE);
+        return template;
+    }
+
+    /**
+     * Points DatabaseConnection at a fresh SQLite file and creates the schema.
+     * Must run before the first use of DatabaseConnection in the benchmark JVM;
+     * later calls reuse the same file.
+     */
+    public static synchronized File useTemporaryDatabase() throws IOException {
+        if (databaseFile == null) {
+            File file = File.createTempFile("sbb-bench-", ".db");
+            file.deleteOnExit();
+            System.setProperty("sbb.db.url", "jdbc:sqlite:" + file.getAbsolutePath());
+            DatabaseConnection.initializeDatabase();
+            databaseFile = file;
+        }
+        return databaseFile;
+    }
+}
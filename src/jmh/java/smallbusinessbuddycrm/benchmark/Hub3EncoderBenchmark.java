@@ -0,0 +1,97 @@
+package smallbusinessbuddycrm.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.model.Organization;
+import smallbusinessbuddycrm.model.PaymentTemplate;
+import smallbusinessbuddycrm.services.Hub3Encoder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HUB-3 payload encoding. The legacy benchmark keeps the String.format and
+ * String.replace version the slip generators used before Hub3Encoder, as a baseline.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Hub3EncoderBenchmark {
+
+    private Contact contact;
+    private Organization organization;
+    private PaymentTemplate template;
+    private String description;
+
+    @Setup
+    public void setUp() {
+        contact = BenchmarkData.contact(42);
+        organization = BenchmarkData.organization();
+        template = BenchmarkData.paymentTemplate();
+        description = "Članarina ožujak - Ivana Šimunović-Đurić";
+    }
+
+    @Benchmark
+    public String encoder() {
+        return Hub3Encoder.forCurrentThread()
+                .begin(true)
+                .amount(template.getAmount())
+                .field(contact.getFirstName() + " " + contact.getLastName())
+                .address(contact.getStreetName(), contact.getStreetNum())
+                .place(contact.getPostalCode(), contact.getCity())
+                .field(organization.getName())
+                .address(organization.getStreetName(), organization.getStreetNum())
+                .place(organization.getPostalCode(), organization.getCity())
+                .field(organization.getIban())
+                .field(template.getModelOfPayment())
+                .field(template.getPozivNaBroj())
+                .field("")
+                .field(description)
+                .encode();
+    }
+
+    @Benchmark
+    public String legacy() {
+        StringBuilder hub3Data = new StringBuilder();
+        hub3Data.append("HRVHUB30").append("\n");
+        hub3Data.append("EUR").append("\n");
+        String amountCents = template.getAmount().multiply(new BigDecimal("100")).toBigInteger().toString();
+        hub3Data.append(String.format("%015d", Long.parseLong(amountCents))).append("\n");
+        hub3Data.append(normalize(contact.getFirstName() + " " + contact.getLastName())).append("\n");
+        hub3Data.append(normalize(contact.getStreetName() + " " + contact.getStreetNum())).append("\n");
+        hub3Data.append(normalize(contact.getPostalCode() + " " + contact.getCity())).append("\n");
+        hub3Data.append(normalize(organization.getName())).append("\n");
+        hub3Data.append(normalize(organization.getStreetName() + " " + organization.getStreetNum())).append("\n");
+        hub3Data.append(normalize(organization.getPostalCode() + " " + organization.getCity())).append("\n");
+        hub3Data.append(organization.getIban()).append("\n");
+        hub3Data.append(template.getModelOfPayment()).append("\n");
+        hub3Data.append(template.getPozivNaBroj()).append("\n");
+        hub3Data.append("").append("\n");
+        hub3Data.append(normalize(description));
+        return hub3Data.toString();
+    }
+
+    private static String normalize(String text) {
+        return text
+                .replace("č", "c").replace("Č", "C")
+                .replace("ć", "c").replace("Ć", "C")
+                .replace("ž", "z").replace("Ž", "Z")
+                .replace("š", "s").replace("Š", "S")
+                .replace("đ", "d").replace("Đ", "D");
+    }
+}
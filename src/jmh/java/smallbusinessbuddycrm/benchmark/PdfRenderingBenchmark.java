@@ -0,0 +1,62 @@
+package smallbusinessbuddycrm.benchmark;
+
+import com.itextpdf.html2pdf.HtmlConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.services.PdfRenderingService;
+import smallbusinessbuddycrm.utilities.UplatnicaHtmlGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTML to PDF conversion of one payment slip. htmlConverter is the plain
+ * HtmlConverter call with default properties; pdfRenderingService reuses the
+ * converter properties and font provider across documents.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PdfRenderingBenchmark {
+
+    private String slipHtml;
+    private PdfRenderingService renderingService;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        Contact contact = BenchmarkData.contact(42);
+        // Without a barcode image the slip still carries the background image and full layout
+        slipHtml = UplatnicaHtmlGenerator.generateUplatnicaHtml(contact, BenchmarkData.organization(),
+                BenchmarkData.paymentTemplate(), null, BenchmarkData.underagedMember(contact.getId()));
+        renderingService = PdfRenderingService.getInstance();
+    }
+
+    @Benchmark
+    public byte[] htmlConverter() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        HtmlConverter.convertToPdf(slipHtml, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] pdfRenderingService() throws IOException {
+        return renderingService.renderToBytes(slipHtml);
+    }
+}
@@ -0,0 +1,51 @@
+package smallbusinessbuddycrm.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.model.UnderagedMember;
+import smallbusinessbuddycrm.utilities.TemplateProcessor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payment description rendering, run once per slip.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateProcessorBenchmark {
+
+    private Contact contact;
+    private UnderagedMember underagedMember;
+
+    @Setup
+    public void setUp() {
+        contact = BenchmarkData.contact(42);
+        underagedMember = BenchmarkData.underagedMember(contact.getId());
+    }
+
+    @Benchmark
+    public String processTemplate() {
+        return TemplateProcessor.processTemplate(BenchmarkData.DESCRIPTION_TEMPLATE, contact, underagedMember);
+    }
+
+    @Benchmark
+    public String processTemplateWithoutPlaceholders() {
+        return TemplateProcessor.processTemplate("Članarina za ožujak 2025.", contact, underagedMember);
+    }
+}
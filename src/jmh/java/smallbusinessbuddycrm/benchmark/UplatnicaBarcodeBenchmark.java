@@ -0,0 +1,106 @@
+package smallbusinessbuddycrm.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.pdf417.PDF417Writer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.model.Organization;
+import smallbusinessbuddycrm.model.PaymentTemplate;
+import smallbusinessbuddycrm.model.UnderagedMember;
+import smallbusinessbuddycrm.services.Hub3Encoder;
+import smallbusinessbuddycrm.utilities.UplatnicaHtmlGenerator;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDF417 barcode generation and the slip HTML built around it, which encodes the
+ * barcode as PNG and embeds it as base64.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UplatnicaBarcodeBenchmark {
+
+    private Contact contact;
+    private UnderagedMember underagedMember;
+    private Organization organization;
+    private PaymentTemplate template;
+    private String hub3Data;
+    private BufferedImage barcodeImage;
+    private Map<EncodeHintType, Object> hints;
+
+    @Setup
+    public void setUp() throws WriterException {
+        System.setProperty("java.awt.headless", "true");
+        contact = BenchmarkData.contact(42);
+        underagedMember = BenchmarkData.underagedMember(contact.getId());
+        organization = BenchmarkData.organization();
+        template = BenchmarkData.paymentTemplate();
+
+        // Same hints as the slip generators
+        hints = new HashMap<>();
+        hints.put(EncodeHintType.CHARACTER_SET, "ISO-8859-2");
+        hints.put(EncodeHintType.ERROR_CORRECTION, 2);
+        hints.put(EncodeHintType.PDF417_COMPACT, false);
+        hints.put(EncodeHintType.MARGIN, 10);
+
+        hub3Data = Hub3Encoder.forCurrentThread()
+                .begin(true)
+                .amount(template.getAmount())
+                .field(contact.getFirstName() + " " + contact.getLastName())
+                .address(contact.getStreetName(), contact.getStreetNum())
+                .place(contact.getPostalCode(), contact.getCity())
+                .field(organization.getName())
+                .address(organization.getStreetName(), organization.getStreetNum())
+                .place(organization.getPostalCode(), organization.getCity())
+                .field(organization.getIban())
+                .field(template.getModelOfPayment())
+                .field(template.getPozivNaBroj())
+                .field("")
+                .field("Clanarina ozujak - Ivana Simunovic-Duric")
+                .encode();
+        barcodeImage = encodeBarcode();
+    }
+
+    @Benchmark
+    public BufferedImage pdf417Encode() throws WriterException {
+        return encodeBarcode();
+    }
+
+    @Benchmark
+    public String slipHtml() {
+        return UplatnicaHtmlGenerator.generateUplatnicaHtml(contact, organization, template, barcodeImage, underagedMember);
+    }
+
+    @Benchmark
+    public String pdf417EncodeAndSlipHtml() throws WriterException {
+        return UplatnicaHtmlGenerator.generateUplatnicaHtml(contact, organization, template, encodeBarcode(), underagedMember);
+    }
+
+    private BufferedImage encodeBarcode() throws WriterException {
+        BitMatrix bitMatrix = new PDF417Writer().encode(hub3Data, BarcodeFormat.PDF_417, 450, 150, hints);
+        return MatrixToImageWriter.toBufferedImage(bitMatrix);
+    }
+}
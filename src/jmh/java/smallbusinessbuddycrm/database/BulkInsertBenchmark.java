@@ -0,0 +1,98 @@
+package smallbusinessbuddycrm.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import smallbusinessbuddycrm.benchmark.BenchmarkData;
+import smallbusinessbuddycrm.model.OutboxEmail;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk inserts into a temporary SQLite file.
+ *
+ * createContactPerRow is how contact import writes today: one autocommit INSERT
+ * per row through ContactDAO. batchedContacts writes the same rows in one
+ * transaction with addBatch, and outboxEnqueue is the batched insert the email
+ * outbox uses for campaigns. Each invocation writes rowCount rows.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    private ContactDAO contactDAO;
+    private EmailOutboxDAO outboxDAO;
+    private int campaignNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkData.useTemporaryDatabase();
+        contactDAO = new ContactDAO();
+        outboxDAO = new EmailOutboxDAO();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTables() throws SQLException {
+        try (Connection conn = DatabaseConnection.openConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM contacts");
+            stmt.execute("DELETE FROM email_outbox");
+        }
+    }
+
+    @Benchmark
+    public int createContactPerRow() {
+        int created = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (contactDAO.createContact(BenchmarkData.contact(i))) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    @Benchmark
+    public int batchedContacts() throws SQLException {
+        try (Connection conn = DatabaseConnection.openConnection()) {
+            ContactMappingBenchmark.insertContacts(conn, rowCount);
+        }
+        return rowCount;
+    }
+
+    @Benchmark
+    public int outboxEnqueue() {
+        String campaignId = "bench-" + (++campaignNumber);
+        List<OutboxEmail> emails = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            OutboxEmail email = new OutboxEmail(campaignId, "member" + i + "@example.com",
+                    "From: bench@example.com\r\nTo: member" + i + "@example.com\r\nSubject: Newsletter\r\n\r\nBody");
+            emails.add(email);
+        }
+        return outboxDAO.enqueue(emails);
+    }
+}
@@ -0,0 +1,146 @@
+package smallbusinessbuddycrm.database;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import smallbusinessbuddycrm.benchmark.BenchmarkData;
+import smallbusinessbuddycrm.model.Contact;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping contact rows to Contact objects. Lives in the database package because
+ * ContactDAO.createContactFromResultSet is package-private.
+ *
+ * readColumns only reads the same columns and is the floor for the query itself;
+ * createContactFromResultSet adds the object mapping and date parsing;
+ * getAllContacts is the full DAO call including opening the connection.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactMappingBenchmark {
+
+    private static final String QUERY = "SELECT * FROM contacts ORDER BY id";
+
+    @Param({"1000", "10000"})
+    public int contactCount;
+
+    private ContactDAO contactDAO;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        BenchmarkData.useTemporaryDatabase();
+        contactDAO = new ContactDAO();
+        connection = DatabaseConnection.openConnection();
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DELETE FROM contacts");
+        }
+        insertContacts(connection, contactCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int readColumns() throws SQLException {
+        int checksum = 0;
+        try (PreparedStatement stmt = connection.prepareStatement(QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                checksum += rs.getInt("id");
+                for (String column : new String[]{"first_name", "last_name", "birthday", "pin", "street_name",
+                        "street_num", "postal_code", "city", "email", "phone_num", "member_since",
+                        "member_until", "created_at", "updated_at"}) {
+                    String value = rs.getString(column);
+                    checksum += value != null ? value.length() : 0;
+                }
+                checksum += rs.getInt("is_member");
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public List<Contact> createContactFromResultSet() throws SQLException {
+        List<Contact> contacts = new ArrayList<>(contactCount);
+        try (PreparedStatement stmt = connection.prepareStatement(QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                contacts.add(contactDAO.createContactFromResultSet(rs));
+            }
+        }
+        return contacts;
+    }
+
+    @Benchmark
+    public List<Contact> getAllContacts() {
+        return contactDAO.getAllContacts();
+    }
+
+    static void insertContacts(Connection connection, int count) throws SQLException {
+        String sql = """
+            INSERT INTO contacts (first_name, last_name, birthday, pin, street_name, street_num, postal_code,
+                city, email, phone_num, is_member, member_since, member_until, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                bindContact(stmt, BenchmarkData.contact(i));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    static void bindContact(PreparedStatement stmt, Contact contact) throws SQLException {
+        stmt.setString(1, contact.getFirstName());
+        stmt.setString(2, contact.getLastName());
+        stmt.setString(3, contact.getBirthday() != null ? contact.getBirthday().toString() : null);
+        stmt.setString(4, contact.getPin());
+        stmt.setString(5, contact.getStreetName());
+        stmt.setString(6, contact.getStreetNum());
+        stmt.setString(7, contact.getPostalCode());
+        stmt.setString(8, contact.getCity());
+        stmt.setString(9, contact.getEmail());
+        stmt.setString(10, contact.getPhoneNum());
+        stmt.setInt(11, contact.isMember() ? 1 : 0);
+        stmt.setString(12, contact.getMemberSince() != null ? contact.getMemberSince().toString() : null);
+        stmt.setString(13, contact.getMemberUntil() != null ? contact.getMemberUntil().toString() : null);
+        stmt.setString(14, contact.getCreatedAt());
+        stmt.setString(15, contact.getUpdatedAt());
+    }
+}
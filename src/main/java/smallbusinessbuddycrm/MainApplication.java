@@ -8,6 +8,8 @@ import javafx.stage.Stage;
 import smallbusinessbuddycrm.database.OrganizationDAO;
 import smallbusinessbuddycrm.model.Organization;
 import smallbusinessbuddycrm.controllers.organization.OrganizationSetupDialog;
+import smallbusinessbuddycrm.services.google.EmailOutboxDispatcher;
+import smallbusinessbuddycrm.services.metrics.MetricsDumper;
 
 import java.util.Optional;
 
@@ -18,6 +20,12 @@ public class MainApplication extends Application {
         // Initialize database and tables before loading GUI
         smallbusinessbuddycrm.database.DatabaseConnection.initializeDatabase();
 
+        // Periodic metrics dump, if METRICS_DUMP_FILE is set
+        MetricsDumper.startIfConfigured();
+
+        // Resume any bulk emails left in the outbox by a previous run
+        EmailOutboxDispatcher.getInstance().start();
+
         // Check if organization exists, if not show setup dialog
         checkAndSetupOrganization(primaryStage);
 
@@ -46,6 +54,12 @@ public class MainApplication extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        // Final metrics dump with the values of the whole session
+        MetricsDumper.stop();
+    }
+
     private void checkAndSetupOrganization(Stage parentStage) {
         OrganizationDAO organizationDAO = new OrganizationDAO();
         Optional<Organization> existingOrg = organizationDAO.getFirst();
@@ -13,6 +13,8 @@ import javafx.scene.shape.Circle;
 import javafx.scene.paint.Color;
 import smallbusinessbuddycrm.database.*;
 import smallbusinessbuddycrm.model.*;
+import smallbusinessbuddycrm.controllers.utilities.DiagnosticsDialog;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
 import smallbusinessbuddycrm.utilities.LanguageManager;
 import smallbusinessbuddycrm.utilities.LoadingManager;
 
@@ -52,6 +54,7 @@ public class MainController {
     // Menu items
     @FXML private MenuItem profileMenuItem;
     @FXML private MenuItem settingsMenuItem;
+    @FXML private MenuItem diagnosticsMenuItem;
 
     // Language label
     @FXML private Label languageLabel;
@@ -782,6 +785,7 @@ public class MainController {
             // Update menu items
             if (profileMenuItem != null) profileMenuItem.setText(languageManager.getText("menu.profile"));
             if (settingsMenuItem != null) settingsMenuItem.setText(languageManager.getText("menu.settings"));
+            if (diagnosticsMenuItem != null) diagnosticsMenuItem.setText(languageManager.getText("menu.diagnostics"));
 
             // Update language label
             if (languageLabel != null) languageLabel.setText(languageManager.getText("language.selector"));
@@ -865,14 +869,17 @@ public class MainController {
         }).thenRun(() -> {
             Platform.runLater(() -> {
                 try {
+                    long loadStart = System.nanoTime();
                     FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
                     Node view = loader.load();
 
                     contentArea.getChildren().clear();
                     contentArea.getChildren().add(view);
+                    long loadNanos = System.nanoTime() - loadStart;
+                    MetricsRegistry.getInstance().timer("view.load." + viewName(fxmlPath)).recordNanos(loadNanos);
 
                     LoadingManager.getInstance().hideLoading();
-                    System.out.println("Successfully navigated to: " + fxmlPath);
+                    System.out.println("Successfully navigated to: " + fxmlPath + " (" + loadNanos / 1_000_000 + " ms)");
 
                 } catch (IOException e) {
                     LoadingManager.getInstance().hideLoading();
@@ -891,6 +898,14 @@ public class MainController {
         });
     }
 
+    /**
+     * Metric name of a view: its FXML file name without directory and extension.
+     */
+    private static String viewName(String fxmlPath) {
+        String name = fxmlPath.substring(fxmlPath.lastIndexOf('/') + 1);
+        return name.endsWith(".fxml") ? name.substring(0, name.length() - 5) : name;
+    }
+
     private void showErrorMessage(String message) {
         Label errorLabel = new Label(message);
         errorLabel.setStyle(
@@ -997,6 +1012,10 @@ public class MainController {
         navigateTo("/views/settings-view.fxml");
     }
 
+    @FXML private void handleDiagnosticsAction() {
+        new DiagnosticsDialog(contentArea.getScene().getWindow()).show();
+    }
+
     @FXML private void handleHomeReportingScreen() {
         LoadingManager.getInstance().showLoading("Loading reporting dashboard...");
         navigateTo("/views/reporting/reporting-nav-dashboard-view.fxml");
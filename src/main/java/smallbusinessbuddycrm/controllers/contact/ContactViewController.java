@@ -14,6 +14,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import smallbusinessbuddycrm.controllers.utilities.BarcodePaymentDialog;
+import smallbusinessbuddycrm.controllers.utilities.ExportProgressDialog;
 import smallbusinessbuddycrm.controllers.utilities.GoogleOAuthController;
 import smallbusinessbuddycrm.controllers.utilities.MultipleGenerationBarcodeDialog;
 import smallbusinessbuddycrm.database.PaymentTemplateDAO;
@@ -21,6 +22,8 @@ import smallbusinessbuddycrm.model.Contact;
 import smallbusinessbuddycrm.database.ContactDAO;
 import javafx.stage.Stage;
 import smallbusinessbuddycrm.model.PaymentTemplate;
+import smallbusinessbuddycrm.services.export.CsvExportTask;
+import smallbusinessbuddycrm.services.export.CsvWriter;
 import smallbusinessbuddycrm.utilities.LanguageManager;
 
 import java.io.*;
@@ -30,6 +33,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.prefs.Preferences;
 import java.util.stream.Collectors;
 import smallbusinessbuddycrm.utilities.LoadingManager;
@@ -85,6 +89,13 @@ public class ContactViewController {
     private Map<String, Boolean> columnVisibility = new HashMap<>();
     private static final String COLUMN_PREFS_KEY = "contacts_column_visibility";
 
+    // CSV export columns, in Croatian
+    private static final String[] CONTACT_CSV_HEADER = {
+            "Ime", "Prezime", "Rođendan", "Godine", "PIN", "Email", "Telefon", "Ulica", "Broj",
+            "Poštanski kod", "Grad", "Status članstva", "Član od", "Član do", "Kreiran", "Ažuriran"
+    };
+    private static final DateTimeFormatter CSV_DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
 
     private LanguageManager languageManager;
     private Runnable languageChangeListener;
@@ -814,12 +825,26 @@ public class ContactViewController {
      * Applies combined filtering logic for search terms and membership status.
      */
     private void updateFilters() {
+        filteredContactsList.setPredicate(createContactPredicate());
+
+        updateRecordCount();
+    }
+
+    /**
+     * Creates the predicate for the current search text and active filter button.
+     * Both are read once here, so the predicate can also be used off the JavaFX
+     * Application Thread, e.g. by the CSV export.
+     *
+     * @return Predicate matching the contacts visible in the table
+     */
+    private Predicate<Contact> createContactPredicate() {
         String searchText = searchField.getText().toLowerCase().trim();
+        Predicate<Contact> currentFilter = currentFilter();
 
-        filteredContactsList.setPredicate(contact -> {
+        return contact -> {
             // If no search text, show all contacts based on current filter
             if (searchText.isEmpty()) {
-                return matchesCurrentFilter(contact);
+                return currentFilter.test(contact);
             }
 
             // Check if search text matches name, phone, email, PIN, or age
@@ -840,20 +865,17 @@ public class ContactViewController {
             }
 
             // Return true only if matches both search and current filter
-            return matchesSearch && matchesCurrentFilter(contact);
-        });
-
-        updateRecordCount();
+            return matchesSearch && currentFilter.test(contact);
+        };
     }
 
     /**
-     * Determines if a contact matches the currently active filter.
-     * Checks contact against All Contacts, Members, Non-Members, or Upcoming Birthdays filter.
+     * Determines the currently active filter.
+     * Returns the All Contacts, Members, Non-Members, or Upcoming Birthdays filter.
      *
-     * @param contact The contact to evaluate against current filter
-     * @return true if contact matches active filter, false otherwise
+     * @return Predicate of the active filter
      */
-    private boolean matchesCurrentFilter(Contact contact) {
+    private Predicate<Contact> currentFilter() {
         // Check which filter button is active based on their style
         String allContactsStyle = allContactsButton.getStyle();
         String membersStyle = membersButton.getStyle();
@@ -862,22 +884,22 @@ public class ContactViewController {
 
         // If "All contacts" is active (has #f5f8fa background)
         if (allContactsStyle.contains("#f5f8fa")) {
-            return true; // Show all contacts
+            return contact -> true; // Show all contacts
         }
         // If "Members" is active
         else if (membersStyle.contains("#f5f8fa")) {
-            return contact.isMember();
+            return Contact::isMember;
         }
         // If "Non-members" is active
         else if (nonMembersStyle.contains("#f5f8fa")) {
-            return !contact.isMember();
+            return contact -> !contact.isMember();
         }
         // If "Upcoming Birthdays" is active
         else if (birthdaysStyle.contains("#f5f8fa")) {
-            return hasUpcomingBirthday(contact, 30); // Next 30 days
+            return contact -> hasUpcomingBirthday(contact, 30); // Next 30 days
         }
 
-        return true;
+        return contact -> true;
     }
 
     /**
@@ -1016,10 +1038,8 @@ public class ContactViewController {
      */
     private void handleExportContacts() {
         try {
-            // Get currently visible contacts (filtered/searched)
-            List<Contact> contactsToExport = new ArrayList<>(filteredContactsList);
-
-            if (contactsToExport.isEmpty()) {
+            // Export the currently visible contacts (filtered/searched)
+            if (filteredContactsList.isEmpty()) {
                 Alert alert = new Alert(Alert.AlertType.WARNING);
                 alert.setTitle("No Data");
                 alert.setHeaderText("No contacts to export");
@@ -1043,93 +1063,106 @@ public class ContactViewController {
             File file = fileChooser.showSaveDialog(currentStage);
 
             if (file != null) {
-                exportContactsToCSV(contactsToExport, file);
-
-                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-                successAlert.setTitle("Export Successful");
-                successAlert.setHeaderText("Contacts exported successfully");
-                successAlert.setContentText("Exported " + contactsToExport.size() + " contact(s) to:\n" + file.getAbsolutePath());
-                successAlert.showAndWait();
+                exportContactsToCSV(file, currentStage);
             }
 
         } catch (Exception e) {
             System.err.println("Error exporting contacts: " + e.getMessage());
             e.printStackTrace();
-
-            Alert errorAlert = new Alert(Alert.AlertType.ERROR);
-            errorAlert.setTitle("Export Failed");
-            errorAlert.setHeaderText("Failed to export contacts");
-            errorAlert.setContentText("An error occurred while exporting: " + e.getMessage());
-            errorAlert.showAndWait();
+            showExportError(e);
         }
     }
 
     /**
-     * Exports contact list to CSV file with proper encoding and formatting.
-     * Creates UTF-8 encoded CSV with BOM for Excel compatibility and Croatian headers.
+     * Exports the contacts matching the current filters to a CSV file in the background.
+     * Contacts are streamed from the database and written as they are read, so memory use
+     * does not grow with the number of contacts. Creates UTF-8 encoded CSV with BOM for
+     * Excel compatibility and Croatian headers.
      *
-     * @param contacts List of contacts to export
      * @param file Target file for CSV export
-     * @throws IOException if file writing fails
+     * @param owner Window owning the progress dialog
      */
-    private void exportContactsToCSV(List<Contact> contacts, File file) throws IOException {
-        // Use UTF-8 encoding with BOM for proper Croatian character support
-        try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
-
-            // Write UTF-8 BOM (Byte Order Mark) so Excel recognizes UTF-8 encoding
-            writer.write('\ufeff');
-
-            // Write CSV header in Croatian (including birthday, age, and PIN)
-            writer.write("Ime,Prezime,Rođendan,Godine,PIN,Email,Telefon,Ulica,Broj,Poštanski kod,Grad,Status članstva,Član od,Član do,Kreiran,Ažuriran");
-            writer.newLine();
-
-            // Write contact data
-            for (Contact contact : contacts) {
-                StringBuilder line = new StringBuilder();
-
-                // Helper method to escape CSV values
-                line.append(escapeCsvValue(contact.getFirstName())).append(",");
-                line.append(escapeCsvValue(contact.getLastName())).append(",");
-                line.append(escapeCsvValue(contact.getBirthday() != null ? contact.getBirthday().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) : "")).append(",");
-                line.append(escapeCsvValue(contact.getBirthday() != null ? String.valueOf(contact.getAge()) : "")).append(",");
-                line.append(escapeCsvValue(contact.getPin())).append(",");
-                line.append(escapeCsvValue(contact.getEmail())).append(",");
-                line.append(escapeCsvValue(contact.getPhoneNum())).append(",");
-                line.append(escapeCsvValue(contact.getStreetName())).append(",");
-                line.append(escapeCsvValue(contact.getStreetNum())).append(",");
-                line.append(escapeCsvValue(contact.getPostalCode())).append(",");
-                line.append(escapeCsvValue(contact.getCity())).append(",");
-                line.append(escapeCsvValue(contact.isMember() ? "Član" : "Nije član")).append(",");
-                line.append(escapeCsvValue(contact.getMemberSince() != null ? contact.getMemberSince().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) : "")).append(",");
-                line.append(escapeCsvValue(contact.getMemberUntil() != null ? contact.getMemberUntil().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) : "")).append(",");
-                line.append(escapeCsvValue(contact.getCreatedAt())).append(",");
-                line.append(escapeCsvValue(contact.getUpdatedAt()));
-
-                writer.write(line.toString());
-                writer.newLine();
+    private void exportContactsToCSV(File file, Stage owner) {
+        Predicate<Contact> filter = createContactPredicate();
+        ContactDAO dao = new ContactDAO();
+
+        CsvExportTask exportTask = new CsvExportTask(file, allContactsList.size()) {
+            private long written;
+
+            @Override
+            protected long export(CsvWriter csv) throws Exception {
+                // UTF-8 BOM so Excel recognizes the encoding, then the header in Croatian
+                csv.writeBom();
+                csv.row(CONTACT_CSV_HEADER);
+
+                long read = dao.forEachContact(contact -> {
+                    if (filter.test(contact)) {
+                        writeContactRow(csv, contact);
+                        written++;
+                    }
+                    return rowRead();
+                });
+                if (read < 0) {
+                    throw new SQLException("Contacts could not be read from the database");
+                }
+                return written;
             }
-        }
+
+            @Override
+            protected void succeeded() {
+                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+                successAlert.setTitle("Export Successful");
+                successAlert.setHeaderText("Contacts exported successfully");
+                successAlert.setContentText("Exported " + getValue() + " contact(s) to:\n" + file.getAbsolutePath());
+                successAlert.showAndWait();
+            }
+
+            @Override
+            protected void cancelled() {
+                System.out.println("Contact export cancelled");
+            }
+
+            @Override
+            protected void failed() {
+                Throwable e = getException();
+                System.err.println("Error exporting contacts: " + e.getMessage());
+                e.printStackTrace();
+                showExportError(e);
+            }
+        };
+
+        new ExportProgressDialog(owner, "Exporting contacts...", exportTask).start();
     }
 
     /**
-     * Escapes CSV values by wrapping in quotes and escaping internal quotes.
-     * Handles commas, quotes, and newlines in contact data for proper CSV formatting.
-     *
-     * @param value The string value to escape for CSV
-     * @return Properly escaped CSV value
+     * Writes one contact as a CSV row, in the order of CONTACT_CSV_HEADER.
      */
-    private String escapeCsvValue(String value) {
-        if (value == null) {
-            return "";
-        }
-
-        // If value contains comma, quote, or newline, wrap in quotes and escape internal quotes
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
+    private static void writeContactRow(CsvWriter csv, Contact contact) {
+        csv.field(contact.getFirstName())
+                .field(contact.getLastName())
+                .field(contact.getBirthday() != null ? contact.getBirthday().format(CSV_DATE_FORMAT) : "")
+                .field(contact.getBirthday() != null ? String.valueOf(contact.getAge()) : "")
+                .field(contact.getPin())
+                .field(contact.getEmail())
+                .field(contact.getPhoneNum())
+                .field(contact.getStreetName())
+                .field(contact.getStreetNum())
+                .field(contact.getPostalCode())
+                .field(contact.getCity())
+                .field(contact.isMember() ? "Član" : "Nije član")
+                .field(contact.getMemberSince() != null ? contact.getMemberSince().format(CSV_DATE_FORMAT) : "")
+                .field(contact.getMemberUntil() != null ? contact.getMemberUntil().format(CSV_DATE_FORMAT) : "")
+                .field(contact.getCreatedAt())
+                .field(contact.getUpdatedAt())
+                .endRow();
+    }
 
-        return value;
+    private void showExportError(Throwable e) {
+        Alert errorAlert = new Alert(Alert.AlertType.ERROR);
+        errorAlert.setTitle("Export Failed");
+        errorAlert.setHeaderText("Failed to export contacts");
+        errorAlert.setContentText("An error occurred while exporting: " + e.getMessage());
+        errorAlert.showAndWait();
     }
 
     /**
@@ -14,9 +14,11 @@ import javafx.stage.Stage;
 import smallbusinessbuddycrm.model.Contact;
 import smallbusinessbuddycrm.model.UnderagedMember;
 import smallbusinessbuddycrm.database.ContactDAO;
+import smallbusinessbuddycrm.database.Db;
 import smallbusinessbuddycrm.database.UnderagedDAO;
 import smallbusinessbuddycrm.utilities.LanguageManager;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -919,42 +921,52 @@ public class EditContactDialog {
      * Handles saving all contact and underaged member changes to database.
      * Validates input, updates contact record, processes deleted children,
      * creates/updates remaining children, and closes dialog on success.
+     * All changes are saved in one transaction, so a failure leaves the database unchanged.
      */
     private void handleSave() {
         if (validateInput()) {
+            List<UnderagedMember> newChildren = new ArrayList<>();
             try {
                 updateContactFromInput();
                 ContactDAO contactDAO = new ContactDAO();
                 UnderagedDAO underagedDAO = new UnderagedDAO();
 
-                boolean success = contactDAO.updateContact(contact);
+                Db.inTransaction(tx -> {
+                    if (!contactDAO.updateContact(contact)) {
+                        throw new SQLException("Failed to update contact in database.");
+                    }
 
-                if (success) {
                     // Handle underaged members changes
 
                     // 1. Delete removed children
-                    if (!deletedUnderagedIds.isEmpty()) {
-                        underagedDAO.deleteUnderagedMembers(deletedUnderagedIds);
+                    if (!deletedUnderagedIds.isEmpty() && !underagedDAO.deleteUnderagedMembers(deletedUnderagedIds)) {
+                        throw new SQLException("Failed to delete removed children.");
                     }
 
                     // 2. Update/create children
                     for (UnderagedMember child : underagedMembersList) {
+                        boolean saved;
                         if (child.getId() > 0) {
                             // Existing child - update
-                            underagedDAO.updateUnderagedMember(child);
+                            saved = underagedDAO.updateUnderagedMember(child);
                         } else {
                             // New child - create
-                            underagedDAO.createUnderagedMember(child);
+                            newChildren.add(child);
+                            saved = underagedDAO.createUnderagedMember(child);
+                        }
+                        if (!saved) {
+                            throw new SQLException("Failed to save child " + child.getFirstName() + " " + child.getLastName() + ".");
                         }
                     }
+                    return null;
+                });
 
-                    okClicked = true;
-                    dialogStage.close();
-                } else {
-                    showErrorAlert("Failed to update contact in database.");
-                }
+                okClicked = true;
+                dialogStage.close();
 
             } catch (Exception e) {
+                // Rolled back, so children created in the attempt are new again
+                newChildren.forEach(child -> child.setId(0));
                 showErrorAlert("Error updating contact: " + e.getMessage());
                 e.printStackTrace();
             }
@@ -8,16 +8,24 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import smallbusinessbuddycrm.controllers.utilities.ExportProgressDialog;
 import smallbusinessbuddycrm.database.DatabaseConnection;
 import smallbusinessbuddycrm.database.TeacherDAO;
 import smallbusinessbuddycrm.model.Teacher;
+import smallbusinessbuddycrm.services.export.CsvExportTask;
+import smallbusinessbuddycrm.services.export.CsvWriter;
 import smallbusinessbuddycrm.utilities.LanguageManager;
 
+import java.io.File;
 import java.net.URL;
-import java.util.ArrayList;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -30,7 +38,7 @@ import java.util.stream.Collectors;
  *   <li><strong>CRUD Operations:</strong> Create, read, update, and delete teacher records</li>
  *   <li><strong>Real-time Search:</strong> Filter teachers by name, email, or phone number</li>
  *   <li><strong>Batch Operations:</strong> Multi-select functionality for bulk deletions</li>
- *   <li><strong>Export Capabilities:</strong> Export filtered teacher data</li>
+ *   <li><strong>Export Capabilities:</strong> Export filtered teacher data to CSV in the background</li>
  *   <li><strong>Internationalization:</strong> Dynamic language switching support</li>
  *   <li><strong>Database Integration:</strong> Direct persistence through TeacherDAO</li>
  *   <li><strong>User Feedback:</strong> Comprehensive success and error messaging</li>
@@ -341,9 +349,22 @@ public class TeachersViewController implements Initializable {
      * so partial text matches will be included in the results.</p>
      */
     private void updateFilters() {
+        filteredTeachersList.setPredicate(createTeacherPredicate());
+
+        updateRecordCount();
+    }
+
+    /**
+     * Creates the predicate for the current search text. The text is read once here,
+     * so the predicate can also be used off the JavaFX Application Thread, e.g. by the
+     * CSV export.
+     *
+     * @return Predicate matching the teachers visible in the table
+     */
+    private Predicate<Teacher> createTeacherPredicate() {
         String searchText = searchField.getText().toLowerCase().trim();
 
-        filteredTeachersList.setPredicate(teacher -> {
+        return teacher -> {
             // If no search text, show all teachers
             if (searchText.isEmpty()) {
                 return true;
@@ -363,9 +384,7 @@ public class TeachersViewController implements Initializable {
             }
 
             return matchesSearch;
-        });
-
-        updateRecordCount();
+        };
     }
 
     /**
@@ -787,34 +806,21 @@ public class TeachersViewController implements Initializable {
     }
 
     /**
-     * Handles the export of teacher data to external formats.
-     * Currently provides a placeholder implementation that shows information
-     * about the export operation. In the future, this should be expanded to
-     * support actual file export functionality.
-     *
-     * <p><strong>Current Implementation:</strong> Shows an information dialog
-     * indicating how many teachers would be exported (based on current filter).</p>
+     * Handles the export of the currently visible (filtered) teachers to a CSV file.
+     * Shows a file chooser for the save location, then writes the file in the
+     * background with a progress dialog that allows cancelling.
      *
-     * <p><strong>Future Enhancements:</strong></p>
-     * <ul>
-     *   <li>CSV export functionality</li>
-     *   <li>Excel export support</li>
-     *   <li>PDF report generation</li>
-     *   <li>Custom field selection for export</li>
-     *   <li>File chooser dialog for save location</li>
-     * </ul>
+     * <p>The file is UTF-8 encoded with a byte order mark for Excel and contains
+     * first name, last name, email, phone and the creation and update timestamps.</p>
      *
      * <p>The method validates that there are teachers to export and shows
      * appropriate warnings if the filtered list is empty.</p>
      */
     private void handleExportTeachers() {
-        try {
-            LanguageManager languageManager = LanguageManager.getInstance();
-
-            // Get currently visible teachers (filtered/searched)
-            List<Teacher> teachersToExport = new ArrayList<>(filteredTeachersList);
+        LanguageManager languageManager = LanguageManager.getInstance();
 
-            if (teachersToExport.isEmpty()) {
+        try {
+            if (filteredTeachersList.isEmpty()) {
                 Alert alert = new Alert(Alert.AlertType.WARNING);
                 alert.setTitle(languageManager.getText("teachers.export.no.data.title"));
                 alert.setHeaderText(languageManager.getText("teachers.export.no.data.header"));
@@ -823,20 +829,103 @@ public class TeachersViewController implements Initializable {
                 return;
             }
 
-            // For now, show export info. Later implement actual CSV export
-            Alert info = new Alert(Alert.AlertType.INFORMATION);
-            info.setTitle(languageManager.getText("teachers.export.title"));
-            info.setHeaderText(languageManager.getText("teachers.export.header"));
-            info.setContentText(languageManager.getText("teachers.export.content")
-                    .replace("{0}", String.valueOf(teachersToExport.size())));
-            info.showAndWait();
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle(languageManager.getText("teachers.export.title"));
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV (*.csv)", "*.csv"));
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+            fileChooser.setInitialFileName("teachers_export_" + timestamp + ".csv");
+
+            File file = fileChooser.showSaveDialog(exportButton.getScene().getWindow());
+            if (file != null) {
+                exportTeachersToCSV(file);
+            }
 
         } catch (Exception e) {
             System.err.println("Error exporting teachers: " + e.getMessage());
             e.printStackTrace();
+            showExportError(e);
         }
     }
 
+    /**
+     * Writes the teachers matching the current search to a CSV file in the background,
+     * streamed from the database as they are read.
+     *
+     * @param file Target file for CSV export
+     */
+    private void exportTeachersToCSV(File file) {
+        LanguageManager languageManager = LanguageManager.getInstance();
+        Predicate<Teacher> filter = createTeacherPredicate();
+
+        CsvExportTask exportTask = new CsvExportTask(file, allTeachersList.size()) {
+            private long written;
+
+            @Override
+            protected long export(CsvWriter csv) throws Exception {
+                csv.writeBom();
+                csv.row(
+                        languageManager.getText("teachers.field.first.name"),
+                        languageManager.getText("teachers.field.last.name"),
+                        languageManager.getText("teachers.field.email"),
+                        languageManager.getText("teachers.field.phone"),
+                        languageManager.getText("teachers.export.header.created"),
+                        languageManager.getText("teachers.export.header.updated")
+                );
+
+                long read = teacherDAO.forEachTeacher(teacher -> {
+                    if (filter.test(teacher)) {
+                        csv.row(teacher.getFirstName(), teacher.getLastName(), teacher.getEmail(),
+                                teacher.getPhoneNum(), teacher.getCreatedAt(), teacher.getUpdatedAt());
+                        written++;
+                    }
+                    return rowRead();
+                });
+                if (read < 0) {
+                    throw new SQLException("Teachers could not be read from the database");
+                }
+                return written;
+            }
+
+            @Override
+            protected void succeeded() {
+                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+                successAlert.setTitle(languageManager.getText("teachers.export.success.title"));
+                successAlert.setHeaderText(languageManager.getText("teachers.export.success.header"));
+                successAlert.setContentText(languageManager.getText("teachers.export.success.content")
+                        .replace("{0}", String.valueOf(getValue()))
+                        .replace("{1}", file.getAbsolutePath()));
+                successAlert.showAndWait();
+            }
+
+            @Override
+            protected void cancelled() {
+                System.out.println("Teacher export cancelled");
+            }
+
+            @Override
+            protected void failed() {
+                Throwable e = getException();
+                System.err.println("Error exporting teachers: " + e.getMessage());
+                e.printStackTrace();
+                showExportError(e);
+            }
+        };
+
+        new ExportProgressDialog(exportButton.getScene().getWindow(),
+                languageManager.getText("teachers.export.progress"), exportTask).start();
+    }
+
+    private void showExportError(Throwable e) {
+        LanguageManager languageManager = LanguageManager.getInstance();
+
+        Alert errorAlert = new Alert(Alert.AlertType.ERROR);
+        errorAlert.setTitle(languageManager.getText("teachers.export.error.title"));
+        errorAlert.setHeaderText(languageManager.getText("teachers.export.error.header"));
+        errorAlert.setContentText(languageManager.getText("teachers.export.error.content")
+                .replace("{0}", String.valueOf(e.getMessage())));
+        errorAlert.showAndWait();
+    }
+
     /**
      * Handles the refresh operation by reloading all teacher data from the database.
      * Provides a way for users to update the display with the latest database state,
@@ -24,12 +24,14 @@ import smallbusinessbuddycrm.database.OrganizationDAO;
 import smallbusinessbuddycrm.model.Organization;
 
 // PDF generation imports
-import com.itextpdf.html2pdf.HtmlConverter;
 
 
 // NEW: Payment Attachment imports
 import smallbusinessbuddycrm.database.PaymentAttachmentDAO;
 import smallbusinessbuddycrm.model.PaymentAttachment;
+import smallbusinessbuddycrm.services.PaymentAttachmentTemplateCache;
+import smallbusinessbuddycrm.services.Hub3Encoder;
+import smallbusinessbuddycrm.services.PdfRenderingService;
 import smallbusinessbuddycrm.utilities.LanguageManager;
 
 import java.awt.image.BufferedImage;
@@ -108,10 +110,6 @@ public class BarcodeGeneratorViewController implements Initializable {
     @FXML private Label hub3InfoText1;
     @FXML private Label hub3InfoText2;
 
-    // Constants - Hidden from user but used internally
-    private static final String FIXED_BANK_CODE = "HRVHUB30";
-    private static final String FIXED_CURRENCY = "EUR";
-
     // Database access
     private OrganizationDAO organizationDAO;
     private Organization currentOrganization;
@@ -316,10 +314,11 @@ public class BarcodeGeneratorViewController implements Initializable {
         try {
             paymentAttachmentDAO = new PaymentAttachmentDAO();
 
-            // Load default template
-            Optional<PaymentAttachment> defaultTemplate = paymentAttachmentDAO.findDefault();
+            // Load default template from the compiled template cache
+            Optional<PaymentAttachmentTemplateCache.CompiledTemplate> defaultTemplate =
+                    PaymentAttachmentTemplateCache.getInstance().getDefault();
             if (defaultTemplate.isPresent()) {
-                selectedTemplate = defaultTemplate.get();
+                selectedTemplate = defaultTemplate.get().getAttachment();
                 System.out.println("Loaded default payment template: " + selectedTemplate.getName());
             } else {
                 // Fallback to first available template
@@ -640,62 +639,45 @@ public class BarcodeGeneratorViewController implements Initializable {
      */
     private String generateHUB3Data() {
         // Generate HUB-3 format data string with fixed bank code and EUR currency
-        StringBuilder hub3Data = new StringBuilder();
-
-        // 1. bazniKod: Bank code (hardcoded)
-        hub3Data.append(FIXED_BANK_CODE).append("\n");
-
-        // 2. Currency (hardcoded to EUR)
-        hub3Data.append(FIXED_CURRENCY).append("\n");
-
-        // 3. iznosTransakcije: Transaction amount
-        String amount = getCurrencyValueForHUB3(); // Get the value in cents
-        if (!amount.isEmpty() && !amount.equals("0")) {
-            // Format amount - pad with zeros to 15 digits
-            amount = String.format("%015d", Long.parseLong(amount));
-        } else {
-            amount = "000000000000000"; // 15 zeros for empty amount
-        }
-        hub3Data.append(amount).append("\n");
-
-        // 4. imePlatitelja: Payer name
-        hub3Data.append(payerNameField.getText().trim()).append("\n");
-
-        // 5. adresaPlatitelja: Payer address
-        hub3Data.append(payerAddressField.getText().trim()).append("\n");
-
-        // 6. postanskiBrojIMjestoPlatitelja: Payer postal code and city
-        hub3Data.append(payerCityField.getText().trim()).append("\n");
-
-        // 7. imePrimatelja: Recipient name
-        hub3Data.append(recipientNameField.getText().trim()).append("\n");
-
-        // 8. adresaPrimatelja: Recipient address
-        hub3Data.append(recipientAddressField.getText().trim()).append("\n");
-
-        // 9. postanskiBrojIMjestoPrimatelja: Recipient postal code and city
-        hub3Data.append(recipientCityField.getText().trim()).append("\n");
-
-        // 10. ibanPrimatelja: Recipient IBAN
-        hub3Data.append(ibanField.getText().trim()).append("\n");
-
-        // 11. modelPlacanja: Payment model (can be null/empty)
-        hub3Data.append(modelField.getText().trim()).append("\n");
-
-        // 12. pozivNaBroj: Reference number
-        hub3Data.append(referenceField.getText().trim()).append("\n");
-
-        // 13. sifraNamjene: Purpose code
-        hub3Data.append(purposeCodeField.getText().trim()).append("\n");
-
-        // 14. opisPlacanja: Payment description (no newline at the end)
-        hub3Data.append(descriptionField.getText().trim());
+        String hub3Data = buildHub3Payload(getCurrencyValueForHUB3(),
+                payerNameField.getText(), payerAddressField.getText(), payerCityField.getText(),
+                recipientNameField.getText(), recipientAddressField.getText(), recipientCityField.getText(),
+                ibanField.getText(), modelField.getText(), referenceField.getText(),
+                purposeCodeField.getText(), descriptionField.getText());
 
         System.out.println("Generated HUB-3 data (EUR currency, fixed bank code):");
-        System.out.println(hub3Data.toString());
+        System.out.println(hub3Data);
         System.out.println("Total length: " + hub3Data.length() + " characters");
 
-        return hub3Data.toString();
+        return hub3Data;
+    }
+
+    /**
+     * Builds the HUB-3 payload from the generator's form values. Every text value is
+     * trimmed and written as entered, without folding diacritics.
+     *
+     * @param amountCents Amount as a string of cents; empty or "0" is written as zero
+     * @return HUB-3 formatted payment data string
+     */
+    static String buildHub3Payload(String amountCents, String payerName, String payerAddress, String payerCity,
+                                   String recipientName, String recipientAddress, String recipientCity,
+                                   String iban, String model, String reference, String purposeCode,
+                                   String description) {
+        return Hub3Encoder.forCurrentThread()
+                .begin(false)
+                .amountCents(amountCents)          // iznosTransakcije, in cents
+                .field(payerName.trim())           // imePlatitelja
+                .field(payerAddress.trim())        // adresaPlatitelja
+                .field(payerCity.trim())           // postanskiBrojIMjestoPlatitelja
+                .field(recipientName.trim())       // imePrimatelja
+                .field(recipientAddress.trim())    // adresaPrimatelja
+                .field(recipientCity.trim())       // postanskiBrojIMjestoPrimatelja
+                .field(iban.trim())                // ibanPrimatelja
+                .field(model.trim())               // modelPlacanja
+                .field(reference.trim())           // pozivNaBroj
+                .field(purposeCode.trim())         // sifraNamjene
+                .field(description.trim())         // opisPlacanja
+                .encode();
     }
 
     /**
@@ -893,10 +875,8 @@ public class BarcodeGeneratorViewController implements Initializable {
         // Create HTML content using selected template
         String htmlContent = generatePaymentSlipHTML(template);
 
-        // Convert HTML to PDF using iText
-        try (FileOutputStream outputStream = new FileOutputStream(file)) {
-            HtmlConverter.convertToPdf(htmlContent, outputStream);
-        }
+        // Convert HTML to PDF using the shared iText pipeline
+        PdfRenderingService.getInstance().renderToFile(htmlContent, file);
     }
 
     /**
@@ -928,8 +908,8 @@ public class BarcodeGeneratorViewController implements Initializable {
         // Create variables map for template processing
         Map<String, String> variables = createVariableMap(barcodeBase64);
 
-        // Process template variables
-        return processTemplate(template.getHtmlContent(), variables);
+        // Render the cached compiled template
+        return PaymentAttachmentTemplateCache.getInstance().getCompiled(template).render(variables);
     }
 
 
@@ -966,7 +946,7 @@ public class BarcodeGeneratorViewController implements Initializable {
 
         // Technical
         variables.put("BARCODE_BASE64", barcodeBase64);
-        variables.put("BANK_CODE", FIXED_BANK_CODE);
+        variables.put("BANK_CODE", Hub3Encoder.HEADER);
 
         // NEW: Uplatnica background image as base64
         variables.put("BACKGROUND_IMAGE_BASE64", getUplatnicaBackgroundBase64());
@@ -1498,7 +1478,7 @@ public class BarcodeGeneratorViewController implements Initializable {
                 recipientCityField.getText(),
                 ibanField.getText(),
                 barcodeBase64,
-                FIXED_BANK_CODE
+                Hub3Encoder.HEADER
         );
     }
 
@@ -1,6 +1,5 @@
 package smallbusinessbuddycrm.controllers.utilities;
 
-import com.itextpdf.html2pdf.HtmlConverter;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -15,7 +14,6 @@ import javafx.stage.Stage;
 import javafx.stage.FileChooser;
 import javafx.embed.swing.SwingFXUtils;
 
-import java.io.FileOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import javafx.scene.web.WebView;
@@ -27,6 +25,9 @@ import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.pdf417.PDF417Writer;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
+import smallbusinessbuddycrm.services.PaymentAttachmentTemplateCache;
+import smallbusinessbuddycrm.services.Hub3Encoder;
+import smallbusinessbuddycrm.services.PdfRenderingService;
 import smallbusinessbuddycrm.services.google.GoogleOAuthManager;
 import javafx.application.Platform;
 
@@ -70,10 +71,6 @@ public class BarcodePaymentDialog {
     private Organization organization;
     private UnderagedMember currentUnderagedMember;
 
-    // Constants
-    private static final String FIXED_BANK_CODE = "HRVHUB30";
-    private static final String FIXED_CURRENCY = "EUR";
-
     public BarcodePaymentDialog(Stage parentStage, Contact contact) {
         this.contact = contact;
 
@@ -927,15 +924,11 @@ public class BarcodePaymentDialog {
         }
 
         // Convert HTML to PDF bytes
-        ByteArrayOutputStream pdfOutputStream = new ByteArrayOutputStream();
         try {
-            HtmlConverter.convertToPdf(htmlContent, pdfOutputStream);
-            return pdfOutputStream.toByteArray();
+            return PdfRenderingService.getInstance().renderToBytes(htmlContent);
         } catch (Exception e) {
             System.err.println("PDF conversion failed: " + e.getMessage());
             throw new Exception("Failed to convert HTML to PDF: " + e.getMessage());
-        } finally {
-            pdfOutputStream.close();
         }
     }
 
@@ -1316,98 +1309,59 @@ public class BarcodePaymentDialog {
      * UPDATED: Generate HUB-3 data with dynamic reference support
      */
     private String generateHUB3Data() {
-        StringBuilder hub3Data = new StringBuilder();
-
-        // 1. Bank code (hardcoded)
-        hub3Data.append(FIXED_BANK_CODE).append("\n");
-
-        // 2. Currency (hardcoded to EUR)
-        hub3Data.append(FIXED_CURRENCY).append("\n");
-
-        // 3. Transaction amount (in cents, 15 digits) - Use amount from field if available
-        String amountCents;
-        if (amountField != null && !amountField.getText().isEmpty()) {
-            amountCents = getCurrencyValueForHUB3();
-        } else {
-            amountCents = selectedTemplate.getAmount().multiply(new java.math.BigDecimal("100")).toBigInteger().toString();
-        }
-        hub3Data.append(String.format("%015d", Long.parseLong(amountCents))).append("\n");
-
-        // 4. Payer name
-        hub3Data.append(contact.getFirstName() + " " + contact.getLastName()).append("\n");
-
-        // 5. Payer address
-        String payerAddress = "";
-        if (contact.getStreetName() != null && !contact.getStreetName().trim().isEmpty()) {
-            payerAddress = contact.getStreetName();
-            if (contact.getStreetNum() != null && !contact.getStreetNum().trim().isEmpty()) {
-                payerAddress += " " + contact.getStreetNum();
-            }
-        }
-        hub3Data.append(payerAddress).append("\n");
-
-        // 6. Payer postal code and city
-        String payerCity = "";
-        if (contact.getPostalCode() != null && !contact.getPostalCode().trim().isEmpty()) {
-            payerCity = contact.getPostalCode();
-            if (contact.getCity() != null && !contact.getCity().trim().isEmpty()) {
-                payerCity += " " + contact.getCity();
-            }
-        } else if (contact.getCity() != null && !contact.getCity().trim().isEmpty()) {
-            payerCity = contact.getCity();
-        }
-        hub3Data.append(payerCity).append("\n");
-
-        // 7. Recipient name
-        hub3Data.append(organization.getName()).append("\n");
-
-        // 8. Recipient address
-        String recipientAddress = "";
-        if (organization.getStreetName() != null && !organization.getStreetName().trim().isEmpty()) {
-            recipientAddress = organization.getStreetName();
-            if (organization.getStreetNum() != null && !organization.getStreetNum().trim().isEmpty()) {
-                recipientAddress += " " + organization.getStreetNum();
-            }
-        }
-        hub3Data.append(recipientAddress).append("\n");
-
-        // 9. Recipient postal code and city
-        String recipientCity = "";
-        if (organization.getPostalCode() != null && !organization.getPostalCode().trim().isEmpty()) {
-            recipientCity = organization.getPostalCode();
-            if (organization.getCity() != null && !organization.getCity().trim().isEmpty()) {
-                recipientCity += " " + organization.getCity();
-            }
-        } else if (organization.getCity() != null && !organization.getCity().trim().isEmpty()) {
-            recipientCity = organization.getCity();
-        }
-        hub3Data.append(recipientCity).append("\n");
-
-        // 10. Recipient IBAN
-        hub3Data.append(organization.getIban()).append("\n");
-
-        // 11. Payment model
-        hub3Data.append(selectedTemplate.getModelOfPayment() != null ? selectedTemplate.getModelOfPayment() : "").append("\n");
+        // Amount from the field if the user edited it, otherwise from the template
+        String editedAmountCents = amountField != null && !amountField.getText().isEmpty() ? getCurrencyValueForHUB3() : null;
 
-        // 12. Reference number - UPDATED TO HANDLE DYNAMIC REFERENCES
+        // Reference number - UPDATED TO HANDLE DYNAMIC REFERENCES
         String reference = processReferenceTemplate(selectedTemplate.getPozivNaBroj(), contact, currentUnderagedMember);
         if (reference.isEmpty()) {
             reference = generatePozivNaBroj(contact.getId());
         }
-        hub3Data.append(reference).append("\n");
 
-        // 13. Purpose code
-        hub3Data.append("").append("\n"); // Usually empty
-
-        // 14. Payment description (no newline at the end) - Use TemplateProcessor
+        // Payment description - Use TemplateProcessor
         String processedDescription = TemplateProcessor.processTemplate(
                 selectedTemplate.getDescription(), contact, currentUnderagedMember);
-        hub3Data.append(processedDescription);
+
+        String hub3Data = buildHub3Payload(contact, organization, editedAmountCents, selectedTemplate.getAmount(),
+                selectedTemplate.getModelOfPayment(), reference, processedDescription);
 
         System.out.println("Generated HUB-3 data:");
-        System.out.println(hub3Data.toString());
+        System.out.println(hub3Data);
 
-        return hub3Data.toString();
+        return hub3Data;
+    }
+
+    /**
+     * HUB-3 payload of a single slip. Text is written as entered, without folding diacritics.
+     *
+     * @param editedAmountCents Amount typed into the amount field as a string of cents, or null to use the template amount
+     * @param templateAmount Amount of the payment template
+     * @param reference Reference with its template already filled in
+     * @param description Description with its template already filled in
+     */
+    static String buildHub3Payload(Contact payer, Organization organization, String editedAmountCents,
+                                   java.math.BigDecimal templateAmount, String modelOfPayment,
+                                   String reference, String description) {
+        Hub3Encoder encoder = Hub3Encoder.forCurrentThread().begin(false);
+        if (editedAmountCents != null) {
+            encoder.amountCents(editedAmountCents);
+        } else {
+            encoder.amount(templateAmount);
+        }
+
+        return encoder
+                .field(payer.getFirstName() + " " + payer.getLastName())
+                .address(payer.getStreetName(), payer.getStreetNum())
+                .place(payer.getPostalCode(), payer.getCity())
+                .field(organization.getName())
+                .address(organization.getStreetName(), organization.getStreetNum())
+                .place(organization.getPostalCode(), organization.getCity())
+                .field(organization.getIban())
+                .field(modelOfPayment)
+                .field(reference)
+                .field("") // Purpose code, usually empty
+                .field(description)
+                .encode();
     }
 
     private void generateBarcodeImage() throws WriterException {
@@ -1564,10 +1518,10 @@ public class BarcodePaymentDialog {
             htmlContent = generateUplatnicaHtml(); // Your Croatian template using utility
         }
 
-        // Convert HTML to PDF using iText
-        try (FileOutputStream outputStream = new FileOutputStream(file)) {
-            HtmlConverter.convertToPdf(htmlContent, outputStream);
-            System.out.println("✅ PDF saved successfully: " + file.getAbsolutePath());
+        // Convert HTML to PDF using the shared iText pipeline
+        try {
+            long renderMillis = PdfRenderingService.getInstance().renderToFile(htmlContent, file);
+            System.out.println("✅ PDF saved successfully in " + renderMillis + " ms: " + file.getAbsolutePath());
         } catch (Exception e) {
             System.err.println("❌ PDF conversion failed: " + e.getMessage());
             throw new Exception("Failed to convert HTML to PDF: " + e.getMessage());
@@ -1584,8 +1538,8 @@ public class BarcodePaymentDialog {
             // Create variables map for template processing
             Map<String, String> variables = createVariableMap(barcodeBase64);
 
-            // Process template variables
-            return processTemplate(template.getHtmlContent(), variables);
+            // Render the cached compiled template
+            return PaymentAttachmentTemplateCache.getInstance().getCompiled(template).render(variables);
         } else {
             // Fallback to Croatian template using utility
             return UplatnicaHtmlGenerator.generateUplatnicaHtml(
@@ -1683,19 +1637,6 @@ public class BarcodePaymentDialog {
         return variables;
     }
 
-    // Process template by replacing variables
-    private String processTemplate(String template, Map<String, String> variables) {
-        String result = template;
-
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            String value = entry.getValue() != null ? entry.getValue() : "";
-            result = result.replace(placeholder, value);
-        }
-
-        return result;
-    }
-
     private PaymentAttachment showTemplateSelectionDialog() {
         try {
             // Check if DAO is properly initialized
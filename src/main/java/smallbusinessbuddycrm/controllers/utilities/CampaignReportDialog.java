@@ -0,0 +1,291 @@
+package smallbusinessbuddycrm.controllers.utilities;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import smallbusinessbuddycrm.database.EmailOutboxDAO;
+import smallbusinessbuddycrm.model.CampaignDeliveryStats;
+import smallbusinessbuddycrm.services.google.CampaignMetrics;
+import smallbusinessbuddycrm.services.google.EmailOutboxDispatcher;
+import smallbusinessbuddycrm.utilities.LanguageManager;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Delivery report of the email campaigns in the outbox.
+ *
+ * Totals per campaign come from the outbox table; latency, bytes, HTTP statuses,
+ * rate limiter waits and live throughput come from the dispatcher's CampaignMetrics
+ * for campaigns sent since the application started. The view refreshes every two
+ * seconds, so a running campaign shows its current emails/min and ETA.
+ */
+public class CampaignReportDialog {
+
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(2);
+    private static final int HISTOGRAM_BAR_WIDTH = 40;
+
+    private final LanguageManager languageManager;
+    private final EmailOutboxDAO outboxDAO;
+    private final EmailOutboxDispatcher dispatcher;
+
+    private Stage dialog;
+    private TableView<CampaignDeliveryStats> campaignTable;
+    private TextArea detailsArea;
+    private Label updatedLabel;
+    private Timeline refreshTimeline;
+
+    // Latest live metrics, read on the JavaFX Application Thread only
+    private Map<String, CampaignMetrics.Snapshot> liveMetrics = new HashMap<>();
+    private volatile boolean loading = false;
+
+    public CampaignReportDialog(Window owner) {
+        this.languageManager = LanguageManager.getInstance();
+        this.outboxDAO = new EmailOutboxDAO();
+        this.dispatcher = EmailOutboxDispatcher.getInstance();
+
+        createDialog(owner);
+    }
+
+    private void createDialog(Window owner) {
+        dialog = new Stage();
+        dialog.initModality(Modality.NONE);
+        dialog.initOwner(owner);
+        dialog.setTitle("📊 " + languageManager.getText("campaign.report.title"));
+        dialog.setResizable(true);
+
+        VBox mainLayout = new VBox(15);
+        mainLayout.setPadding(new Insets(20));
+
+        Label titleLabel = new Label("📊 " + languageManager.getText("campaign.report.header"));
+        titleLabel.setFont(Font.font("System", FontWeight.BOLD, 18));
+        titleLabel.setStyle("-fx-text-fill: #0099cc;");
+
+        campaignTable = createCampaignTable();
+        VBox.setVgrow(campaignTable, Priority.ALWAYS);
+
+        detailsArea = new TextArea(languageManager.getText("campaign.report.details.select"));
+        detailsArea.setEditable(false);
+        detailsArea.setPrefRowCount(14);
+        detailsArea.setStyle("-fx-font-family: 'Courier New', monospace; -fx-font-size: 11px; -fx-background-color: #fafafa;");
+
+        mainLayout.getChildren().addAll(titleLabel, campaignTable, detailsArea, createButtonSection());
+
+        Scene scene = new Scene(mainLayout, 1100, 700);
+        dialog.setScene(scene);
+
+        refreshTimeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refresh()));
+        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
+        dialog.setOnShown(e -> {
+            refresh();
+            refreshTimeline.play();
+        });
+        dialog.setOnHidden(e -> refreshTimeline.stop());
+    }
+
+    private TableView<CampaignDeliveryStats> createCampaignTable() {
+        TableView<CampaignDeliveryStats> table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.setPlaceholder(new Label(languageManager.getText("campaign.report.no.campaigns")));
+
+        table.getColumns().add(column("campaign.report.column.campaign", 220, stats ->
+                stats.getName() + " — " + stats.getSubject()));
+        table.getColumns().add(column("campaign.report.column.created", 110, stats ->
+                stats.getCreatedAt() != null ? stats.getCreatedAt().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")) : ""));
+        table.getColumns().add(column("campaign.report.column.sent", 60, stats -> String.valueOf(stats.getSent())));
+        table.getColumns().add(column("campaign.report.column.failed", 60, stats -> String.valueOf(stats.getFailed())));
+        table.getColumns().add(column("campaign.report.column.remaining", 70, stats -> String.valueOf(stats.getRemaining())));
+        table.getColumns().add(column("campaign.report.column.retries", 60, stats -> String.valueOf(stats.getRetries())));
+        table.getColumns().add(column("campaign.report.column.latency", 110, stats -> live(stats)
+                .map(metrics -> metrics.getAverageLatencyMillis() + " / " + metrics.getP95LatencyMillis() + " ms")
+                .orElse("")));
+        table.getColumns().add(column("campaign.report.column.data", 80, stats -> live(stats)
+                .map(metrics -> formatBytes(metrics.getBytesSent()))
+                .orElse("")));
+        table.getColumns().add(column("campaign.report.column.throughput", 80, stats -> live(stats)
+                .map(metrics -> String.format("%.1f", metrics.getEmailsPerMinute()))
+                .orElse("")));
+        table.getColumns().add(column("campaign.report.column.eta", 80, stats -> stats.getRemaining() == 0 ? "" :
+                live(stats).map(metrics -> formatEta(metrics.estimateRemainingMillis(stats.getRemaining())))
+                        .orElse(languageManager.getText("campaign.report.eta.unknown"))));
+
+        table.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) -> showDetails(selected));
+        return table;
+    }
+
+    private TableColumn<CampaignDeliveryStats, String> column(String titleKey, double width,
+                                                               Function<CampaignDeliveryStats, String> value) {
+        TableColumn<CampaignDeliveryStats, String> column = new TableColumn<>(languageManager.getText(titleKey));
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cellData -> new SimpleStringProperty(value.apply(cellData.getValue())));
+        return column;
+    }
+
+    private HBox createButtonSection() {
+        HBox buttonBox = new HBox(15);
+        buttonBox.setAlignment(Pos.CENTER_RIGHT);
+
+        updatedLabel = new Label();
+        updatedLabel.setStyle("-fx-text-fill: #666; -fx-font-size: 11px;");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Button refreshButton = new Button("🔄 " + languageManager.getText("campaign.report.button.refresh"));
+        refreshButton.setStyle("-fx-background-color: #17a2b8; -fx-text-fill: white; -fx-padding: 8 16; -fx-border-radius: 4;");
+        refreshButton.setOnAction(e -> refresh());
+
+        Button closeButton = new Button(languageManager.getText("campaign.report.button.close"));
+        closeButton.setStyle("-fx-background-color: #6c757d; -fx-text-fill: white; -fx-padding: 8 16; -fx-border-radius: 4;");
+        closeButton.setOnAction(e -> dialog.close());
+
+        buttonBox.getChildren().addAll(updatedLabel, spacer, refreshButton, closeButton);
+        return buttonBox;
+    }
+
+    /**
+     * Reloads the outbox totals on a background thread and the live metrics with them.
+     */
+    private void refresh() {
+        if (loading) {
+            return;
+        }
+        loading = true;
+
+        Thread loader = new Thread(() -> {
+            try {
+                List<CampaignDeliveryStats> stats = outboxDAO.findCampaignStats();
+                Map<String, CampaignMetrics.Snapshot> metrics = new HashMap<>();
+                for (CampaignDeliveryStats campaign : stats) {
+                    dispatcher.getCampaignMetrics(campaign.getCampaignId())
+                            .ifPresent(snapshot -> metrics.put(campaign.getCampaignId(), snapshot));
+                }
+
+                Platform.runLater(() -> {
+                    String selectedId = Optional.ofNullable(campaignTable.getSelectionModel().getSelectedItem())
+                            .map(CampaignDeliveryStats::getCampaignId)
+                            .orElse(null);
+
+                    liveMetrics = metrics;
+                    campaignTable.getItems().setAll(stats);
+                    if (selectedId != null) {
+                        stats.stream()
+                                .filter(campaign -> selectedId.equals(campaign.getCampaignId()))
+                                .findFirst()
+                                .ifPresent(campaign -> campaignTable.getSelectionModel().select(campaign));
+                    }
+                    updatedLabel.setText(languageManager.getText("campaign.report.last.updated")
+                            .replace("{0}", LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"))));
+                });
+            } catch (Exception e) {
+                System.err.println("Error loading campaign report: " + e.getMessage());
+            } finally {
+                loading = false;
+            }
+        }, "campaign-report-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void showDetails(CampaignDeliveryStats stats) {
+        if (stats == null) {
+            detailsArea.setText(languageManager.getText("campaign.report.details.select"));
+            return;
+        }
+
+        StringBuilder details = new StringBuilder();
+        details.append(stats.getName()).append(" — ").append(stats.getSubject()).append('\n');
+        details.append(languageManager.getText("campaign.report.details.totals")
+                .replace("{0}", String.valueOf(stats.getSent()))
+                .replace("{1}", String.valueOf(stats.getFailed()))
+                .replace("{2}", String.valueOf(stats.getRemaining()))
+                .replace("{3}", String.valueOf(stats.getCancelled()))
+                .replace("{4}", String.valueOf(stats.getRetries())))
+                .append("\n\n");
+
+        Optional<CampaignMetrics.Snapshot> live = live(stats);
+        if (live.isEmpty()) {
+            details.append(languageManager.getText("campaign.report.details.no.metrics"));
+            detailsArea.setText(details.toString());
+            return;
+        }
+
+        CampaignMetrics.Snapshot metrics = live.get();
+        details.append(languageManager.getText("campaign.report.details.attempts")
+                .replace("{0}", String.valueOf(metrics.getAttempts()))
+                .replace("{1}", String.valueOf(metrics.getRetried())))
+                .append('\n');
+        details.append(languageManager.getText("campaign.report.details.rate.wait")
+                .replace("{0}", formatDuration(metrics.getRateLimitWaitMillis())))
+                .append("\n\n");
+
+        details.append(languageManager.getText("campaign.report.details.latency")
+                .replace("{0}", String.valueOf(metrics.getP50LatencyMillis()))
+                .replace("{1}", String.valueOf(metrics.getP95LatencyMillis()))
+                .replace("{2}", String.valueOf(metrics.getMaxLatencyMillis())))
+                .append('\n');
+        long[] histogram = metrics.getLatencyHistogram();
+        String[] labels = CampaignMetrics.getLatencyBucketLabels();
+        long largest = 1;
+        for (long count : histogram) {
+            largest = Math.max(largest, count);
+        }
+        for (int i = 0; i < histogram.length; i++) {
+            int width = (int) Math.round((double) histogram[i] / largest * HISTOGRAM_BAR_WIDTH);
+            details.append(String.format("%12s │%s %d%n", labels[i], "█".repeat(width), histogram[i]));
+        }
+
+        details.append('\n').append(languageManager.getText("campaign.report.details.status")).append('\n');
+        metrics.getStatusCounts().forEach((status, count) ->
+                details.append(String.format("%12s   %d%n", status == 0 ? "—" : String.valueOf(status), count)));
+
+        detailsArea.setText(details.toString());
+    }
+
+    private Optional<CampaignMetrics.Snapshot> live(CampaignDeliveryStats stats) {
+        return Optional.ofNullable(liveMetrics.get(stats.getCampaignId()));
+    }
+
+    private String formatEta(long millis) {
+        return millis < 0 ? languageManager.getText("campaign.report.eta.unknown") : formatDuration(millis);
+    }
+
+    static String formatDuration(long millis) {
+        long seconds = millis / 1000;
+        if (seconds < 60) {
+            return seconds + " s";
+        }
+        if (seconds < 3600) {
+            return (seconds / 60) + " min " + (seconds % 60) + " s";
+        }
+        return (seconds / 3600) + " h " + (seconds % 3600 / 60) + " min";
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    public void show() {
+        dialog.show();
+    }
+}
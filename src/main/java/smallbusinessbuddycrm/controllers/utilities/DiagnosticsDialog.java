@@ -0,0 +1,463 @@
+package smallbusinessbuddycrm.controllers.utilities;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import smallbusinessbuddycrm.database.DatabaseConnection;
+import smallbusinessbuddycrm.database.IndexAdvisor;
+import smallbusinessbuddycrm.database.SlowQueryLog;
+import smallbusinessbuddycrm.services.metrics.MetricsDumper;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry.MetricSnapshot;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry.MetricType;
+import smallbusinessbuddycrm.utilities.LanguageManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * In-app view of the metrics registry.
+ *
+ * Lists every counter, timer and histogram recorded since the application started:
+ * query time, rows and bytes per DAO method, view load times and the stages of slip
+ * generation and email sending. The table refreshes every two seconds and can be
+ * filtered by name; the current values can be exported as JSON for offline analysis.
+ *
+ * The queries tab lists the database workload from the SlowQueryLog, aggregated by
+ * normalized SQL. Queries whose plan reads a whole table or sorts through a temporary
+ * B-tree are flagged; selecting a query shows its callers, plan and the parameters of
+ * its latest slow execution. The index advice runs the IndexAdvisor over the recorded
+ * workload and can save its suggestions as an SQL migration.
+ */
+public class DiagnosticsDialog {
+
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(2);
+
+    private final LanguageManager languageManager;
+    private final MetricsRegistry registry;
+    private final SlowQueryLog queryLog;
+
+    private Stage dialog;
+    private TableView<MetricSnapshot> metricsTable;
+    private TextField filterField;
+    private TableView<SlowQueryLog.QueryStats> queryTable;
+    private CheckBox flaggedOnlyCheckBox;
+    private TextArea queryDetailsArea;
+    private Button adviceButton;
+    private Button saveMigrationButton;
+    private IndexAdvisor.Report indexReport;
+    private Label updatedLabel;
+    private Timeline refreshTimeline;
+
+    public DiagnosticsDialog(Window owner) {
+        this.languageManager = LanguageManager.getInstance();
+        this.registry = MetricsRegistry.getInstance();
+        this.queryLog = SlowQueryLog.getInstance();
+
+        createDialog(owner);
+    }
+
+    private void createDialog(Window owner) {
+        dialog = new Stage();
+        dialog.initModality(Modality.NONE);
+        dialog.initOwner(owner);
+        dialog.setTitle("📊 " + languageManager.getText("diagnostics.title"));
+        dialog.setResizable(true);
+
+        VBox mainLayout = new VBox(15);
+        mainLayout.setPadding(new Insets(20));
+
+        Label titleLabel = new Label("📊 " + languageManager.getText("diagnostics.header"));
+        titleLabel.setFont(Font.font("System", FontWeight.BOLD, 18));
+        titleLabel.setStyle("-fx-text-fill: #0099cc;");
+
+        Label hintLabel = new Label(languageManager.getText("diagnostics.hint"));
+        hintLabel.setWrapText(true);
+        hintLabel.setStyle("-fx-text-fill: #666; -fx-font-size: 11px;");
+
+        filterField = new TextField();
+        filterField.setPromptText(languageManager.getText("diagnostics.filter.prompt"));
+        filterField.textProperty().addListener((obs, old, text) -> refresh());
+
+        metricsTable = createMetricsTable();
+        VBox.setVgrow(metricsTable, Priority.ALWAYS);
+
+        VBox metricsBox = new VBox(10, filterField, metricsTable);
+        metricsBox.setPadding(new Insets(10, 0, 0, 0));
+        Tab metricsTab = new Tab(languageManager.getText("diagnostics.tab.metrics"), metricsBox);
+        Tab queriesTab = new Tab(languageManager.getText("diagnostics.tab.queries"), createQueriesSection());
+
+        TabPane tabPane = new TabPane(metricsTab, queriesTab);
+        tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        VBox.setVgrow(tabPane, Priority.ALWAYS);
+
+        mainLayout.getChildren().addAll(titleLabel, hintLabel, tabPane, createButtonSection());
+
+        Scene scene = new Scene(mainLayout, 1100, 700);
+        dialog.setScene(scene);
+
+        refreshTimeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refresh()));
+        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
+        dialog.setOnShown(e -> {
+            refresh();
+            refreshTimeline.play();
+        });
+        dialog.setOnHidden(e -> refreshTimeline.stop());
+    }
+
+    private TableView<MetricSnapshot> createMetricsTable() {
+        TableView<MetricSnapshot> table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        table.setPlaceholder(new Label(languageManager.getText("diagnostics.no.metrics")));
+
+        table.getColumns().add(column("diagnostics.column.name", 380, MetricSnapshot::getName));
+        table.getColumns().add(column("diagnostics.column.type", 80, metric ->
+                languageManager.getText("diagnostics.type." + metric.getType().name().toLowerCase(Locale.ROOT))));
+        table.getColumns().add(column("diagnostics.column.count", 70, metric -> String.valueOf(metric.getCount())));
+        table.getColumns().add(column("diagnostics.column.total", 90, metric -> value(metric, metric.getTotal())));
+        table.getColumns().add(column("diagnostics.column.mean", 80, metric -> value(metric, metric.getMean())));
+        table.getColumns().add(column("diagnostics.column.p50", 80, metric -> value(metric, metric.getP50())));
+        table.getColumns().add(column("diagnostics.column.p95", 80, metric -> value(metric, metric.getP95())));
+        table.getColumns().add(column("diagnostics.column.max", 80, metric -> value(metric, metric.getMax())));
+        return table;
+    }
+
+    private VBox createQueriesSection() {
+        flaggedOnlyCheckBox = new CheckBox(languageManager.getText("diagnostics.queries.flagged.only"));
+        flaggedOnlyCheckBox.setOnAction(e -> refresh());
+
+        Label thresholdLabel = new Label(languageManager.getText("diagnostics.queries.threshold")
+                .replace("{0}", String.valueOf(queryLog.getThresholdMillis())));
+        thresholdLabel.setStyle("-fx-text-fill: #666; -fx-font-size: 11px;");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        adviceButton = new Button("🔍 " + languageManager.getText("diagnostics.queries.button.advice"));
+        adviceButton.setStyle("-fx-background-color: #0099cc; -fx-text-fill: white; -fx-padding: 6 12; -fx-border-radius: 4;");
+        adviceButton.setOnAction(e -> runIndexAdvice());
+
+        saveMigrationButton = new Button("💾 " + languageManager.getText("diagnostics.queries.button.save.migration"));
+        saveMigrationButton.setStyle("-fx-background-color: #28a745; -fx-text-fill: white; -fx-padding: 6 12; -fx-border-radius: 4;");
+        saveMigrationButton.setDisable(true);
+        saveMigrationButton.setOnAction(e -> saveMigration());
+
+        HBox optionsBox = new HBox(15, flaggedOnlyCheckBox, spacer, thresholdLabel, adviceButton, saveMigrationButton);
+        optionsBox.setAlignment(Pos.CENTER_LEFT);
+
+        queryTable = new TableView<>();
+        queryTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        queryTable.setPlaceholder(new Label(languageManager.getText("diagnostics.queries.none")));
+        queryTable.getColumns().add(column("diagnostics.queries.column.sql", 420, SlowQueryLog.QueryStats::getSql));
+        queryTable.getColumns().add(column("diagnostics.queries.column.calls", 60, query -> String.valueOf(query.getCount())));
+        queryTable.getColumns().add(column("diagnostics.queries.column.total", 80, query ->
+                String.format("%.0f ms", query.getTotalNanos() / 1_000_000.0)));
+        queryTable.getColumns().add(column("diagnostics.queries.column.average", 80, query ->
+                String.format("%.2f ms", query.getAverageMillis())));
+        queryTable.getColumns().add(column("diagnostics.queries.column.max", 80, query ->
+                String.format("%.0f ms", query.getMaxNanos() / 1_000_000.0)));
+        queryTable.getColumns().add(column("diagnostics.queries.column.slow", 50, query -> String.valueOf(query.getSlowCount())));
+        queryTable.getColumns().add(column("diagnostics.queries.column.plan", 170, this::planSummary));
+        queryTable.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) -> showQueryDetails(selected));
+        VBox.setVgrow(queryTable, Priority.ALWAYS);
+
+        queryDetailsArea = new TextArea(languageManager.getText("diagnostics.queries.details.select"));
+        queryDetailsArea.setEditable(false);
+        queryDetailsArea.setPrefRowCount(10);
+        queryDetailsArea.setWrapText(true);
+        queryDetailsArea.setStyle("-fx-font-family: 'Courier New', monospace; -fx-font-size: 11px; -fx-background-color: #fafafa;");
+
+        VBox queriesBox = new VBox(10, optionsBox, queryTable, queryDetailsArea);
+        queriesBox.setPadding(new Insets(10, 0, 0, 0));
+        return queriesBox;
+    }
+
+    private String planSummary(SlowQueryLog.QueryStats query) {
+        if (!query.hasPlan()) {
+            return "";
+        }
+        if (!query.getFullScanTables().isEmpty()) {
+            return "⚠️ " + languageManager.getText("diagnostics.queries.plan.full.scan")
+                    .replace("{0}", String.join(", ", query.getFullScanTables()));
+        }
+        if (query.usesTempBTree()) {
+            return "⚠️ " + languageManager.getText("diagnostics.queries.plan.temp.btree");
+        }
+        return "✅ " + languageManager.getText("diagnostics.queries.plan.indexed");
+    }
+
+    private boolean isFlagged(SlowQueryLog.QueryStats query) {
+        return !query.getFullScanTables().isEmpty() || query.usesTempBTree();
+    }
+
+    private void showQueryDetails(SlowQueryLog.QueryStats query) {
+        if (query == null) {
+            queryDetailsArea.setText(languageManager.getText("diagnostics.queries.details.select"));
+            return;
+        }
+
+        StringBuilder details = new StringBuilder();
+        details.append(query.getSql()).append("\n\n");
+        details.append(languageManager.getText("diagnostics.queries.details.callers"))
+                .append(' ').append(String.join(", ", query.getOperations())).append('\n');
+        details.append(languageManager.getText("diagnostics.queries.details.rows"))
+                .append(' ').append(query.getRows()).append('\n');
+        if (query.getLastSlowParameters() != null) {
+            details.append(languageManager.getText("diagnostics.queries.details.parameters"))
+                    .append(' ').append(query.getLastSlowParameters().isEmpty() ? "—" : query.getLastSlowParameters())
+                    .append('\n');
+        }
+        details.append('\n').append(languageManager.getText("diagnostics.queries.details.plan")).append('\n');
+        if (query.hasPlan()) {
+            query.getPlan().forEach(line -> details.append("  ").append(line).append('\n'));
+        } else {
+            details.append("  ").append(languageManager.getText("diagnostics.queries.details.no.plan")).append('\n');
+        }
+        queryDetailsArea.setText(details.toString());
+    }
+
+    /**
+     * Reviews the indexes against the queries recorded so far and shows the report
+     * in the details pane.
+     */
+    private void runIndexAdvice() {
+        adviceButton.setDisable(true);
+        queryTable.getSelectionModel().clearSelection();
+        queryDetailsArea.setText(languageManager.getText("diagnostics.queries.advice.running"));
+
+        List<SlowQueryLog.QueryStats> workload = queryLog.getQueryStats();
+        Task<IndexAdvisor.Report> adviceTask = new Task<>() {
+            @Override
+            protected IndexAdvisor.Report call() throws Exception {
+                try (Connection conn = DatabaseConnection.openConnection()) {
+                    return IndexAdvisor.analyze(conn, workload);
+                }
+            }
+
+            @Override
+            protected void succeeded() {
+                adviceButton.setDisable(false);
+                indexReport = getValue();
+                queryTable.getSelectionModel().clearSelection();
+                queryDetailsArea.setText(indexReport.format());
+                saveMigrationButton.setDisable(indexReport.migrationStatements(false).isEmpty());
+            }
+
+            @Override
+            protected void failed() {
+                adviceButton.setDisable(false);
+                System.err.println("❌ Error reviewing indexes: " + getException().getMessage());
+                queryDetailsArea.setText(languageManager.getText("diagnostics.queries.advice.error") + "\n"
+                        + getException().getMessage());
+            }
+        };
+
+        Thread thread = new Thread(adviceTask, "index-advice");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Saves the suggested index changes as an SQL script. Write throughput before and
+     * after the changes is measured on a copy of the database and noted in the script.
+     */
+    private void saveMigration() {
+        if (indexReport == null) {
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(languageManager.getText("diagnostics.queries.migration.title"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("SQL", "*.sql"));
+        fileChooser.setInitialFileName("index-migration-" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".sql");
+        File file = fileChooser.showSaveDialog(dialog);
+        if (file == null) {
+            return;
+        }
+
+        IndexAdvisor.Report report = indexReport;
+        saveMigrationButton.setDisable(true);
+        queryDetailsArea.appendText("\n" + languageManager.getText("diagnostics.queries.migration.measuring") + "\n");
+
+        Task<IndexAdvisor.WriteThroughput> migrationTask = new Task<>() {
+            @Override
+            protected IndexAdvisor.WriteThroughput call() throws Exception {
+                IndexAdvisor.WriteThroughput throughput;
+                try (Connection conn = DatabaseConnection.openConnection()) {
+                    throughput = IndexAdvisor.compareWriteThroughput(conn, report.migrationStatements(false),
+                            report.affectedTables(false), IndexAdvisor.DEFAULT_THROUGHPUT_ROWS);
+                }
+                Files.writeString(file.toPath(), report.toMigrationScript(false, throughput), StandardCharsets.UTF_8);
+                return throughput;
+            }
+
+            @Override
+            protected void succeeded() {
+                saveMigrationButton.setDisable(false);
+                getValue().format().forEach(line -> queryDetailsArea.appendText("  " + line + "\n"));
+                queryDetailsArea.appendText("✅ " + languageManager.getText("diagnostics.queries.migration.saved")
+                        .replace("{0}", file.getAbsolutePath()) + "\n");
+                System.out.println("✅ Index migration saved to " + file.getAbsolutePath());
+            }
+
+            @Override
+            protected void failed() {
+                saveMigrationButton.setDisable(false);
+                System.err.println("❌ Error saving index migration: " + getException().getMessage());
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.initOwner(dialog);
+                alert.setTitle(languageManager.getText("diagnostics.queries.migration.title"));
+                alert.setHeaderText(null);
+                alert.setContentText(languageManager.getText("diagnostics.queries.migration.error") + "\n"
+                        + getException().getMessage());
+                alert.showAndWait();
+            }
+        };
+
+        Thread thread = new Thread(migrationTask, "index-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private <T> TableColumn<T, String> column(String titleKey, double width, Function<T, String> value) {
+        TableColumn<T, String> column = new TableColumn<>(languageManager.getText(titleKey));
+        column.setPrefWidth(width);
+        column.setCellValueFactory(cellData -> new SimpleStringProperty(value.apply(cellData.getValue())));
+        return column;
+    }
+
+    private HBox createButtonSection() {
+        HBox buttonBox = new HBox(15);
+        buttonBox.setAlignment(Pos.CENTER_RIGHT);
+
+        updatedLabel = new Label();
+        updatedLabel.setStyle("-fx-text-fill: #666; -fx-font-size: 11px;");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Button exportButton = new Button("📤 " + languageManager.getText("diagnostics.button.export"));
+        exportButton.setStyle("-fx-background-color: #28a745; -fx-text-fill: white; -fx-padding: 8 16; -fx-border-radius: 4;");
+        exportButton.setOnAction(e -> exportJson());
+
+        Button resetButton = new Button(languageManager.getText("diagnostics.button.reset"));
+        resetButton.setStyle("-fx-background-color: #ffc107; -fx-text-fill: #212529; -fx-padding: 8 16; -fx-border-radius: 4;");
+        resetButton.setOnAction(e -> {
+            registry.reset();
+            queryLog.reset();
+            refresh();
+        });
+
+        Button refreshButton = new Button("🔄 " + languageManager.getText("diagnostics.button.refresh"));
+        refreshButton.setStyle("-fx-background-color: #17a2b8; -fx-text-fill: white; -fx-padding: 8 16; -fx-border-radius: 4;");
+        refreshButton.setOnAction(e -> refresh());
+
+        Button closeButton = new Button(languageManager.getText("diagnostics.button.close"));
+        closeButton.setStyle("-fx-background-color: #6c757d; -fx-text-fill: white; -fx-padding: 8 16; -fx-border-radius: 4;");
+        closeButton.setOnAction(e -> dialog.close());
+
+        buttonBox.getChildren().addAll(updatedLabel, spacer, exportButton, resetButton, refreshButton, closeButton);
+        return buttonBox;
+    }
+
+    /**
+     * Reads a new snapshot. Snapshots come from memory, so this runs on the
+     * JavaFX Application Thread.
+     */
+    private void refresh() {
+        String filter = filterField.getText() == null ? "" : filterField.getText().trim().toLowerCase(Locale.ROOT);
+        List<MetricSnapshot> metrics = registry.snapshot();
+        if (!filter.isEmpty()) {
+            metrics.removeIf(metric -> !metric.getName().toLowerCase(Locale.ROOT).contains(filter));
+        }
+
+        String selectedName = metricsTable.getSelectionModel().getSelectedItem() != null ?
+                metricsTable.getSelectionModel().getSelectedItem().getName() : null;
+        metricsTable.getItems().setAll(metrics);
+        if (selectedName != null) {
+            metrics.stream()
+                    .filter(metric -> selectedName.equals(metric.getName()))
+                    .findFirst()
+                    .ifPresent(metric -> metricsTable.getSelectionModel().select(metric));
+        }
+
+        List<SlowQueryLog.QueryStats> queries = queryLog.getQueryStats();
+        if (flaggedOnlyCheckBox.isSelected()) {
+            queries.removeIf(query -> !isFlagged(query));
+        }
+        String selectedSql = queryTable.getSelectionModel().getSelectedItem() != null ?
+                queryTable.getSelectionModel().getSelectedItem().getSql() : null;
+        queryTable.getItems().setAll(queries);
+        if (selectedSql != null) {
+            queries.stream()
+                    .filter(query -> selectedSql.equals(query.getSql()))
+                    .findFirst()
+                    .ifPresent(query -> queryTable.getSelectionModel().select(query));
+        }
+
+        updatedLabel.setText(languageManager.getText("diagnostics.last.updated")
+                .replace("{0}", LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss")))
+                .replace("{1}", CampaignReportDialog.formatDuration(System.currentTimeMillis() - registry.getStartedAt())));
+    }
+
+    private void exportJson() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(languageManager.getText("diagnostics.export.title"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON", "*.json"));
+        fileChooser.setInitialFileName("sbb-metrics-" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+
+        File file = fileChooser.showSaveDialog(dialog);
+        if (file == null) {
+            return;
+        }
+
+        try {
+            MetricsDumper.dumpTo(file.toPath());
+            System.out.println("✅ Metrics exported to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("❌ Error exporting metrics: " + e.getMessage());
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.initOwner(dialog);
+            alert.setTitle(languageManager.getText("diagnostics.export.title"));
+            alert.setHeaderText(null);
+            alert.setContentText(languageManager.getText("diagnostics.export.error") + "\n" + e.getMessage());
+            alert.showAndWait();
+        }
+    }
+
+    private static String value(MetricSnapshot metric, double value) {
+        if (metric.getType() == MetricType.COUNTER) {
+            return "";
+        }
+        if (metric.getType() == MetricType.TIMER) {
+            return String.format("%.2f ms", value);
+        }
+        return String.format("%.0f", value);
+    }
+
+    public void show() {
+        dialog.show();
+    }
+}
@@ -0,0 +1,93 @@
+package smallbusinessbuddycrm.controllers.utilities;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import smallbusinessbuddycrm.services.export.CsvExportTask;
+import smallbusinessbuddycrm.utilities.LanguageManager;
+
+/**
+ * Small window showing the progress of a CSV export running in the background,
+ * with a button to cancel it.
+ *
+ * The export runs on a daemon thread, so the application stays responsive; the window
+ * only keeps the user from starting a second export of the same view meanwhile. It
+ * closes itself when the task ends, before the task's succeeded() or failed() shows
+ * the result.
+ */
+public class ExportProgressDialog {
+
+    private final LanguageManager languageManager;
+    private final CsvExportTask task;
+    private Stage dialog;
+
+    public ExportProgressDialog(Window owner, String message, CsvExportTask task) {
+        this.languageManager = LanguageManager.getInstance();
+        this.task = task;
+
+        createDialog(owner, message);
+    }
+
+    private void createDialog(Window owner, String message) {
+        dialog = new Stage();
+        dialog.initModality(Modality.WINDOW_MODAL);
+        dialog.initOwner(owner);
+        dialog.setTitle(languageManager.getText("export.progress.title"));
+        dialog.setResizable(false);
+
+        Label messageLabel = new Label(message);
+        messageLabel.setFont(Font.font("System", FontWeight.BOLD, 14));
+
+        Label fileLabel = new Label(languageManager.getText("export.progress.file")
+                .replace("{0}", task.getTarget().getName()));
+        fileLabel.setStyle("-fx-text-fill: #666666;");
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(360);
+        progressBar.progressProperty().bind(task.progressProperty());
+
+        Button cancelButton = new Button(languageManager.getText("export.progress.cancel"));
+        cancelButton.setStyle("-fx-background-color: #6c757d; -fx-text-fill: white; -fx-padding: 8 16; -fx-border-radius: 4;");
+        cancelButton.setOnAction(e -> task.cancel());
+
+        HBox buttonBox = new HBox(cancelButton);
+        buttonBox.setAlignment(Pos.CENTER_RIGHT);
+
+        VBox layout = new VBox(12, messageLabel, fileLabel, progressBar, buttonBox);
+        layout.setPadding(new Insets(20));
+
+        dialog.setScene(new Scene(layout));
+
+        // Closing the window cancels the export; the window closes once the task has stopped
+        dialog.setOnCloseRequest(e -> {
+            e.consume();
+            task.cancel();
+        });
+        task.runningProperty().addListener((observable, wasRunning, running) -> {
+            if (!running) {
+                dialog.close();
+            }
+        });
+    }
+
+    /**
+     * Shows the window and starts the export in the background.
+     */
+    public void start() {
+        Thread thread = new Thread(task, "csv-export");
+        thread.setDaemon(true);
+        dialog.show();
+        thread.start();
+    }
+}
@@ -1228,13 +1228,11 @@ public class GoogleOAuthController implements Initializable {
         }
 
         new Thread(() -> {
-            String newAccessToken = oauthService.refreshAccessToken(currentToken.getRefreshToken());
+            // The manager refreshes, saves and reschedules; a refresh already running is reused
+            boolean refreshed = oauthManager.forceRefreshToken();
             Platform.runLater(() -> {
-                if (newAccessToken != null) {
-                    currentToken = currentToken.withUpdatedAccessToken(newAccessToken);
-                    tokenManager.saveTokens(currentToken);
-                    // NOTIFY THE OAUTH MANAGER
-                    oauthManager.updateConnection(currentToken, true);
+                if (refreshed) {
+                    currentToken = oauthManager.getCurrentToken();
                     showStatus(languageManager.getText("oauth.status.token.refreshed"), "success");
                 } else {
                     showStatus(languageManager.getText("oauth.error.token.refresh.failed"), "error");
@@ -6,7 +6,6 @@ import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.pdf417.PDF417Writer;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.itextpdf.html2pdf.HtmlConverter;
 import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -16,15 +15,28 @@ import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.application.Platform;
+import smallbusinessbuddycrm.database.EmailOutboxDAO;
 import smallbusinessbuddycrm.database.PaymentAttachmentDAO;
+import smallbusinessbuddycrm.database.PaymentInfoDAO;
 import smallbusinessbuddycrm.database.PaymentTemplateDAO;
 import smallbusinessbuddycrm.database.UnderagedDAO;
 import smallbusinessbuddycrm.model.*;
 import smallbusinessbuddycrm.database.OrganizationDAO;
+import smallbusinessbuddycrm.services.CombinedSlipPdfWriter;
+import smallbusinessbuddycrm.services.Hub3Encoder;
+import smallbusinessbuddycrm.services.PaymentAttachmentTemplateCache;
+import smallbusinessbuddycrm.services.PaymentTerm;
+import smallbusinessbuddycrm.services.PdfRenderingService;
+import smallbusinessbuddycrm.services.SlipSpoolStore;
+import smallbusinessbuddycrm.services.google.EmailOutboxDispatcher;
+import smallbusinessbuddycrm.services.google.GmailService;
 import smallbusinessbuddycrm.services.google.GoogleOAuthManager;
+import smallbusinessbuddycrm.services.google.OutboxSpool;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
 import smallbusinessbuddycrm.utilities.UplatnicaHtmlGenerator;
 import smallbusinessbuddycrm.utilities.TemplateProcessor;
 import smallbusinessbuddycrm.utilities.LanguageManager;
@@ -34,11 +46,18 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
 import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MultipleGenerationBarcodeDialog {
     private Stage dialog;
@@ -51,27 +70,26 @@ public class MultipleGenerationBarcodeDialog {
 
     // UI Components
     private ListView<ContactItem> contactListView;
-    private ScrollPane allPreviewsScrollPane;
-    private VBox allPreviewsContainer;
+    private StackPane previewArea;
+    private SlipPreviewGallery<GeneratedSlip> previewGallery;
     private VBox previewPlaceholder;
     private CheckBox selectAllCheckBox;
     private Button showAllPreviewsButton;
 
-    private Map<Contact, String> contactUplatnicaHtmlMap = new HashMap<>();
-    private Map<Contact, BufferedImage> contactBarcodeImageMap = new HashMap<>();
     private Map<Contact, UnderagedMember> contactUnderagedMap = new HashMap<>();
 
-    private Map<String, String> allGeneratedHtmlMap = new HashMap<>();
-    private Map<String, BufferedImage> allGeneratedBarcodeMap = new HashMap<>();
+    // Generated HTML and barcodes live in the spool; only slip keys are kept in memory
+    private final SlipSpoolStore slipSpool = new SlipSpoolStore("sbb-barcode-slips-");
+    private Map<Contact, String> contactLatestSlipKey = new HashMap<>();
     private Map<String, UnderagedMember> allGeneratedUnderagedMap = new HashMap<>();
+    // Ledger entries of generated slips by slip key, recorded in payment_info once issued
+    private final Map<String, PaymentInfo> ledgerDrafts = new ConcurrentHashMap<>();
+    private final PaymentInfoDAO paymentInfoDAO = new PaymentInfoDAO();
     private ComboBox<PaymentTemplate> paymentTemplateCombo;
     private VBox templateSelectionBox;
     private PaymentAttachmentDAO paymentAttachmentDAO;
     private PaymentAttachment selectedPaymentSlipTemplate;
 
-    private static final String FIXED_BANK_CODE = "HRVHUB30";
-    private static final String FIXED_CURRENCY = "EUR";
-
     // Style constants
     private static final String SECTION_STYLE =
             "-fx-border-color: #dfe3eb; -fx-border-radius: 6; -fx-border-width: 1;" +
@@ -127,16 +145,6 @@ public class MultipleGenerationBarcodeDialog {
         return oauthManager.getUserEmail();
     }
 
-    private String normalizeTextForHUB3(String text) {
-        if (text == null) return "";
-        return text
-                .replace("č", "c").replace("Č", "C")
-                .replace("ć", "c").replace("Ć", "C")
-                .replace("ž", "z").replace("Ž", "Z")
-                .replace("š", "s").replace("Š", "S")
-                .replace("đ", "d").replace("Đ", "D");
-    }
-
     private void loadOrganizationData() {
         try {
             OrganizationDAO organizationDAO = new OrganizationDAO();
@@ -256,6 +264,7 @@ public class MultipleGenerationBarcodeDialog {
 
         Scene scene = new Scene(scrollPane, 1100, 750);
         dialog.setScene(scene);
+        dialog.setOnHidden(e -> slipSpool.close());
         dialog.setMinWidth(900);
         dialog.setMinHeight(600);
 
@@ -263,6 +272,8 @@ public class MultipleGenerationBarcodeDialog {
 
         if (paymentTemplate == null) {
             loadPaymentTemplates();
+        } else {
+            refreshIssuedThisTerm(true);
         }
     }
 
@@ -349,7 +360,33 @@ public class MultipleGenerationBarcodeDialog {
             }
 
             showAllPreviewsButton.setDisable(false);
+            refreshIssuedThisTerm(true);
+        }
+    }
+
+    /**
+     * Marks contacts that already got a slip for the template this term, from the
+     * payment_info ledger instead of regenerating anything.
+     *
+     * @param deselectIssued Whether to deselect those contacts, so they are not issued twice
+     */
+    private void refreshIssuedThisTerm(boolean deselectIssued) {
+        if (paymentTemplate == null) {
+            return;
+        }
+
+        Map<Integer, LocalDateTime> issued = paymentInfoDAO.getIssuedSince(paymentTemplate.getId(), PaymentTerm.currentTermStart());
+        for (ContactItem item : contactListView.getItems()) {
+            LocalDateTime issuedAt = issued.get(item.getContact().getId());
+            item.setIssuedAt(issuedAt);
+            if (deselectIssued && issuedAt != null) {
+                item.setSelected(false);
+            }
+        }
+        if (deselectIssued && !issued.isEmpty()) {
+            selectAllCheckBox.setSelected(false);
         }
+        contactListView.refresh();
     }
 
     private VBox createTemplateInfoSection() {
@@ -423,16 +460,18 @@ public class MultipleGenerationBarcodeDialog {
         previewTitle.setFont(Font.font("System", FontWeight.BOLD, 13));
         previewTitle.setStyle(SECTION_TITLE_STYLE);
 
-        allPreviewsContainer = new VBox(20);
-        allPreviewsContainer.setPadding(new Insets(10));
+        previewGallery = new SlipPreviewGallery<>();
+        previewGallery.addAction(languageManager.getText("barcode.button.print.this"), BTN_SUCCESS,
+                slip -> printIndividualUplatnica(previewGallery.getZoomView(), slip.getContact(), slip.getUnderagedMember()));
+        previewGallery.addAction(languageManager.getText("barcode.button.save.this"), BTN_SECONDARY,
+                slip -> saveIndividualUplatnica(slip.getContact(), slip.getUnderagedMember()));
+        previewGallery.addAction(languageManager.getText("barcode.button.email.this"), BTN_PRIMARY,
+                slip -> emailIndividualUplatnica(slip.getContact(), slip.getUnderagedMember()));
 
-        allPreviewsScrollPane = new ScrollPane(allPreviewsContainer);
-        allPreviewsScrollPane.setPrefHeight(500);
-        allPreviewsScrollPane.setPrefWidth(Double.MAX_VALUE);
-        allPreviewsScrollPane.setStyle("-fx-border-color: #dfe3eb; -fx-border-width: 1; -fx-border-radius: 4;");
-        allPreviewsScrollPane.setFitToWidth(true);
-        allPreviewsScrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        allPreviewsScrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
+        previewArea = new StackPane();
+        previewArea.setPrefHeight(500);
+        previewArea.setPrefWidth(Double.MAX_VALUE);
+        previewArea.setStyle("-fx-border-color: #dfe3eb; -fx-border-width: 1; -fx-border-radius: 4;");
 
         previewPlaceholder = new VBox(10);
         previewPlaceholder.setAlignment(Pos.CENTER);
@@ -445,7 +484,7 @@ public class MultipleGenerationBarcodeDialog {
         placeholder.setStyle("-fx-text-align: center; -fx-text-fill: #adb5bd; -fx-font-size: 13px;");
         previewPlaceholder.getChildren().add(placeholder);
 
-        allPreviewsScrollPane.setContent(previewPlaceholder);
+        previewArea.getChildren().setAll(previewPlaceholder);
 
         HBox previewButtonBox = new HBox(10);
         previewButtonBox.setAlignment(Pos.CENTER_LEFT);
@@ -465,9 +504,13 @@ public class MultipleGenerationBarcodeDialog {
         emailAllButton.setStyle(BTN_SUCCESS);
         emailAllButton.setOnAction(e -> emailAllGeneratedSlips());
 
-        previewButtonBox.getChildren().addAll(showAllPreviewsButton, clearPreviewsButton, emailAllButton);
+        Button exportCombinedButton = new Button(languageManager.getText("barcode.button.export.combined"));
+        exportCombinedButton.setStyle(BTN_SECONDARY);
+        exportCombinedButton.setOnAction(e -> exportCombinedPdf(exportCombinedButton));
+
+        previewButtonBox.getChildren().addAll(showAllPreviewsButton, clearPreviewsButton, emailAllButton, exportCombinedButton);
 
-        section.getChildren().addAll(previewTitle, allPreviewsScrollPane, previewButtonBox);
+        section.getChildren().addAll(previewTitle, previewArea, previewButtonBox);
         return section;
     }
 
@@ -520,12 +563,11 @@ public class MultipleGenerationBarcodeDialog {
             return;
         }
 
-        allPreviewsContainer.getChildren().clear();
-        contactUplatnicaHtmlMap.clear();
-        contactBarcodeImageMap.clear();
-        allGeneratedHtmlMap.clear();
-        allGeneratedBarcodeMap.clear();
+        previewGallery.clear();
+        slipSpool.clear();
+        contactLatestSlipKey.clear();
         allGeneratedUnderagedMap.clear();
+        ledgerDrafts.clear();
 
         showAllPreviewsButton.setDisable(true);
 
@@ -596,7 +638,7 @@ public class MultipleGenerationBarcodeDialog {
             @Override
             protected void succeeded() {
                 showAllPreviewsButton.setDisable(false);
-                allPreviewsScrollPane.setContent(allPreviewsContainer);
+                previewArea.getChildren().setAll(previewGallery);
                 System.out.println("Preview generation completed successfully!");
             }
 
@@ -670,27 +712,35 @@ public class MultipleGenerationBarcodeDialog {
         return total;
     }
 
-    private void generateSingleUplatnica(Contact contact, UnderagedMember underagedMember, int currentGeneration, int totalGenerations) throws WriterException {
+    private void generateSingleUplatnica(Contact contact, UnderagedMember underagedMember, int currentGeneration, int totalGenerations) throws WriterException, IOException {
         try {
             System.out.println("Generating uplatnica " + currentGeneration + "/" + totalGenerations +
                     " for contact: " + contact.getFirstName() + " " + contact.getLastName() +
                     (underagedMember != null ? " - Child: " + underagedMember.getFirstName() + " " + underagedMember.getLastName() : ""));
 
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            long slipStart = System.nanoTime();
             String hub3Data = generateHUB3DataForContact(contact, underagedMember);
+            long stageStart = System.nanoTime();
+            metrics.timer("slips.hub3").recordNanos(stageStart - slipStart);
+
             BufferedImage barcodeImage = generateBarcodeImageForData(hub3Data);
+            metrics.timer("slips.barcode").recordSince(stageStart);
 
+            stageStart = System.nanoTime();
             String uplatnicaHtml = UplatnicaHtmlGenerator.generateUplatnicaHtml(
                     contact, organization, paymentTemplate, barcodeImage, underagedMember);
-
-            contactUplatnicaHtmlMap.put(contact, uplatnicaHtml);
-            contactBarcodeImageMap.put(contact, barcodeImage);
+            metrics.timer("slips.html").recordSince(stageStart);
 
             String emailKey = contact.getId() + (underagedMember != null ? "_child_" + underagedMember.getId() : "");
-            allGeneratedHtmlMap.put(emailKey, uplatnicaHtml);
-            allGeneratedBarcodeMap.put(emailKey, barcodeImage);
+            slipSpool.putHtml(emailKey, uplatnicaHtml);
+            slipSpool.putBarcode(emailKey, barcodeImage);
+            contactLatestSlipKey.put(contact, emailKey);
             if (underagedMember != null) {
                 allGeneratedUnderagedMap.put(emailKey, underagedMember);
             }
+            ledgerDrafts.put(emailKey, createLedgerEntry(contact, underagedMember, hub3Data));
+            metrics.timer("slips.generate").recordSince(slipStart);
 
             javafx.application.Platform.runLater(() -> {
                 addPreviewToContainer(contact, uplatnicaHtml, underagedMember);
@@ -707,17 +757,72 @@ public class MultipleGenerationBarcodeDialog {
         }
     }
 
-    private String generateUplatnicaHTMLWithTemplate(Contact contact, UnderagedMember underagedMember,
-                                                     PaymentAttachment template) throws Exception {
+    /**
+     * Records generated slips in the payment_info ledger once they are issued, i.e.
+     * exported, saved, printed or emailed. Previews alone are not recorded, and a slip
+     * issued several ways is recorded once. May be called from any thread.
+     *
+     * @param slipKeys Keys of the issued slips
+     * @param status PaymentInfo.STATUS_SENT for emailed slips, else STATUS_GENERATED
+     */
+    private void recordIssuedSlips(Collection<String> slipKeys, String status) {
+        LocalDateTime issuedAt = LocalDateTime.now();
+        List<PaymentInfo> entries = new ArrayList<>();
+        for (String slipKey : slipKeys) {
+            PaymentInfo entry = ledgerDrafts.remove(slipKey);
+            if (entry != null) {
+                entry.setStatus(status);
+                entry.setGeneratedAt(issuedAt);
+                entries.add(entry);
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        int saved = paymentInfoDAO.createPaymentInfos(entries);
+        if (saved < 0) {
+            // Kept as drafts, so issuing the slips again retries the ledger write
+            entries.forEach(entry -> ledgerDrafts.put(slipKeyOf(entry), entry));
+            return;
+        }
+        System.out.println("Recorded " + saved + " issued slips in payment_info");
+        Platform.runLater(() -> refreshIssuedThisTerm(false));
+    }
+
+    private static String slipKeyOf(PaymentInfo entry) {
+        return entry.getContactId() + (entry.getUnderagedId() != null ? "_child_" + entry.getUnderagedId() : "");
+    }
+
+    /**
+     * Key of the slip issued for a contact and child, falling back to the contact's
+     * latest slip like getSpooledBarcode.
+     */
+    private String issuedSlipKey(Contact contact, UnderagedMember underagedMember) {
         String slipKey = contact.getId() + (underagedMember != null ? "_child_" + underagedMember.getId() : "");
-        BufferedImage barcodeImage = allGeneratedBarcodeMap.get(slipKey);
-        if (barcodeImage == null) {
-            barcodeImage = contactBarcodeImageMap.get(contact);
+        if (!ledgerDrafts.containsKey(slipKey) && contactLatestSlipKey.containsKey(contact)) {
+            return contactLatestSlipKey.get(contact);
         }
+        return slipKey;
+    }
+
+    private PaymentInfo createLedgerEntry(Contact contact, UnderagedMember underagedMember, String hub3Data) {
+        PaymentInfo entry = new PaymentInfo(organization.getId(), paymentTemplate.getId(), contact.getId(),
+                underagedMember != null ? underagedMember.getId() : null);
+        entry.setAmount(paymentTemplate.getAmount());
+        entry.setModelOfPayment(paymentTemplate.getModelOfPayment());
+        entry.setPozivNaBroj(processReferenceTemplate(paymentTemplate.getPozivNaBroj(), contact, underagedMember));
+        entry.setBarcodeData(hub3Data);
+        return entry;
+    }
+
+    private String generateUplatnicaHTMLWithTemplate(Contact contact, UnderagedMember underagedMember,
+                                                     PaymentAttachment template) throws Exception {
+        BufferedImage barcodeImage = getSpooledBarcode(contact, underagedMember);
 
         String barcodeBase64 = encodeImageToBase64(barcodeImage);
         Map<String, String> variables = createVariableMap(contact, underagedMember, barcodeBase64);
-        return processTemplate(template.getHtmlContent(), variables);
+        return PaymentAttachmentTemplateCache.getInstance().getCompiled(template).render(variables);
     }
 
     private Map<String, String> createVariableMap(Contact contact, UnderagedMember underagedMember, String barcodeBase64) {
@@ -780,16 +885,6 @@ public class MultipleGenerationBarcodeDialog {
         return variables;
     }
 
-    private String processTemplate(String template, Map<String, String> variables) {
-        String result = template;
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            String value = entry.getValue() != null ? entry.getValue() : "";
-            result = result.replace(placeholder, value);
-        }
-        return result;
-    }
-
     private String encodeImageToBase64(BufferedImage image) throws Exception {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         ImageIO.write(image, "png", baos);
@@ -798,21 +893,12 @@ public class MultipleGenerationBarcodeDialog {
     }
 
     private void addPreviewToContainer(Contact contact, String uplatnicaHtml, UnderagedMember underagedMember) {
-        VBox contactPreviewContainer = new VBox(10);
-        contactPreviewContainer.setStyle(
-                "-fx-border-color: #dfe3eb; -fx-border-width: 1; -fx-border-radius: 6;" +
-                        "-fx-background-color: white; -fx-background-radius: 6; -fx-padding: 15;");
-
         String headerText = contact.getFirstName() + " " + contact.getLastName();
         if (underagedMember != null) {
             headerText += "  —  " + languageManager.getText("barcode.contact.child.label").replace("{0}",
                     underagedMember.getFirstName() + " " + underagedMember.getLastName());
         }
 
-        Label contactHeader = new Label(headerText);
-        contactHeader.setFont(Font.font("System", FontWeight.BOLD, 14));
-        contactHeader.setStyle(underagedMember != null ? "-fx-text-fill: #ff7a59;" : "-fx-text-fill: #2c3e50;");
-
         StringBuilder contactInfo = new StringBuilder();
         if (contact.getEmail() != null && !contact.getEmail().trim().isEmpty()) {
             contactInfo.append(contact.getEmail()).append("   ");
@@ -830,34 +916,15 @@ public class MultipleGenerationBarcodeDialog {
             }
         }
 
-        Label contactInfoLabel = new Label(contactInfo.toString());
-        contactInfoLabel.setStyle("-fx-text-fill: #6c757d; -fx-font-size: 12px;");
-
-        javafx.scene.web.WebView webView = new javafx.scene.web.WebView();
-        webView.setPrefHeight(500);
-        webView.setPrefWidth(Double.MAX_VALUE);
-        webView.setStyle("-fx-border-color: #dfe3eb; -fx-border-width: 1; -fx-border-radius: 4;");
-        webView.getEngine().loadContent(uplatnicaHtml);
-
-        HBox actionButtons = new HBox(10);
-        actionButtons.setAlignment(Pos.CENTER_LEFT);
-
-        Button printIndividualButton = new Button(languageManager.getText("barcode.button.print.this"));
-        printIndividualButton.setStyle(BTN_SUCCESS);
-        printIndividualButton.setOnAction(e -> printIndividualUplatnica(webView));
-
-        Button saveIndividualButton = new Button(languageManager.getText("barcode.button.save.this"));
-        saveIndividualButton.setStyle(BTN_SECONDARY);
-        saveIndividualButton.setOnAction(e -> saveIndividualUplatnica(contact, underagedMember));
-
-        Button emailIndividualButton = new Button(languageManager.getText("barcode.button.email.this"));
-        emailIndividualButton.setStyle(BTN_PRIMARY);
-        emailIndividualButton.setOnAction(e -> emailIndividualUplatnica(contact, underagedMember));
-
-        actionButtons.getChildren().addAll(printIndividualButton, saveIndividualButton, emailIndividualButton);
-
-        contactPreviewContainer.getChildren().addAll(contactHeader, contactInfoLabel, webView, actionButtons);
-        allPreviewsContainer.getChildren().add(contactPreviewContainer);
+        // The gallery pulls HTML on demand, so only the slip key is captured here
+        String slipKey = contact.getId() + (underagedMember != null ? "_child_" + underagedMember.getId() : "");
+        previewGallery.addEntry(new SlipPreviewGallery.SlipEntry<>(
+                slipKey,
+                new GeneratedSlip(contact, underagedMember),
+                headerText,
+                contactInfo.toString(),
+                underagedMember != null ? "-fx-text-fill: #ff7a59;" : "-fx-text-fill: #2c3e50;",
+                () -> slipSpool.getHtml(slipKey)));
     }
 
     private void addPreviewToContainer(Contact contact, String uplatnicaHtml) {
@@ -865,17 +932,16 @@ public class MultipleGenerationBarcodeDialog {
     }
 
     private void clearAllPreviews() {
-        allPreviewsContainer.getChildren().clear();
-        contactUplatnicaHtmlMap.clear();
-        contactBarcodeImageMap.clear();
-        allGeneratedHtmlMap.clear();
-        allGeneratedBarcodeMap.clear();
+        previewGallery.clear();
+        slipSpool.clear();
+        contactLatestSlipKey.clear();
         allGeneratedUnderagedMap.clear();
-        allPreviewsScrollPane.setContent(previewPlaceholder);
+        ledgerDrafts.clear();
+        previewArea.getChildren().setAll(previewPlaceholder);
     }
 
     private void emailAllGeneratedSlips() {
-        if (allGeneratedHtmlMap.isEmpty()) {
+        if (slipSpool.isEmpty()) {
             showAlert(Alert.AlertType.WARNING,
                     languageManager.getText("barcode.email.no.slips.title"),
                     languageManager.getText("barcode.email.no.slips.message"));
@@ -892,6 +958,95 @@ public class MultipleGenerationBarcodeDialog {
         showBulkEmailCompositionDialog();
     }
 
+    private void exportCombinedPdf(Button exportButton) {
+        if (slipSpool.isEmpty()) {
+            showAlert(Alert.AlertType.WARNING,
+                    languageManager.getText("barcode.email.no.slips.title"),
+                    languageManager.getText("barcode.email.no.slips.message"));
+            return;
+        }
+
+        List<String> layouts = new ArrayList<>();
+        for (int slipsPerPage = 1; slipsPerPage <= 3; slipsPerPage++) {
+            layouts.add(languageManager.getText("export.mode.combined").replace("{0}", String.valueOf(slipsPerPage)));
+        }
+
+        ChoiceDialog<String> layoutDialog = new ChoiceDialog<>(layouts.get(1), layouts);
+        layoutDialog.setTitle(languageManager.getText("export.mode.title"));
+        layoutDialog.setHeaderText(languageManager.getText("export.mode.header"));
+        layoutDialog.setContentText(languageManager.getText("export.mode.content"));
+        layoutDialog.initOwner(dialog);
+
+        Optional<String> selectedLayout = layoutDialog.showAndWait();
+        if (selectedLayout.isEmpty()) {
+            return;
+        }
+        int slipsPerPage = layouts.indexOf(selectedLayout.get()) + 1;
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(languageManager.getText("export.combined.file.title"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
+        fileChooser.setInitialFileName("uplatnice_" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        File file = fileChooser.showSaveDialog(dialog);
+
+        if (file == null) {
+            return;
+        }
+
+        List<String> slipKeys = slipSpool.keys();
+        exportButton.setDisable(true);
+
+        Task<Integer> exportTask = new Task<Integer>() {
+            @Override
+            protected Integer call() throws Exception {
+                int batchSize = CombinedSlipPdfWriter.getRecommendedBatchSize();
+                int slipCount;
+
+                try (CombinedSlipPdfWriter writer = new CombinedSlipPdfWriter(file, slipsPerPage)) {
+                    List<String> batch = new ArrayList<>(batchSize);
+                    for (int i = 0; i < slipKeys.size(); i++) {
+                        String html = slipSpool.getHtml(slipKeys.get(i));
+                        if (html != null) {
+                            batch.add(html);
+                        }
+                        if (batch.size() == batchSize || i == slipKeys.size() - 1) {
+                            writer.addSlips(batch);
+                            batch.clear();
+                            updateProgress(i + 1, slipKeys.size());
+                        }
+                    }
+                    slipCount = writer.getSlipCount();
+                }
+
+                recordIssuedSlips(slipKeys, PaymentInfo.STATUS_GENERATED);
+                return slipCount;
+            }
+
+            @Override
+            protected void succeeded() {
+                exportButton.setDisable(false);
+                showAlert(Alert.AlertType.INFORMATION,
+                        languageManager.getText("export.complete"),
+                        languageManager.getText("export.combined.success")
+                                .replace("{0}", String.valueOf(getValue()))
+                                .replace("{1}", file.getAbsolutePath()));
+            }
+
+            @Override
+            protected void failed() {
+                exportButton.setDisable(false);
+                showAlert(Alert.AlertType.ERROR,
+                        languageManager.getText("barcode.dialog.error.title"),
+                        languageManager.getText("export.failed").replace("{0}", getException().getMessage()));
+            }
+        };
+
+        Thread thread = new Thread(exportTask);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     private void showBulkEmailCompositionDialog() {
         try {
             Dialog<ButtonType> emailDialog = new Dialog<>();
@@ -1024,12 +1179,29 @@ public class MultipleGenerationBarcodeDialog {
         progressAlert.show();
 
         new Thread(() -> {
-            int successCount = 0;
-            int failCount = 0;
-            int totalCount = 0;
+            if (!oauthManager.isGmailConnected()) {
+                Platform.runLater(() -> {
+                    progressAlert.close();
+                    showAlert(Alert.AlertType.WARNING,
+                            languageManager.getText("barcode.email.not.connected.title"),
+                            languageManager.getText("barcode.email.not.connected.message"));
+                });
+                return;
+            }
+
+            GmailService gmailService = oauthManager.getGmailService();
+            EmailCampaign campaign = new EmailCampaign(buildCampaignId(slipSpool.keys()),
+                    paymentTemplate != null ? paymentTemplate.getName() : subject, subject, null);
+
+            // Slips this campaign already queued in an earlier run are not prepared again
+            Set<String> queuedKeys = new EmailOutboxDAO().findRecipientKeys(campaign.getId());
+            Set<String> renderedPdfKeys = includePdf ?
+                    preRenderPdfsForEmail(selectedTemplate, queuedKeys) : Collections.emptySet();
+            List<OutboxEmail> emails = new ArrayList<>();
+            Map<String, UnderagedMember> recipientKeyUnderagedMap = new HashMap<>();
+            int buildFailures = 0;
 
-            for (Map.Entry<String, String> entry : allGeneratedHtmlMap.entrySet()) {
-                String slipKey = entry.getKey();
+            for (String slipKey : slipSpool.keys()) {
 
                 int contactId = getContactIdFromKey(slipKey);
                 Optional<Contact> contactOpt = selectedContacts.stream()
@@ -1042,69 +1214,102 @@ public class MultipleGenerationBarcodeDialog {
 
                 if (contact.getEmail() == null || contact.getEmail().trim().isEmpty()) continue;
 
-                totalCount++;
-                int finalTotalCount = totalCount;
+                String recipientKey = outboxRecipientKey(contact, slipKey);
+                if (queuedKeys.contains(recipientKey)) continue;
 
                 UnderagedMember underagedMember = allGeneratedUnderagedMap.get(slipKey);
 
-                Platform.runLater(() -> {
-                    String emailTarget = contact.getEmail();
-                    if (underagedMember != null) {
-                        emailTarget += " " + languageManager.getText("barcode.email.progress.for.child").replace("{0}",
-                                underagedMember.getFirstName() + " " + underagedMember.getLastName());
-                    }
-                    progressAlert.setContentText(languageManager.getText("barcode.email.progress.sending")
-                            .replace("{0}", String.valueOf(finalTotalCount))
-                            .replace("{1}", emailTarget));
-                });
-
+                // The outbox row only references a spool entry holding the text and the
+                // attachment files; the dispatcher builds the message when it sends it
+                Path spoolEntry = null;
                 try {
-                    String emailMessage = customMessage != null ? customMessage :
-                            generateDefaultEmailMessage(contact, underagedMember);
-
-                    byte[] pdfContent = null;
-                    BufferedImage barcodeImage = null;
-
-                    if (includePdf) {
-                        pdfContent = generatePdfContentWithTemplate(contact, underagedMember, selectedTemplate);
-                    }
-
-                    if (includeBarcode) {
-                        barcodeImage = allGeneratedBarcodeMap.get(slipKey);
-                    }
-
-                    boolean success;
-                    if (pdfContent != null || barcodeImage != null) {
+                    if (includePdf || (includeBarcode && slipSpool.hasBarcode(slipKey))) {
                         String payerName = contact.getFirstName() + " " + contact.getLastName();
                         String organizationName = organization.getName();
                         String amountDisplay = paymentTemplate.getAmount().toString();
                         String description = TemplateProcessor.processTemplate(
                                 paymentTemplate.getDescription(), contact, underagedMember);
 
-                        success = oauthManager.sendPaymentSlip(
-                                contact.getEmail(), payerName, organizationName,
-                                amountDisplay + " EUR", description, pdfContent, barcodeImage);
+                        spoolEntry = OutboxSpool.createEntry(campaign.getId(), recipientKey,
+                                gmailService.buildPaymentSlipSubject(organizationName),
+                                gmailService.buildPaymentSlipEmailBody(payerName, organizationName,
+                                        amountDisplay + " EUR", description));
+
+                        long timestamp = System.currentTimeMillis();
+                        if (includePdf) {
+                            Path pdfFile = spoolEntry.resolve("payment_slip_" + timestamp + ".pdf");
+                            if (!renderedPdfKeys.contains(slipKey) || !slipSpool.copyPdfTo(slipKey, pdfFile)) {
+                                OutboxSpool.addAttachment(spoolEntry, pdfFile.getFileName().toString(),
+                                        generatePdfContentWithTemplate(contact, underagedMember, selectedTemplate));
+                            }
+                        }
+                        if (includeBarcode) {
+                            slipSpool.copyBarcodeTo(slipKey,
+                                    spoolEntry.resolve("payment_barcode_" + timestamp + ".png"));
+                        }
                     } else {
-                        success = oauthManager.sendEmail(contact.getEmail(), subject, emailMessage);
+                        String emailMessage = customMessage != null ? customMessage :
+                                generateDefaultEmailMessage(contact, underagedMember);
+                        spoolEntry = OutboxSpool.createEntry(campaign.getId(), recipientKey, subject, emailMessage);
                     }
 
-                    if (success) successCount++;
-                    else failCount++;
-
                 } catch (Exception e) {
-                    System.err.println("Error sending email to " + contact.getEmail() + ": " + e.getMessage());
-                    failCount++;
+                    System.err.println("Error preparing email for " + contact.getEmail() + ": " + e.getMessage());
+                    if (spoolEntry != null) {
+                        OutboxSpool.deleteEntry(spoolEntry);
+                    }
+                    buildFailures++;
+                    continue;
                 }
 
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    break;
-                }
+                OutboxEmail email = new OutboxEmail(campaign.getId(), contact.getEmail().trim(), null);
+                email.setRecipientKey(recipientKey);
+                email.setSpoolPath(spoolEntry.toString());
+                emails.add(email);
+                recipientKeyUnderagedMap.put(email.getRecipientKey(), underagedMember);
+            }
+
+            AtomicInteger completedCount = new AtomicInteger(0);
+            List<String> sentSlipKeys = Collections.synchronizedList(new ArrayList<>());
+            EmailOutboxDispatcher.CampaignSummary summary;
+            try {
+                summary = EmailOutboxDispatcher.getInstance().sendCampaign(campaign, emails, (email, result) -> {
+                    if (OutboxEmail.STATUS_SENT.equals(email.getStatus())) {
+                        String recipientKey = email.getRecipientKey();
+                        sentSlipKeys.add(recipientKey.substring(recipientKey.lastIndexOf('#') + 1));
+                    } else {
+                        System.err.println("Error sending email to " + email.getRecipient() + ": " + email.getLastError());
+                    }
+
+                    int completed = completedCount.incrementAndGet();
+                    UnderagedMember underagedMember = recipientKeyUnderagedMap.get(email.getRecipientKey());
+                    Platform.runLater(() -> {
+                        String emailTarget = email.getRecipient();
+                        if (underagedMember != null) {
+                            emailTarget += " " + languageManager.getText("barcode.email.progress.for.child").replace("{0}",
+                                    underagedMember.getFirstName() + " " + underagedMember.getLastName());
+                        }
+                        progressAlert.setContentText(languageManager.getText("barcode.email.progress.sending")
+                                .replace("{0}", String.valueOf(completed))
+                                .replace("{1}", emailTarget));
+                    });
+                });
+            } catch (Exception e) {
+                System.err.println("Error sending payment slip emails: " + e.getMessage());
+                recordIssuedSlips(sentSlipKeys, PaymentInfo.STATUS_SENT);
+                Platform.runLater(() -> {
+                    progressAlert.close();
+                    showAlert(Alert.AlertType.ERROR,
+                            languageManager.getText("barcode.dialog.error.title"),
+                            languageManager.getText("barcode.dialog.error.message").replace("{0}", String.valueOf(e.getMessage())));
+                });
+                return;
             }
 
-            final int finalSuccessCount = successCount;
-            final int finalFailCount = failCount;
+            recordIssuedSlips(sentSlipKeys, PaymentInfo.STATUS_SENT);
+
+            final int finalSuccessCount = summary.getSent();
+            final int finalFailCount = summary.getFailed() + buildFailures;
             Platform.runLater(() -> {
                 progressAlert.close();
                 String templateName = selectedTemplate != null ? selectedTemplate.getName() : "Default Croatian Template";
@@ -1157,28 +1362,109 @@ public class MultipleGenerationBarcodeDialog {
 
     private byte[] generatePdfContentWithTemplate(Contact contact, UnderagedMember underagedMember,
                                                   PaymentAttachment selectedTemplate) throws Exception {
+        String htmlContent = generatePdfHtmlWithTemplate(contact, underagedMember, selectedTemplate);
+        return PdfRenderingService.getInstance().renderToBytes(htmlContent);
+    }
+
+    private String generatePdfHtmlWithTemplate(Contact contact, UnderagedMember underagedMember,
+                                               PaymentAttachment selectedTemplate) throws Exception {
         String htmlContent;
 
         if (selectedTemplate != null && selectedTemplate.getHtmlContent() != null && !selectedTemplate.getHtmlContent().trim().isEmpty()) {
             htmlContent = generateUplatnicaHTMLWithTemplate(contact, underagedMember, selectedTemplate);
         } else {
-            String slipKey = contact.getId() + (underagedMember != null ? "_child_" + underagedMember.getId() : "");
-            BufferedImage barcodeImage = allGeneratedBarcodeMap.get(slipKey);
-            if (barcodeImage == null) {
-                barcodeImage = contactBarcodeImageMap.get(contact);
-            }
+            BufferedImage barcodeImage = getSpooledBarcode(contact, underagedMember);
 
             htmlContent = UplatnicaHtmlGenerator.generateUplatnicaHtml(
                     contact, organization, paymentTemplate, barcodeImage, underagedMember);
         }
 
-        ByteArrayOutputStream pdfOutputStream = new ByteArrayOutputStream();
+        return htmlContent;
+    }
+
+    /**
+     * Campaign ID derived from the payment template, the term and the slips being sent,
+     * so sending the same slips again in the same term resumes the earlier campaign
+     * instead of queuing every email a second time.
+     */
+    private String buildCampaignId(List<String> slipKeys) {
+        List<String> sortedKeys = new ArrayList<>(slipKeys);
+        Collections.sort(sortedKeys);
+        String templateId = paymentTemplate != null ? String.valueOf(paymentTemplate.getId()) : "default";
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.join(",", sortedKeys).getBytes(StandardCharsets.UTF_8));
+            return "payment-slips-" + templateId + "-" + PaymentTerm.currentTermStart().toLocalDate() + "-" +
+                    HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            return "payment-slips-" + templateId + "-" + UUID.randomUUID();
+        }
+    }
+
+    /**
+     * Outbox recipient key of a slip; one slip per child can go to the same parent address.
+     */
+    private String outboxRecipientKey(Contact contact, String slipKey) {
+        return contact.getEmail().trim().toLowerCase() + "#" + slipKey;
+    }
+
+    private Set<String> preRenderPdfsForEmail(PaymentAttachment selectedTemplate, Set<String> queuedKeys) {
+        Set<String> renderedKeys = new HashSet<>();
+        Map<String, String> batch = new LinkedHashMap<>();
+        int batchSize = CombinedSlipPdfWriter.getRecommendedBatchSize();
+
+        for (String slipKey : slipSpool.keys()) {
+            int contactId = getContactIdFromKey(slipKey);
+            Optional<Contact> contactOpt = selectedContacts.stream()
+                    .filter(c -> c.getId() == contactId)
+                    .findFirst();
+
+            if (contactOpt.isEmpty()) continue;
+            Contact contact = contactOpt.get();
+            if (contact.getEmail() == null || contact.getEmail().trim().isEmpty()) continue;
+            if (queuedKeys.contains(outboxRecipientKey(contact, slipKey))) continue;
+
+            try {
+                batch.put(slipKey, generatePdfHtmlWithTemplate(
+                        contact, allGeneratedUnderagedMap.get(slipKey), selectedTemplate));
+            } catch (Exception e) {
+                System.err.println("Error preparing PDF for " + contact.getEmail() + ": " + e.getMessage());
+            }
+
+            if (batch.size() == batchSize) {
+                spoolRenderedPdfs(batch, renderedKeys);
+            }
+        }
+        spoolRenderedPdfs(batch, renderedKeys);
+
+        return renderedKeys;
+    }
+
+    private void spoolRenderedPdfs(Map<String, String> htmlBySlipKey, Set<String> renderedKeys) {
+        if (htmlBySlipKey.isEmpty()) {
+            return;
+        }
         try {
-            HtmlConverter.convertToPdf(htmlContent, pdfOutputStream);
-            return pdfOutputStream.toByteArray();
-        } finally {
-            pdfOutputStream.close();
+            Map<String, PdfRenderingService.RenderResult> rendered =
+                    PdfRenderingService.getInstance().renderAll(htmlBySlipKey);
+            for (Map.Entry<String, PdfRenderingService.RenderResult> entry : rendered.entrySet()) {
+                slipSpool.putPdf(entry.getKey(), entry.getValue().getPdfContent());
+                renderedKeys.add(entry.getKey());
+            }
+        } catch (Exception e) {
+            // Slips without a spooled PDF are rendered while sending
+            System.err.println("Error pre-rendering payment slip PDFs: " + e.getMessage());
+        }
+        htmlBySlipKey.clear();
+    }
+
+    private BufferedImage getSpooledBarcode(Contact contact, UnderagedMember underagedMember) {
+        String slipKey = contact.getId() + (underagedMember != null ? "_child_" + underagedMember.getId() : "");
+        BufferedImage barcodeImage = slipSpool.getBarcode(slipKey);
+        if (barcodeImage == null && contactLatestSlipKey.containsKey(contact)) {
+            barcodeImage = slipSpool.getBarcode(contactLatestSlipKey.get(contact));
         }
+        return barcodeImage;
     }
 
     private int getContactIdFromKey(String key) {
@@ -1190,7 +1476,7 @@ public class MultipleGenerationBarcodeDialog {
     }
 
     private long getSlipCountForContact(int contactId) {
-        return allGeneratedHtmlMap.keySet().stream()
+        return slipSpool.keys().stream()
                 .filter(key -> getContactIdFromKey(key) == contactId)
                 .count();
     }
@@ -1372,11 +1658,7 @@ public class MultipleGenerationBarcodeDialog {
                 }
 
                 if (includeBarcode) {
-                    String slipKey = contact.getId() + (underagedMember != null ? "_child_" + underagedMember.getId() : "");
-                    barcodeImage = allGeneratedBarcodeMap.get(slipKey);
-                    if (barcodeImage == null) {
-                        barcodeImage = contactBarcodeImageMap.get(contact);
-                    }
+                    barcodeImage = getSpooledBarcode(contact, underagedMember);
                 }
 
                 boolean success;
@@ -1393,6 +1675,9 @@ public class MultipleGenerationBarcodeDialog {
                 } else {
                     success = oauthManager.sendEmail(contact.getEmail(), subject, message);
                 }
+                if (success) {
+                    recordIssuedSlips(List.of(issuedSlipKey(contact, underagedMember)), PaymentInfo.STATUS_SENT);
+                }
 
                 Platform.runLater(() -> {
                     progressAlert.close();
@@ -1427,21 +1712,17 @@ public class MultipleGenerationBarcodeDialog {
     }
 
     private byte[] convertHtmlToPdf(String htmlContent) throws Exception {
-        ByteArrayOutputStream pdfOutputStream = new ByteArrayOutputStream();
-        try {
-            HtmlConverter.convertToPdf(htmlContent, pdfOutputStream);
-            return pdfOutputStream.toByteArray();
-        } finally {
-            pdfOutputStream.close();
-        }
+        return PdfRenderingService.getInstance().renderToBytes(htmlContent);
     }
 
-    private void printIndividualUplatnica(javafx.scene.web.WebView webView) {
+    private void printIndividualUplatnica(javafx.scene.web.WebView webView, Contact contact, UnderagedMember underagedMember) {
         try {
             javafx.print.PrinterJob job = javafx.print.PrinterJob.createPrinterJob();
             if (job != null && job.showPrintDialog(dialog)) {
                 webView.getEngine().print(job);
-                job.endJob();
+                if (job.endJob()) {
+                    recordIssuedSlips(List.of(issuedSlipKey(contact, underagedMember)), PaymentInfo.STATUS_GENERATED);
+                }
             }
         } catch (Exception e) {
             System.err.println("Error printing individual uplatnica: " + e.getMessage());
@@ -1471,12 +1752,13 @@ public class MultipleGenerationBarcodeDialog {
                 fileName += "_" + timestamp;
 
                 String slipKey = contact.getId() + (underagedMember != null ? "_child_" + underagedMember.getId() : "");
-                String uplatnicaHtml = allGeneratedHtmlMap.get(slipKey);
-                BufferedImage barcodeImage = allGeneratedBarcodeMap.get(slipKey);
+                String uplatnicaHtml = slipSpool.getHtml(slipKey);
+                BufferedImage barcodeImage = slipSpool.getBarcode(slipKey);
 
-                if (uplatnicaHtml == null) {
-                    uplatnicaHtml = contactUplatnicaHtmlMap.get(contact);
-                    barcodeImage = contactBarcodeImageMap.get(contact);
+                if (uplatnicaHtml == null && contactLatestSlipKey.containsKey(contact)) {
+                    slipKey = contactLatestSlipKey.get(contact);
+                    uplatnicaHtml = slipSpool.getHtml(slipKey);
+                    barcodeImage = slipSpool.getBarcode(slipKey);
                 }
 
                 if (uplatnicaHtml != null) {
@@ -1490,6 +1772,9 @@ public class MultipleGenerationBarcodeDialog {
                     File imageFile = new File(selectedDirectory, "barcode_" + fileName + ".png");
                     ImageIO.write(barcodeImage, "png", imageFile);
                 }
+                if (uplatnicaHtml != null) {
+                    recordIssuedSlips(List.of(slipKey), PaymentInfo.STATUS_GENERATED);
+                }
 
                 String successMessage = languageManager.getText("barcode.save.success.message").replace("{0}",
                         contact.getFirstName() + " " + contact.getLastName());
@@ -1515,71 +1800,37 @@ public class MultipleGenerationBarcodeDialog {
     }
 
     private String generateHUB3DataForContact(Contact contact, UnderagedMember underagedMember) {
-        StringBuilder hub3Data = new StringBuilder();
-
-        hub3Data.append(FIXED_BANK_CODE).append("\n");
-        hub3Data.append(FIXED_CURRENCY).append("\n");
-
-        String amountCents = paymentTemplate.getAmount().multiply(new java.math.BigDecimal("100")).toBigInteger().toString();
-        hub3Data.append(String.format("%015d", Long.parseLong(amountCents))).append("\n");
-
-        hub3Data.append(normalizeTextForHUB3(contact.getFirstName() + " " + contact.getLastName())).append("\n");
-
-        String payerAddress = "";
-        if (contact.getStreetName() != null && !contact.getStreetName().trim().isEmpty()) {
-            payerAddress = contact.getStreetName();
-            if (contact.getStreetNum() != null && !contact.getStreetNum().trim().isEmpty()) {
-                payerAddress += " " + contact.getStreetNum();
-            }
-        }
-        hub3Data.append(normalizeTextForHUB3(payerAddress)).append("\n");
-
-        String payerCity = "";
-        if (contact.getPostalCode() != null && !contact.getPostalCode().trim().isEmpty()) {
-            payerCity = contact.getPostalCode();
-            if (contact.getCity() != null && !contact.getCity().trim().isEmpty()) {
-                payerCity += " " + contact.getCity();
-            }
-        } else if (contact.getCity() != null && !contact.getCity().trim().isEmpty()) {
-            payerCity = contact.getCity();
-        }
-        hub3Data.append(normalizeTextForHUB3(payerCity)).append("\n");
-
-        hub3Data.append(normalizeTextForHUB3(organization.getName())).append("\n");
-
-        String recipientAddress = "";
-        if (organization.getStreetName() != null && !organization.getStreetName().trim().isEmpty()) {
-            recipientAddress = organization.getStreetName();
-            if (organization.getStreetNum() != null && !organization.getStreetNum().trim().isEmpty()) {
-                recipientAddress += " " + organization.getStreetNum();
-            }
-        }
-        hub3Data.append(normalizeTextForHUB3(recipientAddress)).append("\n");
-
-        String recipientCity = "";
-        if (organization.getPostalCode() != null && !organization.getPostalCode().trim().isEmpty()) {
-            recipientCity = organization.getPostalCode();
-            if (organization.getCity() != null && !organization.getCity().trim().isEmpty()) {
-                recipientCity += " " + organization.getCity();
-            }
-        } else if (organization.getCity() != null && !organization.getCity().trim().isEmpty()) {
-            recipientCity = organization.getCity();
-        }
-        hub3Data.append(normalizeTextForHUB3(recipientCity)).append("\n");
-
-        hub3Data.append(organization.getIban()).append("\n");
-        hub3Data.append(paymentTemplate.getModelOfPayment() != null ? paymentTemplate.getModelOfPayment() : "").append("\n");
-
         String reference = processReferenceTemplate(paymentTemplate.getPozivNaBroj(), contact, underagedMember);
-        hub3Data.append(reference).append("\n");
-
-        hub3Data.append("").append("\n");
-
         String processedDescription = TemplateProcessor.processTemplate(
                 paymentTemplate.getDescription(), contact, underagedMember);
-        hub3Data.append(normalizeTextForHUB3(processedDescription));
 
-        return hub3Data.toString();
+        return buildHub3Payload(contact, organization, paymentTemplate.getAmount(),
+                paymentTemplate.getModelOfPayment(), reference, processedDescription);
+    }
+
+    /**
+     * HUB-3 payload of a bulk slip, with diacritics folded in the text fields.
+     *
+     * @param reference Reference with its template already filled in
+     * @param description Description with its template already filled in
+     */
+    static String buildHub3Payload(Contact payer, Organization organization, java.math.BigDecimal amount,
+                                   String modelOfPayment, String reference, String description) {
+        return Hub3Encoder.forCurrentThread()
+                .begin(true)
+                .amount(amount)
+                .field(payer.getFirstName() + " " + payer.getLastName())
+                .address(payer.getStreetName(), payer.getStreetNum())
+                .place(payer.getPostalCode(), payer.getCity())
+                .field(organization.getName())
+                .address(organization.getStreetName(), organization.getStreetNum())
+                .place(organization.getPostalCode(), organization.getCity())
+                .field(organization.getIban())
+                .field(modelOfPayment)
+                .field(reference)
+                .field("")
+                .field(description)
+                .encode();
     }
 
     private String processReferenceTemplate(String referenceTemplate, Contact contact, UnderagedMember underagedMember) {
@@ -1669,6 +1920,19 @@ public class MultipleGenerationBarcodeDialog {
     }
 
     // Inner classes
+    private static class GeneratedSlip {
+        private final Contact contact;
+        private final UnderagedMember underagedMember;
+
+        GeneratedSlip(Contact contact, UnderagedMember underagedMember) {
+            this.contact = contact;
+            this.underagedMember = underagedMember;
+        }
+
+        public Contact getContact() { return contact; }
+        public UnderagedMember getUnderagedMember() { return underagedMember; }
+    }
+
     private static class ContactItem {
         private final Contact contact;
         private boolean selected;
@@ -1676,6 +1940,7 @@ public class MultipleGenerationBarcodeDialog {
         private String error;
         private boolean underage;
         private String underagedInfo;
+        private LocalDateTime issuedAt;
 
         public ContactItem(Contact contact) {
             this.contact = contact;
@@ -1697,6 +1962,8 @@ public class MultipleGenerationBarcodeDialog {
         public void setUnderage(boolean underage) { this.underage = underage; }
         public String getUnderagedInfo() { return underagedInfo; }
         public void setUnderagedInfo(String underagedInfo) { this.underagedInfo = underagedInfo; }
+        public LocalDateTime getIssuedAt() { return issuedAt; }
+        public void setIssuedAt(LocalDateTime issuedAt) { this.issuedAt = issuedAt; }
 
         public String getDisplayName() {
             return contact.getFirstName() + " " + contact.getLastName();
@@ -1726,6 +1993,8 @@ public class MultipleGenerationBarcodeDialog {
         }
     }
 
+    private static final DateTimeFormatter ISSUED_DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy.");
+
     private class ContactListCell extends ListCell<ContactItem> {
         private CheckBox checkBox;
         private Label nameLabel;
@@ -1795,6 +2064,10 @@ public class MultipleGenerationBarcodeDialog {
                     statusLabel.setText(LanguageManager.getInstance().getText("barcode.contact.status.error")
                             .replace("{0}", item.getError()));
                     statusLabel.setStyle("-fx-text-fill: #dc3545; -fx-font-size: 10px; -fx-font-weight: bold;");
+                } else if (item.getIssuedAt() != null) {
+                    statusLabel.setText(LanguageManager.getInstance().getText("barcode.contact.status.issued")
+                            .replace("{0}", item.getIssuedAt().format(ISSUED_DATE_FORMAT)));
+                    statusLabel.setStyle("-fx-text-fill: #856404; -fx-font-size: 10px; -fx-font-weight: bold;");
                 } else {
                     statusLabel.setText(LanguageManager.getInstance().getText("barcode.contact.status.pending"));
                     statusLabel.setStyle("-fx-text-fill: #adb5bd; -fx-font-size: 10px;");
@@ -14,14 +14,24 @@ import javafx.stage.Stage;
 import smallbusinessbuddycrm.database.ContactDAO;
 import smallbusinessbuddycrm.database.ListsDAO;
 import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.model.EmailCampaign;
 import smallbusinessbuddycrm.model.List;
+import smallbusinessbuddycrm.model.OutboxEmail;
+import smallbusinessbuddycrm.services.google.CampaignRenderer;
+import smallbusinessbuddycrm.services.google.EmailOutboxDispatcher;
 import smallbusinessbuddycrm.services.google.GoogleOAuthManager;
+import smallbusinessbuddycrm.services.newsletter.RecipientResolver;
 import smallbusinessbuddycrm.utilities.LanguageManager;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class NewsletterSendDialog {
@@ -30,6 +40,7 @@ public class NewsletterSendDialog {
     private GoogleOAuthManager oauthManager;
     private ListsDAO listsDAO;
     private ContactDAO contactDAO;
+    private RecipientResolver recipientResolver;
     private LanguageManager languageManager;
 
     // Dialog components
@@ -37,10 +48,12 @@ public class NewsletterSendDialog {
     private TextField subjectField;
     private TextArea previewArea;
     private Label statusLabel;
+    private Label throughputLabel;
     private Label recipientCountLabel;
     private ProgressBar progressBar;
     private Button sendButton;
     private Button cancelButton;
+    private Button reportButton;
 
     // UI Labels that need to be updated on language change
     private Label titleLabel;
@@ -75,6 +88,7 @@ public class NewsletterSendDialog {
         this.oauthManager = GoogleOAuthManager.getInstance();
         this.listsDAO = new ListsDAO();
         this.contactDAO = new ContactDAO();
+        this.recipientResolver = new RecipientResolver(contactDAO);
 
         createDialog(parentStage);
 
@@ -377,7 +391,10 @@ public class NewsletterSendDialog {
         statusLabel = new Label(languageManager.getText("newsletter.send.status.ready"));
         statusLabel.setStyle("-fx-text-fill: #666;");
 
-        progressBox.getChildren().addAll(progressTitleLabel, progressBar, statusLabel);
+        throughputLabel = new Label();
+        throughputLabel.setStyle("-fx-text-fill: #666; -fx-font-size: 11px;");
+
+        progressBox.getChildren().addAll(progressTitleLabel, progressBar, statusLabel, throughputLabel);
 
         // Store reference for showing/hiding
         progressBox.managedProperty().bind(progressBox.visibleProperty());
@@ -397,7 +414,11 @@ public class NewsletterSendDialog {
         sendButton.setStyle("-fx-background-color: #28a745; -fx-text-fill: white; -fx-padding: 10 20; -fx-border-radius: 4; -fx-font-weight: bold;");
         sendButton.setOnAction(e -> handleSend());
 
-        buttonBox.getChildren().addAll(cancelButton, sendButton);
+        reportButton = new Button("📊 " + languageManager.getText("newsletter.send.button.report"));
+        reportButton.setStyle("-fx-background-color: #17a2b8; -fx-text-fill: white; -fx-padding: 10 20; -fx-border-radius: 4;");
+        reportButton.setOnAction(e -> new CampaignReportDialog(dialog).show());
+
+        buttonBox.getChildren().addAll(reportButton, cancelButton, sendButton);
         return buttonBox;
     }
 
@@ -439,24 +460,27 @@ public class NewsletterSendDialog {
         List selectedList = listSelector.getSelectionModel().getSelectedItem();
         if (selectedList != null) {
             try {
-                // Get contacts for this list
-                ArrayList<Contact> contacts = getContactsForList(selectedList.getId());
-
-                // Filter contacts with email addresses
-                long emailCount = contacts.stream()
-                        .filter(c -> c.getEmail() != null && !c.getEmail().trim().isEmpty())
-                        .count();
-
-                recipientCountLabel.setText(
-                        languageManager.getText("newsletter.send.recipient.count")
-                                .replace("{0}", selectedList.getName())
-                                .replace("{1}", String.valueOf(contacts.size()))
-                                .replace("{2}", String.valueOf(emailCount))
-                                .replace("{3}", String.valueOf(emailCount))
-                );
+                RecipientResolver.Resolution resolution = resolveRecipients(selectedList);
+                long emailCount = resolution.getContactCount() -
+                        resolution.countSuppressed(RecipientResolver.SuppressionReason.MISSING_ADDRESS);
+                int recipientCount = resolution.getRecipients().size();
+
+                String countText = languageManager.getText("newsletter.send.recipient.count")
+                        .replace("{0}", selectedList.getName())
+                        .replace("{1}", String.valueOf(resolution.getContactCount()))
+                        .replace("{2}", String.valueOf(emailCount))
+                        .replace("{3}", String.valueOf(recipientCount));
+                long duplicates = resolution.countSuppressed(RecipientResolver.SuppressionReason.DUPLICATE_ADDRESS);
+                long invalid = resolution.countSuppressed(RecipientResolver.SuppressionReason.INVALID_ADDRESS);
+                if (duplicates > 0 || invalid > 0) {
+                    countText += "\n" + languageManager.getText("newsletter.send.recipient.suppressed")
+                            .replace("{0}", String.valueOf(duplicates))
+                            .replace("{1}", String.valueOf(invalid));
+                }
+                recipientCountLabel.setText(countText);
                 recipientCountLabel.setStyle("-fx-text-fill: #2e7d32; -fx-font-weight: bold;");
 
-                if (emailCount == 0) {
+                if (recipientCount == 0) {
                     recipientCountLabel.setText(recipientCountLabel.getText() + " ⚠️ " +
                             languageManager.getText("newsletter.send.no.email.addresses"));
                     recipientCountLabel.setStyle("-fx-text-fill: #856404; -fx-font-weight: bold;");
@@ -470,17 +494,14 @@ public class NewsletterSendDialog {
         }
     }
 
-    private ArrayList<Contact> getContactsForList(int listId) {
-        try {
-            // Use existing ContactDAO method that you already have working
-            java.util.List<Contact> contacts = contactDAO.getContactsInList(listId);
-            return new ArrayList<>(contacts);
-        } catch (Exception e) {
-            System.err.println("Error getting contacts for list: " + e.getMessage());
-            return new ArrayList<>();
-        }
+    /**
+     * Expands the list into unique, valid recipient addresses.
+     */
+    private RecipientResolver.Resolution resolveRecipients(List selectedList) {
+        return recipientResolver.resolveLists(java.util.List.of(selectedList.getId()));
     }
 
+
     private void updateUI() {
         boolean gmailConnected = oauthManager.isGmailConnected();
         boolean listSelected = listSelector.getSelectionModel().getSelectedItem() != null;
@@ -584,10 +605,8 @@ public class NewsletterSendDialog {
 
     private boolean showSendConfirmation(List selectedList, String subject) {
         try {
-            ArrayList<Contact> contacts = getContactsForList(selectedList.getId());
-            long emailCount = contacts.stream()
-                    .filter(c -> c.getEmail() != null && !c.getEmail().trim().isEmpty())
-                    .count();
+            RecipientResolver.Resolution resolution = resolveRecipients(selectedList);
+            int emailCount = resolution.getRecipients().size();
 
             if (emailCount == 0) {
                 showAlert(Alert.AlertType.WARNING,
@@ -608,6 +627,29 @@ public class NewsletterSendDialog {
                             .replace("{3}", subject)
             );
 
+            // Show who is left out and why before anything is sent
+            java.util.List<RecipientResolver.SuppressedRecipient> suppressed = resolution.getSuppressed();
+            if (!suppressed.isEmpty()) {
+                confirmation.setContentText(confirmation.getContentText() + "\n\n" +
+                        languageManager.getText("newsletter.send.confirmation.suppressed")
+                                .replace("{0}", String.valueOf(suppressed.size())));
+
+                StringBuilder details = new StringBuilder();
+                for (RecipientResolver.SuppressedRecipient entry : suppressed) {
+                    Contact contact = entry.getContact();
+                    details.append(contact.getFirstName()).append(' ').append(contact.getLastName())
+                            .append(" <").append(entry.getRawAddress() != null ? entry.getRawAddress() : "").append("> — ")
+                            .append(languageManager.getText("newsletter.send.suppressed.reason." +
+                                    entry.getReason().name().toLowerCase()))
+                            .append('\n');
+                }
+                TextArea detailsArea = new TextArea(details.toString());
+                detailsArea.setEditable(false);
+                detailsArea.setWrapText(true);
+                detailsArea.setPrefRowCount(8);
+                confirmation.getDialogPane().setExpandableContent(detailsArea);
+            }
+
             confirmation.initOwner(dialog);
 
             Optional<ButtonType> result = confirmation.showAndWait();
@@ -643,13 +685,18 @@ public class NewsletterSendDialog {
 
     private void performBulkSending(List selectedList, String subject) {
         try {
-            // Get all contacts with email addresses
-            ArrayList<Contact> allContacts = getContactsForList(selectedList.getId());
-            ArrayList<Contact> emailContacts = allContacts.stream()
-                    .filter(c -> c.getEmail() != null && !c.getEmail().trim().isEmpty())
-                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+            // Unique, valid addresses only; duplicates and malformed addresses cost no API calls
+            RecipientResolver.Resolution resolution = resolveRecipients(selectedList);
+            java.util.List<RecipientResolver.Recipient> recipients = resolution.getRecipients();
+            if (!resolution.getSuppressed().isEmpty()) {
+                System.out.println("📧 Suppressed " + resolution.getSuppressed().size() + " of " +
+                        resolution.getContactCount() + " contacts (" +
+                        resolution.countSuppressed(RecipientResolver.SuppressionReason.DUPLICATE_ADDRESS) + " duplicate, " +
+                        resolution.countSuppressed(RecipientResolver.SuppressionReason.INVALID_ADDRESS) + " invalid, " +
+                        resolution.countSuppressed(RecipientResolver.SuppressionReason.MISSING_ADDRESS) + " without address)");
+            }
 
-            if (emailContacts.isEmpty()) {
+            if (recipients.isEmpty()) {
                 Platform.runLater(() -> {
                     finishSending(false, languageManager.getText("newsletter.send.result.no.emails"));
                 });
@@ -658,65 +705,83 @@ public class NewsletterSendDialog {
 
             Platform.runLater(() -> {
                 statusLabel.setText(languageManager.getText("newsletter.send.status.sending")
-                        .replace("{0}", String.valueOf(emailContacts.size())));
+                        .replace("{0}", String.valueOf(recipients.size())));
             });
 
-            AtomicInteger successCount = new AtomicInteger(0);
-            AtomicInteger failureCount = new AtomicInteger(0);
-
-            // Send to each contact
-            for (int i = 0; i < emailContacts.size(); i++) {
-                if (Thread.currentThread().isInterrupted()) {
-                    break; // Stop if interrupted
-                }
-
-                Contact contact = emailContacts.get(i);
-                final int currentIndex = i;
-
+            if (!oauthManager.isGmailConnected()) {
                 Platform.runLater(() -> {
-                    double progress = (double) currentIndex / emailContacts.size();
-                    progressBar.setProgress(progress);
-                    statusLabel.setText(languageManager.getText("newsletter.send.status.sending.to")
-                            .replace("{0}", contact.getEmail())
-                            .replace("{1}", String.valueOf(currentIndex + 1))
-                            .replace("{2}", String.valueOf(emailContacts.size())));
+                    finishSending(false, languageManager.getText("newsletter.send.result.failed")
+                            .replace("{0}", languageManager.getText("newsletter.send.gmail.not.connected")));
                 });
+                return;
+            }
 
-                try {
-                    // ✅ CHANGED: Use HTML newsletter method instead of plain text
-                    boolean success = oauthManager.sendHtmlNewsletter(
-                            contact.getEmail(),
-                            subject,
-                            newsletterHtml
-                    );
-
-                    if (success) {
-                        successCount.incrementAndGet();
-                        System.out.println("✅ Newsletter sent to: " + contact.getEmail());
-                    } else {
-                        failureCount.incrementAndGet();
-                        System.err.println("❌ Failed to send newsletter to: " + contact.getEmail());
-                    }
-
-                    // Small delay between sends to avoid rate limiting
-                    Thread.sleep(100);
-
-                } catch (Exception e) {
-                    failureCount.incrementAndGet();
-                    System.err.println("❌ Error sending to " + contact.getEmail() + ": " + e.getMessage());
+            // The campaign ID is derived from the list and content, so sending the same
+            // newsletter again only reaches recipients who did not get it the first time
+            EmailCampaign campaign = new EmailCampaign(
+                    buildCampaignId(selectedList, subject), newsletterTitle, subject, newsletterHtml);
+            // The newsletter is rendered once; queued rows only carry the values for
+            // {{contact_attributes.*}} slots, filled in when each message is sent
+            CampaignRenderer renderer = new CampaignRenderer(subject, newsletterHtml);
+            java.util.List<OutboxEmail> emails = new ArrayList<>();
+            for (RecipientResolver.Recipient recipient : recipients) {
+                OutboxEmail email = new OutboxEmail(campaign.getId(), recipient.getAddress(), null);
+                if (renderer.isPersonalized()) {
+                    email.setMergeFields(CampaignRenderer.encodeMergeFields(renderer.resolveMergeFields(recipient.getContact())));
                 }
+                emails.add(email);
             }
 
+            AtomicInteger completedCount = new AtomicInteger(0);
+            // Recipients who already got this newsletter are skipped, so progress and ETA
+            // count only the emails the dispatcher actually waits for
+            AtomicInteger queuedCount = new AtomicInteger(recipients.size());
+            EmailOutboxDispatcher dispatcher = EmailOutboxDispatcher.getInstance();
+            EmailOutboxDispatcher.CampaignSummary summary = dispatcher.sendCampaign(
+                    campaign, emails, queuedCount::set, (email, result) -> {
+                        if (OutboxEmail.STATUS_SENT.equals(email.getStatus())) {
+                            System.out.println("✅ Newsletter sent to: " + email.getRecipient());
+                        } else {
+                            System.err.println("❌ Failed to send newsletter to: " + email.getRecipient() +
+                                    " (" + email.getLastError() + ")");
+                        }
+
+                        int completed = completedCount.incrementAndGet();
+                        int total = queuedCount.get();
+                        String throughput = dispatcher.getCampaignMetrics(campaign.getId())
+                                .map(metrics -> languageManager.getText("newsletter.send.status.throughput")
+                                        .replace("{0}", String.format("%.1f", metrics.getEmailsPerMinute()))
+                                        .replace("{1}", formatEta(metrics.estimateRemainingMillis(total - completed))))
+                                .orElse("");
+                        Platform.runLater(() -> {
+                            progressBar.setProgress((double) completed / total);
+                            statusLabel.setText(languageManager.getText("newsletter.send.status.sending.to")
+                                    .replace("{0}", email.getRecipient())
+                                    .replace("{1}", String.valueOf(completed))
+                                    .replace("{2}", String.valueOf(total)));
+                            throughputLabel.setText(throughput);
+                        });
+                    });
+
             // Finish sending
-            final String resultMessage = languageManager.getText("newsletter.send.result.completed")
-                    .replace("{0}", String.valueOf(successCount.get()))
-                    .replace("{1}", String.valueOf(failureCount.get()))
-                    .replace("{2}", String.valueOf(emailContacts.size()));
+            String resultMessage = languageManager.getText("newsletter.send.result.completed")
+                    .replace("{0}", String.valueOf(summary.getSent()))
+                    .replace("{1}", String.valueOf(summary.getFailed()))
+                    .replace("{2}", String.valueOf(recipients.size()));
+            if (summary.getSkipped() > 0) {
+                resultMessage += "\n\n" + languageManager.getText("newsletter.send.result.skipped")
+                        .replace("{0}", String.valueOf(summary.getSkipped()));
+            }
 
+            final String finalResultMessage = resultMessage;
+            final boolean success = summary.getSent() > 0 || (summary.getSkipped() > 0 && summary.getFailed() == 0);
             Platform.runLater(() -> {
-                finishSending(successCount.get() > 0, resultMessage);
+                finishSending(success, finalResultMessage);
             });
 
+        } catch (InterruptedException e) {
+            // Stopped by the user; the campaign's queued emails were cancelled
+            System.out.println("🛑 Newsletter sending stopped");
         } catch (Exception e) {
             System.err.println("Error in bulk sending: " + e.getMessage());
             e.printStackTrace();
@@ -728,6 +793,20 @@ public class NewsletterSendDialog {
         }
     }
 
+    private String formatEta(long millis) {
+        return millis < 0 ? languageManager.getText("campaign.report.eta.unknown") : CampaignReportDialog.formatDuration(millis);
+    }
+
+    private String buildCampaignId(List selectedList, String subject) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((subject + "\n" + newsletterHtml).getBytes(StandardCharsets.UTF_8));
+            return "newsletter-" + selectedList.getId() + "-" + HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            return "newsletter-" + selectedList.getId() + "-" + UUID.randomUUID();
+        }
+    }
+
     private void finishSending(boolean success, String message) {
         isSending = false;
         progressBar.setProgress(1.0);
@@ -0,0 +1,329 @@
+package smallbusinessbuddycrm.controllers.utilities;
+
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SplitPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.transform.Scale;
+import javafx.scene.web.WebView;
+import javafx.util.Duration;
+import smallbusinessbuddycrm.utilities.LanguageManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Virtualized gallery for generated payment slip previews.
+ *
+ * Replaces the previous layout of one WebView per slip, where every slip held a full
+ * WebKit instance. Slips are listed in a ListView so only visible cells exist. Each
+ * cell shows a thumbnail that is rendered on demand by a single off-screen WebView
+ * and kept in a small LRU cache. The selected slip is shown at full size in one
+ * shared WebView, and the action buttons work on that selection.
+ *
+ * Slip HTML is supplied lazily, so callers can keep it outside the heap.
+ *
+ * @param <T> Caller-defined item passed back to action handlers
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class SlipPreviewGallery<T> extends SplitPane {
+
+    private static final double SLIP_WIDTH = 975;
+    private static final double SLIP_HEIGHT = 400;
+    private static final double THUMBNAIL_WIDTH = 320;
+    private static final int THUMBNAIL_CACHE_SIZE = 100;
+
+    private final ObservableList<SlipEntry<T>> entries = FXCollections.observableArrayList();
+    private final ListView<SlipEntry<T>> slipListView = new ListView<>(entries);
+    private final WebView zoomView = new WebView();
+    private final Label zoomPlaceholder = new Label();
+    private final HBox actionBar = new HBox(10);
+
+    private final WebView thumbnailRenderer = new WebView();
+    private final Map<String, Image> thumbnailCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > THUMBNAIL_CACHE_SIZE;
+        }
+    };
+    private final Deque<SlipEntry<T>> renderQueue = new ArrayDeque<>();
+    private final Map<String, Consumer<Image>> thumbnailListeners = new HashMap<>();
+    private SlipEntry<T> renderingEntry;
+
+    public SlipPreviewGallery() {
+        LanguageManager languageManager = LanguageManager.getInstance();
+
+        slipListView.setCellFactory(list -> new SlipCell());
+        slipListView.setFixedCellSize(THUMBNAIL_WIDTH * SLIP_HEIGHT / SLIP_WIDTH + 70);
+        slipListView.getSelectionModel().selectedItemProperty().addListener(
+                (obs, oldEntry, newEntry) -> showZoomed(newEntry));
+
+        // The renderer sits behind the list so WebKit paints it, but it is never visible
+        thumbnailRenderer.setManaged(false);
+        thumbnailRenderer.resize(SLIP_WIDTH, SLIP_HEIGHT);
+        thumbnailRenderer.getEngine().getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
+            switch (newState) {
+                case SUCCEEDED -> captureThumbnail();
+                case FAILED, CANCELLED -> finishThumbnail(null);
+                default -> { }
+            }
+        });
+
+        StackPane listPane = new StackPane(thumbnailRenderer, slipListView);
+        Rectangle listClip = new Rectangle();
+        listClip.widthProperty().bind(listPane.widthProperty());
+        listClip.heightProperty().bind(listPane.heightProperty());
+        listPane.setClip(listClip);
+        listPane.setMinWidth(THUMBNAIL_WIDTH + 40);
+
+        zoomView.zoomProperty().bind(zoomView.widthProperty().divide(SLIP_WIDTH));
+        zoomView.setVisible(false);
+        zoomPlaceholder.setText(languageManager.getText("preview.gallery.select"));
+        zoomPlaceholder.setStyle("-fx-text-fill: #adb5bd; -fx-font-size: 13px;");
+        StackPane zoomPane = new StackPane(zoomPlaceholder, zoomView);
+        VBox.setVgrow(zoomPane, Priority.ALWAYS);
+
+        actionBar.setAlignment(Pos.CENTER_LEFT);
+        actionBar.setDisable(true);
+
+        VBox detailPane = new VBox(10, zoomPane, actionBar);
+        detailPane.setPadding(new Insets(10));
+
+        setOrientation(Orientation.HORIZONTAL);
+        getItems().addAll(listPane, detailPane);
+        setDividerPositions(0.35);
+    }
+
+    /**
+     * Adds a slip to the gallery. Must be called on the JavaFX Application Thread.
+     *
+     * @param entry Slip to add
+     */
+    public void addEntry(SlipEntry<T> entry) {
+        entries.add(entry);
+        if (entries.size() == 1) {
+            slipListView.getSelectionModel().selectFirst();
+        }
+    }
+
+    /**
+     * Adds a button that acts on the currently selected slip.
+     *
+     * @param text Button text
+     * @param style Button style
+     * @param handler Handler receiving the selected item
+     */
+    public void addAction(String text, String style, Consumer<T> handler) {
+        Button button = new Button(text);
+        button.setStyle(style);
+        button.setOnAction(e -> {
+            SlipEntry<T> selected = slipListView.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                handler.accept(selected.getItem());
+            }
+        });
+        actionBar.getChildren().add(button);
+    }
+
+    /**
+     * Shared WebView showing the selected slip, used for printing.
+     *
+     * @return Zoomed slip view
+     */
+    public WebView getZoomView() {
+        return zoomView;
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all slips and drops cached thumbnails.
+     */
+    public void clear() {
+        renderQueue.clear();
+        thumbnailListeners.clear();
+        thumbnailCache.clear();
+        entries.clear();
+        showZoomed(null);
+    }
+
+    private void showZoomed(SlipEntry<T> entry) {
+        actionBar.setDisable(entry == null);
+        zoomView.setVisible(entry != null);
+        zoomPlaceholder.setVisible(entry == null);
+        zoomView.getEngine().loadContent(entry != null ? entry.getHtml() : "");
+    }
+
+    private void requestThumbnail(SlipEntry<T> entry, Consumer<Image> listener) {
+        Image cached = thumbnailCache.get(entry.getKey());
+        if (cached != null) {
+            listener.accept(cached);
+            return;
+        }
+
+        thumbnailListeners.put(entry.getKey(), listener);
+        if (!renderQueue.contains(entry) && entry != renderingEntry) {
+            renderQueue.addLast(entry);
+        }
+        renderNextThumbnail();
+    }
+
+    private void cancelThumbnail(SlipEntry<T> entry) {
+        thumbnailListeners.remove(entry.getKey());
+        renderQueue.remove(entry);
+    }
+
+    private void renderNextThumbnail() {
+        if (renderingEntry != null || renderQueue.isEmpty()) {
+            return;
+        }
+        renderingEntry = renderQueue.pollFirst();
+        thumbnailRenderer.getEngine().loadContent(renderingEntry.getHtml());
+    }
+
+    private void captureThumbnail() {
+        if (renderingEntry == null) {
+            return;
+        }
+
+        // Give WebKit one more pulse to paint background images before the snapshot
+        PauseTransition paintDelay = new PauseTransition(Duration.millis(50));
+        paintDelay.setOnFinished(e -> {
+            double scale = THUMBNAIL_WIDTH / SLIP_WIDTH;
+            SnapshotParameters parameters = new SnapshotParameters();
+            parameters.setFill(Color.WHITE);
+            parameters.setTransform(new Scale(scale, scale));
+            finishThumbnail(thumbnailRenderer.snapshot(parameters, null));
+        });
+        paintDelay.play();
+    }
+
+    private void finishThumbnail(Image thumbnail) {
+        if (renderingEntry == null) {
+            return;
+        }
+
+        String key = renderingEntry.getKey();
+        renderingEntry = null;
+
+        if (thumbnail != null) {
+            thumbnailCache.put(key, thumbnail);
+        }
+        Consumer<Image> listener = thumbnailListeners.remove(key);
+        if (listener != null && thumbnail != null) {
+            listener.accept(thumbnail);
+        }
+        renderNextThumbnail();
+    }
+
+    /**
+     * A single slip shown in the gallery.
+     *
+     * @param <T> Caller-defined item type
+     */
+    public static class SlipEntry<T> {
+        private final String key;
+        private final T item;
+        private final String title;
+        private final String subtitle;
+        private final String titleStyle;
+        private final Supplier<String> htmlSupplier;
+
+        public SlipEntry(String key, T item, String title, String subtitle, String titleStyle,
+                         Supplier<String> htmlSupplier) {
+            this.key = key;
+            this.item = item;
+            this.title = title;
+            this.subtitle = subtitle;
+            this.titleStyle = titleStyle;
+            this.htmlSupplier = htmlSupplier;
+        }
+
+        public String getKey() { return key; }
+        public T getItem() { return item; }
+        public String getTitle() { return title; }
+        public String getSubtitle() { return subtitle; }
+        public String getTitleStyle() { return titleStyle; }
+
+        public String getHtml() {
+            String html = htmlSupplier.get();
+            return html != null ? html : "";
+        }
+    }
+
+    private class SlipCell extends ListCell<SlipEntry<T>> {
+        private final Label titleLabel = new Label();
+        private final Label subtitleLabel = new Label();
+        private final ImageView thumbnailView = new ImageView();
+        private final Label renderingLabel = new Label(LanguageManager.getInstance().getText("preview.gallery.rendering"));
+        private final StackPane thumbnailPane = new StackPane(renderingLabel, thumbnailView);
+        private final VBox content = new VBox(4, titleLabel, subtitleLabel, thumbnailPane);
+        private SlipEntry<T> shownEntry;
+
+        SlipCell() {
+            titleLabel.setFont(Font.font("System", FontWeight.BOLD, 13));
+            subtitleLabel.setStyle("-fx-text-fill: #6c757d; -fx-font-size: 11px;");
+            renderingLabel.setStyle("-fx-text-fill: #adb5bd; -fx-font-size: 11px;");
+            thumbnailView.setFitWidth(THUMBNAIL_WIDTH);
+            thumbnailView.setPreserveRatio(true);
+            thumbnailPane.setPrefSize(THUMBNAIL_WIDTH, THUMBNAIL_WIDTH * SLIP_HEIGHT / SLIP_WIDTH);
+            thumbnailPane.setAlignment(Pos.TOP_LEFT);
+        }
+
+        @Override
+        protected void updateItem(SlipEntry<T> entry, boolean empty) {
+            super.updateItem(entry, empty);
+
+            if (shownEntry != null && shownEntry != entry) {
+                cancelThumbnail(shownEntry);
+            }
+            shownEntry = empty ? null : entry;
+
+            if (empty || entry == null) {
+                setGraphic(null);
+                return;
+            }
+
+            titleLabel.setText(entry.getTitle());
+            titleLabel.setStyle(entry.getTitleStyle());
+            subtitleLabel.setText(entry.getSubtitle());
+            subtitleLabel.setVisible(entry.getSubtitle() != null && !entry.getSubtitle().isEmpty());
+            thumbnailView.setImage(null);
+            renderingLabel.setVisible(true);
+
+            requestThumbnail(entry, image -> {
+                if (shownEntry == entry) {
+                    thumbnailView.setImage(image);
+                    renderingLabel.setVisible(false);
+                }
+            });
+            setGraphic(content);
+        }
+    }
+}
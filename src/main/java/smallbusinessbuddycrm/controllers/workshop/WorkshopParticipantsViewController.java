@@ -16,13 +16,14 @@ import smallbusinessbuddycrm.model.WorkshopParticipant.ParticipantType;
 import smallbusinessbuddycrm.model.WorkshopParticipant.PaymentStatus;
 import smallbusinessbuddycrm.database.TeacherDAO;
 import smallbusinessbuddycrm.model.Teacher;
+import smallbusinessbuddycrm.controllers.utilities.ExportProgressDialog;
+import smallbusinessbuddycrm.services.export.CsvExportTask;
+import smallbusinessbuddycrm.services.export.CsvWriter;
 import smallbusinessbuddycrm.utilities.LanguageManager;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.net.URL;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -30,6 +31,8 @@ import java.util.stream.Collectors;
 
 public class WorkshopParticipantsViewController implements Initializable {
 
+    private static final DateTimeFormatter EXPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     // Current Participants Tab
     @FXML private TabPane participantsTabPane;
     @FXML private TableView<Map<String, Object>> participantsTable;
@@ -1233,67 +1236,92 @@ public class WorkshopParticipantsViewController implements Initializable {
         } catch (Exception e) {
             System.err.println("Error during export: " + e.getMessage());
             e.printStackTrace();
-
-            Alert errorAlert = new Alert(Alert.AlertType.ERROR);
-            errorAlert.setTitle(languageManager.getText("workshop.participants.export.error.title"));
-            errorAlert.setHeaderText(languageManager.getText("workshop.participants.export.error.header"));
-            errorAlert.setContentText(languageManager.getText("workshop.participants.export.error.content")
-                    .replace("{0}", e.getMessage()));
-            errorAlert.showAndWait();
+            showExportError(e);
         }
     }
 
-    private void exportParticipantsToCSV(File file) throws IOException {
+    private void showExportError(Throwable e) {
+        LanguageManager languageManager = LanguageManager.getInstance();
+
+        Alert errorAlert = new Alert(Alert.AlertType.ERROR);
+        errorAlert.setTitle(languageManager.getText("workshop.participants.export.error.title"));
+        errorAlert.setHeaderText(languageManager.getText("workshop.participants.export.error.header"));
+        errorAlert.setContentText(languageManager.getText("workshop.participants.export.error.content")
+                .replace("{0}", String.valueOf(e.getMessage())));
+        errorAlert.showAndWait();
+    }
+
+    /**
+     * Exports the participants of the current workshop to a CSV file in the background.
+     * Participants are streamed from the database and written as they are read.
+     */
+    private void exportParticipantsToCSV(File file) {
         LanguageManager languageManager = LanguageManager.getInstance();
+        Workshop workshop = currentWorkshop;
+        int participantCount = participantsList.size();
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, java.nio.charset.StandardCharsets.UTF_8))) {
-
-            // Write BOM for UTF-8 (helps with Excel compatibility)
-            writer.write('\ufeff');
-
-            // Write workshop header information
-            writer.write("# " + languageManager.getText("workshop.participants.export.workshop.info"));
-            writer.newLine();
-            writer.write("# " + languageManager.getText("workshop.participants.export.workshop.name") + ": " + currentWorkshop.getName());
-            writer.newLine();
-            writer.write("# " + languageManager.getText("workshop.participants.export.workshop.dates") + ": " +
-                    currentWorkshop.getFormattedFromDate() + " - " + currentWorkshop.getFormattedToDate());
-            writer.newLine();
-            writer.write("# " + languageManager.getText("workshop.participants.export.export.date") + ": " +
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-            writer.newLine();
-            writer.write("# " + languageManager.getText("workshop.participants.export.total.participants") + ": " + participantsList.size());
-            writer.newLine();
-            writer.newLine();
-
-            // Write CSV header
-            writeCSVHeader(writer, languageManager);
-
-            // Write participant data
-            for (Map<String, Object> participant : participantsList) {
-                writeParticipantRow(writer, participant, languageManager);
+        CsvExportTask exportTask = new CsvExportTask(file, participantCount) {
+            private long written;
+
+            @Override
+            protected long export(CsvWriter csv) throws Exception {
+                // BOM for UTF-8 (helps with Excel compatibility)
+                csv.writeBom();
+
+                // Workshop header information
+                csv.comment(languageManager.getText("workshop.participants.export.workshop.info"));
+                csv.comment(languageManager.getText("workshop.participants.export.workshop.name") + ": " + workshop.getName());
+                csv.comment(languageManager.getText("workshop.participants.export.workshop.dates") + ": " +
+                        workshop.getFormattedFromDate() + " - " + workshop.getFormattedToDate());
+                csv.comment(languageManager.getText("workshop.participants.export.export.date") + ": " +
+                        LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+                csv.comment(languageManager.getText("workshop.participants.export.total.participants") + ": " + participantCount);
+                csv.blankLine();
+
+                writeCSVHeader(csv, languageManager);
+
+                long read = participantDAO.forEachParticipantWithDetails(workshop.getId(), participant -> {
+                    writeParticipantRow(csv, participant, languageManager);
+                    written++;
+                    return rowRead();
+                });
+                if (read < 0) {
+                    throw new SQLException("Participants could not be read from the database");
+                }
+                return written;
             }
 
-            writer.flush();
+            @Override
+            protected void succeeded() {
+                Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
+                successAlert.setTitle(languageManager.getText("workshop.participants.export.success.title"));
+                successAlert.setHeaderText(languageManager.getText("workshop.participants.export.success.header"));
+                successAlert.setContentText(languageManager.getText("workshop.participants.export.success.content")
+                        .replace("{0}", file.getAbsolutePath())
+                        .replace("{1}", String.valueOf(getValue())));
+                successAlert.showAndWait();
+            }
 
-            // Show success message
-            Alert successAlert = new Alert(Alert.AlertType.INFORMATION);
-            successAlert.setTitle(languageManager.getText("workshop.participants.export.success.title"));
-            successAlert.setHeaderText(languageManager.getText("workshop.participants.export.success.header"));
-            successAlert.setContentText(languageManager.getText("workshop.participants.export.success.content")
-                    .replace("{0}", file.getAbsolutePath())
-                    .replace("{1}", String.valueOf(participantsList.size())));
-            successAlert.showAndWait();
+            @Override
+            protected void cancelled() {
+                System.out.println("Participant export cancelled");
+            }
 
-        } catch (IOException e) {
-            System.err.println("Error writing CSV file: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+            @Override
+            protected void failed() {
+                Throwable e = getException();
+                System.err.println("Error writing CSV file: " + e.getMessage());
+                e.printStackTrace();
+                showExportError(e);
+            }
+        };
+
+        new ExportProgressDialog(exportParticipantsButton.getScene().getWindow(),
+                languageManager.getText("workshop.participants.export.progress"), exportTask).start();
     }
 
-    private void writeCSVHeader(BufferedWriter writer, LanguageManager languageManager) throws IOException {
-        String[] headers = {
+    private void writeCSVHeader(CsvWriter csv, LanguageManager languageManager) {
+        csv.row(
                 languageManager.getText("workshop.participants.export.header.name"),
                 languageManager.getText("workshop.participants.export.header.type"),
                 languageManager.getText("workshop.participants.export.header.age"),
@@ -1304,50 +1332,21 @@ public class WorkshopParticipantsViewController implements Initializable {
                 languageManager.getText("workshop.participants.export.header.notes"),
                 languageManager.getText("workshop.participants.export.header.enrollment.date"),
                 languageManager.getText("workshop.participants.export.header.last.updated")
-        };
-
-        writer.write(String.join(",", escapeCSVFields(headers)));
-        writer.newLine();
+        );
     }
 
-    private void writeParticipantRow(BufferedWriter writer, Map<String, Object> participant, LanguageManager languageManager) throws IOException {
-        // Extract and format participant data
-        String name = getString(participant, "participant_name");
-        String type = translateParticipantType(getString(participant, "participant_type"), languageManager);
-        String age = getString(participant, "participant_age");
-        String email = getEmailForDisplay(participant);
-        String phone = getPhoneForDisplay(participant);
-        String parentInfo = getParentInfo(participant);
-        String paymentStatus = translatePaymentStatus(getString(participant, "payment_status"), languageManager);
-        String notes = getString(participant, "notes");
-        String enrollmentDate = formatDate(getString(participant, "created_at"));
-        String lastUpdated = formatDate(getString(participant, "updated_at"));
-
-        String[] fields = {name, type, age, email, phone, parentInfo, paymentStatus, notes, enrollmentDate, lastUpdated};
-
-        writer.write(String.join(",", escapeCSVFields(fields)));
-        writer.newLine();
-    }
-
-    private String[] escapeCSVFields(String[] fields) {
-        String[] escapedFields = new String[fields.length];
-        for (int i = 0; i < fields.length; i++) {
-            escapedFields[i] = escapeCSVField(fields[i]);
-        }
-        return escapedFields;
-    }
-
-    private String escapeCSVField(String field) {
-        if (field == null) {
-            return "\"\"";
-        }
-
-        // If field contains comma, quote, or newline, wrap in quotes and escape quotes
-        if (field.contains(",") || field.contains("\"") || field.contains("\n") || field.contains("\r")) {
-            return "\"" + field.replace("\"", "\"\"") + "\"";
-        }
-
-        return field;
+    private void writeParticipantRow(CsvWriter csv, Map<String, Object> participant, LanguageManager languageManager) {
+        csv.field(getString(participant, "participant_name"))
+                .field(translateParticipantType(getString(participant, "participant_type"), languageManager))
+                .field(getString(participant, "participant_age"))
+                .field(getEmailForDisplay(participant))
+                .field(getPhoneForDisplay(participant))
+                .field(getParentInfo(participant))
+                .field(translatePaymentStatus(getString(participant, "payment_status"), languageManager))
+                .field(getString(participant, "notes"))
+                .field(formatDate(getString(participant, "created_at")))
+                .field(formatDate(getString(participant, "updated_at")))
+                .endRow();
     }
 
     private String getString(Map<String, Object> map, String key) {
@@ -1419,7 +1418,7 @@ public class WorkshopParticipantsViewController implements Initializable {
         try {
             // Try to parse and format the date for better readability
             LocalDateTime dateTime = LocalDateTime.parse(dateString);
-            return dateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+            return dateTime.format(EXPORT_DATE_FORMAT);
         } catch (Exception e) {
             // If parsing fails, return the original string
             return dateString;
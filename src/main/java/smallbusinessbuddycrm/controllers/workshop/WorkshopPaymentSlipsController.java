@@ -17,6 +17,7 @@ import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
@@ -24,8 +25,13 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.util.StringConverter;
 import smallbusinessbuddycrm.controllers.utilities.MultipleGenerationBarcodeDialog;
+import smallbusinessbuddycrm.controllers.utilities.SlipPreviewGallery;
 import smallbusinessbuddycrm.database.*;
 import smallbusinessbuddycrm.model.*;
+import smallbusinessbuddycrm.services.CombinedSlipPdfWriter;
+import smallbusinessbuddycrm.services.Hub3Encoder;
+import smallbusinessbuddycrm.services.SlipSpoolStore;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
 import smallbusinessbuddycrm.utilities.UplatnicaHtmlGenerator;
 import smallbusinessbuddycrm.utilities.TemplateProcessor;
 import smallbusinessbuddycrm.utilities.LanguageManager;
@@ -40,6 +46,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class WorkshopPaymentSlipsController implements Initializable {
@@ -103,6 +110,7 @@ public class WorkshopPaymentSlipsController implements Initializable {
     private ContactDAO contactDAO;
     private UnderagedDAO underagedDAO;
     private OrganizationDAO organizationDAO;
+    private PaymentInfoDAO paymentInfoDAO;
 
     private ObservableList<Workshop> workshops;
     private ObservableList<PaymentTemplate> paymentTemplates;
@@ -113,13 +121,9 @@ public class WorkshopPaymentSlipsController implements Initializable {
     private Workshop selectedWorkshop;
     private PaymentTemplate selectedPaymentTemplate;
 
-    // Preview data storage
-    private Map<WorkshopParticipantItem, String> participantUplatnicaHtmlMap = new HashMap<>();
-    private Map<WorkshopParticipantItem, BufferedImage> participantBarcodeImageMap = new HashMap<>();
-
-    // Constants
-    private static final String FIXED_BANK_CODE = "HRVHUB30";
-    private static final String FIXED_CURRENCY = "EUR";
+    // Preview data storage: slip HTML and barcodes are spooled to disk, only keys stay in memory
+    private SlipSpoolStore slipSpool;
+    private Map<WorkshopParticipantItem, String> participantSlipKeys = new HashMap<>();
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -270,6 +274,7 @@ public class WorkshopPaymentSlipsController implements Initializable {
         contactDAO = new ContactDAO();
         underagedDAO = new UnderagedDAO();
         organizationDAO = new OrganizationDAO();
+        paymentInfoDAO = new PaymentInfoDAO();
     }
 
     private void loadOrganizationData() {
@@ -615,10 +620,28 @@ public class WorkshopPaymentSlipsController implements Initializable {
 
     @FXML
     private void onClose() {
+        if (slipSpool != null) {
+            slipSpool.close();
+            slipSpool = null;
+        }
         Stage stage = (Stage) workshopComboBox.getScene().getWindow();
         stage.close();
     }
 
+    private SlipSpoolStore getSlipSpool() {
+        if (slipSpool == null) {
+            slipSpool = new SlipSpoolStore("sbb-workshop-slips-");
+        }
+        return slipSpool;
+    }
+
+    private void clearSpooledSlips() {
+        participantSlipKeys.clear();
+        if (slipSpool != null) {
+            slipSpool.clear();
+        }
+    }
+
     private void updateWorkshopDetails() {
         LanguageManager languageManager = LanguageManager.getInstance();
 
@@ -703,8 +726,7 @@ public class WorkshopPaymentSlipsController implements Initializable {
     private void clearParticipants() {
         allParticipants.clear();
         filteredParticipants.clear();
-        participantUplatnicaHtmlMap.clear();
-        participantBarcodeImageMap.clear();
+        clearSpooledSlips();
         noParticipantsContainer.setVisible(true);
         participantsListView.setVisible(false);
         updateSelectedCount();
@@ -751,8 +773,8 @@ public class WorkshopPaymentSlipsController implements Initializable {
         LanguageManager languageManager = LanguageManager.getInstance();
 
         // Clear existing previews
-        participantUplatnicaHtmlMap.clear();
-        participantBarcodeImageMap.clear();
+        clearSpooledSlips();
+        SlipSpoolStore spool = getSlipSpool();
 
         // Show progress and disable buttons
         progressContainer.setVisible(true);
@@ -765,10 +787,10 @@ public class WorkshopPaymentSlipsController implements Initializable {
         previewSelectedButton.setDisable(true);
         previewAllButton.setDisable(true);
 
-        Task<List<String>> previewTask = new Task<List<String>>() {
+        Task<Map<WorkshopParticipantItem, String>> previewTask = new Task<Map<WorkshopParticipantItem, String>>() {
             @Override
-            protected List<String> call() throws Exception {
-                List<String> htmlPreviews = new ArrayList<>();
+            protected Map<WorkshopParticipantItem, String> call() throws Exception {
+                Map<WorkshopParticipantItem, String> slipKeys = new LinkedHashMap<>();
                 int current = 0;
                 int total = participants.size();
 
@@ -776,33 +798,32 @@ public class WorkshopPaymentSlipsController implements Initializable {
                     updateMessage(languageManager.getText("progress.generating.preview.for")
                             .replace("{0}", participant.getParticipantName()));
 
+                    String slipKey = "participant_" + current;
                     try {
-                        String uplatnicaHtml = generateUplatnicaForParticipant(participant);
-                        htmlPreviews.add(uplatnicaHtml);
-
-                        // Store for later use
-                        participantUplatnicaHtmlMap.put(participant, uplatnicaHtml);
-
+                        BufferedImage barcodeImage = generateBarcodeForParticipant(participant);
+                        spool.putHtml(slipKey, generateUplatnicaForParticipant(participant, barcodeImage));
+                        spool.putBarcode(slipKey, barcodeImage);
                     } catch (Exception e) {
                         System.err.println("Error generating preview for participant: " + e.getMessage());
-                        htmlPreviews.add("<html><body><h2>Error generating preview for " +
+                        spool.putHtml(slipKey, "<html><body><h2>Error generating preview for " +
                                 participant.getParticipantName() + "</h2></body></html>");
                     }
+                    slipKeys.put(participant, slipKey);
 
                     current++;
                     updateProgress(current, total);
                 }
 
-                return htmlPreviews;
+                return slipKeys;
             }
 
             @Override
             protected void succeeded() {
-                List<String> htmlPreviews = getValue();
-                showPreviewsInMainWindow(participants, htmlPreviews);
+                participantSlipKeys = getValue();
+                showPreviewsInMainWindow(participants);
                 progressContainer.setVisible(false);
                 updateButtonStates(); // Re-enable buttons
-                System.out.println("✅ Successfully generated " + htmlPreviews.size() + " previews");
+                System.out.println("✅ Successfully generated " + participantSlipKeys.size() + " previews");
             }
 
             @Override
@@ -823,7 +844,7 @@ public class WorkshopPaymentSlipsController implements Initializable {
         thread.start();
     }
 
-    private void showPreviewsInMainWindow(List<WorkshopParticipantItem> participants, List<String> htmlPreviews) {
+    private void showPreviewsInMainWindow(List<WorkshopParticipantItem> participants) {
         LanguageManager languageManager = LanguageManager.getInstance();
 
         Stage previewStage = new Stage();
@@ -840,23 +861,24 @@ public class WorkshopPaymentSlipsController implements Initializable {
         titleLabel.setFont(Font.font("System", FontWeight.BOLD, 18));
         titleLabel.setStyle("-fx-text-fill: #c2185b;");
 
-        VBox allPreviewsContainer = new VBox(20);
-        allPreviewsContainer.setPadding(new Insets(10));
-
-        for (int i = 0; i < participants.size() && i < htmlPreviews.size(); i++) {
-            WorkshopParticipantItem participant = participants.get(i);
-            String uplatnicaHtml = htmlPreviews.get(i);
-            addParticipantPreviewToContainer(allPreviewsContainer, participant, uplatnicaHtml);
+        SlipPreviewGallery<WorkshopParticipantItem> previewGallery = new SlipPreviewGallery<>();
+        previewGallery.setPrefHeight(500);
+        previewGallery.setStyle("-fx-border-color: #e9ecef; -fx-border-width: 2; -fx-border-radius: 5;");
+        previewGallery.addAction(languageManager.getText("preview.button.print.this"),
+                "-fx-background-color: #28a745; -fx-text-fill: white; -fx-font-size: 11px;",
+                participant -> printIndividualUplatnica(previewGallery.getZoomView()));
+        previewGallery.addAction(languageManager.getText("preview.button.save.this"),
+                "-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-size: 11px;",
+                this::saveIndividualUplatnica);
+
+        SlipSpoolStore spool = getSlipSpool();
+        for (WorkshopParticipantItem participant : participants) {
+            String slipKey = participantSlipKeys.get(participant);
+            if (slipKey != null) {
+                addParticipantPreviewToGallery(previewGallery, slipKey, participant, () -> spool.getHtml(slipKey));
+            }
         }
 
-        ScrollPane allPreviewsScrollPane = new ScrollPane(allPreviewsContainer);
-        allPreviewsScrollPane.setPrefHeight(500);
-        allPreviewsScrollPane.setPrefWidth(Double.MAX_VALUE);
-        allPreviewsScrollPane.setStyle("-fx-border-color: #e9ecef; -fx-border-width: 2; -fx-border-radius: 5;");
-        allPreviewsScrollPane.setFitToWidth(true);
-        allPreviewsScrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        allPreviewsScrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-
         HBox buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER);
 
@@ -867,29 +889,23 @@ public class WorkshopPaymentSlipsController implements Initializable {
         Button clearButton = new Button(languageManager.getText("preview.button.clear"));
         clearButton.setStyle("-fx-background-color: #dc3545; -fx-text-fill: white; -fx-border-radius: 4;");
         clearButton.setOnAction(e -> {
-            allPreviewsContainer.getChildren().clear();
-            participantUplatnicaHtmlMap.clear();
+            previewGallery.clear();
+            clearSpooledSlips();
         });
 
         buttonBox.getChildren().addAll(clearButton, closeButton);
-        mainLayout.getChildren().addAll(titleLabel, allPreviewsScrollPane, buttonBox);
-
-        ScrollPane mainScrollPane = new ScrollPane(mainLayout);
-        mainScrollPane.setFitToWidth(true);
-        mainScrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
+        VBox.setVgrow(previewGallery, Priority.ALWAYS);
+        mainLayout.getChildren().addAll(titleLabel, previewGallery, buttonBox);
 
-        Scene scene = new Scene(mainScrollPane, 1200, 700);
+        Scene scene = new Scene(mainLayout, 1200, 700);
         previewStage.setScene(scene);
         previewStage.showAndWait();
     }
 
-    private void addParticipantPreviewToContainer(VBox container, WorkshopParticipantItem participant, String uplatnicaHtml) {
+    private void addParticipantPreviewToGallery(SlipPreviewGallery<WorkshopParticipantItem> gallery, String slipKey,
+                                                WorkshopParticipantItem participant, Supplier<String> uplatnicaHtml) {
         LanguageManager languageManager = LanguageManager.getInstance();
 
-        VBox participantPreviewContainer = new VBox(10);
-        participantPreviewContainer.setStyle("-fx-border-color: #dee2e6; -fx-border-width: 1; -fx-border-radius: 8; " +
-                "-fx-background-color: white; -fx-padding: 15;");
-
         String headerText = participant.getTypeIcon() + " " + participant.getParticipantName() +
                 " (" + participant.getParticipantType() + ")";
 
@@ -901,11 +917,6 @@ public class WorkshopPaymentSlipsController implements Initializable {
             }
         }
 
-        Label participantHeader = new Label(headerText);
-        participantHeader.setFont(Font.font("System", FontWeight.BOLD, 14));
-        participantHeader.setStyle("CHILD".equals(participant.getParticipantType()) ?
-                "-fx-text-fill: #ff6b35;" : "-fx-text-fill: #495057;");
-
         StringBuilder participantInfo = new StringBuilder();
         String email = participant.getParticipantEmail();
         if (!email.isEmpty()) {
@@ -924,30 +935,13 @@ public class WorkshopPaymentSlipsController implements Initializable {
             }
         }
 
-        Label participantInfoLabel = new Label(participantInfo.toString());
-        participantInfoLabel.setStyle("-fx-text-fill: #6c757d; -fx-font-size: 12px;");
-
-        javafx.scene.web.WebView webView = new javafx.scene.web.WebView();
-        webView.setPrefHeight(500);
-        webView.setPrefWidth(Double.MAX_VALUE);
-        webView.setStyle("-fx-border-color: #e9ecef; -fx-border-width: 1; -fx-border-radius: 4;");
-        webView.getEngine().loadContent(uplatnicaHtml);
-
-        HBox actionButtons = new HBox(10);
-        actionButtons.setAlignment(Pos.CENTER);
-
-        Button printIndividualButton = new Button(languageManager.getText("preview.button.print.this"));
-        printIndividualButton.setStyle("-fx-background-color: #28a745; -fx-text-fill: white; -fx-font-size: 11px;");
-        printIndividualButton.setOnAction(e -> printIndividualUplatnica(webView));
-
-        Button saveIndividualButton = new Button(languageManager.getText("preview.button.save.this"));
-        saveIndividualButton.setStyle("-fx-background-color: #007bff; -fx-text-fill: white; -fx-font-size: 11px;");
-        saveIndividualButton.setOnAction(e -> saveIndividualUplatnica(participant));
-
-        actionButtons.getChildren().addAll(printIndividualButton, saveIndividualButton);
-
-        participantPreviewContainer.getChildren().addAll(participantHeader, participantInfoLabel, webView, actionButtons);
-        container.getChildren().add(participantPreviewContainer);
+        gallery.addEntry(new SlipPreviewGallery.SlipEntry<>(
+                slipKey,
+                participant,
+                headerText,
+                participantInfo.toString(),
+                "CHILD".equals(participant.getParticipantType()) ? "-fx-text-fill: #ff6b35;" : "-fx-text-fill: #495057;",
+                uplatnicaHtml));
     }
 
     private void printIndividualUplatnica(javafx.scene.web.WebView webView) {
@@ -978,7 +972,8 @@ public class WorkshopPaymentSlipsController implements Initializable {
                 String participantName = participant.getParticipantName().replaceAll("[^a-zA-Z0-9_-]", "_");
                 String fileName = "workshop_" + selectedWorkshop.getId() + "_" + participantName + "_" + timestamp;
 
-                String uplatnicaHtml = participantUplatnicaHtmlMap.get(participant);
+                String slipKey = participantSlipKeys.get(participant);
+                String uplatnicaHtml = slipKey != null && slipSpool != null ? slipSpool.getHtml(slipKey) : null;
                 if (uplatnicaHtml != null) {
                     File htmlFile = new File(selectedDirectory, fileName + ".html");
                     try (FileWriter writer = new FileWriter(htmlFile, java.nio.charset.StandardCharsets.UTF_8)) {
@@ -986,11 +981,12 @@ public class WorkshopPaymentSlipsController implements Initializable {
                     }
                 }
 
-                BufferedImage barcodeImage = participantBarcodeImageMap.get(participant);
+                BufferedImage barcodeImage = slipKey != null && slipSpool != null ? slipSpool.getBarcode(slipKey) : null;
                 if (barcodeImage != null) {
                     File imageFile = new File(selectedDirectory, "barcode_" + fileName + ".png");
                     ImageIO.write(barcodeImage, "png", imageFile);
                 }
+                recordIssuedSlips(List.of(participant));
 
                 showAlert(Alert.AlertType.INFORMATION, languageManager.getText("save.complete"),
                         languageManager.getText("save.success").replace("{0}", participant.getParticipantName()));
@@ -1045,6 +1041,31 @@ public class WorkshopPaymentSlipsController implements Initializable {
     }
 
     private void exportSelectedParticipants(List<WorkshopParticipantItem> participants) {
+        LanguageManager languageManager = LanguageManager.getInstance();
+
+        String separateFiles = languageManager.getText("export.mode.separate");
+        List<String> exportModes = new ArrayList<>();
+        exportModes.add(separateFiles);
+        for (int slipsPerPage = 1; slipsPerPage <= 3; slipsPerPage++) {
+            exportModes.add(languageManager.getText("export.mode.combined").replace("{0}", String.valueOf(slipsPerPage)));
+        }
+
+        ChoiceDialog<String> modeDialog = new ChoiceDialog<>(exportModes.get(0), exportModes);
+        modeDialog.setTitle(languageManager.getText("export.mode.title"));
+        modeDialog.setHeaderText(languageManager.getText("export.mode.header"));
+        modeDialog.setContentText(languageManager.getText("export.mode.content"));
+        modeDialog.initOwner(workshopComboBox.getScene().getWindow());
+
+        Optional<String> selectedMode = modeDialog.showAndWait();
+        if (selectedMode.isEmpty()) {
+            return;
+        }
+
+        if (!separateFiles.equals(selectedMode.get())) {
+            exportCombinedPdf(participants, exportModes.indexOf(selectedMode.get()));
+            return;
+        }
+
         DirectoryChooser directoryChooser = new DirectoryChooser();
         directoryChooser.setTitle("Select Export Directory");
         Window window = workshopComboBox.getScene().getWindow();
@@ -1055,6 +1076,94 @@ public class WorkshopPaymentSlipsController implements Initializable {
         }
     }
 
+    private void exportCombinedPdf(List<WorkshopParticipantItem> participants, int slipsPerPage) {
+        LanguageManager languageManager = LanguageManager.getInstance();
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(languageManager.getText("export.combined.file.title"));
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
+        fileChooser.setInitialFileName("workshop_" + selectedWorkshop.getId() + "_uplatnice_" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".pdf");
+        File file = fileChooser.showSaveDialog(workshopComboBox.getScene().getWindow());
+
+        if (file == null) {
+            return;
+        }
+
+        progressContainer.setVisible(true);
+        progressLabel.setText(languageManager.getText("progress.exporting.payment.slips"));
+        progressBar.progressProperty().unbind();
+        progressBar.setProgress(0);
+
+        Task<Integer> exportTask = new Task<Integer>() {
+            @Override
+            protected Integer call() throws Exception {
+                int total = participants.size();
+                int current = 0;
+                int batchSize = CombinedSlipPdfWriter.getRecommendedBatchSize();
+                List<String> batch = new ArrayList<>(batchSize);
+
+                List<WorkshopParticipantItem> exported = new ArrayList<>();
+                int slipCount;
+
+                try (CombinedSlipPdfWriter writer = new CombinedSlipPdfWriter(file, slipsPerPage)) {
+                    for (WorkshopParticipantItem participant : participants) {
+                        updateMessage(languageManager.getText("progress.exporting.participant")
+                                .replace("{0}", participant.getParticipantName()));
+
+                        try {
+                            batch.add(generateUplatnicaForParticipant(participant));
+                            exported.add(participant);
+                        } catch (Exception e) {
+                            System.err.println("Error exporting participant " + participant.getParticipantName() + ": " + e.getMessage());
+                        }
+
+                        current++;
+                        if (batch.size() == batchSize) {
+                            writer.addSlips(batch);
+                            batch.clear();
+                            updateProgress(current, total);
+                        }
+                    }
+
+                    if (!batch.isEmpty()) {
+                        writer.addSlips(batch);
+                    }
+                    updateProgress(total, total);
+                    slipCount = writer.getSlipCount();
+                }
+
+                // Recorded once the PDF is complete, so a failed export issues nothing
+                recordIssuedSlips(exported);
+                return slipCount;
+            }
+
+            @Override
+            protected void succeeded() {
+                progressContainer.setVisible(false);
+                showAlert(Alert.AlertType.INFORMATION, languageManager.getText("export.complete"),
+                        languageManager.getText("export.combined.success")
+                                .replace("{0}", String.valueOf(getValue()))
+                                .replace("{1}", file.getAbsolutePath()));
+            }
+
+            @Override
+            protected void failed() {
+                progressContainer.setVisible(false);
+                Throwable exception = getException();
+                showAlert(Alert.AlertType.ERROR, languageManager.getText("alert.export.error"),
+                        languageManager.getText("export.failed").replace("{0}", exception.getMessage()));
+            }
+        };
+
+        progressDetailsLabel.textProperty().bind(exportTask.messageProperty());
+        progressBar.progressProperty().bind(exportTask.progressProperty());
+
+        Thread thread = new Thread(exportTask);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     private void exportParticipantsToDirectory(List<WorkshopParticipantItem> participants, File directory) {
         LanguageManager languageManager = LanguageManager.getInstance();
 
@@ -1070,6 +1179,7 @@ public class WorkshopPaymentSlipsController implements Initializable {
             protected Void call() throws Exception {
                 int total = participants.size();
                 int current = 0;
+                List<WorkshopParticipantItem> exported = new ArrayList<>();
 
                 for (WorkshopParticipantItem participant : participants) {
                     updateMessage(languageManager.getText("progress.exporting.participant")
@@ -1093,6 +1203,7 @@ public class WorkshopPaymentSlipsController implements Initializable {
                             File imageFile = new File(directory, "barcode_" + fileName + ".png");
                             ImageIO.write(barcodeImage, "png", imageFile);
                         }
+                        exported.add(participant);
 
                     } catch (Exception e) {
                         System.err.println("Error exporting participant " + participant.getParticipantName() + ": " + e.getMessage());
@@ -1102,6 +1213,7 @@ public class WorkshopPaymentSlipsController implements Initializable {
                     updateProgress(current, total);
                 }
 
+                recordIssuedSlips(exported);
                 return null;
             }
 
@@ -1129,10 +1241,67 @@ public class WorkshopPaymentSlipsController implements Initializable {
         thread.start();
     }
 
+    /**
+     * Writes a GENERATED payment_info row for each participant whose slip was exported,
+     * like the bulk dialog does for its slips. May be called from any thread.
+     */
+    private void recordIssuedSlips(List<WorkshopParticipantItem> participants) {
+        LocalDateTime issuedAt = LocalDateTime.now();
+        List<PaymentInfo> entries = new ArrayList<>();
+        for (WorkshopParticipantItem participant : participants) {
+            try {
+                PaymentInfo entry = createLedgerEntry(participant);
+                if (entry != null) {
+                    entry.setGeneratedAt(issuedAt);
+                    entries.add(entry);
+                }
+            } catch (Exception e) {
+                System.err.println("Error creating payment record for " + participant.getParticipantName() + ": " + e.getMessage());
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        int saved = paymentInfoDAO.createPaymentInfos(entries);
+        if (saved >= 0) {
+            System.out.println("Recorded " + saved + " issued workshop slips in payment_info");
+        }
+    }
+
+    /**
+     * Ledger entry for a participant's slip: adults pay for themselves, children are
+     * recorded under the parent contact.
+     *
+     * @return The entry, or null if the participant has no payer contact
+     */
+    private PaymentInfo createLedgerEntry(WorkshopParticipantItem participant) {
+        Integer contactId;
+        Integer underagedId = null;
+        if ("CHILD".equals(participant.getParticipantType())) {
+            contactId = (Integer) participant.getParticipantData().get("parent_contact_id");
+            underagedId = (Integer) participant.getParticipantData().get("underaged_id");
+        } else {
+            contactId = (Integer) participant.getParticipantData().get("contact_id");
+        }
+        if (contactId == null) {
+            return null;
+        }
+
+        PaymentInfo entry = new PaymentInfo(organization.getId(), selectedPaymentTemplate.getId(), contactId, underagedId);
+        entry.setAmount(selectedPaymentTemplate.getAmount());
+        entry.setModelOfPayment(selectedPaymentTemplate.getModelOfPayment());
+        entry.setPozivNaBroj(processReferenceTemplateForParticipant(selectedPaymentTemplate.getPozivNaBroj(), participant));
+        entry.setBarcodeData(generateHUB3DataForParticipant(participant));
+        entry.setStatus(PaymentInfo.STATUS_GENERATED);
+        return entry;
+    }
+
     private String generateUplatnicaForParticipant(WorkshopParticipantItem participant) throws WriterException {
-        String hub3Data = generateHUB3DataForParticipant(participant);
-        BufferedImage barcodeImage = generateBarcodeImageForData(hub3Data);
+        return generateUplatnicaForParticipant(participant, generateBarcodeForParticipant(participant));
+    }
 
+    private String generateUplatnicaForParticipant(WorkshopParticipantItem participant, BufferedImage barcodeImage) {
         Contact contact = null;
         UnderagedMember underagedMember = null;
 
@@ -1157,24 +1326,26 @@ public class WorkshopPaymentSlipsController implements Initializable {
             throw new RuntimeException("Could not load contact information for participant");
         }
 
-        return UplatnicaHtmlGenerator.generateUplatnicaHtml(
+        long htmlStart = System.nanoTime();
+        String uplatnicaHtml = UplatnicaHtmlGenerator.generateUplatnicaHtml(
                 contact, organization, selectedPaymentTemplate, barcodeImage, underagedMember);
+        MetricsRegistry.getInstance().timer("slips.html").recordSince(htmlStart);
+        return uplatnicaHtml;
     }
 
     private BufferedImage generateBarcodeForParticipant(WorkshopParticipantItem participant) throws WriterException {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        long hub3Start = System.nanoTime();
         String hub3Data = generateHUB3DataForParticipant(participant);
-        return generateBarcodeImageForData(hub3Data);
+        long barcodeStart = System.nanoTime();
+        metrics.timer("slips.hub3").recordNanos(barcodeStart - hub3Start);
+
+        BufferedImage barcodeImage = generateBarcodeImageForData(hub3Data);
+        metrics.timer("slips.barcode").recordSince(barcodeStart);
+        return barcodeImage;
     }
 
     private String generateHUB3DataForParticipant(WorkshopParticipantItem participant) {
-        StringBuilder hub3Data = new StringBuilder();
-
-        hub3Data.append(FIXED_BANK_CODE).append("\n");
-        hub3Data.append(FIXED_CURRENCY).append("\n");
-
-        String amountCents = selectedPaymentTemplate.getAmount().multiply(new BigDecimal("100")).toBigInteger().toString();
-        hub3Data.append(String.format("%015d", Long.parseLong(amountCents))).append("\n");
-
         String payerName = participant.getParticipantName();
         if ("CHILD".equals(participant.getParticipantType())) {
             String parentName = (String) participant.getParticipantData().get("parent_name");
@@ -1182,14 +1353,9 @@ public class WorkshopPaymentSlipsController implements Initializable {
                 payerName = parentName;
             }
         }
-        hub3Data.append(payerName).append("\n");
-
-        String payerAddress = "";
-        String payerCity = "";
 
+        Contact payerContact = null;
         try {
-            Contact payerContact = null;
-
             if ("ADULT".equals(participant.getParticipantType())) {
                 Integer contactId = (Integer) participant.getParticipantData().get("contact_id");
                 if (contactId != null) {
@@ -1201,66 +1367,47 @@ public class WorkshopPaymentSlipsController implements Initializable {
                     payerContact = getContactById(parentContactId);
                 }
             }
-
-            if (payerContact != null) {
-                if (payerContact.getStreetName() != null && !payerContact.getStreetName().trim().isEmpty()) {
-                    payerAddress = payerContact.getStreetName();
-                    if (payerContact.getStreetNum() != null && !payerContact.getStreetNum().trim().isEmpty()) {
-                        payerAddress += " " + payerContact.getStreetNum();
-                    }
-                }
-
-                if (payerContact.getPostalCode() != null && !payerContact.getPostalCode().trim().isEmpty()) {
-                    payerCity = payerContact.getPostalCode();
-                    if (payerContact.getCity() != null && !payerContact.getCity().trim().isEmpty()) {
-                        payerCity += " " + payerContact.getCity();
-                    }
-                } else if (payerContact.getCity() != null && !payerContact.getCity().trim().isEmpty()) {
-                    payerCity = payerContact.getCity();
-                }
-            }
         } catch (Exception e) {
             System.err.println("Error loading payer contact details: " + e.getMessage());
         }
 
-        hub3Data.append(payerAddress).append("\n");
-        hub3Data.append(payerCity).append("\n");
-
-        hub3Data.append(organization.getName()).append("\n");
-
-        String recipientAddress = "";
-        if (organization.getStreetName() != null && !organization.getStreetName().trim().isEmpty()) {
-            recipientAddress = organization.getStreetName();
-            if (organization.getStreetNum() != null && !organization.getStreetNum().trim().isEmpty()) {
-                recipientAddress += " " + organization.getStreetNum();
-            }
-        }
-        hub3Data.append(recipientAddress).append("\n");
-
-        String recipientCity = "";
-        if (organization.getPostalCode() != null && !organization.getPostalCode().trim().isEmpty()) {
-            recipientCity = organization.getPostalCode();
-            if (organization.getCity() != null && !organization.getCity().trim().isEmpty()) {
-                recipientCity += " " + organization.getCity();
-            }
-        } else if (organization.getCity() != null && !organization.getCity().trim().isEmpty()) {
-            recipientCity = organization.getCity();
-        }
-        hub3Data.append(recipientCity).append("\n");
-
-        hub3Data.append(organization.getIban()).append("\n");
-
-        hub3Data.append(selectedPaymentTemplate.getModelOfPayment() != null ? selectedPaymentTemplate.getModelOfPayment() : "").append("\n");
-
         String reference = processReferenceTemplateForParticipant(selectedPaymentTemplate.getPozivNaBroj(), participant);
-        hub3Data.append(reference).append("\n");
-
-        hub3Data.append("").append("\n");
-
         String processedDescription = processDescriptionTemplateForParticipant(selectedPaymentTemplate.getDescription(), participant);
-        hub3Data.append(processedDescription);
 
-        return hub3Data.toString();
+        return buildHub3Payload(payerName, payerContact, organization, selectedPaymentTemplate.getAmount(),
+                selectedPaymentTemplate.getModelOfPayment(), reference, processedDescription);
+    }
+
+    /**
+     * HUB-3 payload of a workshop slip. Text is written as entered, without folding diacritics.
+     *
+     * @param payerName The participant, or the parent paying for a child
+     * @param payerContact Contact whose address is printed, or null to leave the payer address empty
+     * @param reference Reference with its template already filled in
+     * @param description Description with its template already filled in
+     */
+    static String buildHub3Payload(String payerName, Contact payerContact, Organization organization,
+                                   BigDecimal amount, String modelOfPayment, String reference, String description) {
+        Hub3Encoder encoder = Hub3Encoder.forCurrentThread()
+                .begin(false)
+                .amount(amount)
+                .field(payerName);
+        if (payerContact != null) {
+            encoder.address(payerContact.getStreetName(), payerContact.getStreetNum())
+                    .place(payerContact.getPostalCode(), payerContact.getCity());
+        } else {
+            encoder.field("").field("");
+        }
+        return encoder
+                .field(organization.getName())
+                .address(organization.getStreetName(), organization.getStreetNum())
+                .place(organization.getPostalCode(), organization.getCity())
+                .field(organization.getIban())
+                .field(modelOfPayment)
+                .field(reference)
+                .field("")
+                .field(description)
+                .encode();
     }
 
     private String processReferenceTemplateForParticipant(String referenceTemplate, WorkshopParticipantItem participant) {
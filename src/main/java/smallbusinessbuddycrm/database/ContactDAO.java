@@ -95,6 +95,40 @@ public class ContactDAO {
         return contacts;
     }
 
+    /**
+     * Streams all contacts to the handler straight from a forward-only cursor, without
+     * building a list, e.g. for exports. Contacts come in insertion order, as in the
+     * contacts table view, so SQLite does not have to sort them first.
+     *
+     * Uses its own connection. The database stays read-locked until the handler stops
+     * or the last row is read, so the handler should not wait for the user.
+     *
+     * @param handler Receives each contact; returns false to stop
+     * @return Number of contacts passed to the handler, or -1 on error
+     */
+    public long forEachContact(RowHandler<Contact> handler) {
+        String query = "SELECT * FROM contacts ORDER BY id";
+        long count = 0;
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                count++;
+                if (!handler.handle(createContactFromResultSet(rs))) {
+                    break;
+                }
+            }
+            return count;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error in forEachContact: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
     /**
      * Retrieves all contacts that belong to a specific list.
      * Uses JOIN query for optimal performance with proper indexing.
@@ -432,12 +466,13 @@ public class ContactDAO {
     /**
      * Creates a Contact object from a database ResultSet.
      * Handles proper type conversion and date parsing with error handling.
+     * Package-private so the JMH benchmarks can measure the mapping on its own.
      *
      * @param rs ResultSet containing contact data
      * @return Populated Contact object
      * @throws SQLException if database access error occurs
      */
-    private Contact createContactFromResultSet(ResultSet rs) throws SQLException {
+    Contact createContactFromResultSet(ResultSet rs) throws SQLException {
         Contact contact = new Contact();
 
         contact.setId(rs.getInt("id"));
@@ -6,6 +6,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Properties;
 
 /**
  * Database connection and management class for Small Business Buddy CRM.
@@ -16,28 +17,88 @@ import java.sql.Statement;
  * - Comprehensive database indexing for optimal performance
  * - Database migration support for schema updates
  * - Notification system optimization
+ * - Query timing per DAO method, see InstrumentedJdbc (disable with -Dsbb.metrics.jdbc=false)
+ * - Prepared statements reused per connection, see StatementCache
+ *   (size with -Dsbb.db.statementCacheSize, 0 disables)
+ * - Units of work spanning several DAOs, see Db.inTransaction
  *
  * @author Small Business Buddy CRM Team
  * @version 1.0
  */
 public class DatabaseConnection {
-    private static final String DB_URL = "jdbc:sqlite:src/main/resources/db/smallbusinessbuddy.db";
+    private static final String DB_URL = System.getProperty("sbb.db.url",
+            "jdbc:sqlite:src/main/resources/db/smallbusinessbuddy.db");
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+    private static final boolean INSTRUMENTED = !"false".equalsIgnoreCase(System.getProperty("sbb.metrics.jdbc"));
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("sbb.db.statementCacheSize", 64);
     private static Connection connection;
 
     /**
      * Gets a connection to the SQLite database.
      * Creates a new connection if none exists or if the current connection is closed.
+     * Closing the returned connection releases it for the next caller; the physical
+     * connection and its prepared statements stay open.
+     * Inside Db.inTransaction the transaction's connection is returned instead.
      *
      * @return Active database connection
      * @throws SQLException if database connection fails
      */
-    public static Connection getConnection() throws SQLException {
+    public static synchronized Connection getConnection() throws SQLException {
+        Connection transactional = Db.currentConnection();
+        if (transactional != null) {
+            return transactional;
+        }
         if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(DB_URL);
+            connection = instrument(cacheStatements(
+                    DriverManager.getConnection(DB_URL, connectionProperties(false)), true), true);
         }
         return connection;
     }
 
+    /**
+     * Opens a separate connection owned by the caller.
+     * Background workers use this instead of getConnection(), so their transactions do
+     * not take in statements other threads run on the shared connection. The busy timeout lets
+     * SQLite wait for a concurrent writer instead of failing with SQLITE_BUSY.
+     * Inside Db.inTransaction the transaction's connection is returned instead.
+     *
+     * @return New database connection; the caller must close it
+     * @throws SQLException if database connection fails
+     */
+    public static Connection openConnection() throws SQLException {
+        Connection transactional = Db.currentConnection();
+        if (transactional != null) {
+            return transactional;
+        }
+        return instrument(cacheStatements(DriverManager.getConnection(DB_URL, connectionProperties(false)), false), false);
+    }
+
+    /**
+     * Opens the connection of a Db.inTransaction unit of work. Its transactions take the
+     * write lock when they begin, so a transaction that reads before writing waits for
+     * other writers up front instead of failing with SQLITE_BUSY when it starts writing.
+     */
+    static Connection openTransactionConnection() throws SQLException {
+        return instrument(cacheStatements(DriverManager.getConnection(DB_URL, connectionProperties(true)), false), false);
+    }
+
+    private static Properties connectionProperties(boolean immediateTransactions) {
+        Properties properties = new Properties();
+        properties.setProperty("busy_timeout", String.valueOf(BUSY_TIMEOUT_MILLIS));
+        if (immediateTransactions) {
+            properties.setProperty("transaction_mode", "IMMEDIATE");
+        }
+        return properties;
+    }
+
+    private static Connection cacheStatements(Connection rawConnection, boolean shared) {
+        return STATEMENT_CACHE_SIZE > 0 ? StatementCache.wrap(rawConnection, STATEMENT_CACHE_SIZE, shared) : rawConnection;
+    }
+
+    private static Connection instrument(Connection rawConnection, boolean shared) {
+        return INSTRUMENTED ? InstrumentedJdbc.wrap(rawConnection, shared) : rawConnection;
+    }
+
     /**
      * Creates specialized indexes for notification system queries.
      * Optimizes birthday calculations, workshop date ranges, and member status queries.
@@ -47,7 +108,6 @@ public class DatabaseConnection {
         String[] indexQueries = {
                 "CREATE INDEX IF NOT EXISTS idx_contacts_birthday ON contacts(birthday) WHERE birthday IS NOT NULL",
                 "CREATE INDEX IF NOT EXISTS idx_underaged_birth_date ON underaged(birth_date) WHERE birth_date IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_workshops_from_date ON workshops(from_date) WHERE from_date IS NOT NULL",
                 "CREATE INDEX IF NOT EXISTS idx_workshops_to_date ON workshops(to_date) WHERE to_date IS NOT NULL",
                 "CREATE INDEX IF NOT EXISTS idx_workshops_date_range ON workshops(from_date, to_date)",
                 "CREATE INDEX IF NOT EXISTS idx_contacts_member_status ON contacts(is_member)",
@@ -66,7 +126,6 @@ public class DatabaseConnection {
         String[] performanceIndexes = {
                 "CREATE INDEX IF NOT EXISTS idx_contacts_full_name ON contacts(first_name, last_name)",
                 "CREATE INDEX IF NOT EXISTS idx_contacts_last_name ON contacts(last_name)",
-                "CREATE INDEX IF NOT EXISTS idx_contacts_first_name ON contacts(first_name)",
                 "CREATE INDEX IF NOT EXISTS idx_contacts_email ON contacts(email) WHERE email IS NOT NULL",
                 "CREATE INDEX IF NOT EXISTS idx_contacts_phone ON contacts(phone_num) WHERE phone_num IS NOT NULL",
                 "CREATE INDEX IF NOT EXISTS idx_contacts_pin ON contacts(pin) WHERE pin IS NOT NULL",
@@ -84,9 +143,7 @@ public class DatabaseConnection {
 
                 "CREATE INDEX IF NOT EXISTS idx_workshops_name ON workshops(name)",
                 "CREATE INDEX IF NOT EXISTS idx_workshops_teacher_id ON workshops(teacher_id) WHERE teacher_id IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_workshops_active_range ON workshops(from_date, to_date) WHERE from_date IS NOT NULL AND to_date IS NOT NULL",
 
-                "CREATE INDEX IF NOT EXISTS idx_workshop_participants_workshop_id ON workshop_participants(workshop_id)",
                 "CREATE INDEX IF NOT EXISTS idx_workshop_participants_contact_id ON workshop_participants(contact_id) WHERE contact_id IS NOT NULL",
                 "CREATE INDEX IF NOT EXISTS idx_workshop_participants_underaged_id ON workshop_participants(underaged_id) WHERE underaged_id IS NOT NULL",
                 "CREATE INDEX IF NOT EXISTS idx_workshop_participants_type ON workshop_participants(participant_type)",
@@ -103,7 +160,6 @@ public class DatabaseConnection {
                 "CREATE INDEX IF NOT EXISTS idx_lists_active ON lists(is_deleted, deleted_at)",
                 "CREATE INDEX IF NOT EXISTS idx_lists_folder ON lists(folder) WHERE folder IS NOT NULL",
 
-                "CREATE INDEX IF NOT EXISTS idx_list_contacts_list_id ON list_contacts(list_id)",
                 "CREATE INDEX IF NOT EXISTS idx_list_contacts_contact_id ON list_contacts(contact_id)",
                 "CREATE INDEX IF NOT EXISTS idx_list_contacts_added_at ON list_contacts(added_at) WHERE added_at IS NOT NULL"
         };
@@ -134,45 +190,92 @@ public class DatabaseConnection {
     }
 
     /**
-     * Creates indexes for reporting and analytics operations.
-     * Optimizes timestamp-based queries and audit trail functionality.
-     * Improves performance for data analysis and historical reporting.
+     * Creates indexes for the outbound email queue.
+     * The dispatcher claims due work by status and next attempt time, and the send
+     * dialogs count rows per campaign and status to show progress.
      */
-    public static void createReportingIndexes() {
-        String[] reportingIndexes = {
-                "CREATE INDEX IF NOT EXISTS idx_organization_created_at ON organization(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_organization_updated_at ON organization(updated_at) WHERE updated_at IS NOT NULL",
-
-                "CREATE INDEX IF NOT EXISTS idx_contacts_created_at ON contacts(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_contacts_updated_at ON contacts(updated_at) WHERE updated_at IS NOT NULL",
-
-                "CREATE INDEX IF NOT EXISTS idx_underaged_created_at ON underaged(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_underaged_updated_at ON underaged(updated_at) WHERE updated_at IS NOT NULL",
-
-                "CREATE INDEX IF NOT EXISTS idx_teachers_created_at ON teachers(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_teachers_updated_at ON teachers(updated_at) WHERE updated_at IS NOT NULL",
-
-                "CREATE INDEX IF NOT EXISTS idx_workshops_created_at ON workshops(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_workshops_updated_at ON workshops(updated_at) WHERE updated_at IS NOT NULL",
-
-                "CREATE INDEX IF NOT EXISTS idx_workshop_participants_created_at ON workshop_participants(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_workshop_participants_updated_at ON workshop_participants(updated_at) WHERE updated_at IS NOT NULL",
+    public static void createEmailOutboxIndexes() {
+        String[] outboxIndexes = {
+                "CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox(status, next_attempt_at)",
+                "CREATE INDEX IF NOT EXISTS idx_email_outbox_campaign_status ON email_outbox(campaign_id, status)",
+                "CREATE INDEX IF NOT EXISTS idx_email_outbox_claim ON email_outbox(claim_token) WHERE claim_token IS NOT NULL"
+        };
 
-                "CREATE INDEX IF NOT EXISTS idx_lists_created_at ON lists(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_lists_updated_at ON lists(updated_at) WHERE updated_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_lists_deleted_at ON lists(deleted_at) WHERE deleted_at IS NOT NULL",
+        executeIndexes(outboxIndexes, "email outbox");
+    }
 
-                "CREATE INDEX IF NOT EXISTS idx_payment_template_created_at ON payment_template(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_payment_template_updated_at ON payment_template(updated_at) WHERE updated_at IS NOT NULL",
+    /**
+     * Creates indexes for the payment_info slip ledger.
+     * Bulk generation asks which contacts already got a slip for a template this term;
+     * the template index covers that query. Contact history and unpaid slips are
+     * looked up by contact and by status.
+     */
+    public static void createPaymentInfoIndexes() {
+        String[] paymentInfoIndexes = {
+                "CREATE INDEX IF NOT EXISTS idx_payment_info_template_generated ON payment_info(payment_template_id, generated_at, contact_id, status)",
+                "CREATE INDEX IF NOT EXISTS idx_payment_info_contact ON payment_info(contact_id, generated_at)",
+                "CREATE INDEX IF NOT EXISTS idx_payment_info_status ON payment_info(status, generated_at)"
+        };
 
-                "CREATE INDEX IF NOT EXISTS idx_newsletter_template_created_at ON newsletter_template(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_newsletter_template_updated_at ON newsletter_template(updated_at) WHERE updated_at IS NOT NULL",
+        executeIndexes(paymentInfoIndexes, "payment info");
+    }
 
-                "CREATE INDEX IF NOT EXISTS idx_payment_attachment_created_at ON payment_attachment(created_at) WHERE created_at IS NOT NULL",
-                "CREATE INDEX IF NOT EXISTS idx_payment_attachment_updated_at ON payment_attachment(updated_at) WHERE updated_at IS NOT NULL",
+    /**
+     * Drops indexes that earlier versions created and that no query needs.
+     * Each one slows every insert and update of its table, most visibly bulk imports.
+     * - Redundant: another index starts with the same columns and covers the same rows
+     * - Timestamp indexes: partial on "IS NOT NULL", so SQLite cannot use them to sort,
+     *   and no query filters on those columns
+     * Found with the IndexAdvisor against the load test workload.
+     */
+    public static void dropRedundantIndexes() {
+        String[] redundantIndexes = {
+                // Covered by idx_contacts_full_name (first_name, last_name)
+                "idx_contacts_first_name",
+                // Covered by idx_workshops_date_range (from_date, to_date)
+                "idx_workshops_from_date",
+                "idx_workshops_active_range",
+                // Covered by idx_workshop_participants_composite (workshop_id, participant_type, payment_status)
+                "idx_workshop_participants_workshop_id",
+                // Covered by the UNIQUE (list_id, contact_id) constraint
+                "idx_list_contacts_list_id",
+
+                "idx_organization_created_at", "idx_organization_updated_at",
+                "idx_contacts_created_at", "idx_contacts_updated_at",
+                "idx_underaged_created_at", "idx_underaged_updated_at",
+                "idx_teachers_created_at", "idx_teachers_updated_at",
+                "idx_workshops_created_at", "idx_workshops_updated_at",
+                "idx_workshop_participants_created_at", "idx_workshop_participants_updated_at",
+                "idx_lists_created_at", "idx_lists_updated_at", "idx_lists_deleted_at",
+                "idx_payment_template_created_at", "idx_payment_template_updated_at",
+                "idx_newsletter_template_created_at", "idx_newsletter_template_updated_at",
+                "idx_payment_attachment_created_at", "idx_payment_attachment_updated_at"
         };
 
-        executeIndexes(reportingIndexes, "reporting and analytics");
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            int droppedCount = 0;
+            for (String indexName : redundantIndexes) {
+                try (PreparedStatement check = conn.prepareStatement(
+                        "SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?")) {
+                    check.setString(1, indexName);
+                    try (ResultSet rs = check.executeQuery()) {
+                        if (!rs.next()) {
+                            continue;
+                        }
+                    }
+                }
+                stmt.execute("DROP INDEX IF EXISTS " + indexName);
+                System.out.println("Dropped redundant SQLite index: " + indexName);
+                droppedCount++;
+            }
+            if (droppedCount > 0) {
+                System.out.println("Redundant indexes dropped: " + droppedCount);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error dropping redundant indexes: " + e.getMessage());
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -221,24 +324,26 @@ public class DatabaseConnection {
 
     /**
      * Creates all performance indexes for comprehensive database optimization.
-     * This method combines notification, performance, payment, and reporting indexes.
+     * This method combines notification, performance, payment and email outbox indexes,
+     * after dropping the ones no query needs.
      * Should be called during database initialization for optimal performance.
      *
      * Performance improvements expected:
      * - Name searches: 10-50x faster
      * - Workshop queries: 5-20x faster
      * - Payment tracking: 5-15x faster
-     * - Reporting queries: 10-100x faster
      */
     public static void createAllPerformanceIndexes() {
         System.out.println("Starting comprehensive database index creation...");
 
         long startTime = System.currentTimeMillis();
 
+        dropRedundantIndexes();
         createNotificationIndexes();
         createPerformanceIndexes();
         createPaymentIndexes();
-        createReportingIndexes();
+        createEmailOutboxIndexes();
+        createPaymentInfoIndexes();
 
         long duration = System.currentTimeMillis() - startTime;
         System.out.println("Comprehensive database indexing completed in " + duration + "ms");
@@ -338,6 +443,55 @@ public class DatabaseConnection {
         }
     }
 
+    /**
+     * Adds merge_fields column to email_outbox table if it doesn't exist.
+     * Holds per-recipient personalization values for rendered newsletter campaigns.
+     */
+    public static void addMergeFieldsToEmailOutbox() {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            try {
+                stmt.executeQuery("SELECT merge_fields FROM email_outbox LIMIT 1");
+                return;
+            } catch (SQLException e) {
+                System.out.println("Adding merge_fields column to email_outbox table...");
+            }
+
+            stmt.execute("ALTER TABLE email_outbox ADD COLUMN merge_fields TEXT");
+            System.out.println("Added merge_fields column to email_outbox table");
+
+        } catch (SQLException e) {
+            System.err.println("Error adding merge_fields to email_outbox: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Adds spool_path column to email_outbox table if it doesn't exist.
+     * Points to the spooled text and attachments of a payment slip email, which the
+     * dispatcher turns into a message when it claims the row.
+     */
+    public static void addSpoolPathToEmailOutbox() {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            try {
+                stmt.executeQuery("SELECT spool_path FROM email_outbox LIMIT 1");
+                return;
+            } catch (SQLException e) {
+                System.out.println("Adding spool_path column to email_outbox table...");
+            }
+
+            stmt.execute("ALTER TABLE email_outbox ADD COLUMN spool_path TEXT");
+            System.out.println("Added spool_path column to email_outbox table");
+
+        } catch (SQLException e) {
+            System.err.println("Error adding spool_path to email_outbox: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Adds teacher_id column to workshops table if it doesn't exist.
      * This migration supports the new workshop-teacher relationship model.
@@ -380,7 +534,7 @@ public class DatabaseConnection {
      * - Core CRM tables (organization, contacts, underaged members)
      * - Workshop management (workshops, participants, teachers)
      * - List management system
-     * - Payment processing system
+     * - Payment processing system and the payment_info slip ledger
      * - Template management
      */
     public static void initializeDatabase() {
@@ -543,6 +697,62 @@ public class DatabaseConnection {
             );
             """;
 
+        String createEmailCampaignTableSQL = """
+            CREATE TABLE IF NOT EXISTS email_campaign (
+                id TEXT PRIMARY KEY,
+                name TEXT,
+                subject TEXT,
+                html_body TEXT,
+                created_at TEXT
+            );
+            """;
+
+        String createEmailOutboxTableSQL = """
+            CREATE TABLE IF NOT EXISTS email_outbox (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                campaign_id TEXT NOT NULL,
+                recipient TEXT NOT NULL,
+                recipient_key TEXT NOT NULL,
+                raw_message TEXT,
+                merge_fields TEXT,
+                spool_path TEXT,
+                status TEXT NOT NULL DEFAULT 'PENDING',
+                attempts INTEGER DEFAULT 0,
+                next_attempt_at INTEGER DEFAULT 0,
+                claim_token TEXT,
+                last_status_code INTEGER,
+                last_error TEXT,
+                sent_at TEXT,
+                created_at TEXT,
+                updated_at TEXT,
+                UNIQUE (campaign_id, recipient_key),
+                FOREIGN KEY (campaign_id) REFERENCES email_campaign(id) ON DELETE CASCADE
+            );
+            """;
+
+        String createPaymentInfoTableSQL = """
+            CREATE TABLE IF NOT EXISTS payment_info (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                organization_id INTEGER,
+                payment_template_id INTEGER NOT NULL,
+                contact_id INTEGER NOT NULL,
+                underaged_id INTEGER,
+                target_type TEXT NOT NULL DEFAULT 'CONTACT',
+                amount DECIMAL(10,2) NOT NULL,
+                model_of_payment TEXT,
+                poziv_na_broj TEXT,
+                barcode_data TEXT,
+                status TEXT NOT NULL DEFAULT 'GENERATED',
+                generated_at TEXT NOT NULL,
+                created_at TEXT,
+                updated_at TEXT,
+                FOREIGN KEY (organization_id) REFERENCES organization(id) ON DELETE SET NULL,
+                FOREIGN KEY (payment_template_id) REFERENCES payment_template(id) ON DELETE CASCADE,
+                FOREIGN KEY (contact_id) REFERENCES contacts(id) ON DELETE CASCADE,
+                FOREIGN KEY (underaged_id) REFERENCES underaged(id) ON DELETE SET NULL
+            );
+            """;
+
         String createPaymentAttachmentTableSQL = """
             CREATE TABLE IF NOT EXISTS payment_attachment (
                 id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -572,10 +782,15 @@ public class DatabaseConnection {
             stmt.execute(createPaymentTemplateTableSQL);
             stmt.execute(createNewsletterTemplateTableSQL);
             stmt.execute(createPaymentAttachmentTableSQL);
+            stmt.execute(createEmailCampaignTableSQL);
+            stmt.execute(createEmailOutboxTableSQL);
+            stmt.execute(createPaymentInfoTableSQL);
 
             System.out.println("Database tables created successfully");
 
             addTeacherIdToWorkshops();
+            addMergeFieldsToEmailOutbox();
+            addSpoolPathToEmailOutbox();
             fixWorkshopParticipantsForTeachers();
             createAllPerformanceIndexes();
 
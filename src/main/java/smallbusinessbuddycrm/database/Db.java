@@ -0,0 +1,350 @@
+package smallbusinessbuddycrm.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit of work spanning several DAOs: everything inside Db.inTransaction commits once,
+ * or not at all.
+ *
+ * <pre>
+ * Db.inTransaction(tx -> {
+ *     if (!contactDAO.updateContact(contact)) {
+ *         throw new SQLException("Contact not updated");
+ *     }
+ *     underagedDAO.deleteUnderagedMembers(removedIds);
+ *     return null;
+ * });
+ * </pre>
+ *
+ * Features:
+ * - DAOs join without changes: while a transaction is open on a thread,
+ *   DatabaseConnection.getConnection() and openConnection() return its connection there,
+ *   and closing it, commit and setAutoCommit are ignored until the transaction ends
+ * - A DAO that rolls back its own work marks the whole transaction for rollback
+ * - Savepoints, and nested inTransaction calls that roll back only their own part
+ * - Batches that send rows to SQLite in groups and are flushed before savepoints and commit
+ * - Its own connection with IMMEDIATE transactions, so other threads wait for the
+ *   commit instead of failing halfway with SQLITE_BUSY
+ *
+ * DAOs report most errors by returning false or null instead of throwing, so callbacks
+ * should check results and throw to roll back.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public final class Db {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final ThreadLocal<Transaction> CURRENT = new ThreadLocal<>();
+
+    private Db() {
+    }
+
+    /**
+     * Work done inside a transaction.
+     */
+    @FunctionalInterface
+    public interface TransactionCallback<T> {
+        T doInTransaction(Transaction tx) throws SQLException;
+    }
+
+    /**
+     * Runs the callback in a transaction and commits if it returns normally.
+     * Called inside another transaction, it runs in a savepoint of that one instead:
+     * a failure rolls back to the savepoint and the outer transaction decides about the commit.
+     *
+     * @param callback Work to run
+     * @return Result of the callback
+     * @throws SQLException if the callback or the commit fails; the work is rolled back
+     */
+    public static <T> T inTransaction(TransactionCallback<T> callback) throws SQLException {
+        Transaction outer = CURRENT.get();
+        if (outer != null) {
+            return outer.nested(callback);
+        }
+
+        try (Connection conn = DatabaseConnection.openTransactionConnection()) {
+            Transaction tx = new Transaction(conn);
+            conn.setAutoCommit(false);
+            CURRENT.set(tx);
+            try {
+                T result = callback.doInTransaction(tx);
+                tx.commit();
+                return result;
+            } catch (SQLException | RuntimeException | Error e) {
+                tx.rollback(e);
+                throw e;
+            } finally {
+                CURRENT.remove();
+                tx.closeBatches();
+            }
+        }
+    }
+
+    /**
+     * The transaction open on the calling thread, or null.
+     */
+    public static Transaction currentTransaction() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Connection of the transaction open on the calling thread, for DatabaseConnection.
+     */
+    static Connection currentConnection() {
+        Transaction tx = CURRENT.get();
+        return tx != null ? tx.participant : null;
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * An open transaction, handed to the callback.
+     */
+    public static final class Transaction {
+        private final Connection connection;
+        private final Connection participant;
+        private final List<Batch> batches = new ArrayList<>();
+        private boolean rollbackOnly;
+
+        private Transaction(Connection connection) {
+            this.connection = connection;
+            this.participant = (Connection) Proxy.newProxyInstance(Db.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new ParticipantHandler(this));
+        }
+
+        /**
+         * Connection for statements of the callback itself. Closing it is ignored.
+         */
+        public Connection getConnection() {
+            return participant;
+        }
+
+        /**
+         * Flushes the batches and sets a savepoint.
+         *
+         * @param name Savepoint name, or null for an unnamed one
+         */
+        public Savepoint savepoint(String name) throws SQLException {
+            flush();
+            return name != null ? connection.setSavepoint(name) : connection.setSavepoint();
+        }
+
+        /**
+         * Undoes everything after the savepoint, including rows still waiting in batches.
+         */
+        public void rollbackTo(Savepoint savepoint) throws SQLException {
+            for (Batch batch : batches) {
+                batch.clear();
+            }
+            connection.rollback(savepoint);
+        }
+
+        /**
+         * Keeps the work after the savepoint and forgets the savepoint.
+         */
+        public void release(Savepoint savepoint) throws SQLException {
+            connection.releaseSavepoint(savepoint);
+        }
+
+        /**
+         * Batch of DEFAULT_BATCH_SIZE rows for the given statement.
+         */
+        public Batch batch(String sql) throws SQLException {
+            return batch(sql, DEFAULT_BATCH_SIZE);
+        }
+
+        /**
+         * Batch for the given statement, sent to SQLite every batchSize rows.
+         * The statement stays open until the transaction ends.
+         */
+        public Batch batch(String sql, int batchSize) throws SQLException {
+            Batch batch = new Batch(connection.prepareStatement(sql), Math.max(1, batchSize));
+            batches.add(batch);
+            return batch;
+        }
+
+        /**
+         * Sends the rows waiting in all batches.
+         */
+        public void flush() throws SQLException {
+            for (Batch batch : batches) {
+                batch.flush();
+            }
+        }
+
+        /**
+         * Makes the transaction roll back at the end instead of committing.
+         */
+        public void setRollbackOnly() {
+            rollbackOnly = true;
+        }
+
+        public boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        private <T> T nested(TransactionCallback<T> callback) throws SQLException {
+            Savepoint savepoint = savepoint(null);
+            try {
+                T result = callback.doInTransaction(this);
+                flush();
+                release(savepoint);
+                return result;
+            } catch (SQLException | RuntimeException | Error e) {
+                try {
+                    rollbackTo(savepoint);
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            }
+        }
+
+        private void commit() throws SQLException {
+            flush();
+            if (rollbackOnly) {
+                throw new SQLException("Transaction rolled back: a participant rolled back its work");
+            }
+            connection.commit();
+        }
+
+        private void rollback(Throwable cause) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                cause.addSuppressed(e);
+            }
+        }
+
+        private void closeBatches() {
+            for (Batch batch : batches) {
+                batch.close();
+            }
+            batches.clear();
+        }
+    }
+
+    /**
+     * Rows for one prepared statement, sent to SQLite in groups.
+     */
+    public static final class Batch {
+        private final PreparedStatement statement;
+        private final int batchSize;
+        private int pending;
+        private long updateCount;
+
+        private Batch(PreparedStatement statement, int batchSize) {
+            this.statement = statement;
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Adds a row; the values bind to the statement's parameters in order.
+         * Sends the batch once batchSize rows are waiting.
+         */
+        public Batch add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending >= batchSize) {
+                flush();
+            }
+            return this;
+        }
+
+        /**
+         * Sends the waiting rows.
+         *
+         * @return Rows changed by this flush
+         */
+        public int flush() throws SQLException {
+            if (pending == 0) {
+                return 0;
+            }
+            pending = 0;
+            int changed = 0;
+            for (int count : statement.executeBatch()) {
+                changed += Math.max(0, count);
+            }
+            updateCount += changed;
+            return changed;
+        }
+
+        /**
+         * Rows changed by all flushes so far.
+         */
+        public long getUpdateCount() {
+            return updateCount;
+        }
+
+        public int getPendingCount() {
+            return pending;
+        }
+
+        private void clear() {
+            try {
+                statement.clearBatch();
+            } catch (SQLException e) {
+                System.err.println("Error clearing batch: " + e.getMessage());
+            }
+            pending = 0;
+        }
+
+        private void close() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing batch statement: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The transaction's connection as DAOs see it: transaction control stays with inTransaction.
+     */
+    private static class ParticipantHandler implements InvocationHandler {
+        private final Transaction transaction;
+
+        ParticipantHandler(Transaction transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                case "setAutoCommit":
+                    return null;
+                case "isClosed":
+                    return false;
+                case "rollback":
+                    if (args == null || args.length == 0) {
+                        transaction.setRollbackOnly();
+                        return null;
+                    }
+                    return call(transaction.connection, method, args);
+                default:
+                    return call(transaction.connection, method, args);
+            }
+        }
+    }
+}
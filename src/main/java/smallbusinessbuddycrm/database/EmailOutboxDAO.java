@@ -0,0 +1,656 @@
+package smallbusinessbuddycrm.database;
+
+import smallbusinessbuddycrm.model.CampaignDeliveryStats;
+import smallbusinessbuddycrm.model.EmailCampaign;
+import smallbusinessbuddycrm.model.OutboxEmail;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Data Access Object for the persistent outbound email queue.
+ * Stores campaigns and one outbox row per recipient so bulk sends survive
+ * application restarts and network failures.
+ *
+ * Features:
+ * - Deduplicated enqueue on (campaign, recipient key)
+ * - Atomic claiming of due rows with a per-claim token
+ * - Status, attempt count and last error per recipient
+ * - Recovery of rows left in SENDING by a previous run
+ * - Per-campaign delivery totals for the campaign report
+ *
+ * Every method opens its own connection with DatabaseConnection.openConnection(),
+ * because the queue is driven from a background dispatcher thread while the UI
+ * keeps using the shared connection.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class EmailOutboxDAO {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Saves a campaign. Saving an existing campaign ID is a no-op, so a resent
+     * campaign keeps its original queue.
+     *
+     * @param campaign The campaign to save
+     * @return true if the campaign exists after the call, false on error
+     */
+    public boolean saveCampaign(EmailCampaign campaign) {
+        String sql = "INSERT OR IGNORE INTO email_campaign (id, name, subject, html_body, created_at) VALUES (?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, campaign.getId());
+            pstmt.setString(2, campaign.getName());
+            pstmt.setString(3, campaign.getSubject());
+            pstmt.setString(4, campaign.getHtmlBody());
+            pstmt.setString(5, campaign.getCreatedAt().format(FORMATTER));
+            pstmt.executeUpdate();
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error saving email campaign: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves a campaign by its ID.
+     *
+     * @param id The campaign ID
+     * @return Optional containing the campaign if found, empty Optional otherwise
+     */
+    public Optional<EmailCampaign> findCampaignById(String id) {
+        String sql = "SELECT * FROM email_campaign WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, id);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    EmailCampaign campaign = new EmailCampaign();
+                    campaign.setId(rs.getString("id"));
+                    campaign.setName(rs.getString("name"));
+                    campaign.setSubject(rs.getString("subject"));
+                    campaign.setHtmlBody(rs.getString("html_body"));
+                    campaign.setCreatedAt(parseDateTime(rs.getString("created_at")));
+                    return Optional.of(campaign);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding email campaign by ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Queues emails in one transaction. A (campaign, recipient key) that is already
+     * waiting, being sent or sent is skipped; one that was cancelled or failed is
+     * queued again with the new message and a fresh attempt count.
+     *
+     * @param emails Emails to queue
+     * @return Number of rows inserted or queued again, or -1 on error
+     */
+    public int enqueue(List<OutboxEmail> emails) {
+        String sql = """
+            INSERT INTO email_outbox
+            (campaign_id, recipient, recipient_key, raw_message, merge_fields, spool_path, status, attempts, next_attempt_at, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?)
+            ON CONFLICT (campaign_id, recipient_key) DO UPDATE SET
+                recipient = excluded.recipient,
+                raw_message = excluded.raw_message,
+                merge_fields = excluded.merge_fields,
+                spool_path = excluded.spool_path,
+                status = excluded.status,
+                attempts = 0,
+                next_attempt_at = excluded.next_attempt_at,
+                claim_token = NULL,
+                last_status_code = NULL,
+                last_error = NULL,
+                updated_at = excluded.updated_at
+            WHERE email_outbox.status IN (?, ?)
+            """;
+
+        try (Connection conn = DatabaseConnection.openConnection()) {
+            conn.setAutoCommit(false);
+
+            int inserted = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                String now = LocalDateTime.now().format(FORMATTER);
+                long nowMillis = System.currentTimeMillis();
+
+                for (OutboxEmail email : emails) {
+                    pstmt.setString(1, email.getCampaignId());
+                    pstmt.setString(2, email.getRecipient());
+                    pstmt.setString(3, email.getRecipientKey());
+                    pstmt.setString(4, email.getRawMessage());
+                    pstmt.setString(5, email.getMergeFields());
+                    pstmt.setString(6, email.getSpoolPath());
+                    pstmt.setString(7, OutboxEmail.STATUS_PENDING);
+                    pstmt.setLong(8, nowMillis);
+                    pstmt.setString(9, now);
+                    pstmt.setString(10, now);
+                    pstmt.setString(11, OutboxEmail.STATUS_CANCELLED);
+                    pstmt.setString(12, OutboxEmail.STATUS_FAILED);
+                    pstmt.addBatch();
+                }
+
+                for (int count : pstmt.executeBatch()) {
+                    if (count > 0) {
+                        inserted += count;
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+            return inserted;
+
+        } catch (SQLException e) {
+            System.err.println("Error queueing emails: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Recipient keys of a campaign that are waiting, being sent or sent. Lets callers
+     * skip preparing messages that enqueue would ignore anyway; cancelled and failed
+     * keys are not returned, since enqueue queues them again.
+     *
+     * @param campaignId The campaign ID
+     * @return Recipient keys of the campaign's live rows
+     */
+    public Set<String> findRecipientKeys(String campaignId) {
+        Set<String> keys = new HashSet<>();
+        String sql = "SELECT recipient_key FROM email_outbox WHERE campaign_id = ? AND status IN (?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, campaignId);
+            pstmt.setString(2, OutboxEmail.STATUS_PENDING);
+            pstmt.setString(3, OutboxEmail.STATUS_SENDING);
+            pstmt.setString(4, OutboxEmail.STATUS_SENT);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(rs.getString("recipient_key"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding queued recipients: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return keys;
+    }
+
+    /**
+     * Claims up to limit due rows by moving them to SENDING and counting the attempt.
+     * The claim and the read happen in one transaction, so two dispatchers never
+     * claim the same row.
+     *
+     * @param limit Maximum number of rows to claim
+     * @return Claimed rows including their raw message
+     */
+    public List<OutboxEmail> claimDue(int limit) {
+        List<OutboxEmail> claimed = new ArrayList<>();
+        String claimSql = """
+            UPDATE email_outbox
+            SET status = ?, claim_token = ?, attempts = attempts + 1, updated_at = ?
+            WHERE id IN (
+                SELECT id FROM email_outbox
+                WHERE status = ? AND next_attempt_at <= ?
+                ORDER BY next_attempt_at, id
+                LIMIT ?
+            )
+            """;
+        String selectSql = "SELECT * FROM email_outbox WHERE claim_token = ? ORDER BY id";
+
+        try (Connection conn = DatabaseConnection.openConnection()) {
+            conn.setAutoCommit(false);
+            String claimToken = UUID.randomUUID().toString();
+
+            try (PreparedStatement claimStmt = conn.prepareStatement(claimSql);
+                 PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+
+                claimStmt.setString(1, OutboxEmail.STATUS_SENDING);
+                claimStmt.setString(2, claimToken);
+                claimStmt.setString(3, LocalDateTime.now().format(FORMATTER));
+                claimStmt.setString(4, OutboxEmail.STATUS_PENDING);
+                claimStmt.setLong(5, System.currentTimeMillis());
+                claimStmt.setInt(6, limit);
+
+                if (claimStmt.executeUpdate() > 0) {
+                    selectStmt.setString(1, claimToken);
+                    try (ResultSet rs = selectStmt.executeQuery()) {
+                        while (rs.next()) {
+                            claimed.add(mapResultSetToOutboxEmail(rs, true));
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error claiming queued emails: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return claimed;
+    }
+
+    /**
+     * Marks a row as sent and drops its stored message and spool reference, which are no longer needed.
+     *
+     * @param id The outbox row ID
+     * @param statusCode HTTP status of the successful request
+     * @return true if the row was updated
+     */
+    public boolean markSent(long id, int statusCode) {
+        String sql = """
+            UPDATE email_outbox
+            SET status = ?, last_status_code = ?, last_error = NULL, raw_message = NULL, spool_path = NULL,
+                claim_token = NULL, sent_at = ?, updated_at = ?
+            WHERE id = ?
+            """;
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            String now = LocalDateTime.now().format(FORMATTER);
+            pstmt.setString(1, OutboxEmail.STATUS_SENT);
+            pstmt.setInt(2, statusCode);
+            pstmt.setString(3, now);
+            pstmt.setString(4, now);
+            pstmt.setLong(5, id);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error marking email as sent: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Puts a row back in the queue for another attempt. Rows of a campaign that was
+     * cancelled meanwhile stay cancelled.
+     *
+     * @param id The outbox row ID
+     * @param nextAttemptAt Earliest time of the next attempt, in epoch milliseconds
+     * @param statusCode HTTP status of the failed attempt, 0 if there was no response
+     * @param error Error description
+     * @return true if the row was updated
+     */
+    public boolean markForRetry(long id, long nextAttemptAt, int statusCode, String error) {
+        String sql = """
+            UPDATE email_outbox
+            SET status = ?, next_attempt_at = ?, last_status_code = ?, last_error = ?,
+                claim_token = NULL, updated_at = ?
+            WHERE id = ? AND status = ?
+            """;
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, OutboxEmail.STATUS_PENDING);
+            pstmt.setLong(2, nextAttemptAt);
+            pstmt.setInt(3, statusCode);
+            pstmt.setString(4, error);
+            pstmt.setString(5, LocalDateTime.now().format(FORMATTER));
+            pstmt.setLong(6, id);
+            pstmt.setString(7, OutboxEmail.STATUS_SENDING);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error rescheduling queued email: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Marks a row as permanently failed and drops its spool reference.
+     *
+     * @param id The outbox row ID
+     * @param statusCode HTTP status of the last attempt, 0 if there was no response
+     * @param error Error description
+     * @return true if the row was updated
+     */
+    public boolean markFailed(long id, int statusCode, String error) {
+        String sql = """
+            UPDATE email_outbox
+            SET status = ?, last_status_code = ?, last_error = ?, spool_path = NULL, claim_token = NULL, updated_at = ?
+            WHERE id = ?
+            """;
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, OutboxEmail.STATUS_FAILED);
+            pstmt.setInt(2, statusCode);
+            pstmt.setString(3, error);
+            pstmt.setString(4, LocalDateTime.now().format(FORMATTER));
+            pstmt.setLong(5, id);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error marking queued email as failed: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Returns rows left in SENDING by a previous run to the queue.
+     * Must only be called before the dispatcher starts claiming work.
+     *
+     * @return Number of rows released
+     */
+    public int releaseStaleClaims() {
+        String sql = "UPDATE email_outbox SET status = ?, claim_token = NULL, updated_at = ? WHERE status = ?";
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, OutboxEmail.STATUS_PENDING);
+            pstmt.setString(2, LocalDateTime.now().format(FORMATTER));
+            pstmt.setString(3, OutboxEmail.STATUS_SENDING);
+            return pstmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("Error releasing stale email claims: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Cancels every queued or in-flight row of a campaign. A message already on the
+     * wire is still recorded as SENT or FAILED when its response arrives, but it is
+     * not requeued.
+     *
+     * @param campaignId The campaign ID
+     * @return Number of rows cancelled
+     */
+    public int cancelCampaign(String campaignId) {
+        String sql = "UPDATE email_outbox SET status = ?, raw_message = NULL, spool_path = NULL, updated_at = ? WHERE campaign_id = ? AND status IN (?, ?)";
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, OutboxEmail.STATUS_CANCELLED);
+            pstmt.setString(2, LocalDateTime.now().format(FORMATTER));
+            pstmt.setString(3, campaignId);
+            pstmt.setString(4, OutboxEmail.STATUS_PENDING);
+            pstmt.setString(5, OutboxEmail.STATUS_SENDING);
+            return pstmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("Error cancelling email campaign: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Counts a campaign's rows per status.
+     *
+     * @param campaignId The campaign ID
+     * @return Map of status to row count; statuses without rows are absent
+     */
+    public Map<String, Integer> countByStatus(String campaignId) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        String sql = "SELECT status, COUNT(*) AS count FROM email_outbox WHERE campaign_id = ? GROUP BY status";
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, campaignId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getString("status"), rs.getInt("count"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting campaign emails: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return counts;
+    }
+
+    /**
+     * Number of rows still waiting to be sent, across all campaigns.
+     *
+     * @return Count of PENDING rows
+     */
+    public int countPending() {
+        String sql = "SELECT COUNT(*) FROM email_outbox WHERE status = ?";
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, OutboxEmail.STATUS_PENDING);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting queued emails: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Campaigns with rows still waiting or being sent.
+     *
+     * @return Campaign IDs
+     */
+    public Set<String> findActiveCampaignIds() {
+        Set<String> campaignIds = new HashSet<>();
+        String sql = "SELECT DISTINCT campaign_id FROM email_outbox WHERE status IN (?, ?)";
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, OutboxEmail.STATUS_PENDING);
+            pstmt.setString(2, OutboxEmail.STATUS_SENDING);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    campaignIds.add(rs.getString("campaign_id"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding active email campaigns: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+
+        return campaignIds;
+    }
+
+    /**
+     * Earliest next attempt time among queued rows.
+     *
+     * @return Epoch milliseconds, or empty if nothing is queued
+     */
+    public OptionalLong findNextAttemptTime() {
+        String sql = "SELECT MIN(next_attempt_at) FROM email_outbox WHERE status = ?";
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, OutboxEmail.STATUS_PENDING);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    long next = rs.getLong(1);
+                    if (!rs.wasNull()) {
+                        return OptionalLong.of(next);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding next queued email: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Per-recipient results of a campaign, without the stored messages.
+     *
+     * @param campaignId The campaign ID
+     * @return Rows of the campaign ordered by ID
+     */
+    public List<OutboxEmail> findByCampaign(String campaignId) {
+        List<OutboxEmail> emails = new ArrayList<>();
+        String sql = """
+            SELECT id, campaign_id, recipient, recipient_key, status, attempts, next_attempt_at,
+                   last_status_code, last_error, sent_at, created_at, updated_at
+            FROM email_outbox WHERE campaign_id = ? ORDER BY id
+            """;
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, campaignId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    emails.add(mapResultSetToOutboxEmail(rs, false));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding campaign emails: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return emails;
+    }
+
+    /**
+     * Outbox totals of every campaign, newest first.
+     *
+     * @return One row per campaign, including campaigns with no queued emails left
+     */
+    public List<CampaignDeliveryStats> findCampaignStats() {
+        List<CampaignDeliveryStats> stats = new ArrayList<>();
+        String sql = """
+            SELECT c.id, c.name, c.subject, c.created_at,
+                   COALESCE(SUM(CASE WHEN o.status = ? THEN 1 ELSE 0 END), 0) AS pending,
+                   COALESCE(SUM(CASE WHEN o.status = ? THEN 1 ELSE 0 END), 0) AS sending,
+                   COALESCE(SUM(CASE WHEN o.status = ? THEN 1 ELSE 0 END), 0) AS sent,
+                   COALESCE(SUM(CASE WHEN o.status = ? THEN 1 ELSE 0 END), 0) AS failed,
+                   COALESCE(SUM(CASE WHEN o.status = ? THEN 1 ELSE 0 END), 0) AS cancelled,
+                   COALESCE(SUM(CASE WHEN o.status IN (?, ?, ?) THEN MAX(o.attempts - 1, 0) ELSE o.attempts END), 0) AS retries
+            FROM email_campaign c
+            LEFT JOIN email_outbox o ON o.campaign_id = c.id
+            GROUP BY c.id
+            ORDER BY c.created_at DESC
+            """;
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, OutboxEmail.STATUS_PENDING);
+            pstmt.setString(2, OutboxEmail.STATUS_SENDING);
+            pstmt.setString(3, OutboxEmail.STATUS_SENT);
+            pstmt.setString(4, OutboxEmail.STATUS_FAILED);
+            pstmt.setString(5, OutboxEmail.STATUS_CANCELLED);
+            // The latest attempt of a sent, failed or in-flight row is not a retry
+            pstmt.setString(6, OutboxEmail.STATUS_SENDING);
+            pstmt.setString(7, OutboxEmail.STATUS_SENT);
+            pstmt.setString(8, OutboxEmail.STATUS_FAILED);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    CampaignDeliveryStats campaignStats = new CampaignDeliveryStats();
+                    campaignStats.setCampaignId(rs.getString("id"));
+                    campaignStats.setName(rs.getString("name"));
+                    campaignStats.setSubject(rs.getString("subject"));
+                    campaignStats.setCreatedAt(parseDateTime(rs.getString("created_at")));
+                    campaignStats.setPending(rs.getInt("pending"));
+                    campaignStats.setSending(rs.getInt("sending"));
+                    campaignStats.setSent(rs.getInt("sent"));
+                    campaignStats.setFailed(rs.getInt("failed"));
+                    campaignStats.setCancelled(rs.getInt("cancelled"));
+                    campaignStats.setRetries(rs.getInt("retries"));
+                    stats.add(campaignStats);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading campaign statistics: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return stats;
+    }
+
+    /**
+     * Maps a ResultSet row to an OutboxEmail object.
+     *
+     * @param rs The ResultSet positioned at the row to map
+     * @param includeMessage Whether the raw_message, merge_fields and spool_path columns were selected
+     * @return OutboxEmail object populated with data from the ResultSet
+     * @throws SQLException if database access error occurs
+     */
+    private OutboxEmail mapResultSetToOutboxEmail(ResultSet rs, boolean includeMessage) throws SQLException {
+        OutboxEmail email = new OutboxEmail();
+        email.setId(rs.getLong("id"));
+        email.setCampaignId(rs.getString("campaign_id"));
+        email.setRecipient(rs.getString("recipient"));
+        email.setRecipientKey(rs.getString("recipient_key"));
+        if (includeMessage) {
+            email.setRawMessage(rs.getString("raw_message"));
+            email.setMergeFields(rs.getString("merge_fields"));
+            email.setSpoolPath(rs.getString("spool_path"));
+        }
+        email.setStatus(rs.getString("status"));
+        email.setAttempts(rs.getInt("attempts"));
+        email.setNextAttemptAt(rs.getLong("next_attempt_at"));
+        email.setLastStatusCode(rs.getInt("last_status_code"));
+        email.setLastError(rs.getString("last_error"));
+        email.setSentAt(parseDateTime(rs.getString("sent_at")));
+        email.setCreatedAt(parseDateTime(rs.getString("created_at")));
+        email.setUpdatedAt(parseDateTime(rs.getString("updated_at")));
+        return email;
+    }
+
+    private LocalDateTime parseDateTime(String value) {
+        return value != null ? LocalDateTime.parse(value, FORMATTER) : null;
+    }
+}
@@ -0,0 +1,797 @@
+package smallbusinessbuddycrm.database;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reviews the database indexes against a captured query workload.
+ *
+ * The workload is the list of statements aggregated by the SlowQueryLog. Each statement
+ * is explained with EXPLAIN QUERY PLAN (the captured plan is reused when there is one)
+ * and every index is classified:
+ * - USED - read by at least one statement of the workload
+ * - REQUIRED - enforces a UNIQUE or PRIMARY KEY constraint, or leads with a foreign key
+ *   column; SQLite uses those for ON DELETE CASCADE, which never shows up in a plan
+ * - REDUNDANT - its columns are a leading prefix of another index covering the same rows
+ * - UNUSED - none of the above; only as reliable as the workload is complete
+ *
+ * Missing indexes are suggested where a statement reads a whole table of at least
+ * MIN_ROWS_FOR_INDEX rows while filtering or joining on columns no index leads with, and
+ * where SQLite builds an automatic index on the fly.
+ *
+ * Features:
+ * - Text report for the console and the diagnostics panel
+ * - Migration script that drops redundant (and optionally unused) indexes and creates missing ones
+ * - Write throughput before and after the migration, measured on a copy of the database
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class IndexAdvisor {
+
+    /** Tables smaller than this are read faster without an index. */
+    public static final int MIN_ROWS_FOR_INDEX = 1000;
+    /** Rows inserted per table when measuring write throughput. */
+    public static final int DEFAULT_THROUGHPUT_ROWS = 2000;
+
+    private static final int MAX_SUGGESTED_COLUMNS = 3;
+    private static final int THROUGHPUT_RUNS = 7;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // SCAN c, SCAN contacts, SCAN TABLE contacts AS c; scans using an index are not full scans
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (?:TABLE )?(\\w+)(?: AS (\\w+))?$");
+    // SEARCH wp USING AUTOMATIC COVERING INDEX (workshop_id=?)
+    private static final Pattern AUTOMATIC_INDEX = Pattern.compile(
+            "^SEARCH (?:TABLE )?(\\w+)(?: AS (\\w+))? USING AUTOMATIC (?:PARTIAL )?(?:COVERING )?INDEX \\(([^)]*)\\)");
+    private static final Pattern TABLE_REFERENCE = Pattern.compile(
+            "(?i)\\b(?:FROM|JOIN|UPDATE|INTO)\\s+(\\w+)(?:\\s+(?:AS\\s+)?(\\w+))?");
+    private static final Pattern FILTER_START = Pattern.compile("(?i)\\b(?:WHERE|ON)\\b");
+    private static final Pattern PREDICATE = Pattern.compile(
+            "(?i)(?:\\b(\\w+)\\.)?\\b(\\w+)\\s*(=|IN\\s*\\(|>=|<=|>|<|BETWEEN\\b)");
+    private static final Pattern JOINED_COLUMN = Pattern.compile("=\\s*(\\w+)\\.(\\w+)\\b");
+    private static final Pattern AUTOMATIC_COLUMN = Pattern.compile("(\\w+)\\s*(=|>|<|>=|<=)");
+    // INSERT ... VALUES (?) after normalization no longer matches the column count
+    private static final Pattern INSERT_VALUES = Pattern.compile("(?is)^\\s*(?:INSERT|REPLACE)\\b.*\\bVALUES\\b.*");
+    private static final Pattern PARTIAL_INDEX_WHERE = Pattern.compile("(?is)\\bWHERE\\b(.*)$");
+    private static final Set<String> SQL_KEYWORDS = Set.of("WHERE", "ON", "LEFT", "RIGHT", "INNER", "OUTER", "CROSS",
+            "JOIN", "ORDER", "GROUP", "LIMIT", "SET", "VALUES", "SELECT", "USING", "NATURAL", "HAVING", "UNION", "AND", "OR");
+
+    private IndexAdvisor() {
+    }
+
+    public enum Verdict { USED, REQUIRED, REDUNDANT, UNUSED }
+
+    /**
+     * Classifies the indexes of the database against a workload.
+     *
+     * @param connection Database to review; not closed
+     * @param workload Statements to check, usually SlowQueryLog.getInstance().getQueryStats()
+     * @return Report with one entry per index and the suggested new indexes
+     * @throws SQLException if the schema cannot be read
+     */
+    public static Report analyze(Connection connection, List<SlowQueryLog.QueryStats> workload) throws SQLException {
+        // The advisor's own statements stay out of the metrics and the query log
+        Connection raw = InstrumentedJdbc.unwrap(connection);
+        Schema schema = Schema.read(raw);
+
+        Map<String, Long> callsByIndex = new HashMap<>();
+        Map<String, MissingIndex> missing = new LinkedHashMap<>();
+        int statements = 0;
+        long calls = 0;
+
+        for (SlowQueryLog.QueryStats stats : workload) {
+            if (!stats.hasPlan() && INSERT_VALUES.matcher(stats.getSql()).matches()) {
+                continue;
+            }
+            List<String> plan = stats.hasPlan() ? stats.getPlan() : SlowQueryLog.explain(stats.getSql(), null, raw);
+            if (plan.isEmpty()) {
+                continue;
+            }
+            statements++;
+            calls += stats.getCount();
+            for (String index : SlowQueryLog.findIndexes(plan)) {
+                callsByIndex.merge(index, stats.getCount(), Long::sum);
+            }
+            findMissingIndexes(stats, plan, schema, missing);
+        }
+
+        for (IndexInfo index : schema.indexes) {
+            index.calls = callsByIndex.getOrDefault(index.name, 0L);
+        }
+        classify(schema);
+
+        List<MissingIndex> suggestions = mergePrefixes(new ArrayList<>(missing.values()));
+        suggestions.sort(Comparator.comparingLong(MissingIndex::getCalls).reversed());
+        return new Report(schema.indexes, suggestions, statements, calls);
+    }
+
+    /**
+     * Measures INSERT throughput per table. Each table gets a copy of up to the given
+     * number of its own rows inserted, the median of several runs counts, and every run
+     * is rolled back.
+     *
+     * @param connection Database to measure; its auto-commit mode is restored
+     * @return Rows per second by table; empty tables and tables with UNIQUE constraints,
+     *         which would reject the copies, are left out
+     */
+    public static Map<String, Double> measureWriteThroughput(Connection connection, Collection<String> tables, int rows)
+            throws SQLException {
+        Connection raw = InstrumentedJdbc.unwrap(connection);
+        Map<String, Double> throughput = new LinkedHashMap<>();
+        boolean autoCommit = raw.getAutoCommit();
+        raw.setAutoCommit(false);
+        try {
+            for (String table : tables) {
+                List<String> columns = Schema.insertableColumns(raw, table);
+                if (columns.isEmpty()) {
+                    continue;
+                }
+                String columnList = columns.stream().map(IndexAdvisor::quote).reduce((a, b) -> a + ", " + b).orElse("");
+                String sql = "INSERT INTO " + quote(table) + " (" + columnList + ") SELECT " + columnList +
+                        " FROM " + quote(table) + " ORDER BY rowid LIMIT ?";
+
+                long[] nanos = new long[THROUGHPUT_RUNS];
+                int inserted = 0;
+                try (PreparedStatement stmt = raw.prepareStatement(sql)) {
+                    stmt.setInt(1, rows);
+                    for (int run = -1; run < THROUGHPUT_RUNS; run++) {
+                        long start = System.nanoTime();
+                        inserted = stmt.executeUpdate();
+                        long elapsed = System.nanoTime() - start;
+                        raw.rollback();
+                        if (run >= 0) { // run -1 warms the page cache
+                            nanos[run] = elapsed;
+                        }
+                    }
+                } catch (SQLException e) {
+                    raw.rollback();
+                    System.err.println("⚠️ Could not measure writes to " + table + ": " + e.getMessage());
+                    continue;
+                }
+                if (inserted > 0) {
+                    Arrays.sort(nanos);
+                    throughput.put(table, inserted / (nanos[THROUGHPUT_RUNS / 2] / 1_000_000_000.0));
+                }
+            }
+        } finally {
+            raw.setAutoCommit(autoCommit);
+        }
+        return throughput;
+    }
+
+    /**
+     * Measures write throughput before and after a migration on a temporary copy of the
+     * database. The database itself is not changed.
+     *
+     * @param connection Database to copy; must not be inside a transaction
+     * @param migration Statements of the migration
+     * @param tables Tables whose writes are measured
+     * @param rows Rows inserted per table and run
+     */
+    public static WriteThroughput compareWriteThroughput(Connection connection, List<String> migration,
+                                                         Collection<String> tables, int rows)
+            throws SQLException, IOException {
+        Path copy = Files.createTempFile("sbb-index-advisor", ".db");
+        try {
+            try (Statement stmt = InstrumentedJdbc.unwrap(connection).createStatement()) {
+                stmt.execute("VACUUM INTO '" + copy.toAbsolutePath().toString().replace("'", "''") + "'");
+            }
+            try (Connection copyConnection = DriverManager.getConnection("jdbc:sqlite:" + copy.toAbsolutePath())) {
+                Map<String, Double> before = measureWriteThroughput(copyConnection, tables, rows);
+                applyMigration(copyConnection, migration);
+                Map<String, Double> after = measureWriteThroughput(copyConnection, tables, rows);
+                return new WriteThroughput(rows, before, after);
+            }
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    /**
+     * Runs the statements of a migration in one transaction.
+     *
+     * @throws SQLException if a statement fails; nothing is changed then
+     */
+    public static void applyMigration(Connection connection, List<String> migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : migration) {
+                stmt.execute(sql);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void findMissingIndexes(SlowQueryLog.QueryStats stats, List<String> plan, Schema schema,
+                                           Map<String, MissingIndex> missing) {
+        Map<String, String> tablesByAlias = tableAliases(stats.getSql(), schema);
+
+        for (String line : plan) {
+            String step = line.trim();
+            List<String> columns = null;
+            String table = null;
+            String reason = null;
+
+            Matcher scan = FULL_SCAN.matcher(step);
+            Matcher automatic = AUTOMATIC_INDEX.matcher(step);
+            if (scan.matches()) {
+                String alias = scan.group(2) != null ? scan.group(2) : scan.group(1);
+                table = tablesByAlias.getOrDefault(alias, scan.group(1));
+                columns = filterColumns(stats.getSql(), alias, table, tablesByAlias, schema);
+                reason = "full scan";
+            } else if (automatic.find()) {
+                String alias = automatic.group(2) != null ? automatic.group(2) : automatic.group(1);
+                table = tablesByAlias.getOrDefault(alias, automatic.group(1));
+                columns = automaticIndexColumns(automatic.group(3));
+                reason = "automatic index";
+            }
+
+            if (columns == null || columns.isEmpty() || !schema.columns.containsKey(table)
+                    || schema.rowCounts.getOrDefault(table, 0L) < MIN_ROWS_FOR_INDEX
+                    || schema.hasIndexLeadingWith(table, columns.get(0))) {
+                continue;
+            }
+
+            String key = table + "(" + String.join(", ", columns) + ")";
+            MissingIndex suggestion = missing.get(key);
+            if (suggestion == null) {
+                suggestion = new MissingIndex(table, columns, reason);
+                missing.put(key, suggestion);
+            }
+            suggestion.statements.add(stats.getSql());
+            suggestion.calls += stats.getCount();
+        }
+    }
+
+    /**
+     * Folds each suggestion into a longer one on the same table that starts with its
+     * columns, so the migration does not create indexes that are redundant right away.
+     */
+    private static List<MissingIndex> mergePrefixes(List<MissingIndex> suggestions) {
+        suggestions.sort(Comparator.comparingInt((MissingIndex index) -> index.columns.size()).reversed());
+        List<MissingIndex> merged = new ArrayList<>();
+        for (MissingIndex suggestion : suggestions) {
+            MissingIndex longer = merged.stream()
+                    .filter(other -> other.table.equals(suggestion.table)
+                            && other.columns.subList(0, suggestion.columns.size()).equals(suggestion.columns))
+                    .findFirst()
+                    .orElse(null);
+            if (longer != null) {
+                longer.statements.addAll(suggestion.statements);
+                longer.calls += suggestion.calls;
+            } else {
+                merged.add(suggestion);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Columns a statement compares for one table, equality comparisons first.
+     */
+    private static List<String> filterColumns(String sql, String alias, String table, Map<String, String> tablesByAlias,
+                                              Schema schema) {
+        Matcher start = FILTER_START.matcher(sql);
+        if (!start.find()) {
+            return List.of();
+        }
+        String filter = sql.substring(start.start());
+        Set<String> tableColumns = schema.columns.getOrDefault(table, Set.of());
+
+        Set<String> equality = new LinkedHashSet<>();
+        Set<String> range = new LinkedHashSet<>();
+        Matcher predicate = PREDICATE.matcher(filter);
+        while (predicate.find()) {
+            String qualifier = predicate.group(1);
+            String column = predicate.group(2).toLowerCase(Locale.ROOT);
+            if (!belongsTo(qualifier, column, alias, table, tablesByAlias, schema)) {
+                continue;
+            }
+            String operator = predicate.group(3).trim();
+            (operator.equals("=") || operator.toUpperCase(Locale.ROOT).startsWith("IN") ? equality : range).add(column);
+        }
+        Matcher joined = JOINED_COLUMN.matcher(filter);
+        while (joined.find()) {
+            String column = joined.group(2).toLowerCase(Locale.ROOT);
+            if (belongsTo(joined.group(1), column, alias, table, tablesByAlias, schema)) {
+                equality.add(column);
+            }
+        }
+
+        equality.removeIf(column -> !tableColumns.contains(column) || column.equals(schema.rowidColumns.get(table)));
+        range.removeIf(column -> !tableColumns.contains(column) || column.equals(schema.rowidColumns.get(table))
+                || equality.contains(column));
+
+        List<String> columns = new ArrayList<>(equality);
+        if (!range.isEmpty()) {
+            columns.add(range.iterator().next());
+        }
+        return columns.size() > MAX_SUGGESTED_COLUMNS ? columns.subList(0, MAX_SUGGESTED_COLUMNS) : columns;
+    }
+
+    private static boolean belongsTo(String qualifier, String column, String alias, String table,
+                                     Map<String, String> tablesByAlias, Schema schema) {
+        if (qualifier != null) {
+            return qualifier.equalsIgnoreCase(alias) || qualifier.equalsIgnoreCase(table);
+        }
+        if (!schema.columns.getOrDefault(table, Set.of()).contains(column)) {
+            return false;
+        }
+        // An unqualified column only counts if no other table of the statement has it
+        return tablesByAlias.values().stream()
+                .distinct()
+                .filter(other -> !other.equals(table))
+                .noneMatch(other -> schema.columns.getOrDefault(other, Set.of()).contains(column));
+    }
+
+    private static List<String> automaticIndexColumns(String constraint) {
+        List<String> columns = new ArrayList<>();
+        Matcher matcher = AUTOMATIC_COLUMN.matcher(constraint);
+        while (matcher.find()) {
+            String column = matcher.group(1).toLowerCase(Locale.ROOT);
+            if (!columns.contains(column) && columns.size() < MAX_SUGGESTED_COLUMNS) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Tables of a statement by alias; each table is also listed under its own name.
+     */
+    private static Map<String, String> tableAliases(String sql, Schema schema) {
+        Map<String, String> tablesByAlias = new HashMap<>();
+        Matcher matcher = TABLE_REFERENCE.matcher(sql);
+        while (matcher.find()) {
+            String table = matcher.group(1).toLowerCase(Locale.ROOT);
+            if (!schema.columns.containsKey(table)) {
+                continue;
+            }
+            tablesByAlias.put(table, table);
+            String alias = matcher.group(2);
+            if (alias != null && !SQL_KEYWORDS.contains(alias.toUpperCase(Locale.ROOT))) {
+                tablesByAlias.put(alias, table);
+            }
+        }
+        return tablesByAlias;
+    }
+
+    private static void classify(Schema schema) {
+        for (IndexInfo index : schema.indexes) {
+            if (index.unique || !"c".equals(index.origin)) {
+                index.verdict = Verdict.REQUIRED;
+                index.reason = index.origin.equals("pk") ? "primary key" : "unique constraint";
+                continue;
+            }
+            IndexInfo covering = findCoveringIndex(index, schema);
+            if (covering != null) {
+                index.verdict = Verdict.REDUNDANT;
+                index.reason = "covered by " + covering.name + " on " + covering.describeColumns();
+            } else if (index.calls > 0) {
+                index.verdict = Verdict.USED;
+                index.reason = index.calls + " calls";
+            } else if (!index.columns.isEmpty() && index.columns.get(0) != null
+                    && schema.foreignKeyColumns.getOrDefault(index.table, Set.of()).contains(index.columns.get(0))) {
+                index.verdict = Verdict.REQUIRED;
+                index.reason = "foreign key " + index.columns.get(0);
+            } else {
+                index.verdict = Verdict.UNUSED;
+                index.reason = "not read by the workload";
+            }
+        }
+    }
+
+    /**
+     * Another index on the same table whose leading columns are this index's columns and
+     * which holds at least the same rows. Of two identical indexes the one with more
+     * calls, then the one whose name sorts first, is kept.
+     */
+    private static IndexInfo findCoveringIndex(IndexInfo index, Schema schema) {
+        if (index.columns.isEmpty() || index.columns.contains(null)) {
+            return null;
+        }
+        for (IndexInfo other : schema.indexes) {
+            if (other == index || !other.table.equals(index.table) || other.columns.contains(null)
+                    || other.columns.size() < index.columns.size()
+                    || !other.columns.subList(0, index.columns.size()).equals(index.columns)
+                    || (other.where != null && !other.where.equalsIgnoreCase(Objects.toString(index.where, "")))) {
+                continue;
+            }
+            boolean identical = other.columns.size() == index.columns.size()
+                    && Objects.equals(other.where == null ? null : other.where.toLowerCase(Locale.ROOT),
+                    index.where == null ? null : index.where.toLowerCase(Locale.ROOT));
+            if (!identical || other.unique || other.calls > index.calls
+                    || (other.calls == index.calls && other.name.compareTo(index.name) < 0)) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Indexes, columns, foreign keys and row counts of the user tables.
+     */
+    private static class Schema {
+        private final List<IndexInfo> indexes = new ArrayList<>();
+        private final Map<String, Set<String>> columns = new HashMap<>();
+        private final Map<String, String> rowidColumns = new HashMap<>();
+        private final Map<String, Set<String>> foreignKeyColumns = new HashMap<>();
+        private final Map<String, Long> rowCounts = new HashMap<>();
+
+        static Schema read(Connection connection) throws SQLException {
+            Schema schema = new Schema();
+            List<String> tables = new ArrayList<>();
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                         "SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%' ORDER BY name")) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+
+            for (String table : tables) {
+                String key = table.toLowerCase(Locale.ROOT);
+                Set<String> tableColumns = new LinkedHashSet<>();
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + quote(table) + ")")) {
+                    while (rs.next()) {
+                        String column = rs.getString("name").toLowerCase(Locale.ROOT);
+                        tableColumns.add(column);
+                        if (rs.getInt("pk") == 1 && "INTEGER".equalsIgnoreCase(rs.getString("type"))) {
+                            schema.rowidColumns.put(key, column);
+                        }
+                    }
+                }
+                schema.columns.put(key, tableColumns);
+
+                Set<String> foreignKeys = new HashSet<>();
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery("PRAGMA foreign_key_list(" + quote(table) + ")")) {
+                    while (rs.next()) {
+                        foreignKeys.add(rs.getString("from").toLowerCase(Locale.ROOT));
+                    }
+                }
+                schema.foreignKeyColumns.put(key, foreignKeys);
+
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + quote(table))) {
+                    schema.rowCounts.put(key, rs.next() ? rs.getLong(1) : 0L);
+                }
+
+                readIndexes(connection, table, schema);
+            }
+            return schema;
+        }
+
+        private static void readIndexes(Connection connection, String table, Schema schema) throws SQLException {
+            Map<String, String> definitions = new HashMap<>();
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT name, sql FROM sqlite_master WHERE type = 'index' AND tbl_name = ?")) {
+                stmt.setString(1, table);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        definitions.put(rs.getString(1), rs.getString(2));
+                    }
+                }
+            }
+
+            List<IndexInfo> tableIndexes = new ArrayList<>();
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA index_list(" + quote(table) + ")")) {
+                while (rs.next()) {
+                    String name = rs.getString("name");
+                    String definition = definitions.get(name);
+                    String where = null;
+                    if (rs.getInt("partial") == 1 && definition != null) {
+                        Matcher matcher = PARTIAL_INDEX_WHERE.matcher(definition);
+                        if (matcher.find()) {
+                            where = matcher.group(1).trim().replaceAll("\\s+", " ");
+                        }
+                    }
+                    tableIndexes.add(new IndexInfo(name, table.toLowerCase(Locale.ROOT), rs.getInt("unique") == 1,
+                            rs.getString("origin"), where, definition));
+                }
+            }
+
+            for (IndexInfo index : tableIndexes) {
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery("PRAGMA index_info(" + quote(index.name) + ")")) {
+                    while (rs.next()) {
+                        // Expression columns have no name
+                        String column = rs.getString("name");
+                        index.columns.add(column == null ? null : column.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            tableIndexes.sort(Comparator.comparing(index -> index.name));
+            schema.indexes.addAll(tableIndexes);
+        }
+
+        /**
+         * Columns to copy when measuring inserts; empty if the table has a UNIQUE constraint.
+         */
+        static List<String> insertableColumns(Connection connection, String table) throws SQLException {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA index_list(" + quote(table) + ")")) {
+                while (rs.next()) {
+                    if (rs.getInt("unique") == 1) {
+                        return List.of();
+                    }
+                }
+            }
+            List<String> columns = new ArrayList<>();
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + quote(table) + ")")) {
+                while (rs.next()) {
+                    // The INTEGER PRIMARY KEY is assigned by SQLite
+                    if (!(rs.getInt("pk") == 1 && "INTEGER".equalsIgnoreCase(rs.getString("type")))) {
+                        columns.add(rs.getString("name"));
+                    }
+                }
+            }
+            return columns;
+        }
+
+        boolean hasIndexLeadingWith(String table, String column) {
+            return indexes.stream().anyMatch(index -> index.table.equals(table)
+                    && !index.columns.isEmpty() && column.equals(index.columns.get(0)));
+        }
+    }
+
+    /**
+     * One existing index and its verdict.
+     */
+    public static class IndexInfo {
+        private final String name;
+        private final String table;
+        private final List<String> columns = new ArrayList<>();
+        private final boolean unique;
+        private final String origin;
+        private final String where;
+        private final String definition;
+        private long calls;
+        private Verdict verdict;
+        private String reason;
+
+        IndexInfo(String name, String table, boolean unique, String origin, String where, String definition) {
+            this.name = name;
+            this.table = table;
+            this.unique = unique;
+            this.origin = origin;
+            this.where = where;
+            this.definition = definition;
+        }
+
+        public String getName() { return name; }
+        public String getTable() { return table; }
+        public List<String> getColumns() { return columns; }
+        public boolean isUnique() { return unique; }
+        /** Partial index condition, null for a full index. */
+        public String getWhere() { return where; }
+        /** CREATE INDEX statement, null for indexes SQLite creates for constraints. */
+        public String getDefinition() { return definition; }
+        /** Calls of the workload statements reading this index. */
+        public long getCalls() { return calls; }
+        public Verdict getVerdict() { return verdict; }
+        public String getReason() { return reason; }
+
+        public String describeColumns() {
+            return table + "(" + String.join(", ", columns.stream().map(c -> c == null ? "<expr>" : c).toList()) + ")"
+                    + (where != null ? " WHERE " + where : "");
+        }
+    }
+
+    /**
+     * An index the workload would benefit from.
+     */
+    public static class MissingIndex {
+        private final String table;
+        private final List<String> columns;
+        private final String reason;
+        private final Set<String> statements = new TreeSet<>();
+        private long calls;
+
+        MissingIndex(String table, List<String> columns, String reason) {
+            this.table = table;
+            this.columns = columns;
+            this.reason = reason;
+        }
+
+        public String getTable() { return table; }
+        public List<String> getColumns() { return columns; }
+        /** "full scan" or "automatic index". */
+        public String getReason() { return reason; }
+        /** Normalized statements that would use the index. */
+        public Set<String> getStatements() { return statements; }
+        public long getCalls() { return calls; }
+
+        public String getName() {
+            return "idx_" + table + "_" + String.join("_", columns);
+        }
+
+        public String getCreateSql() {
+            return "CREATE INDEX IF NOT EXISTS " + getName() + " ON " + table + "(" + String.join(", ", columns) + ")";
+        }
+    }
+
+    /**
+     * INSERT throughput per table before and after a migration, in rows per second.
+     */
+    public static class WriteThroughput {
+        private final int rows;
+        private final Map<String, Double> before;
+        private final Map<String, Double> after;
+
+        WriteThroughput(int rows, Map<String, Double> before, Map<String, Double> after) {
+            this.rows = rows;
+            this.before = before;
+            this.after = after;
+        }
+
+        public int getRows() { return rows; }
+        public Map<String, Double> getBefore() { return before; }
+        public Map<String, Double> getAfter() { return after; }
+
+        /**
+         * One line per table: before, after and the change in percent.
+         */
+        public List<String> format() {
+            List<String> lines = new ArrayList<>();
+            for (Map.Entry<String, Double> entry : before.entrySet()) {
+                Double afterValue = after.get(entry.getKey());
+                if (afterValue == null) {
+                    continue;
+                }
+                lines.add(String.format(Locale.ROOT, "%-24s %,12.0f rows/s -> %,12.0f rows/s  %+6.1f%%",
+                        entry.getKey(), entry.getValue(), afterValue, (afterValue / entry.getValue() - 1) * 100));
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Result of one analysis.
+     */
+    public static class Report {
+        private final List<IndexInfo> indexes;
+        private final List<MissingIndex> missing;
+        private final int statements;
+        private final long calls;
+
+        Report(List<IndexInfo> indexes, List<MissingIndex> missing, int statements, long calls) {
+            this.indexes = indexes;
+            this.missing = missing;
+            this.statements = statements;
+            this.calls = calls;
+        }
+
+        public List<IndexInfo> getIndexes() { return indexes; }
+        public List<MissingIndex> getMissing() { return missing; }
+        /** Workload statements that could be explained. */
+        public int getStatementCount() { return statements; }
+        public long getCallCount() { return calls; }
+
+        public List<IndexInfo> getIndexes(Verdict verdict) {
+            return indexes.stream().filter(index -> index.verdict == verdict).toList();
+        }
+
+        /**
+         * Statements dropping redundant indexes, and unused ones if asked, and creating
+         * the missing ones.
+         */
+        public List<String> migrationStatements(boolean dropUnused) {
+            List<String> migration = new ArrayList<>();
+            for (IndexInfo index : indexes) {
+                if (index.verdict == Verdict.REDUNDANT || (dropUnused && index.verdict == Verdict.UNUSED)) {
+                    migration.add("DROP INDEX IF EXISTS " + index.name);
+                }
+            }
+            for (MissingIndex index : missing) {
+                migration.add(index.getCreateSql());
+            }
+            return migration;
+        }
+
+        /**
+         * Tables a migration changes.
+         */
+        public Set<String> affectedTables(boolean dropUnused) {
+            Set<String> tables = new TreeSet<>();
+            for (IndexInfo index : indexes) {
+                if (index.verdict == Verdict.REDUNDANT || (dropUnused && index.verdict == Verdict.UNUSED)) {
+                    tables.add(index.table);
+                }
+            }
+            missing.forEach(index -> tables.add(index.table));
+            return tables;
+        }
+
+        /**
+         * Human-readable report, grouped by verdict.
+         */
+        public String format() {
+            StringBuilder text = new StringBuilder();
+            text.append("Index review: ").append(indexes.size()).append(" indexes, ")
+                    .append(statements).append(" statements, ").append(calls).append(" calls\n");
+            for (Verdict verdict : new Verdict[]{Verdict.REDUNDANT, Verdict.UNUSED, Verdict.USED, Verdict.REQUIRED}) {
+                List<IndexInfo> group = getIndexes(verdict);
+                text.append('\n').append(verdict).append(" (").append(group.size()).append(")\n");
+                for (IndexInfo index : group) {
+                    text.append("  ").append(index.name).append(" on ").append(index.describeColumns())
+                            .append(" - ").append(index.reason).append('\n');
+                }
+            }
+            text.append("\nMISSING (").append(missing.size()).append(")\n");
+            for (MissingIndex index : missing) {
+                text.append("  ").append(index.getCreateSql()).append(" - ").append(index.reason).append(" in ")
+                        .append(index.statements.size()).append(" statements, ").append(index.calls).append(" calls\n");
+                for (String sql : index.statements) {
+                    text.append("      ").append(sql.length() > 160 ? sql.substring(0, 157) + "..." : sql).append('\n');
+                }
+            }
+            return text.toString();
+        }
+
+        /**
+         * Migration as an SQL script, with the write throughput as a comment if measured.
+         */
+        public String toMigrationScript(boolean dropUnused, WriteThroughput throughput) {
+            StringBuilder script = new StringBuilder();
+            script.append("-- Index migration generated on ").append(LocalDateTime.now().format(TIMESTAMP_FORMAT)).append('\n');
+            script.append("-- Workload: ").append(statements).append(" statements, ").append(calls).append(" calls\n");
+            if (throughput != null) {
+                script.append("-- INSERT throughput, ").append(throughput.rows)
+                        .append(" rows per table, before -> after:\n");
+                throughput.format().forEach(line -> script.append("--   ").append(line).append('\n'));
+            }
+            script.append("\nBEGIN;\n");
+            for (IndexInfo index : indexes) {
+                if (index.verdict == Verdict.REDUNDANT || (dropUnused && index.verdict == Verdict.UNUSED)) {
+                    script.append("DROP INDEX IF EXISTS ").append(index.name).append("; -- ")
+                            .append(index.verdict.name().toLowerCase(Locale.ROOT)).append(": ").append(index.reason).append('\n');
+                }
+            }
+            for (MissingIndex index : missing) {
+                script.append(index.getCreateSql()).append("; -- ").append(index.reason).append(", ")
+                        .append(index.calls).append(" calls\n");
+            }
+            script.append("COMMIT;\n");
+            return script.toString();
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package smallbusinessbuddycrm.database;
+
+import smallbusinessbuddycrm.services.metrics.Counter;
+import smallbusinessbuddycrm.services.metrics.Histogram;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
+import smallbusinessbuddycrm.services.metrics.Timer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps JDBC connections so every statement is measured per DAO method.
+ *
+ * Each statement is attributed to the method that created it: the first caller in
+ * the application's own packages, e.g. ContactDAO.getAllContacts, recorded under
+ * db.ContactDAO.getAllContacts. One execution is measured from execute until its
+ * result set or statement is closed, so a query's time includes fetching and mapping
+ * its rows. Per execution the timer records the duration, the .rows histogram the
+ * rows read or changed, and the .bytes histogram the text and blob bytes read or bound.
+ * Each execution is also reported to the SlowQueryLog with its SQL and bind parameters.
+ * Closing the shared connection finishes only the closing thread's open executions,
+ * like StatementCache releases only that thread's statements.
+ *
+ * DAOs keep using plain JDBC types; DatabaseConnection hands out wrapped connections.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+final class InstrumentedJdbc {
+
+    private static final String OWN_PACKAGE_PREFIX = "smallbusinessbuddycrm.";
+    private static final String UNATTRIBUTED_OPERATION = "db.other";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final Map<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+
+    private InstrumentedJdbc() {
+    }
+
+    /**
+     * Wraps a connection; statements created from it are measured.
+     *
+     * @param shared True for the shared connection, which every DAO call closes; closing
+     *               it then only finishes the calling thread's open statements
+     */
+    static Connection wrap(Connection connection, boolean shared) {
+        ConnectionHandler handler = new ConnectionHandler(connection, shared);
+        return handler.proxy;
+    }
+
+    /**
+     * The JDBC connection behind a wrapped one, for statements that should not be measured.
+     * Other connections are returned as they are.
+     */
+    static Connection unwrap(Connection connection) {
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConnectionHandler handler) {
+            return handler.delegate;
+        }
+        return connection;
+    }
+
+    /**
+     * Name of the application method creating a statement, e.g. db.ContactDAO.getAllContacts.
+     */
+    private static String resolveOperation() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(OWN_PACKAGE_PREFIX)
+                        && !frame.getClassName().startsWith(InstrumentedJdbc.class.getName())
+                        && !frame.getClassName().equals(DatabaseConnection.class.getName())
+                        && !frame.getClassName().startsWith(Db.class.getName()))
+                .findFirst()
+                .map(frame -> "db." + simpleClassName(frame.getClassName()) + "." + frame.getMethodName())
+                .orElse(UNATTRIBUTED_OPERATION));
+    }
+
+    private static String simpleClassName(String className) {
+        int start = className.lastIndexOf('.') + 1;
+        int nested = className.indexOf('$', start);
+        return nested > 0 ? className.substring(start, nested) : className.substring(start);
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long textBytes(Object value) {
+        if (value instanceof String text) {
+            return text.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        return 0;
+    }
+
+    /**
+     * Metrics of one DAO method, looked up once per statement.
+     */
+    private static class OperationMetrics {
+        private final String name;
+        private final Timer timer;
+        private final Histogram rows;
+        private final Histogram bytes;
+        private final Counter errors;
+
+        OperationMetrics(String operation) {
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            this.name = operation;
+            this.timer = registry.timer(operation);
+            this.rows = registry.histogram(operation + ".rows");
+            this.bytes = registry.histogram(operation + ".bytes");
+            this.errors = registry.counter(operation + ".errors");
+        }
+
+        void record(long nanos, long rowCount, long byteCount) {
+            timer.recordNanos(nanos);
+            rows.record(rowCount);
+            bytes.record(byteCount);
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection delegate;
+        private final Connection proxy;
+        private final boolean shared;
+        // Statements still open, finished if the connection is closed under them
+        private final Set<StatementHandler> openStatements = ConcurrentHashMap.newKeySet();
+
+        ConnectionHandler(Connection delegate, boolean shared) {
+            this.delegate = delegate;
+            this.shared = shared;
+            this.proxy = (Connection) Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall": {
+                    Statement statement = (Statement) call(delegate, method, args);
+                    String operation = resolveOperation();
+                    String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                    return new StatementHandler(this, statement, method.getReturnType(), sql,
+                            OPERATIONS.computeIfAbsent(operation, OperationMetrics::new)).proxy;
+                }
+                case "close": {
+                    // Closing the shared connection only releases it, so statements other
+                    // threads are still reading from keep running and are not finished here
+                    Thread caller = Thread.currentThread();
+                    for (StatementHandler statement : new ArrayList<>(openStatements)) {
+                        if (!shared || statement.owner == caller) {
+                            statement.finish();
+                            openStatements.remove(statement);
+                        }
+                    }
+                    return call(delegate, method, args);
+                }
+                default:
+                    return call(delegate, method, args);
+            }
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final ConnectionHandler connection;
+        private final Statement delegate;
+        private final Statement proxy;
+        private final OperationMetrics metrics;
+        private final Thread owner = Thread.currentThread();
+        // SQL of a prepared statement; plain statements get theirs with each execute call
+        private final String preparedSql;
+
+        private Object[] parameters = new Object[0];
+        private long boundBytes;
+        private Execution current;
+
+        StatementHandler(ConnectionHandler connection, Statement delegate, Class<?> type, String preparedSql,
+                         OperationMetrics metrics) {
+            this.connection = connection;
+            this.delegate = delegate;
+            this.preparedSql = preparedSql;
+            this.metrics = metrics;
+            Class<?> proxyType = type == CallableStatement.class || type == PreparedStatement.class ? type : Statement.class;
+            this.proxy = (Statement) Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(),
+                    new Class<?>[]{proxyType}, this);
+            connection.openStatements.add(this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (args != null && args.length >= 2 && args[0] instanceof Integer index && name.startsWith("set")) {
+                bind(index, "setNull".equals(name) ? null : args[1]);
+            }
+            switch (name) {
+                case "executeQuery": {
+                    finish();
+                    Execution execution = start(args);
+                    ResultSet resultSet = (ResultSet) run(method, args);
+                    current = execution;
+                    return new ResultSetHandler(this, resultSet, execution).proxy;
+                }
+                case "execute": {
+                    finish();
+                    Execution execution = start(args);
+                    boolean hasResultSet = (Boolean) run(method, args);
+                    current = execution;
+                    if (!hasResultSet) {
+                        execution.rows = Math.max(0, delegate.getUpdateCount());
+                        finish();
+                    }
+                    return hasResultSet;
+                }
+                case "executeUpdate":
+                case "executeLargeUpdate": {
+                    finish();
+                    Execution execution = start(args);
+                    Number updated = (Number) run(method, args);
+                    execution.rows = updated.longValue();
+                    current = execution;
+                    finish();
+                    return updated;
+                }
+                case "executeBatch":
+                case "executeLargeBatch": {
+                    finish();
+                    Execution execution = start(args);
+                    Object counts = run(method, args);
+                    execution.rows = sumUpdateCounts(counts);
+                    current = execution;
+                    finish();
+                    return counts;
+                }
+                case "getResultSet": {
+                    ResultSet resultSet = (ResultSet) call(delegate, method, args);
+                    return resultSet != null && current != null ?
+                            new ResultSetHandler(this, resultSet, current).proxy : resultSet;
+                }
+                case "setString":
+                case "setNString":
+                case "setBytes":
+                case "setObject":
+                    boundBytes += textBytes(args[1]);
+                    return call(delegate, method, args);
+                case "clearParameters":
+                    parameters = new Object[0];
+                    return call(delegate, method, args);
+                case "getConnection":
+                    return connection.proxy;
+                case "close":
+                    finish();
+                    connection.openStatements.remove(this);
+                    return call(delegate, method, args);
+                default:
+                    return call(delegate, method, args);
+            }
+        }
+
+        private Execution start(Object[] args) {
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            Execution execution = new Execution(System.nanoTime(), boundBytes, sql,
+                    parameters.length > 0 ? parameters.clone() : parameters);
+            boundBytes = 0;
+            return execution;
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) {
+                return;
+            }
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, index);
+            }
+            parameters[index - 1] = value;
+        }
+
+        private Object run(Method method, Object[] args) throws Throwable {
+            try {
+                return call(delegate, method, args);
+            } catch (Throwable e) {
+                metrics.errors.increment();
+                throw e;
+            }
+        }
+
+        /**
+         * Records the open execution, if any.
+         */
+        void finish() {
+            finish(current);
+        }
+
+        void finish(Execution execution) {
+            if (execution == null || execution.recorded) {
+                return;
+            }
+            execution.recorded = true;
+            long nanos = System.nanoTime() - execution.startNanos;
+            metrics.record(nanos, execution.rows, execution.bytes);
+            if (execution.sql != null) {
+                SlowQueryLog.getInstance().record(metrics.name, execution.sql, execution.parameters,
+                        nanos, execution.rows, connection.delegate);
+            }
+            if (current == execution) {
+                current = null;
+            }
+        }
+
+        private static long sumUpdateCounts(Object counts) {
+            long total = 0;
+            if (counts instanceof int[] ints) {
+                for (int count : ints) {
+                    total += Math.max(0, count);
+                }
+            } else if (counts instanceof long[] longs) {
+                for (long count : longs) {
+                    total += Math.max(0, count);
+                }
+            }
+            return total;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final StatementHandler statement;
+        private final ResultSet delegate;
+        private final ResultSet proxy;
+        private final Execution execution;
+
+        ResultSetHandler(StatementHandler statement, ResultSet delegate, Execution execution) {
+            this.statement = statement;
+            this.delegate = delegate;
+            this.execution = execution;
+            this.proxy = (ResultSet) Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next": {
+                    Boolean hasRow = (Boolean) call(delegate, method, args);
+                    if (hasRow) {
+                        execution.rows++;
+                    }
+                    return hasRow;
+                }
+                case "getString":
+                case "getNString":
+                case "getBytes": {
+                    Object value = call(delegate, method, args);
+                    execution.bytes += textBytes(value);
+                    return value;
+                }
+                case "getStatement":
+                    return statement.proxy;
+                case "close":
+                    try {
+                        return call(delegate, method, args);
+                    } finally {
+                        statement.finish(execution);
+                    }
+                default:
+                    return call(delegate, method, args);
+            }
+        }
+    }
+
+    /**
+     * One execution of a statement, recorded once.
+     */
+    private static class Execution {
+        private final long startNanos;
+        private final String sql;
+        private final Object[] parameters;
+        private long rows;
+        private long bytes;
+        private boolean recorded;
+
+        Execution(long startNanos, long boundBytes, String sql, Object[] parameters) {
+            this.startNanos = startNanos;
+            this.bytes = boundBytes;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package smallbusinessbuddycrm.database;
 
 import smallbusinessbuddycrm.model.PaymentAttachment;
+import smallbusinessbuddycrm.services.PaymentAttachmentTemplateCache;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -137,16 +138,21 @@ public class PaymentAttachmentDAO {
      * Saves a payment attachment template to the database.
      * Automatically determines whether to insert or update based on ID presence.
      * Handles default template management to ensure only one default exists.
+     * Clears the compiled template cache on success.
      *
      * @param attachment The payment attachment to save
      * @return true if attachment was saved successfully, false otherwise
      */
     public boolean save(PaymentAttachment attachment) {
-        if (attachment.getId() == null) {
-            return insert(attachment);
-        } else {
-            return update(attachment);
+        boolean saved = attachment.getId() == null ? insert(attachment) : update(attachment);
+        if (saved) {
+            if (attachment.isDefault()) {
+                PaymentAttachmentTemplateCache.getInstance().invalidateAll();
+            } else {
+                PaymentAttachmentTemplateCache.getInstance().invalidate(attachment.getId());
+            }
         }
+        return saved;
     }
 
     /**
@@ -259,7 +265,11 @@ public class PaymentAttachmentDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setLong(1, id);
-            return pstmt.executeUpdate() > 0;
+            boolean deleted = pstmt.executeUpdate() > 0;
+            if (deleted) {
+                PaymentAttachmentTemplateCache.getInstance().invalidate(id);
+            }
+            return deleted;
         } catch (SQLException e) {
             System.err.println("Error deleting payment attachment: " + e.getMessage());
             e.printStackTrace();
@@ -272,6 +282,7 @@ public class PaymentAttachmentDAO {
      * Sets a payment attachment template as the default template.
      * Uses transaction to ensure atomicity when switching default status.
      * Unsets all other templates as default before setting the new one.
+     * Clears the compiled template cache once the switch is committed.
      *
      * @param id The ID of the template to set as default
      * @return true if operation was successful, false otherwise
@@ -291,6 +302,7 @@ public class PaymentAttachmentDAO {
 
                     if (updated > 0) {
                         conn.commit();
+                        PaymentAttachmentTemplateCache.getInstance().invalidateAll();
                         return true;
                     } else {
                         conn.rollback();
@@ -0,0 +1,265 @@
+package smallbusinessbuddycrm.database;
+
+import smallbusinessbuddycrm.model.PaymentInfo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object for the payment_info ledger, one row per issued payment slip.
+ *
+ * Features:
+ * - Single and batched inserts; a bulk run is saved in one transaction
+ * - Slips issued for a template since a date, per contact, answered from
+ *   idx_payment_info_template_generated without reading the table
+ * - Slip history per contact and slips per status
+ * - Status updates (generated, sent, paid, cancelled)
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class PaymentInfoDAO {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BATCH_SIZE = 200;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO payment_info
+        (organization_id, payment_template_id, contact_id, underaged_id, target_type, amount,
+         model_of_payment, poziv_na_broj, barcode_data, status, generated_at, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    /**
+     * Saves one ledger entry and sets its generated ID.
+     *
+     * @param paymentInfo The entry to save
+     * @return true if the entry was saved, false otherwise
+     */
+    public boolean createPaymentInfo(PaymentInfo paymentInfo) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            Object[] values = insertValues(paymentInfo, LocalDateTime.now().format(FORMATTER));
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, values[i]);
+            }
+
+            if (stmt.executeUpdate() > 0) {
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        paymentInfo.setId(generatedKeys.getLong(1));
+                    }
+                }
+                return true;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error saving payment info: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    /**
+     * Saves the entries of issued slips in one transaction, sent to SQLite
+     * in batches of BATCH_SIZE rows.
+     *
+     * @param entries Entries to save
+     * @return Number of rows saved, or -1 on error (nothing is saved)
+     */
+    public int createPaymentInfos(List<PaymentInfo> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            return Db.inTransaction(tx -> {
+                String now = LocalDateTime.now().format(FORMATTER);
+                Db.Batch batch = tx.batch(INSERT_SQL, BATCH_SIZE);
+                for (PaymentInfo entry : entries) {
+                    batch.add(insertValues(entry, now));
+                }
+                batch.flush();
+                return (int) batch.getUpdateCount();
+            });
+        } catch (SQLException e) {
+            System.err.println("Error saving payment info batch: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Latest issue time per contact of slips for a template since the given time,
+     * e.g. the start of the current term. Cancelled slips are not counted.
+     *
+     * @param paymentTemplateId Payment template
+     * @param since Earliest generation time, inclusive
+     * @return Latest generation time by contact ID
+     */
+    public Map<Integer, LocalDateTime> getIssuedSince(int paymentTemplateId, LocalDateTime since) {
+        Map<Integer, LocalDateTime> issued = new HashMap<>();
+        String sql = """
+            SELECT contact_id, MAX(generated_at) AS last_generated_at
+            FROM payment_info
+            WHERE payment_template_id = ? AND generated_at >= ? AND status <> ?
+            GROUP BY contact_id
+            """;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, paymentTemplateId);
+            stmt.setString(2, since.format(FORMATTER));
+            stmt.setString(3, PaymentInfo.STATUS_CANCELLED);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    issued.put(rs.getInt("contact_id"), parseDateTime(rs.getString("last_generated_at")));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading issued payment slips: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return issued;
+    }
+
+    /**
+     * Slips issued to a contact and its underaged members, newest first.
+     *
+     * @param contactId The contact
+     * @return Ledger entries of the contact
+     */
+    public List<PaymentInfo> getPaymentInfoByContactId(int contactId) {
+        List<PaymentInfo> entries = new ArrayList<>();
+        String sql = "SELECT * FROM payment_info WHERE contact_id = ? ORDER BY generated_at DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, contactId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(mapResultSetToPaymentInfo(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading payment info for contact: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return entries;
+    }
+
+    /**
+     * Slips in a status, oldest first, e.g. generated slips that are still unpaid.
+     *
+     * @param status One of the PaymentInfo.STATUS_ values
+     * @return Ledger entries in that status
+     */
+    public List<PaymentInfo> getPaymentInfoByStatus(String status) {
+        List<PaymentInfo> entries = new ArrayList<>();
+        String sql = "SELECT * FROM payment_info WHERE status = ? ORDER BY generated_at";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, status);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(mapResultSetToPaymentInfo(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error loading payment info by status: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return entries;
+    }
+
+    /**
+     * Changes the status of a ledger entry.
+     *
+     * @param id Ledger entry ID
+     * @param status One of the PaymentInfo.STATUS_ values
+     * @return true if the entry was updated, false otherwise
+     */
+    public boolean updateStatus(long id, String status) {
+        String sql = "UPDATE payment_info SET status = ?, updated_at = ? WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, status);
+            stmt.setString(2, LocalDateTime.now().format(FORMATTER));
+            stmt.setLong(3, id);
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            System.err.println("Error updating payment info status: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private Object[] insertValues(PaymentInfo entry, String now) {
+        String generatedAt = entry.getGeneratedAt() != null ? entry.getGeneratedAt().format(FORMATTER) : now;
+        return new Object[]{
+                // Slips of an unsaved default organization have none
+                entry.getOrganizationId() > 0 ? entry.getOrganizationId() : null,
+                entry.getPaymentTemplateId(),
+                entry.getContactId(),
+                entry.getUnderagedId(),
+                entry.getTargetType(),
+                entry.getAmount(),
+                entry.getModelOfPayment(),
+                entry.getPozivNaBroj(),
+                entry.getBarcodeData(),
+                entry.getStatus(),
+                generatedAt,
+                now,
+                now
+        };
+    }
+
+    private PaymentInfo mapResultSetToPaymentInfo(ResultSet rs) throws SQLException {
+        PaymentInfo entry = new PaymentInfo();
+        entry.setId(rs.getLong("id"));
+        entry.setOrganizationId(rs.getInt("organization_id"));
+        entry.setPaymentTemplateId(rs.getInt("payment_template_id"));
+        entry.setContactId(rs.getInt("contact_id"));
+        int underagedId = rs.getInt("underaged_id");
+        entry.setUnderagedId(rs.wasNull() ? null : underagedId);
+        entry.setTargetType(rs.getString("target_type"));
+        entry.setAmount(rs.getBigDecimal("amount"));
+        entry.setModelOfPayment(rs.getString("model_of_payment"));
+        entry.setPozivNaBroj(rs.getString("poziv_na_broj"));
+        entry.setBarcodeData(rs.getString("barcode_data"));
+        entry.setStatus(rs.getString("status"));
+        entry.setGeneratedAt(parseDateTime(rs.getString("generated_at")));
+        entry.setCreatedAt(parseDateTime(rs.getString("created_at")));
+        entry.setUpdatedAt(parseDateTime(rs.getString("updated_at")));
+        return entry;
+    }
+
+    private LocalDateTime parseDateTime(String value) {
+        return value != null ? LocalDateTime.parse(value, FORMATTER) : null;
+    }
+}
@@ -0,0 +1,14 @@
+package smallbusinessbuddycrm.database;
+
+/**
+ * Receives the rows of a streaming DAO query one at a time, while its cursor is open.
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+
+    /**
+     * @param row The current row
+     * @return true to read the next row, false to stop and close the cursor
+     */
+    boolean handle(T row);
+}
@@ -0,0 +1,498 @@
+package smallbusinessbuddycrm.database;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
+import smallbusinessbuddycrm.utilities.JsonUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query workload and slow-query log of the application database.
+ *
+ * InstrumentedJdbc reports every statement execution here. Executions are aggregated
+ * by normalized SQL (literals replaced by ?, whitespace collapsed), so the same query
+ * run with different values is one entry with its call count and timings. An
+ * execution that takes at least SLOW_QUERY_THRESHOLD_MILLIS (default 50) is logged
+ * with its caller and bind parameters, and the first slow execution of a query also
+ * captures its EXPLAIN QUERY PLAN, run with the same parameters on the same connection.
+ * With SLOW_QUERY_EXPLAIN_ALL=true the plan of every query is captured on first use.
+ *
+ * Plans are checked for full table scans (SCAN without an index) and temporary
+ * B-trees for sorting or grouping; the diagnostics panel flags those queries.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class SlowQueryLog {
+
+    private static final long DEFAULT_THRESHOLD_MILLIS = 50;
+    private static final int MAX_RECENT_SLOW_QUERIES = 200;
+    private static final int MAX_DISTINCT_QUERIES = 2000;
+    private static final int MAX_CACHED_NORMALIZATIONS = 5000;
+    private static final int MAX_PARAMETER_LENGTH = 64;
+    private static final int MAX_LOGGED_SQL_LENGTH = 240;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.?])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern EXPLAINABLE = Pattern.compile("^(?i)(SELECT|WITH|INSERT|UPDATE|DELETE|REPLACE)\\b.*", Pattern.DOTALL);
+
+    // SCAN contacts, SCAN TABLE contacts AS c; scans using an index are not full scans
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (?:TABLE )?(\\w+)(?: AS \\w+)?$");
+    private static final Pattern INDEX_USE = Pattern.compile("USING (?:COVERING )?INDEX (\\w+)");
+
+    private static volatile SlowQueryLog instance;
+
+    private final long thresholdNanos;
+    private final boolean explainAll;
+    private final Map<String, QueryAggregate> aggregates = new ConcurrentHashMap<>();
+    private final Map<String, String> normalizedCache = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> recentSlowQueries = new ArrayDeque<>();
+    private volatile boolean distinctLimitReported;
+
+    private SlowQueryLog() {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        this.thresholdNanos = parseNonNegative(dotenv.get("SLOW_QUERY_THRESHOLD_MILLIS"), DEFAULT_THRESHOLD_MILLIS) * 1_000_000;
+        this.explainAll = Boolean.parseBoolean(dotenv.get("SLOW_QUERY_EXPLAIN_ALL", "false"));
+        MetricsRegistry.getInstance().registerSection("queries", this::toJson);
+    }
+
+    public static SlowQueryLog getInstance() {
+        if (instance == null) {
+            synchronized (SlowQueryLog.class) {
+                if (instance == null) {
+                    instance = new SlowQueryLog();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Records one statement execution.
+     *
+     * @param operation DAO method that ran the statement, e.g. db.ContactDAO.getAllContacts
+     * @param sql SQL as executed
+     * @param parameters Bind parameters by position, index 0 is parameter 1
+     * @param nanos Execution time including reading the results
+     * @param rows Rows read or changed
+     * @param connection Connection the statement ran on, used for EXPLAIN QUERY PLAN; not closed
+     */
+    void record(String operation, String sql, Object[] parameters, long nanos, long rows, Connection connection) {
+        String normalized = normalize(sql);
+        QueryAggregate aggregate = aggregates.get(normalized);
+        if (aggregate == null) {
+            if (aggregates.size() >= MAX_DISTINCT_QUERIES) {
+                if (!distinctLimitReported) {
+                    distinctLimitReported = true;
+                    System.err.println("⚠️ Query log holds " + MAX_DISTINCT_QUERIES + " distinct queries, new ones are not aggregated");
+                }
+                return;
+            }
+            aggregate = aggregates.computeIfAbsent(normalized, QueryAggregate::new);
+        }
+
+        boolean slow = nanos >= thresholdNanos;
+        aggregate.record(operation, nanos, rows, slow ? parameters : null);
+
+        if ((slow || explainAll) && aggregate.claimPlanCapture()) {
+            aggregate.setPlan(explain(sql, parameters, connection));
+        }
+
+        if (slow) {
+            SlowQuery slowQuery = new SlowQuery(LocalDateTime.now(), operation, normalized,
+                    formatParameters(parameters), nanos / 1_000_000, rows);
+            synchronized (recentSlowQueries) {
+                recentSlowQueries.addFirst(slowQuery);
+                if (recentSlowQueries.size() > MAX_RECENT_SLOW_QUERIES) {
+                    recentSlowQueries.removeLast();
+                }
+            }
+            List<String> fullScans = aggregate.getFullScanTables();
+            System.out.println("⚠️ Slow query in " + operation + " (" + slowQuery.getMillis() + " ms, " + rows + " rows): " +
+                    abbreviate(normalized) + (slowQuery.getParameters().isEmpty() ? "" : " " + slowQuery.getParameters()) +
+                    (fullScans.isEmpty() ? "" : " — full scan of " + String.join(", ", fullScans)));
+        }
+    }
+
+    /**
+     * Aggregated queries, slowest total time first.
+     */
+    public List<QueryStats> getQueryStats() {
+        List<QueryStats> stats = new ArrayList<>(aggregates.size());
+        for (QueryAggregate aggregate : aggregates.values()) {
+            stats.add(aggregate.snapshot());
+        }
+        stats.sort(Comparator.comparingLong(QueryStats::getTotalNanos).reversed());
+        return stats;
+    }
+
+    /**
+     * Most recent slow executions, newest first.
+     */
+    public List<SlowQuery> getRecentSlowQueries() {
+        synchronized (recentSlowQueries) {
+            return new ArrayList<>(recentSlowQueries);
+        }
+    }
+
+    public long getThresholdMillis() {
+        return thresholdNanos / 1_000_000;
+    }
+
+    public void reset() {
+        aggregates.clear();
+        synchronized (recentSlowQueries) {
+            recentSlowQueries.clear();
+        }
+    }
+
+    /**
+     * Query text with literals replaced by ?, lists of placeholders collapsed to (?)
+     * and whitespace collapsed, so executions of the same query share one entry.
+     */
+    public static String normalize(String sql) {
+        SlowQueryLog log = instance;
+        if (log != null) {
+            String cached = log.normalizedCache.get(sql);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = PLACEHOLDER_LIST.matcher(normalized).replaceAll("(?)");
+
+        if (log != null && log.normalizedCache.size() < MAX_CACHED_NORMALIZATIONS) {
+            log.normalizedCache.put(sql, normalized);
+        }
+        return normalized;
+    }
+
+    /**
+     * Runs EXPLAIN QUERY PLAN for a statement with its bind parameters.
+     *
+     * @return Plan lines, indented by nesting level; empty if the statement cannot be explained
+     */
+    static List<String> explain(String sql, Object[] parameters, Connection connection) {
+        if (!EXPLAINABLE.matcher(sql.trim()).matches()) {
+            return Collections.emptyList();
+        }
+
+        List<String> lines = new ArrayList<>();
+        Map<Integer, Integer> depthById = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            if (parameters != null) {
+                for (int i = 0; i < parameters.length; i++) {
+                    stmt.setObject(i + 1, parameters[i]);
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    int depth = depthById.getOrDefault(rs.getInt(2), -1) + 1;
+                    depthById.put(id, depth);
+                    lines.add("  ".repeat(depth) + rs.getString(4));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error explaining query: " + e.getMessage());
+        }
+        return lines;
+    }
+
+    /**
+     * Tables read completely according to a plan.
+     */
+    public static List<String> findFullScans(List<String> plan) {
+        Set<String> tables = new LinkedHashSet<>();
+        for (String line : plan) {
+            Matcher matcher = FULL_SCAN.matcher(line.trim());
+            if (matcher.matches()) {
+                tables.add(matcher.group(1));
+            }
+        }
+        return new ArrayList<>(tables);
+    }
+
+    /**
+     * Indexes a plan reads.
+     */
+    public static List<String> findIndexes(List<String> plan) {
+        Set<String> indexes = new LinkedHashSet<>();
+        for (String line : plan) {
+            Matcher matcher = INDEX_USE.matcher(line);
+            while (matcher.find()) {
+                indexes.add(matcher.group(1));
+            }
+        }
+        return new ArrayList<>(indexes);
+    }
+
+    /**
+     * Aggregated queries and recent slow executions as JSON.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"thresholdMillis\": ").append(getThresholdMillis()).append(", \"statements\": [");
+        List<QueryStats> stats = getQueryStats();
+        for (int i = 0; i < stats.size(); i++) {
+            QueryStats query = stats.get(i);
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\"sql\": \"").append(JsonUtils.escapeJsonString(query.getSql())).append('"');
+            json.append(", \"callers\": ").append(jsonArray(query.getOperations()));
+            json.append(", \"count\": ").append(query.getCount());
+            json.append(", \"slowCount\": ").append(query.getSlowCount());
+            json.append(", \"totalMillis\": ").append(query.getTotalNanos() / 1_000_000);
+            json.append(", \"maxMillis\": ").append(query.getMaxNanos() / 1_000_000);
+            json.append(", \"rows\": ").append(query.getRows());
+            json.append(", \"plan\": ").append(jsonArray(query.getPlan()));
+            json.append(", \"fullScans\": ").append(jsonArray(query.getFullScanTables()));
+            json.append(", \"indexes\": ").append(jsonArray(query.getIndexes()));
+            json.append(", \"tempBTree\": ").append(query.usesTempBTree());
+            if (query.getLastSlowParameters() != null) {
+                json.append(", \"lastSlowParameters\": \"")
+                        .append(JsonUtils.escapeJsonString(query.getLastSlowParameters())).append('"');
+            }
+            json.append('}');
+        }
+        json.append(stats.isEmpty() ? "]" : "\n  ]");
+
+        json.append(", \"recentSlow\": [");
+        List<SlowQuery> slowQueries = getRecentSlowQueries();
+        for (int i = 0; i < slowQueries.size(); i++) {
+            SlowQuery slow = slowQueries.get(i);
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\"at\": \"").append(slow.getExecutedAt().format(TIMESTAMP_FORMAT)).append('"');
+            json.append(", \"caller\": \"").append(JsonUtils.escapeJsonString(slow.getOperation())).append('"');
+            json.append(", \"millis\": ").append(slow.getMillis());
+            json.append(", \"rows\": ").append(slow.getRows());
+            json.append(", \"sql\": \"").append(JsonUtils.escapeJsonString(slow.getSql())).append('"');
+            json.append(", \"parameters\": \"").append(JsonUtils.escapeJsonString(slow.getParameters())).append("\"}");
+        }
+        json.append(slowQueries.isEmpty() ? "]}" : "\n  ]}");
+        return json.toString();
+    }
+
+    private static String jsonArray(List<String> values) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append('"').append(JsonUtils.escapeJsonString(values.get(i))).append('"');
+        }
+        return json.append(']').toString();
+    }
+
+    static String formatParameters(Object[] parameters) {
+        if (parameters == null || parameters.length == 0) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            Object value = parameters[i];
+            if (value == null) {
+                text.append("NULL");
+            } else if (value instanceof CharSequence) {
+                String string = value.toString();
+                text.append('\'').append(string.length() > MAX_PARAMETER_LENGTH ?
+                        string.substring(0, MAX_PARAMETER_LENGTH) + "…" : string).append('\'');
+            } else if (value instanceof byte[] bytes) {
+                text.append("<").append(bytes.length).append(" bytes>");
+            } else {
+                text.append(value);
+            }
+        }
+        return text.append(']').toString();
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() > MAX_LOGGED_SQL_LENGTH ? sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "…" : sql;
+    }
+
+    private static long parseNonNegative(String value, long defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            return parsed >= 0 ? parsed : defaultValue;
+        } catch (NumberFormatException e) {
+            System.err.println("❌ Invalid slow query setting: " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Running totals of one normalized query.
+     */
+    private static class QueryAggregate {
+        private final String sql;
+        private final Set<String> operations = new LinkedHashSet<>();
+        private long count;
+        private long slowCount;
+        private long totalNanos;
+        private long maxNanos;
+        private long rows;
+        private String lastSlowParameters;
+        private boolean planClaimed;
+        private List<String> plan = Collections.emptyList();
+        private List<String> fullScanTables = Collections.emptyList();
+
+        QueryAggregate(String sql) {
+            this.sql = sql;
+        }
+
+        synchronized void record(String operation, long nanos, long rowCount, Object[] slowParameters) {
+            operations.add(operation);
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            rows += rowCount;
+            if (slowParameters != null) {
+                slowCount++;
+                lastSlowParameters = formatParameters(slowParameters);
+            }
+        }
+
+        /**
+         * True for exactly one caller, which then captures the plan.
+         */
+        synchronized boolean claimPlanCapture() {
+            if (planClaimed) {
+                return false;
+            }
+            planClaimed = true;
+            return true;
+        }
+
+        synchronized void setPlan(List<String> plan) {
+            this.plan = Collections.unmodifiableList(new ArrayList<>(plan));
+            this.fullScanTables = findFullScans(plan);
+        }
+
+        synchronized List<String> getFullScanTables() {
+            return fullScanTables;
+        }
+
+        synchronized QueryStats snapshot() {
+            return new QueryStats(sql, new ArrayList<>(operations), count, slowCount, totalNanos, maxNanos, rows,
+                    lastSlowParameters, plan, fullScanTables, findIndexes(plan),
+                    plan.stream().anyMatch(line -> line.contains("USE TEMP B-TREE")));
+        }
+    }
+
+    /**
+     * One normalized query at one point in time.
+     */
+    public static class QueryStats {
+        private final String sql;
+        private final List<String> operations;
+        private final long count;
+        private final long slowCount;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long rows;
+        private final String lastSlowParameters;
+        private final List<String> plan;
+        private final List<String> fullScanTables;
+        private final List<String> indexes;
+        private final boolean tempBTree;
+
+        QueryStats(String sql, List<String> operations, long count, long slowCount, long totalNanos, long maxNanos,
+                   long rows, String lastSlowParameters, List<String> plan, List<String> fullScanTables,
+                   List<String> indexes, boolean tempBTree) {
+            this.sql = sql;
+            this.operations = Collections.unmodifiableList(operations);
+            this.count = count;
+            this.slowCount = slowCount;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.rows = rows;
+            this.lastSlowParameters = lastSlowParameters;
+            this.plan = plan;
+            this.fullScanTables = fullScanTables;
+            this.indexes = Collections.unmodifiableList(indexes);
+            this.tempBTree = tempBTree;
+        }
+
+        /** Normalized SQL. */
+        public String getSql() { return sql; }
+        /** DAO methods that ran the query. */
+        public List<String> getOperations() { return operations; }
+        public long getCount() { return count; }
+        /** Executions at or above the slow-query threshold. */
+        public long getSlowCount() { return slowCount; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+        public double getAverageMillis() { return count > 0 ? totalNanos / 1_000_000.0 / count : 0; }
+        public long getRows() { return rows; }
+        /** Parameters of the latest slow execution, null if none was slow. */
+        public String getLastSlowParameters() { return lastSlowParameters; }
+        /** EXPLAIN QUERY PLAN lines; empty until the plan was captured. */
+        public List<String> getPlan() { return plan; }
+        public boolean hasPlan() { return !plan.isEmpty(); }
+        /** Tables the plan reads without an index. */
+        public List<String> getFullScanTables() { return fullScanTables; }
+        /** Indexes the plan uses. */
+        public List<String> getIndexes() { return indexes; }
+        /** True if the plan sorts or groups through a temporary B-tree. */
+        public boolean usesTempBTree() { return tempBTree; }
+    }
+
+    /**
+     * One execution above the threshold.
+     */
+    public static class SlowQuery {
+        private final LocalDateTime executedAt;
+        private final String operation;
+        private final String sql;
+        private final String parameters;
+        private final long millis;
+        private final long rows;
+
+        SlowQuery(LocalDateTime executedAt, String operation, String sql, String parameters, long millis, long rows) {
+            this.executedAt = executedAt;
+            this.operation = operation;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.millis = millis;
+            this.rows = rows;
+        }
+
+        public LocalDateTime getExecutedAt() { return executedAt; }
+        public String getOperation() { return operation; }
+        /** Normalized SQL. */
+        public String getSql() { return sql; }
+        /** Bind parameters, e.g. [42, 'Zagreb']; empty if there were none. */
+        public String getParameters() { return parameters; }
+        public long getMillis() { return millis; }
+        public long getRows() { return rows; }
+    }
+}
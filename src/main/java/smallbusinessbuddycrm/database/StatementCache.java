@@ -0,0 +1,282 @@
+package smallbusinessbuddycrm.database;
+
+import smallbusinessbuddycrm.services.metrics.Counter;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps prepared statements of a connection for reuse, so SQLite parses and plans each
+ * SQL text once per connection instead of once per DAO call.
+ *
+ * DAOs keep calling prepareStatement and close as before. prepareStatement hands out an
+ * idle statement for the same SQL if the cache has one; close resets the statement and
+ * puts it back, evicting the least recently used one beyond the capacity. A statement is
+ * only ever handed to one caller at a time, so two threads preparing the same SQL get
+ * two statements.
+ *
+ * The shared connection from DatabaseConnection.getConnection() is closed by every DAO
+ * call. Closing it here only releases it: statements the calling thread left open are
+ * closed, a transaction that thread started and did not finish is rolled back, and the
+ * physical connection and its cache stay open for the next caller. Statements of other
+ * threads using the connection at the same time are not touched. Connections from
+ * openConnection() are closed for real.
+ *
+ * Cache use is counted in db.statementCache.hits, .misses and .evictions.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+final class StatementCache {
+
+    private static final Counter HITS = MetricsRegistry.getInstance().counter("db.statementCache.hits");
+    private static final Counter MISSES = MetricsRegistry.getInstance().counter("db.statementCache.misses");
+    private static final Counter EVICTIONS = MetricsRegistry.getInstance().counter("db.statementCache.evictions");
+
+    private StatementCache() {
+    }
+
+    /**
+     * Wraps a connection with a statement cache.
+     *
+     * @param connection Physical connection
+     * @param capacity Idle statements kept at most
+     * @param shared True if closing should only release the connection for the next caller
+     */
+    static Connection wrap(Connection connection, int capacity, boolean shared) {
+        return new ConnectionHandler(connection, capacity, shared).proxy;
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection delegate;
+        private final Connection proxy;
+        private final boolean shared;
+        // Statements handed out and not yet closed by their caller
+        private final Set<StatementHandler> openStatements = ConcurrentHashMap.newKeySet();
+        // Idle prepared statements by SQL, least recently used first
+        private final LinkedHashMap<String, PreparedStatement> idle;
+        // Thread that turned auto-commit off, while a transaction is open
+        private volatile Thread transactionOwner;
+
+        ConnectionHandler(Connection delegate, int capacity, boolean shared) {
+            this.delegate = delegate;
+            this.shared = shared;
+            this.idle = new LinkedHashMap<>(capacity + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > capacity) {
+                        EVICTIONS.increment();
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+            this.proxy = (Connection) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement": {
+                    String key = cacheKey(args);
+                    if (key == null) {
+                        return track(new StatementHandler(this, (Statement) call(delegate, method, args),
+                                PreparedStatement.class, null));
+                    }
+                    PreparedStatement statement;
+                    synchronized (idle) {
+                        statement = idle.remove(key);
+                    }
+                    if (statement != null && !statement.isClosed()) {
+                        HITS.increment();
+                    } else {
+                        MISSES.increment();
+                        statement = (PreparedStatement) call(delegate, method, args);
+                    }
+                    return track(new StatementHandler(this, statement, PreparedStatement.class, key));
+                }
+                case "createStatement":
+                    return track(new StatementHandler(this, (Statement) call(delegate, method, args),
+                            Statement.class, null));
+                case "setAutoCommit": {
+                    Object result = call(delegate, method, args);
+                    transactionOwner = Boolean.FALSE.equals(args[0]) ? Thread.currentThread() : null;
+                    return result;
+                }
+                case "close":
+                    if (shared) {
+                        release();
+                    } else {
+                        closeAll();
+                        delegate.close();
+                    }
+                    return null;
+                default:
+                    return call(delegate, method, args);
+            }
+        }
+
+        /**
+         * SQL text plus key generation flag; null for variants that are not cached.
+         */
+        private static String cacheKey(Object[] args) {
+            if (args.length == 1 && args[0] instanceof String sql) {
+                return sql;
+            }
+            if (args.length == 2 && args[0] instanceof String sql && args[1] instanceof Integer keys) {
+                return keys == Statement.RETURN_GENERATED_KEYS ? "#keys:" + sql : sql;
+            }
+            return null;
+        }
+
+        private Object track(StatementHandler handler) {
+            openStatements.add(handler);
+            return handler.proxy;
+        }
+
+        /**
+         * Makes the shared connection ready for the calling thread's next use, as a fresh
+         * one would be.
+         */
+        private void release() throws SQLException {
+            Thread caller = Thread.currentThread();
+            for (StatementHandler statement : new ArrayList<>(openStatements)) {
+                if (statement.owner == caller) {
+                    statement.close();
+                }
+            }
+            if (transactionOwner == caller && !delegate.isClosed() && !delegate.getAutoCommit()) {
+                System.err.println("⚠️ Connection closed inside a transaction, rolling back");
+                delegate.rollback();
+                delegate.setAutoCommit(true);
+                transactionOwner = null;
+            }
+        }
+
+        private void closeAll() {
+            for (StatementHandler statement : new ArrayList<>(openStatements)) {
+                statement.close();
+            }
+            synchronized (idle) {
+                idle.values().forEach(StatementCache::closeQuietly);
+                idle.clear();
+            }
+        }
+
+        /**
+         * Takes back a statement its caller closed. Returns false if it cannot be reused.
+         */
+        boolean checkIn(String key, PreparedStatement statement) {
+            try {
+                if (delegate.isClosed() || statement.isClosed()) {
+                    return false;
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                return false;
+            }
+            synchronized (idle) {
+                // Another caller may have put back a statement for the same SQL meanwhile
+                if (idle.containsKey(key)) {
+                    return false;
+                }
+                idle.put(key, statement);
+            }
+            return true;
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final ConnectionHandler connection;
+        private final Statement delegate;
+        private final Statement proxy;
+        // Cache key, null for statements closed for real
+        private final String key;
+        private final Thread owner = Thread.currentThread();
+
+        private ResultSet lastResultSet;
+        private volatile boolean closed;
+
+        StatementHandler(ConnectionHandler connection, Statement delegate, Class<?> type, String key) {
+            this.connection = connection;
+            this.delegate = delegate;
+            this.key = key;
+            this.proxy = (Statement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                    new Class<?>[]{type}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed || delegate.isClosed();
+                case "getConnection":
+                    return connection.proxy;
+                default:
+                    if (closed) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    Object result = call(delegate, method, args);
+                    if (result instanceof ResultSet resultSet) {
+                        lastResultSet = resultSet;
+                    }
+                    return result;
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            connection.openStatements.remove(this);
+            try {
+                // A cached statement must not keep its last query running
+                if (lastResultSet != null && !lastResultSet.isClosed()) {
+                    lastResultSet.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing result set: " + e.getMessage());
+            }
+            lastResultSet = null;
+            if (key == null || !connection.checkIn(key, (PreparedStatement) delegate)) {
+                closeQuietly(delegate);
+            }
+        }
+    }
+}
@@ -91,6 +91,36 @@ public class TeacherDAO {
         return teachers;
     }
 
+    /**
+     * Streams all teachers, ordered by name, to the handler straight from a forward-only
+     * cursor, without building a list, e.g. for exports. Uses its own connection.
+     *
+     * @param handler Receives each teacher; returns false to stop
+     * @return Number of teachers passed to the handler, or -1 on error
+     */
+    public long forEachTeacher(RowHandler<Teacher> handler) {
+        String query = "SELECT * FROM teachers ORDER BY first_name, last_name";
+        long count = 0;
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                count++;
+                if (!handler.handle(createTeacherFromResultSet(rs))) {
+                    break;
+                }
+            }
+            return count;
+
+        } catch (SQLException e) {
+            System.err.println("SQL Error in forEachTeacher: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
     /**
      * Creates a new teacher in the database.
      * Automatically generates ID and sets creation timestamp.
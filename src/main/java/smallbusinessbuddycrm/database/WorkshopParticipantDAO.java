@@ -14,6 +14,50 @@ import java.util.stream.Collectors;
 
 public class WorkshopParticipantDAO {
 
+    private static final String PARTICIPANTS_WITH_DETAILS_QUERY = """
+        SELECT 
+            wp.id as participant_id,
+            wp.workshop_id,
+            wp.participant_type,
+            wp.payment_status,
+            wp.notes,
+            wp.created_at,
+            wp.updated_at,
+            w.name as workshop_name,
+            w.from_date as workshop_from_date,
+            w.to_date as workshop_to_date,
+            w.teacher_id as workshop_teacher_id,
+            t.first_name as teacher_first_name,
+            t.last_name as teacher_last_name,
+            t.email as teacher_email,
+            t.phone_num as teacher_phone,
+            c.id as contact_id,
+            c.first_name as contact_first_name,
+            c.last_name as contact_last_name,
+            c.email as contact_email,
+            c.phone_num as contact_phone,
+            c.birthday as contact_birthday,
+            u.id as underaged_id,
+            u.first_name as underaged_first_name,
+            u.last_name as underaged_last_name,
+            u.birth_date as underaged_birth_date,
+            u.age as underaged_age,
+            u.gender as underaged_gender,
+            u.contact_id as parent_contact_id,
+            parent.first_name as parent_first_name,
+            parent.last_name as parent_last_name,
+            parent.email as parent_email,
+            parent.phone_num as parent_phone
+        FROM workshop_participants wp
+        JOIN workshops w ON wp.workshop_id = w.id
+        LEFT JOIN teachers t ON w.teacher_id = t.id
+        LEFT JOIN contacts c ON wp.contact_id = c.id
+        LEFT JOIN underaged u ON wp.underaged_id = u.id
+        LEFT JOIN contacts parent ON u.contact_id = parent.id
+        WHERE wp.workshop_id = ?
+        ORDER BY wp.participant_type, c.last_name, c.first_name, u.last_name, u.first_name
+        """;
+
     public List<WorkshopParticipant> getAllWorkshopParticipants() {
         List<WorkshopParticipant> participants = new ArrayList<>();
         String query = "SELECT * FROM workshop_participants ORDER BY workshop_id, participant_type";
@@ -73,117 +117,16 @@ public class WorkshopParticipantDAO {
     // UPDATED: Get all participants for a specific workshop with complete information including teacher info
     public List<Map<String, Object>> getWorkshopParticipantsWithDetails(int workshopId) {
         List<Map<String, Object>> participants = new ArrayList<>();
-        String query = """
-            SELECT 
-                wp.id as participant_id,
-                wp.workshop_id,
-                wp.participant_type,
-                wp.payment_status,
-                wp.notes,
-                wp.created_at,
-                wp.updated_at,
-                w.name as workshop_name,
-                w.from_date as workshop_from_date,
-                w.to_date as workshop_to_date,
-                w.teacher_id as workshop_teacher_id,
-                t.first_name as teacher_first_name,
-                t.last_name as teacher_last_name,
-                t.email as teacher_email,
-                t.phone_num as teacher_phone,
-                c.id as contact_id,
-                c.first_name as contact_first_name,
-                c.last_name as contact_last_name,
-                c.email as contact_email,
-                c.phone_num as contact_phone,
-                c.birthday as contact_birthday,
-                u.id as underaged_id,
-                u.first_name as underaged_first_name,
-                u.last_name as underaged_last_name,
-                u.birth_date as underaged_birth_date,
-                u.age as underaged_age,
-                u.gender as underaged_gender,
-                u.contact_id as parent_contact_id,
-                parent.first_name as parent_first_name,
-                parent.last_name as parent_last_name,
-                parent.email as parent_email,
-                parent.phone_num as parent_phone
-            FROM workshop_participants wp
-            JOIN workshops w ON wp.workshop_id = w.id
-            LEFT JOIN teachers t ON w.teacher_id = t.id
-            LEFT JOIN contacts c ON wp.contact_id = c.id
-            LEFT JOIN underaged u ON wp.underaged_id = u.id
-            LEFT JOIN contacts parent ON u.contact_id = parent.id
-            WHERE wp.workshop_id = ?
-            ORDER BY wp.participant_type, c.last_name, c.first_name, u.last_name, u.first_name
-            """;
 
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+             PreparedStatement stmt = conn.prepareStatement(PARTICIPANTS_WITH_DETAILS_QUERY)) {
 
             System.out.println("Fetching participants for workshop ID: " + workshopId);
             stmt.setInt(1, workshopId);
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                Map<String, Object> participantData = new HashMap<>();
-
-                // Participant info
-                participantData.put("participant_id", rs.getInt("participant_id"));
-                participantData.put("workshop_id", rs.getInt("workshop_id"));
-                participantData.put("participant_type", rs.getString("participant_type"));
-                participantData.put("payment_status", rs.getString("payment_status"));
-                participantData.put("notes", rs.getString("notes"));
-                participantData.put("created_at", rs.getString("created_at"));
-                participantData.put("updated_at", rs.getString("updated_at"));
-                participantData.put("selected", false); // For UI selection
-
-                // Workshop info
-                participantData.put("workshop_name", rs.getString("workshop_name"));
-                participantData.put("workshop_from_date", rs.getString("workshop_from_date"));
-                participantData.put("workshop_to_date", rs.getString("workshop_to_date"));
-
-                // Teacher info (now from workshops table)
-                participantData.put("workshop_teacher_id", rs.getObject("workshop_teacher_id"));
-                String teacherFirstName = rs.getString("teacher_first_name");
-                String teacherLastName = rs.getString("teacher_last_name");
-                if (teacherFirstName != null || teacherLastName != null) {
-                    participantData.put("teacher_name", (teacherFirstName != null ? teacherFirstName : "") + " " + (teacherLastName != null ? teacherLastName : ""));
-                    participantData.put("teacher_email", rs.getString("teacher_email"));
-                    participantData.put("teacher_phone", rs.getString("teacher_phone"));
-                }
-
-                if ("ADULT".equals(rs.getString("participant_type"))) {
-                    // Adult participant (contact)
-                    participantData.put("contact_id", rs.getInt("contact_id"));
-                    String firstName = rs.getString("contact_first_name");
-                    String lastName = rs.getString("contact_last_name");
-                    participantData.put("participant_name", (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : ""));
-                    participantData.put("participant_email", rs.getString("contact_email"));
-                    participantData.put("participant_phone", rs.getString("contact_phone"));
-                    participantData.put("participant_birthday", rs.getString("contact_birthday"));
-                    participantData.put("participant_age", calculateAge(rs.getString("contact_birthday")));
-                    participantData.put("participant_gender", null); // Adults don't have gender in contacts table
-                } else if ("CHILD".equals(rs.getString("participant_type"))) {
-                    // Child participant (underaged)
-                    participantData.put("underaged_id", rs.getInt("underaged_id"));
-                    String firstName = rs.getString("underaged_first_name");
-                    String lastName = rs.getString("underaged_last_name");
-                    participantData.put("participant_name", (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : ""));
-                    participantData.put("participant_age", rs.getInt("underaged_age"));
-                    participantData.put("participant_gender", rs.getString("underaged_gender"));
-                    participantData.put("participant_birthday", rs.getString("underaged_birth_date"));
-                    participantData.put("participant_email", null); // Children don't have direct email
-
-                    // Parent/Guardian info
-                    participantData.put("parent_contact_id", rs.getInt("parent_contact_id"));
-                    String parentFirstName = rs.getString("parent_first_name");
-                    String parentLastName = rs.getString("parent_last_name");
-                    participantData.put("parent_name", (parentFirstName != null ? parentFirstName : "") + " " + (parentLastName != null ? parentLastName : ""));
-                    participantData.put("parent_email", rs.getString("parent_email"));
-                    participantData.put("parent_phone", rs.getString("parent_phone"));
-                }
-
-                participants.add(participantData);
+                participants.add(mapParticipantDetails(rs));
             }
 
             System.out.println("Loaded " + participants.size() + " participants with details for workshop ID: " + workshopId);
@@ -195,6 +138,102 @@ public class WorkshopParticipantDAO {
         return participants;
     }
 
+    /**
+     * Streams the participants of a workshop with the same details as
+     * getWorkshopParticipantsWithDetails to the handler, straight from a forward-only
+     * cursor and without building a list, e.g. for exports. Uses its own connection.
+     *
+     * @param workshopId The workshop
+     * @param handler Receives each participant; returns false to stop
+     * @return Number of participants passed to the handler, or -1 on error
+     */
+    public long forEachParticipantWithDetails(int workshopId, RowHandler<Map<String, Object>> handler) {
+        long count = 0;
+
+        try (Connection conn = DatabaseConnection.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(PARTICIPANTS_WITH_DETAILS_QUERY,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            stmt.setInt(1, workshopId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    count++;
+                    if (!handler.handle(mapParticipantDetails(rs))) {
+                        break;
+                    }
+                }
+            }
+            return count;
+
+        } catch (SQLException e) {
+            System.err.println("Error streaming workshop participants with details: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private Map<String, Object> mapParticipantDetails(ResultSet rs) throws SQLException {
+        Map<String, Object> participantData = new HashMap<>();
+
+        // Participant info
+        participantData.put("participant_id", rs.getInt("participant_id"));
+        participantData.put("workshop_id", rs.getInt("workshop_id"));
+        participantData.put("participant_type", rs.getString("participant_type"));
+        participantData.put("payment_status", rs.getString("payment_status"));
+        participantData.put("notes", rs.getString("notes"));
+        participantData.put("created_at", rs.getString("created_at"));
+        participantData.put("updated_at", rs.getString("updated_at"));
+        participantData.put("selected", false); // For UI selection
+
+        // Workshop info
+        participantData.put("workshop_name", rs.getString("workshop_name"));
+        participantData.put("workshop_from_date", rs.getString("workshop_from_date"));
+        participantData.put("workshop_to_date", rs.getString("workshop_to_date"));
+
+        // Teacher info (now from workshops table)
+        participantData.put("workshop_teacher_id", rs.getObject("workshop_teacher_id"));
+        String teacherFirstName = rs.getString("teacher_first_name");
+        String teacherLastName = rs.getString("teacher_last_name");
+        if (teacherFirstName != null || teacherLastName != null) {
+            participantData.put("teacher_name", (teacherFirstName != null ? teacherFirstName : "") + " " + (teacherLastName != null ? teacherLastName : ""));
+            participantData.put("teacher_email", rs.getString("teacher_email"));
+            participantData.put("teacher_phone", rs.getString("teacher_phone"));
+        }
+
+        if ("ADULT".equals(rs.getString("participant_type"))) {
+            // Adult participant (contact)
+            participantData.put("contact_id", rs.getInt("contact_id"));
+            String firstName = rs.getString("contact_first_name");
+            String lastName = rs.getString("contact_last_name");
+            participantData.put("participant_name", (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : ""));
+            participantData.put("participant_email", rs.getString("contact_email"));
+            participantData.put("participant_phone", rs.getString("contact_phone"));
+            participantData.put("participant_birthday", rs.getString("contact_birthday"));
+            participantData.put("participant_age", calculateAge(rs.getString("contact_birthday")));
+            participantData.put("participant_gender", null); // Adults don't have gender in contacts table
+        } else if ("CHILD".equals(rs.getString("participant_type"))) {
+            // Child participant (underaged)
+            participantData.put("underaged_id", rs.getInt("underaged_id"));
+            String firstName = rs.getString("underaged_first_name");
+            String lastName = rs.getString("underaged_last_name");
+            participantData.put("participant_name", (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : ""));
+            participantData.put("participant_age", rs.getInt("underaged_age"));
+            participantData.put("participant_gender", rs.getString("underaged_gender"));
+            participantData.put("participant_birthday", rs.getString("underaged_birth_date"));
+            participantData.put("participant_email", null); // Children don't have direct email
+
+            // Parent/Guardian info
+            participantData.put("parent_contact_id", rs.getInt("parent_contact_id"));
+            String parentFirstName = rs.getString("parent_first_name");
+            String parentLastName = rs.getString("parent_last_name");
+            participantData.put("parent_name", (parentFirstName != null ? parentFirstName : "") + " " + (parentLastName != null ? parentLastName : ""));
+            participantData.put("parent_email", rs.getString("parent_email"));
+            participantData.put("parent_phone", rs.getString("parent_phone"));
+        }
+
+        return participantData;
+    }
+
     // Get all workshops for a specific participant
     public List<Map<String, Object>> getParticipantWorkshops(int participantId, ParticipantType participantType) {
         List<Map<String, Object>> workshops = new ArrayList<>();
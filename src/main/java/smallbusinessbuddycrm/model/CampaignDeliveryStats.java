@@ -0,0 +1,129 @@
+package smallbusinessbuddycrm.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-campaign totals of the email outbox, as shown in the campaign report.
+ */
+public class CampaignDeliveryStats {
+    private String campaignId;
+    private String name;
+    private String subject;
+    private LocalDateTime createdAt;
+    private int pending;
+    private int sending;
+    private int sent;
+    private int failed;
+    private int cancelled;
+    private int retries;
+
+    // Constructors
+    public CampaignDeliveryStats() {
+    }
+
+    // Getters and Setters
+    public String getCampaignId() {
+        return campaignId;
+    }
+
+    public void setCampaignId(String campaignId) {
+        this.campaignId = campaignId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public int getSending() {
+        return sending;
+    }
+
+    public void setSending(int sending) {
+        this.sending = sending;
+    }
+
+    public int getSent() {
+        return sent;
+    }
+
+    public void setSent(int sent) {
+        this.sent = sent;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(int cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Attempts that failed temporarily and were followed by another attempt.
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    // Utility methods
+    public int getTotal() {
+        return pending + sending + sent + failed + cancelled;
+    }
+
+    /**
+     * Emails still waiting to be sent or currently being sent.
+     */
+    public int getRemaining() {
+        return pending + sending;
+    }
+
+    @Override
+    public String toString() {
+        return "CampaignDeliveryStats{" +
+                "campaignId='" + campaignId + '\'' +
+                ", sent=" + sent +
+                ", failed=" + failed +
+                ", remaining=" + getRemaining() +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package smallbusinessbuddycrm.model;
+
+import java.time.LocalDateTime;
+
+public class EmailCampaign {
+    private String id;
+    private String name;
+    private String subject;
+    private String htmlBody;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public EmailCampaign() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public EmailCampaign(String id, String name, String subject, String htmlBody) {
+        this();
+        this.id = id;
+        this.name = name;
+        this.subject = subject;
+        this.htmlBody = htmlBody;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    /**
+     * Shared HTML body, rendered once and personalized per row from its merge fields.
+     * Null when each outbox row carries its own pre-built message.
+     */
+    public String getHtmlBody() {
+        return htmlBody;
+    }
+
+    public void setHtmlBody(String htmlBody) {
+        this.htmlBody = htmlBody;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return name != null ? name : id;
+    }
+}
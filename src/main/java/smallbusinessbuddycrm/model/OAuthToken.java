@@ -5,11 +5,15 @@ package smallbusinessbuddycrm.model;
  */
 public class OAuthToken {
 
+    // Google access tokens last an hour unless the token response says otherwise
+    public static final long DEFAULT_LIFETIME_SECONDS = 3600;
+
     private String accessToken;
     private String refreshToken;
     private String userEmail;
     private String userName;
     private long createdAt;
+    private long expiresAt; // Epoch millis, 0 if unknown
 
     public OAuthToken() {
         this.createdAt = System.currentTimeMillis();
@@ -44,6 +48,10 @@ public class OAuthToken {
         return createdAt;
     }
 
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
     // Setters
     public void setAccessToken(String accessToken) {
         this.accessToken = accessToken;
@@ -65,6 +73,18 @@ public class OAuthToken {
         this.createdAt = createdAt;
     }
 
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Sets the expiry from the expires_in value of a token response
+     * @param expiresInSeconds Lifetime in seconds from now
+     */
+    public void setExpiresIn(long expiresInSeconds) {
+        this.expiresAt = System.currentTimeMillis() + expiresInSeconds * 1000;
+    }
+
     // Utility methods
     public boolean isValid() {
         return accessToken != null && !accessToken.isEmpty();
@@ -78,6 +98,23 @@ public class OAuthToken {
         return refreshToken != null && !refreshToken.isEmpty();
     }
 
+    public boolean hasKnownExpiry() {
+        return expiresAt > 0;
+    }
+
+    public boolean isExpired() {
+        return expiresWithin(0);
+    }
+
+    /**
+     * Check whether the access token expires within the given time
+     * @param millis Time from now in milliseconds
+     * @return true if the expiry is known and falls within that time
+     */
+    public boolean expiresWithin(long millis) {
+        return hasKnownExpiry() && System.currentTimeMillis() + millis >= expiresAt;
+    }
+
     public String getDisplayName() {
         if (userName != null && !userName.isEmpty()) {
             return userName;
@@ -93,16 +130,29 @@ public class OAuthToken {
                 ", userEmail='" + userEmail + '\'' +
                 ", userName='" + userName + '\'' +
                 ", createdAt=" + createdAt +
+                ", expiresAt=" + expiresAt +
                 '}';
     }
 
     /**
-     * Creates a copy of this token with updated access token
+     * Creates a copy of this token with updated access token, assuming the default lifetime
      * @param newAccessToken New access token
      * @return New OAuthToken instance
      */
     public OAuthToken withUpdatedAccessToken(String newAccessToken) {
-        return new OAuthToken(newAccessToken, this.refreshToken, this.userEmail, this.userName);
+        return withUpdatedAccessToken(newAccessToken, DEFAULT_LIFETIME_SECONDS);
+    }
+
+    /**
+     * Creates a copy of this token with updated access token
+     * @param newAccessToken New access token
+     * @param expiresInSeconds Lifetime of the new access token
+     * @return New OAuthToken instance
+     */
+    public OAuthToken withUpdatedAccessToken(String newAccessToken, long expiresInSeconds) {
+        OAuthToken token = new OAuthToken(newAccessToken, this.refreshToken, this.userEmail, this.userName);
+        token.setExpiresIn(expiresInSeconds);
+        return token;
     }
 
     /**
@@ -112,6 +162,8 @@ public class OAuthToken {
      * @return New OAuthToken instance
      */
     public OAuthToken withUserInfo(String email, String name) {
-        return new OAuthToken(this.accessToken, this.refreshToken, email, name);
+        OAuthToken token = new OAuthToken(this.accessToken, this.refreshToken, email, name);
+        token.setExpiresAt(this.expiresAt);
+        return token;
     }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package smallbusinessbuddycrm.model;
+
+import java.time.LocalDateTime;
+
+public class OutboxEmail {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    private long id;
+    private String campaignId;
+    private String recipient;
+    private String recipientKey;
+    private String rawMessage;
+    private String mergeFields;
+    private String spoolPath;
+    private String status;
+    private int attempts;
+    private long nextAttemptAt;
+    private int lastStatusCode;
+    private String lastError;
+    private LocalDateTime sentAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public OutboxEmail() {
+        this.status = STATUS_PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Creates a queued email. The recipient key defaults to the normalized address,
+     * so the same address is queued only once per campaign.
+     */
+    public OutboxEmail(String campaignId, String recipient, String rawMessage) {
+        this();
+        this.campaignId = campaignId;
+        this.recipient = recipient;
+        this.recipientKey = recipient != null ? recipient.trim().toLowerCase() : null;
+        this.rawMessage = rawMessage;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getCampaignId() {
+        return campaignId;
+    }
+
+    public void setCampaignId(String campaignId) {
+        this.campaignId = campaignId;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    /**
+     * Deduplication key within the campaign. Usually the lowercased address; callers
+     * that legitimately send several messages to one address (e.g. one payment slip
+     * per child) add a suffix.
+     */
+    public String getRecipientKey() {
+        return recipientKey;
+    }
+
+    public void setRecipientKey(String recipientKey) {
+        this.recipientKey = recipientKey;
+    }
+
+    /**
+     * Pre-built RFC 2822 message, or null to build it from the spool entry or the
+     * campaign's HTML body.
+     */
+    public String getRawMessage() {
+        return rawMessage;
+    }
+
+    public void setRawMessage(String rawMessage) {
+        this.rawMessage = rawMessage;
+    }
+
+    /**
+     * Encoded personalization values for campaigns rendered by CampaignRenderer, or null.
+     */
+    public String getMergeFields() {
+        return mergeFields;
+    }
+
+    public void setMergeFields(String mergeFields) {
+        this.mergeFields = mergeFields;
+    }
+
+    /**
+     * Directory of an OutboxSpool entry holding the message text and attachments, or null.
+     */
+    public String getSpoolPath() {
+        return spoolPath;
+    }
+
+    public void setSpoolPath(String spoolPath) {
+        this.spoolPath = spoolPath;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * Earliest time of the next attempt, in epoch milliseconds.
+     */
+    public long getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(long nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public int getLastStatusCode() {
+        return lastStatusCode;
+    }
+
+    public void setLastStatusCode(int lastStatusCode) {
+        this.lastStatusCode = lastStatusCode;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public boolean isFinal() {
+        return STATUS_SENT.equals(status) || STATUS_FAILED.equals(status) || STATUS_CANCELLED.equals(status);
+    }
+
+    @Override
+    public String toString() {
+        return recipient + " [" + status + "]";
+    }
+}
@@ -0,0 +1,105 @@
+package smallbusinessbuddycrm.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class PaymentInfo {
+
+    public static final String TARGET_CONTACT = "CONTACT";
+    public static final String TARGET_UNDERAGED = "UNDERAGED";
+
+    public static final String STATUS_GENERATED = "GENERATED";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_PAID = "PAID";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    private long id;
+    private int organizationId;
+    private int paymentTemplateId;
+    private int contactId;
+    private Integer underagedId;
+    private String targetType;
+    private BigDecimal amount;
+    private String modelOfPayment;
+    private String pozivNaBroj;
+    private String barcodeData;
+    private String status;
+    private LocalDateTime generatedAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public PaymentInfo() {
+        this.targetType = TARGET_CONTACT;
+        this.status = STATUS_GENERATED;
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Creates a ledger entry for a slip issued to a contact, or to one of its
+     * underaged members if underagedId is set.
+     */
+    public PaymentInfo(int organizationId, int paymentTemplateId, int contactId, Integer underagedId) {
+        this();
+        this.organizationId = organizationId;
+        this.paymentTemplateId = paymentTemplateId;
+        this.contactId = contactId;
+        this.underagedId = underagedId;
+        this.targetType = underagedId != null ? TARGET_UNDERAGED : TARGET_CONTACT;
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public int getOrganizationId() { return organizationId; }
+    public void setOrganizationId(int organizationId) { this.organizationId = organizationId; }
+
+    public int getPaymentTemplateId() { return paymentTemplateId; }
+    public void setPaymentTemplateId(int paymentTemplateId) { this.paymentTemplateId = paymentTemplateId; }
+
+    public int getContactId() { return contactId; }
+    public void setContactId(int contactId) { this.contactId = contactId; }
+
+    public Integer getUnderagedId() { return underagedId; }
+    public void setUnderagedId(Integer underagedId) { this.underagedId = underagedId; }
+
+    public String getTargetType() { return targetType; }
+    public void setTargetType(String targetType) { this.targetType = targetType; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public String getModelOfPayment() { return modelOfPayment; }
+    public void setModelOfPayment(String modelOfPayment) { this.modelOfPayment = modelOfPayment; }
+
+    public String getPozivNaBroj() { return pozivNaBroj; }
+    public void setPozivNaBroj(String pozivNaBroj) { this.pozivNaBroj = pozivNaBroj; }
+
+    public String getBarcodeData() { return barcodeData; }
+    public void setBarcodeData(String barcodeData) { this.barcodeData = barcodeData; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    @Override
+    public String toString() {
+        return "PaymentInfo{" +
+                "id=" + id +
+                ", paymentTemplateId=" + paymentTemplateId +
+                ", contactId=" + contactId +
+                ", underagedId=" + underagedId +
+                ", status='" + status + '\'' +
+                ", generatedAt=" + generatedAt +
+                '}';
+    }
+}
@@ -2,15 +2,15 @@ package smallbusinessbuddycrm.services;
 
 import smallbusinessbuddycrm.model.Contact;
 import smallbusinessbuddycrm.model.Organization;
+import smallbusinessbuddycrm.model.PaymentInfo;
 import smallbusinessbuddycrm.model.PaymentTemplate;
-import smallbusinessbuddycrm.database.DatabaseConnection;
+import smallbusinessbuddycrm.database.Db;
+import smallbusinessbuddycrm.database.PaymentInfoDAO;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.math.BigDecimal;
 
 public class BarcodePaymentService {
@@ -60,12 +60,14 @@ public class BarcodePaymentService {
     }
 
     /**
-     * Generates payment slip data for a contact using specified payment template
+     * Generates payment slip data for a contact using specified payment template.
+     * Reads and the payment_info insert run in one transaction.
      */
     public static PaymentSlipData generatePaymentSlip(Contact contact, int paymentTemplateId) throws SQLException {
         PaymentSlipData slipData = new PaymentSlipData();
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
+        return Db.inTransaction(tx -> {
+            Connection conn = tx.getConnection();
             // Get organization data (assuming single organization for now)
             Organization organization = getOrganization(conn);
             if (organization == null) {
@@ -102,14 +104,14 @@ public class BarcodePaymentService {
             slipData.setDescription(paymentTemplate.getDescription());
 
             // Generate barcode data (Croatian HUB-3 format)
-            String barcodeData = generateHUB3Barcode(slipData);
+            String barcodeData = generateHUB3Barcode(contact, organization, slipData);
             slipData.setBarcodeData(barcodeData);
 
             // Save payment info to database
-            savePaymentInfo(conn, organization.getId(), paymentTemplateId, contact, slipData);
+            savePaymentInfo(organization.getId(), paymentTemplateId, contact, slipData);
 
             return slipData;
-        }
+        });
     }
 
     /**
@@ -246,69 +248,40 @@ public class BarcodePaymentService {
     }
 
     /**
-     * Generates HUB-3 barcode data (simplified version)
+     * Generates HUB-3 barcode data in the same layout as the printed slips
      */
-    private static String generateHUB3Barcode(PaymentSlipData slipData) {
-        // HUB-3 format: Currency + Amount + IBAN + Model + Reference + Name + Description
-        StringBuilder barcode = new StringBuilder();
-
-        // Currency (HRK = 191, EUR = 978)
-        barcode.append("978"); // Assuming EUR, change to 191 for HRK
-
-        // Amount (15 digits, right-aligned, zero-padded)
-        String amountStr = slipData.getAmount().multiply(new BigDecimal("100")).toBigInteger().toString();
-        barcode.append(String.format("%015d", Long.parseLong(amountStr)));
-
-        // IBAN (21 characters, space-padded if needed)
-        String iban = slipData.getOrganizationIban().replaceAll("\\s+", "");
-        barcode.append(String.format("%-21s", iban));
-
-        // Model (2 digits)
-        barcode.append(String.format("%02d", Integer.parseInt(slipData.getModelOfPayment())));
-
-        // Reference number (22 characters, space-padded)
-        barcode.append(String.format("%-22s", slipData.getPozivNaBroj()));
-
-        // Payer name (25 characters, truncated if needed)
-        String payerName = slipData.getPayerName();
-        if (payerName.length() > 25) payerName = payerName.substring(0, 25);
-        barcode.append(String.format("%-25s", payerName));
-
-        // Description (25 characters, truncated if needed)
-        String description = slipData.getDescription() != null ? slipData.getDescription() : "";
-        if (description.length() > 25) description = description.substring(0, 25);
-        barcode.append(String.format("%-25s", description));
-
-        return barcode.toString();
+    private static String generateHUB3Barcode(Contact contact, Organization organization, PaymentSlipData slipData) {
+        return Hub3Encoder.forCurrentThread()
+                .begin(true)
+                .amount(slipData.getAmount())
+                .field(slipData.getPayerName())
+                .address(contact.getStreetName(), contact.getStreetNum())
+                .place(contact.getPostalCode(), contact.getCity())
+                .field(slipData.getOrganizationName())
+                .address(organization.getStreetName(), organization.getStreetNum())
+                .place(organization.getPostalCode(), organization.getCity())
+                .field(slipData.getOrganizationIban())
+                .field(slipData.getModelOfPayment())
+                .field(slipData.getPozivNaBroj())
+                .field("")
+                .field(slipData.getDescription())
+                .encode();
     }
 
     /**
-     * Saves payment info to database
+     * Records the slip in the payment_info ledger
      */
-    private static void savePaymentInfo(Connection conn, int organizationId, int paymentTemplateId,
+    private static void savePaymentInfo(int organizationId, int paymentTemplateId,
                                         Contact contact, PaymentSlipData slipData) throws SQLException {
-        String sql = """
-            INSERT INTO payment_info 
-            (organization_id, payment_template_id, contact_id, target_type, amount, 
-             model_of_payment, poziv_na_broj, barcode_data, status, generated_at, created_at, updated_at)
-            VALUES (?, ?, ?, 'CONTACT', ?, ?, ?, ?, 'GENERATED', ?, ?, ?)
-            """;
-
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, organizationId);
-            stmt.setInt(2, paymentTemplateId);
-            stmt.setInt(3, contact.getId());
-            stmt.setBigDecimal(4, slipData.getAmount());
-            stmt.setString(5, slipData.getModelOfPayment());
-            stmt.setString(6, slipData.getPozivNaBroj());
-            stmt.setString(7, slipData.getBarcodeData());
-            stmt.setString(8, timestamp);
-            stmt.setString(9, timestamp);
-            stmt.setString(10, timestamp);
-
-            stmt.executeUpdate();
+        PaymentInfo paymentInfo = new PaymentInfo(organizationId, paymentTemplateId, contact.getId(), null);
+        paymentInfo.setAmount(slipData.getAmount());
+        paymentInfo.setModelOfPayment(slipData.getModelOfPayment());
+        paymentInfo.setPozivNaBroj(slipData.getPozivNaBroj());
+        paymentInfo.setBarcodeData(slipData.getBarcodeData());
+
+        // Joins the slip's transaction
+        if (!new PaymentInfoDAO().createPaymentInfo(paymentInfo)) {
+            throw new SQLException("Payment info could not be saved for contact " + contact.getId());
         }
     }
 }
\ No newline at end of file
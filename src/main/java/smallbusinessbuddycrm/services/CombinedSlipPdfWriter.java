@@ -0,0 +1,178 @@
+package smallbusinessbuddycrm.services;
+
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams many payment slips into one print-ready A4 PDF, several slips per page.
+ *
+ * Each slip is rendered on a slip-sized page by PdfRenderingService, imported as a
+ * form XObject and placed into the next free slot. Finished pages and copied objects
+ * are flushed straight to the PdfWriter, so memory use stays flat no matter how many
+ * slips are written. Callers feed slips in small batches with addSlips so rendering
+ * can run in parallel while the output is still written in order.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class CombinedSlipPdfWriter implements AutoCloseable {
+
+    /** Page size slips are rendered on; wide enough for the 931px uplatnica layout. */
+    public static final PageSize SLIP_PAGE_SIZE = new PageSize(842, 400);
+
+    private static final PageSize OUTPUT_PAGE_SIZE = PageSize.A4;
+    private static final float PAGE_MARGIN = 20;
+
+    private final PdfDocument outputDocument;
+    private final int slipsPerPage;
+
+    private PdfPage currentPage;
+    private PdfCanvas currentCanvas;
+    private int slotOnPage;
+    private int slipCount;
+
+    /**
+     * Opens a combined PDF for writing.
+     *
+     * @param file Output PDF file
+     * @param slipsPerPage Number of slips stacked on each A4 page (1 to 4)
+     * @throws IOException if the file cannot be created
+     */
+    public CombinedSlipPdfWriter(File file, int slipsPerPage) throws IOException {
+        if (slipsPerPage < 1 || slipsPerPage > 4) {
+            throw new IllegalArgumentException("Slips per page must be between 1 and 4");
+        }
+        this.slipsPerPage = slipsPerPage;
+        this.outputDocument = new PdfDocument(new PdfWriter(file.getAbsolutePath()));
+    }
+
+    /**
+     * Batch size that keeps every render worker busy without holding many PDFs in memory.
+     *
+     * @return Recommended number of slips per addSlips call
+     */
+    public static int getRecommendedBatchSize() {
+        return PdfRenderingService.getInstance().getWorkerCount() * 2;
+    }
+
+    /**
+     * Renders a batch of slips in parallel and appends them in order.
+     *
+     * @param htmlBatch Slip HTML documents
+     * @throws IOException if rendering or writing fails
+     */
+    public void addSlips(List<String> htmlBatch) throws IOException {
+        Map<Integer, String> htmlByIndex = new LinkedHashMap<>();
+        for (int i = 0; i < htmlBatch.size(); i++) {
+            htmlByIndex.put(i, htmlBatch.get(i));
+        }
+
+        Map<Integer, PdfRenderingService.RenderResult> rendered =
+                PdfRenderingService.getInstance().renderAll(htmlByIndex, SLIP_PAGE_SIZE);
+        for (PdfRenderingService.RenderResult result : rendered.values()) {
+            addSlip(result.getPdfContent());
+        }
+    }
+
+    /**
+     * Appends the first page of an already rendered slip PDF into the next slot.
+     *
+     * @param slipPdf Single slip PDF
+     * @throws IOException if the slip cannot be read
+     */
+    public void addSlip(byte[] slipPdf) throws IOException {
+        try (PdfDocument slipDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(slipPdf)))) {
+            if (slipDocument.getNumberOfPages() > 1) {
+                System.err.println("Slip rendered to " + slipDocument.getNumberOfPages() +
+                        " pages; only the first page is included in the combined PDF");
+            }
+
+            PdfFormXObject slip = slipDocument.getFirstPage().copyAsFormXObject(outputDocument);
+            placeInNextSlot(slip);
+            outputDocument.flushCopiedObjects(slipDocument);
+        }
+        slipCount++;
+    }
+
+    private void placeInNextSlot(PdfFormXObject slip) {
+        if (currentPage == null || slotOnPage == slipsPerPage) {
+            startNewPage();
+        }
+
+        float contentWidth = OUTPUT_PAGE_SIZE.getWidth() - 2 * PAGE_MARGIN;
+        float slotHeight = (OUTPUT_PAGE_SIZE.getHeight() - 2 * PAGE_MARGIN) / slipsPerPage;
+        float slotTop = OUTPUT_PAGE_SIZE.getHeight() - PAGE_MARGIN - slotOnPage * slotHeight;
+
+        Rectangle bounds = slip.getBBox().toRectangle();
+        float scale = Math.min(1f, Math.min(contentWidth / bounds.getWidth(), slotHeight / bounds.getHeight()));
+        float x = PAGE_MARGIN + (contentWidth - bounds.getWidth() * scale) / 2;
+        float y = slotTop - slotHeight + (slotHeight - bounds.getHeight() * scale) / 2;
+
+        currentCanvas.addXObjectWithTransformationMatrix(slip, scale, 0, 0, scale,
+                x - bounds.getX() * scale, y - bounds.getY() * scale);
+
+        if (slotOnPage > 0) {
+            drawCutLine(slotTop);
+        }
+        slotOnPage++;
+    }
+
+    private void drawCutLine(float y) {
+        currentCanvas.saveState()
+                .setStrokeColor(ColorConstants.LIGHT_GRAY)
+                .setLineWidth(0.5f)
+                .setLineDash(4, 4)
+                .moveTo(PAGE_MARGIN, y)
+                .lineTo(OUTPUT_PAGE_SIZE.getWidth() - PAGE_MARGIN, y)
+                .stroke()
+                .restoreState();
+    }
+
+    private void startNewPage() {
+        flushCurrentPage();
+        currentPage = outputDocument.addNewPage(OUTPUT_PAGE_SIZE);
+        currentCanvas = new PdfCanvas(currentPage);
+        slotOnPage = 0;
+    }
+
+    private void flushCurrentPage() {
+        if (currentPage != null) {
+            currentCanvas.release();
+            currentPage.flush();
+            currentPage = null;
+            currentCanvas = null;
+        }
+    }
+
+    public int getSlipCount() {
+        return slipCount;
+    }
+
+    public int getPageCount() {
+        return outputDocument.getNumberOfPages();
+    }
+
+    @Override
+    public void close() {
+        if (outputDocument.getNumberOfPages() == 0) {
+            // iText refuses to close a document without pages
+            outputDocument.addNewPage(OUTPUT_PAGE_SIZE);
+        }
+        flushCurrentPage();
+        outputDocument.close();
+    }
+}
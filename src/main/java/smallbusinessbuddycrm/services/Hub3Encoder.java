@@ -0,0 +1,225 @@
+package smallbusinessbuddycrm.services;
+
+import java.math.BigDecimal;
+
+/**
+ * Builds the HUB-3 payload that is encoded into the PDF417 barcode of a payment slip.
+ *
+ * The payload is 14 newline-separated fields: header, currency, amount in cents
+ * (15 digits), payer name, address and place, recipient name, address and place,
+ * IBAN, payment model, reference, purpose code and description. Every slip
+ * generator writes these fields through this class, so the layout is defined once.
+ *
+ * An encoder writes into one StringBuilder that is reused for every slip, and
+ * diacritics are folded through a lookup table instead of chained String.replace
+ * calls. Bulk generation should take the encoder of its thread via forCurrentThread();
+ * an encoder instance must not be shared between threads.
+ *
+ * Usage:
+ * <pre>
+ * String payload = Hub3Encoder.forCurrentThread()
+ *         .begin(true)
+ *         .amount(template.getAmount())
+ *         .field(payerName)
+ *         ...
+ *         .encode();
+ * </pre>
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class Hub3Encoder {
+
+    public static final String HEADER = "HRVHUB30";
+    public static final String CURRENCY_EUR = "EUR";
+
+    private static final int FIELD_COUNT = 14;
+    private static final int AMOUNT_DIGITS = 15;
+    private static final BigDecimal CENTS_PER_UNIT = new BigDecimal("100");
+
+    // Croatian letters replaced by their ASCII base letter, indexed by char; other chars map to themselves
+    private static final char[] FOLD_TABLE = buildFoldTable();
+
+    private static final ThreadLocal<Hub3Encoder> THREAD_ENCODER = ThreadLocal.withInitial(Hub3Encoder::new);
+
+    private final StringBuilder buffer = new StringBuilder(256);
+    private int fieldCount;
+    private boolean foldDiacritics;
+
+    /**
+     * The encoder of the calling thread, reused across slips.
+     */
+    public static Hub3Encoder forCurrentThread() {
+        return THREAD_ENCODER.get();
+    }
+
+    /**
+     * Starts a new payload with the HUB-3 header and EUR currency.
+     *
+     * @param foldDiacritics true to replace č, ć, ž, š and đ with c, c, z, s and d in text fields
+     * @return this encoder
+     */
+    public Hub3Encoder begin(boolean foldDiacritics) {
+        buffer.setLength(0);
+        fieldCount = 0;
+        this.foldDiacritics = foldDiacritics;
+        appendRaw(HEADER);
+        appendRaw(CURRENCY_EUR);
+        return this;
+    }
+
+    /**
+     * Writes the amount in euros; null is written as zero.
+     */
+    public Hub3Encoder amount(BigDecimal amount) {
+        if (amount == null) {
+            return amountCents(0);
+        }
+        return amountCents(amount.multiply(CENTS_PER_UNIT).toBigInteger().longValueExact());
+    }
+
+    /**
+     * Writes the amount as cents, zero-padded to 15 digits.
+     */
+    public Hub3Encoder amountCents(long cents) {
+        if (cents < 0) {
+            throw new IllegalArgumentException("HUB-3 amount cannot be negative: " + cents);
+        }
+        startField();
+        int digits = 1;
+        for (long rest = cents / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < AMOUNT_DIGITS; i++) {
+            buffer.append('0');
+        }
+        buffer.append(cents);
+        return this;
+    }
+
+    /**
+     * Writes an amount given as a string of cents, as typed into an amount field.
+     * Anything but digits is ignored; an empty value is written as zero.
+     */
+    public Hub3Encoder amountCents(String cents) {
+        long value = 0;
+        boolean hasDigits = false;
+        if (cents != null) {
+            for (int i = 0; i < cents.length(); i++) {
+                char c = cents.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+                    hasDigits = true;
+                }
+            }
+        }
+        return amountCents(hasDigits ? value : 0);
+    }
+
+    /**
+     * Writes a text field; null is written as an empty field.
+     */
+    public Hub3Encoder field(String value) {
+        startField();
+        appendText(value);
+        return this;
+    }
+
+    /**
+     * Writes a street address as "street number". The number is left out when
+     * blank, and the field is empty when the street is blank.
+     */
+    public Hub3Encoder address(String streetName, String streetNum) {
+        startField();
+        if (!isBlank(streetName)) {
+            appendText(streetName);
+            if (!isBlank(streetNum)) {
+                buffer.append(' ');
+                appendText(streetNum);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes a place as "postal code city", or whichever of the two is present.
+     */
+    public Hub3Encoder place(String postalCode, String city) {
+        startField();
+        if (!isBlank(postalCode)) {
+            appendText(postalCode);
+            if (!isBlank(city)) {
+                buffer.append(' ');
+                appendText(city);
+            }
+        } else if (!isBlank(city)) {
+            appendText(city);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the finished payload. The description is the last field and is not
+     * followed by a newline.
+     *
+     * @throws IllegalStateException if not all 14 fields were written
+     */
+    public String encode() {
+        if (fieldCount != FIELD_COUNT) {
+            throw new IllegalStateException("HUB-3 payload needs " + FIELD_COUNT + " fields, got " + fieldCount);
+        }
+        return buffer.toString();
+    }
+
+    private void startField() {
+        if (fieldCount >= FIELD_COUNT) {
+            throw new IllegalStateException("HUB-3 payload has only " + FIELD_COUNT + " fields");
+        }
+        if (fieldCount > 0) {
+            buffer.append('\n');
+        }
+        fieldCount++;
+    }
+
+    private void appendRaw(String value) {
+        startField();
+        buffer.append(value);
+    }
+
+    private void appendText(String value) {
+        if (value == null) {
+            return;
+        }
+        if (!foldDiacritics) {
+            buffer.append(value);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            buffer.append(c < FOLD_TABLE.length ? FOLD_TABLE[c] : c);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static char[] buildFoldTable() {
+        // Covers Latin-1 and Latin Extended-A, where all Croatian letters are
+        char[] table = new char[0x180];
+        for (char c = 0; c < table.length; c++) {
+            table[c] = c;
+        }
+        table['č'] = 'c';
+        table['Č'] = 'C';
+        table['ć'] = 'c';
+        table['Ć'] = 'C';
+        table['ž'] = 'z';
+        table['Ž'] = 'Z';
+        table['š'] = 's';
+        table['Š'] = 'S';
+        table['đ'] = 'd';
+        table['Đ'] = 'D';
+        return table;
+    }
+}
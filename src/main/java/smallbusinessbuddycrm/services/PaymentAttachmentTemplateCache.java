@@ -0,0 +1,209 @@
+package smallbusinessbuddycrm.services;
+
+import smallbusinessbuddycrm.database.PaymentAttachmentDAO;
+import smallbusinessbuddycrm.model.PaymentAttachment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory repository of compiled payment attachment templates.
+ *
+ * Bulk slip generation used to re-read the template row and run one
+ * String.replace pass per variable for every slip. Templates are now loaded once,
+ * split into literal and placeholder segments, and rendered in a single pass.
+ * PaymentAttachmentDAO invalidates the cache on every write so edits made in the
+ * template editor are picked up by the next generation run.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class PaymentAttachmentTemplateCache {
+
+    private static final String PLACEHOLDER_START = "{{";
+    private static final String PLACEHOLDER_END = "}}";
+
+    private static volatile PaymentAttachmentTemplateCache instance;
+
+    private final Map<Long, CompiledTemplate> templatesById = new ConcurrentHashMap<>();
+    private volatile CompiledTemplate defaultTemplate;
+
+    private PaymentAttachmentTemplateCache() {
+    }
+
+    public static PaymentAttachmentTemplateCache getInstance() {
+        if (instance == null) {
+            synchronized (PaymentAttachmentTemplateCache.class) {
+                if (instance == null) {
+                    instance = new PaymentAttachmentTemplateCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the compiled default template, loading it from the database on first use.
+     *
+     * @return Optional containing the compiled default template, empty if none is marked default
+     */
+    public Optional<CompiledTemplate> getDefault() {
+        CompiledTemplate cached = defaultTemplate;
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<PaymentAttachment> attachment = new PaymentAttachmentDAO().findDefault();
+        if (attachment.isEmpty()) {
+            return Optional.empty();
+        }
+
+        CompiledTemplate compiled = compile(attachment.get());
+        defaultTemplate = compiled;
+        return Optional.of(compiled);
+    }
+
+    /**
+     * Returns the compiled template with the given ID, loading it from the database on first use.
+     *
+     * @param id The payment attachment ID
+     * @return Optional containing the compiled template, empty if no such template exists
+     */
+    public Optional<CompiledTemplate> getById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        CompiledTemplate cached = templatesById.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        return new PaymentAttachmentDAO().findById(id).map(this::compile);
+    }
+
+    /**
+     * Returns the compiled form of an attachment the caller already holds.
+     * Persisted attachments are served from the cache when their content is unchanged;
+     * unsaved attachments are compiled without being cached.
+     *
+     * @param attachment The payment attachment to compile
+     * @return Compiled template
+     */
+    public CompiledTemplate getCompiled(PaymentAttachment attachment) {
+        if (attachment.getId() != null) {
+            CompiledTemplate cached = templatesById.get(attachment.getId());
+            if (cached != null && cached.source.equals(attachment.getHtmlContent())) {
+                return cached;
+            }
+        }
+        return compile(attachment);
+    }
+
+    /**
+     * Drops the cached entry for one template and the cached default.
+     *
+     * @param id The payment attachment ID that changed
+     */
+    public void invalidate(Long id) {
+        if (id != null) {
+            templatesById.remove(id);
+        }
+        defaultTemplate = null;
+    }
+
+    /**
+     * Drops every cached template. Used when a change can affect more than one row,
+     * such as switching the default template.
+     */
+    public void invalidateAll() {
+        templatesById.clear();
+        defaultTemplate = null;
+        System.out.println("🔄 Payment attachment template cache cleared");
+    }
+
+    private CompiledTemplate compile(PaymentAttachment attachment) {
+        CompiledTemplate compiled = new CompiledTemplate(attachment);
+        if (attachment.getId() != null) {
+            templatesById.put(attachment.getId(), compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Payment attachment HTML pre-split into literal and {{VARIABLE}} segments.
+     * Instances are immutable and safe to share between generation threads.
+     */
+    public static final class CompiledTemplate {
+
+        private final PaymentAttachment attachment;
+        private final String source;
+        private final String[] literals;
+        private final String[] keys;
+        private final int literalLength;
+
+        private CompiledTemplate(PaymentAttachment attachment) {
+            this.attachment = attachment;
+            this.source = attachment.getHtmlContent() != null ? attachment.getHtmlContent() : "";
+
+            List<String> literalParts = new ArrayList<>();
+            List<String> keyParts = new ArrayList<>();
+            int length = 0;
+            int position = 0;
+
+            while (true) {
+                int start = source.indexOf(PLACEHOLDER_START, position);
+                int end = start < 0 ? -1 : source.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+                if (end < 0) {
+                    break;
+                }
+                String literal = source.substring(position, start);
+                literalParts.add(literal);
+                keyParts.add(source.substring(start + PLACEHOLDER_START.length(), end));
+                length += literal.length();
+                position = end + PLACEHOLDER_END.length();
+            }
+
+            String tail = source.substring(position);
+            literalParts.add(tail);
+            length += tail.length();
+
+            this.literals = literalParts.toArray(new String[0]);
+            this.keys = keyParts.toArray(new String[0]);
+            this.literalLength = length;
+        }
+
+        /**
+         * Renders the template in a single pass. Placeholders without a matching
+         * variable are left in place, the same as the previous replace-based processing.
+         *
+         * @param variables Map of variable names (without braces) to values
+         * @return Rendered HTML
+         */
+        public String render(Map<String, String> variables) {
+            StringBuilder result = new StringBuilder(literalLength + keys.length * 32);
+            for (int i = 0; i < keys.length; i++) {
+                result.append(literals[i]);
+                if (variables.containsKey(keys[i])) {
+                    String value = variables.get(keys[i]);
+                    result.append(value != null ? value : "");
+                } else {
+                    result.append(PLACEHOLDER_START).append(keys[i]).append(PLACEHOLDER_END);
+                }
+            }
+            result.append(literals[literals.length - 1]);
+            return result.toString();
+        }
+
+        public PaymentAttachment getAttachment() {
+            return attachment;
+        }
+
+        public boolean isEmpty() {
+            return source.trim().isEmpty();
+        }
+    }
+}
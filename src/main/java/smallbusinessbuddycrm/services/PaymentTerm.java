@@ -0,0 +1,75 @@
+package smallbusinessbuddycrm.services;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Billing period for membership fees.
+ *
+ * Bulk slip generation uses the current term to tell which contacts already got a
+ * slip for a template and to name the email campaign, so one term's slips are sent
+ * once. The term is set with PAYMENT_TERM in .env (MONTH, QUARTER or YEAR) and
+ * defaults to MONTH; an unknown value falls back to the default.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public enum PaymentTerm {
+
+    MONTH,
+    QUARTER,
+    YEAR;
+
+    public static final PaymentTerm DEFAULT = MONTH;
+
+    private static volatile PaymentTerm configured;
+
+    /**
+     * The term set in .env, read once.
+     */
+    public static PaymentTerm configured() {
+        PaymentTerm term = configured;
+        if (term == null) {
+            Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+            term = parse(dotenv.get("PAYMENT_TERM"));
+            configured = term;
+        }
+        return term;
+    }
+
+    /**
+     * Start of the configured term that contains today.
+     */
+    public static LocalDateTime currentTermStart() {
+        return configured().startOf(LocalDate.now());
+    }
+
+    /**
+     * Start of the term that contains a date.
+     *
+     * @param date Any day of the term
+     * @return Midnight on the term's first day
+     */
+    public LocalDateTime startOf(LocalDate date) {
+        return switch (this) {
+            case MONTH -> date.withDayOfMonth(1).atStartOfDay();
+            case QUARTER -> date.withMonth((date.getMonthValue() - 1) / 3 * 3 + 1).withDayOfMonth(1).atStartOfDay();
+            case YEAR -> date.withDayOfYear(1).atStartOfDay();
+        };
+    }
+
+    static PaymentTerm parse(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown PAYMENT_TERM '" + value + "', using " + DEFAULT);
+            return DEFAULT;
+        }
+    }
+}
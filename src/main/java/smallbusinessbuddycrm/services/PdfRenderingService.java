@@ -0,0 +1,260 @@
+package smallbusinessbuddycrm.services;
+
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.html2pdf.resolver.font.DefaultFontProvider;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+
+import smallbusinessbuddycrm.services.metrics.Histogram;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
+import smallbusinessbuddycrm.services.metrics.Timer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared HTML to PDF rendering pipeline for payment slips.
+ *
+ * HtmlConverter.convertToPdf(String, OutputStream) builds a new font provider and
+ * CSS resolver on every call, which dominates bulk slip export. This service builds
+ * ConverterProperties with a DefaultFontProvider once per worker thread (iText font
+ * providers are not safe to share between concurrent conversions), renders batches
+ * on a bounded worker pool, and records how long each document took in the
+ * metrics registry (pdf.render, pdf.bytes and pdf.batch).
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class PdfRenderingService {
+
+    private static volatile PdfRenderingService instance;
+
+    private final ExecutorService workerPool;
+    private final int workerCount;
+
+    private final ThreadLocal<ConverterProperties> converterProperties =
+            ThreadLocal.withInitial(PdfRenderingService::createConverterProperties);
+
+    private final Timer renderTimer = MetricsRegistry.getInstance().timer("pdf.render");
+    private final Histogram pdfBytes = MetricsRegistry.getInstance().histogram("pdf.bytes");
+    private final Timer batchTimer = MetricsRegistry.getInstance().timer("pdf.batch");
+
+    private PdfRenderingService() {
+        this.workerCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.workerPool = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "pdf-render-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static PdfRenderingService getInstance() {
+        if (instance == null) {
+            synchronized (PdfRenderingService.class) {
+                if (instance == null) {
+                    instance = new PdfRenderingService();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static ConverterProperties createConverterProperties() {
+        ConverterProperties properties = new ConverterProperties();
+        // Same font set HtmlConverter uses by default: standard PDF fonts plus the
+        // fonts shipped with html2pdf, without scanning system font directories.
+        properties.setFontProvider(new DefaultFontProvider(true, true, false));
+        return properties;
+    }
+
+    /**
+     * Renders HTML to an in-memory PDF on the calling thread.
+     *
+     * @param htmlContent HTML document to convert
+     * @return PDF bytes
+     * @throws IOException if conversion fails
+     */
+    public byte[] renderToBytes(String htmlContent) throws IOException {
+        return render(htmlContent).getPdfContent();
+    }
+
+    /**
+     * Renders HTML to an in-memory PDF on the calling thread and returns the timing with it.
+     *
+     * @param htmlContent HTML document to convert
+     * @return Render result with PDF bytes and duration
+     * @throws IOException if conversion fails
+     */
+    public RenderResult render(String htmlContent) throws IOException {
+        return render(htmlContent, null);
+    }
+
+    /**
+     * Renders HTML to an in-memory PDF using a specific default page size.
+     * Used when slips are rendered onto a page sized for the slip rather than A4.
+     *
+     * @param htmlContent HTML document to convert
+     * @param pageSize Default page size, or null for the html2pdf default (A4)
+     * @return Render result with PDF bytes and duration
+     * @throws IOException if conversion fails
+     */
+    public RenderResult render(String htmlContent, PageSize pageSize) throws IOException {
+        ByteArrayOutputStream pdfOutputStream = new ByteArrayOutputStream();
+        long nanos = convert(htmlContent, pdfOutputStream, pageSize);
+        pdfBytes.record(pdfOutputStream.size());
+        return new RenderResult(pdfOutputStream.toByteArray(), nanos);
+    }
+
+    /**
+     * Renders HTML straight to a file on the calling thread.
+     *
+     * @param htmlContent HTML document to convert
+     * @param file Output PDF file
+     * @return Render duration in milliseconds
+     * @throws IOException if conversion or writing fails
+     */
+    public long renderToFile(String htmlContent, File file) throws IOException {
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            return convert(htmlContent, outputStream, null) / 1_000_000;
+        }
+    }
+
+    /**
+     * Queues a file render on the worker pool.
+     *
+     * @param htmlContent HTML document to convert
+     * @param file Output PDF file
+     * @return Future completing with the render duration in milliseconds
+     */
+    public CompletableFuture<Long> renderToFileAsync(String htmlContent, File file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return renderToFile(htmlContent, file);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, workerPool);
+    }
+
+    /**
+     * Renders many documents in parallel on the worker pool.
+     * The returned map keeps the iteration order of the input map.
+     *
+     * @param htmlByKey HTML documents keyed by caller-defined keys
+     * @return Render results in input order
+     * @throws IOException if any document fails to convert
+     */
+    public <K> Map<K, RenderResult> renderAll(Map<K, String> htmlByKey) throws IOException {
+        return renderAll(htmlByKey, null);
+    }
+
+    /**
+     * Renders many documents in parallel on the worker pool using a specific default page size.
+     *
+     * @param htmlByKey HTML documents keyed by caller-defined keys
+     * @param pageSize Default page size, or null for the html2pdf default (A4)
+     * @return Render results in input order
+     * @throws IOException if any document fails to convert
+     */
+    public <K> Map<K, RenderResult> renderAll(Map<K, String> htmlByKey, PageSize pageSize) throws IOException {
+        long batchStart = System.nanoTime();
+        List<K> keys = new ArrayList<>(htmlByKey.keySet());
+        List<CompletableFuture<RenderResult>> futures = new ArrayList<>(keys.size());
+
+        for (K key : keys) {
+            String htmlContent = htmlByKey.get(key);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return render(htmlContent, pageSize);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, workerPool));
+        }
+
+        Map<K, RenderResult> results = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                results.put(keys.get(i), futures.get(i).join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+
+        long batchNanos = System.nanoTime() - batchStart;
+        batchTimer.recordNanos(batchNanos);
+        long batchMillis = batchNanos / 1_000_000;
+        System.out.println("📄 Rendered " + results.size() + " PDFs in " + batchMillis + " ms on " +
+                workerCount + " worker(s)");
+        return results;
+    }
+
+    private long convert(String htmlContent, OutputStream outputStream, PageSize pageSize) throws IOException {
+        long start = System.nanoTime();
+        if (pageSize == null) {
+            HtmlConverter.convertToPdf(htmlContent, outputStream, converterProperties.get());
+        } else {
+            PdfDocument pdfDocument = new PdfDocument(new PdfWriter(outputStream));
+            pdfDocument.setDefaultPageSize(pageSize);
+            HtmlConverter.convertToPdf(htmlContent, pdfDocument, converterProperties.get());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        renderTimer.recordNanos(elapsed);
+        return elapsed;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public long getDocumentsRendered() {
+        return renderTimer.getCount();
+    }
+
+    public double getAverageRenderMillis() {
+        return renderTimer.getMeanMillis();
+    }
+
+    public long getMaxRenderMillis() {
+        return (long) renderTimer.getMaxMillis();
+    }
+
+    /**
+     * A rendered PDF document together with how long the conversion took.
+     */
+    public static class RenderResult {
+        private final byte[] pdfContent;
+        private final long renderNanos;
+
+        public RenderResult(byte[] pdfContent, long renderNanos) {
+            this.pdfContent = pdfContent;
+            this.renderNanos = renderNanos;
+        }
+
+        public byte[] getPdfContent() {
+            return pdfContent;
+        }
+
+        public long getRenderMillis() {
+            return renderNanos / 1_000_000;
+        }
+    }
+}
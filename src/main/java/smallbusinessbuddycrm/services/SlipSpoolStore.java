@@ -0,0 +1,298 @@
+package smallbusinessbuddycrm.services;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed spool for generated payment slip artifacts.
+ *
+ * Bulk generation used to keep every slip's HTML (with an embedded base64 background)
+ * and full barcode BufferedImage on the heap until the dialog closed. The spool writes
+ * HTML, barcode PNG and PDF artifacts to a private temp directory as they are produced
+ * and keeps only a small handle per slip; email and export stages read them back on
+ * demand. The directory is deleted on close, or at JVM exit if close is never called.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class SlipSpoolStore implements AutoCloseable {
+
+    private final Path spoolDirectory;
+    private final Map<String, SlipHandle> handles = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final Thread cleanupHook;
+
+    /**
+     * Creates a spool in a fresh temp directory.
+     *
+     * @param prefix Directory name prefix, used to tell spools apart on disk
+     * @throws UncheckedIOException if the temp directory cannot be created
+     */
+    public SlipSpoolStore(String prefix) {
+        try {
+            this.spoolDirectory = Files.createTempDirectory(prefix);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create slip spool directory", e);
+        }
+        this.cleanupHook = new Thread(this::deleteSpoolDirectory, "slip-spool-cleanup");
+        Runtime.getRuntime().addShutdownHook(cleanupHook);
+        System.out.println("📁 Slip spool created: " + spoolDirectory);
+    }
+
+    /**
+     * Stores the HTML for a slip, replacing any earlier HTML for the same key.
+     *
+     * @param key Slip key
+     * @param html Slip HTML
+     * @throws IOException if writing fails
+     */
+    public void putHtml(String key, String html) throws IOException {
+        SlipHandle handle = handleFor(key);
+        Files.writeString(handle.htmlPath, html, StandardCharsets.UTF_8);
+        handle.hasHtml = true;
+        bytesWritten.addAndGet(Files.size(handle.htmlPath));
+    }
+
+    /**
+     * Stores the barcode image for a slip as PNG.
+     *
+     * @param key Slip key
+     * @param barcodeImage Barcode image
+     * @throws IOException if encoding or writing fails
+     */
+    public void putBarcode(String key, BufferedImage barcodeImage) throws IOException {
+        SlipHandle handle = handleFor(key);
+        ImageIO.write(barcodeImage, "png", handle.barcodePath.toFile());
+        handle.hasBarcode = true;
+        bytesWritten.addAndGet(Files.size(handle.barcodePath));
+    }
+
+    /**
+     * Stores a rendered PDF for a slip.
+     *
+     * @param key Slip key
+     * @param pdfContent PDF bytes
+     * @throws IOException if writing fails
+     */
+    public void putPdf(String key, byte[] pdfContent) throws IOException {
+        SlipHandle handle = handleFor(key);
+        Files.write(handle.pdfPath, pdfContent);
+        handle.hasPdf = true;
+        bytesWritten.addAndGet(pdfContent.length);
+    }
+
+    /**
+     * Reads a slip's HTML back from disk.
+     *
+     * @param key Slip key
+     * @return Slip HTML, or null if none was stored or it cannot be read
+     */
+    public String getHtml(String key) {
+        SlipHandle handle = handles.get(key);
+        if (handle == null || !handle.hasHtml) {
+            return null;
+        }
+        try {
+            return Files.readString(handle.htmlPath, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Error reading spooled slip HTML for " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads a slip's barcode image back from disk.
+     *
+     * @param key Slip key
+     * @return Barcode image, or null if none was stored or it cannot be read
+     */
+    public BufferedImage getBarcode(String key) {
+        SlipHandle handle = handles.get(key);
+        if (handle == null || !handle.hasBarcode) {
+            return null;
+        }
+        try {
+            return ImageIO.read(handle.barcodePath.toFile());
+        } catch (IOException e) {
+            System.err.println("Error reading spooled barcode for " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads a slip's rendered PDF back from disk.
+     *
+     * @param key Slip key
+     * @return PDF bytes, or null if none was stored or it cannot be read
+     */
+    public byte[] getPdf(String key) {
+        SlipHandle handle = handles.get(key);
+        if (handle == null || !handle.hasPdf) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(handle.pdfPath);
+        } catch (IOException e) {
+            System.err.println("Error reading spooled PDF for " + key + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Copies a slip's rendered PDF to another file without reading it into memory.
+     *
+     * @param key Slip key
+     * @param target File to write
+     * @return false if no PDF was stored for the slip
+     * @throws IOException if copying fails
+     */
+    public boolean copyPdfTo(String key, Path target) throws IOException {
+        SlipHandle handle = handles.get(key);
+        if (handle == null || !handle.hasPdf) {
+            return false;
+        }
+        Files.copy(handle.pdfPath, target, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    /**
+     * Copies a slip's barcode PNG to another file.
+     *
+     * @param key Slip key
+     * @param target File to write
+     * @return false if no barcode was stored for the slip
+     * @throws IOException if copying fails
+     */
+    public boolean copyBarcodeTo(String key, Path target) throws IOException {
+        SlipHandle handle = handles.get(key);
+        if (handle == null || !handle.hasBarcode) {
+            return false;
+        }
+        Files.copy(handle.barcodePath, target, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    public boolean hasPdf(String key) {
+        SlipHandle handle = handles.get(key);
+        return handle != null && handle.hasPdf;
+    }
+
+    public boolean hasBarcode(String key) {
+        SlipHandle handle = handles.get(key);
+        return handle != null && handle.hasBarcode;
+    }
+
+    /**
+     * Slip keys in the order they were first stored.
+     *
+     * @return Snapshot of the stored keys
+     */
+    public List<String> keys() {
+        synchronized (handles) {
+            return new ArrayList<>(handles.keySet());
+        }
+    }
+
+    public boolean isEmpty() {
+        return handles.isEmpty();
+    }
+
+    public int size() {
+        return handles.size();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Deletes every spooled artifact but keeps the spool open for reuse.
+     */
+    public void clear() {
+        List<SlipHandle> removed;
+        synchronized (handles) {
+            removed = new ArrayList<>(handles.values());
+            handles.clear();
+        }
+        for (SlipHandle handle : removed) {
+            deleteQuietly(handle.htmlPath);
+            deleteQuietly(handle.barcodePath);
+            deleteQuietly(handle.pdfPath);
+        }
+        bytesWritten.set(0);
+    }
+
+    @Override
+    public void close() {
+        handles.clear();
+        deleteSpoolDirectory();
+        try {
+            Runtime.getRuntime().removeShutdownHook(cleanupHook);
+        } catch (IllegalStateException e) {
+            // JVM is already shutting down; the hook is running or has run
+        }
+    }
+
+    private SlipHandle handleFor(String key) {
+        synchronized (handles) {
+            return handles.computeIfAbsent(key, k -> {
+                String baseName = String.format("slip-%06d", sequence.incrementAndGet());
+                return new SlipHandle(spoolDirectory.resolve(baseName + ".html"),
+                        spoolDirectory.resolve(baseName + ".png"),
+                        spoolDirectory.resolve(baseName + ".pdf"));
+            });
+        }
+    }
+
+    private void deleteSpoolDirectory() {
+        if (!Files.exists(spoolDirectory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            files.forEach(SlipSpoolStore::deleteQuietly);
+        } catch (IOException e) {
+            System.err.println("Error cleaning slip spool " + spoolDirectory + ": " + e.getMessage());
+        }
+        deleteQuietly(spoolDirectory);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Could not delete spooled file " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * On-disk locations of one slip's artifacts.
+     */
+    private static class SlipHandle {
+        private final Path htmlPath;
+        private final Path barcodePath;
+        private final Path pdfPath;
+        private volatile boolean hasHtml;
+        private volatile boolean hasBarcode;
+        private volatile boolean hasPdf;
+
+        SlipHandle(Path htmlPath, Path barcodePath, Path pdfPath) {
+            this.htmlPath = htmlPath;
+            this.barcodePath = barcodePath;
+            this.pdfPath = pdfPath;
+        }
+    }
+}
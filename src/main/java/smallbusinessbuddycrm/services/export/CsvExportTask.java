@@ -0,0 +1,109 @@
+package smallbusinessbuddycrm.services.export;
+
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Background task writing a CSV export to a file, with progress and cancellation.
+ *
+ * Subclasses write their rows in export(), typically from a streaming DAO method such
+ * as ContactDAO.forEachContact, and call rowRead() for every row the cursor returns.
+ * Memory use does not depend on the number of rows.
+ *
+ * Features:
+ * - Progress against the expected number of rows, updated every PROGRESS_INTERVAL rows
+ * - Cancellation stops the cursor at the next row
+ * - The file is written next to the target as "name.part" and only moved over the
+ *   target when the export is complete, so a cancelled or failed export leaves no
+ *   half-written file behind
+ *
+ * The task's value is the number of rows written, without the header.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public abstract class CsvExportTask extends Task<Long> {
+
+    private static final int PROGRESS_INTERVAL = 500;
+
+    private final File target;
+    private final long expectedRows;
+    private long rowsRead;
+
+    /**
+     * @param target File to write
+     * @param expectedRows Rows the cursor is expected to return, or 0 if unknown
+     */
+    protected CsvExportTask(File target, long expectedRows) {
+        this.target = target;
+        this.expectedRows = expectedRows;
+    }
+
+    /**
+     * Writes the export.
+     *
+     * @param csv Writer of the temporary file
+     * @return Number of rows written, without the header
+     */
+    protected abstract long export(CsvWriter csv) throws Exception;
+
+    /**
+     * Counts a row read from the cursor and updates the progress.
+     *
+     * @return false once the task is cancelled, to stop the cursor
+     */
+    protected boolean rowRead() {
+        rowsRead++;
+        if (rowsRead % PROGRESS_INTERVAL == 0 && expectedRows > 0) {
+            updateProgress(Math.min(rowsRead, expectedRows), expectedRows);
+        }
+        return !isCancelled();
+    }
+
+    public File getTarget() {
+        return target;
+    }
+
+    @Override
+    protected final Long call() throws Exception {
+        Path targetPath = target.toPath();
+        Path partPath = targetPath.resolveSibling(targetPath.getFileName() + ".part");
+        boolean moved = false;
+
+        try {
+            long written;
+            try (CsvWriter csv = new CsvWriter(Files.newOutputStream(partPath))) {
+                written = export(csv);
+            }
+            if (isCancelled()) {
+                return written;
+            }
+
+            Files.move(partPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+            updateProgress(1, 1);
+            return written;
+
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (!moved) {
+                deletePart(partPath);
+            }
+        }
+    }
+
+    private static void deletePart(Path partPath) {
+        try {
+            Files.deleteIfExists(partPath);
+        } catch (IOException e) {
+            System.err.println("Error deleting incomplete export " + partPath + ": " + e.getMessage());
+        }
+    }
+}
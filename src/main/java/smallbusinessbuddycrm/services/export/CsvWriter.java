@@ -0,0 +1,133 @@
+package smallbusinessbuddycrm.services.export;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered UTF-8 CSV writer for exports of any size.
+ *
+ * Features:
+ * - Fields are escaped straight into a 64 KB buffer, without a String per field or line
+ * - Values with commas, quotes or line breaks are quoted, quotes are doubled (RFC 4180)
+ * - UTF-8 byte order mark, so Excel reads Croatian characters correctly
+ * - "# " comment lines for information above the header
+ *
+ * Writing methods throw UncheckedIOException, so rows can be written from DAO row
+ * handlers while the database cursor is open. CsvExportTask reports its cause.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public final class CsvWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    public CsvWriter(OutputStream stream) {
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Writes the UTF-8 byte order mark; call before anything else.
+     */
+    public CsvWriter writeBom() {
+        return write("\ufeff");
+    }
+
+    /**
+     * Writes a "# " comment line.
+     */
+    public CsvWriter comment(String text) {
+        write("# ");
+        write(text != null ? text : "");
+        return write(LINE_SEPARATOR);
+    }
+
+    public CsvWriter blankLine() {
+        return write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes a whole row.
+     */
+    public CsvWriter row(String... values) {
+        for (String value : values) {
+            field(value);
+        }
+        return endRow();
+    }
+
+    /**
+     * Appends a field to the current row; null is written as an empty field.
+     */
+    public CsvWriter field(String value) {
+        try {
+            if (!firstField) {
+                out.write(',');
+            }
+            firstField = false;
+            if (value == null || value.isEmpty()) {
+                return this;
+            }
+            if (!needsQuotes(value)) {
+                out.write(value);
+                return this;
+            }
+
+            out.write('"');
+            int start = 0;
+            int quote;
+            while ((quote = value.indexOf('"', start)) >= 0) {
+                out.write(value, start, quote + 1 - start);
+                out.write('"');
+                start = quote + 1;
+            }
+            out.write(value, start, value.length() - start);
+            out.write('"');
+            return this;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ends the current row.
+     */
+    public CsvWriter endRow() {
+        firstField = true;
+        return write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CsvWriter write(String text) {
+        try {
+            out.write(text);
+            return this;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package smallbusinessbuddycrm.services.google;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that slows down when the server pushes back.
+ *
+ * Tokens refill at the current rate up to a small burst. A throttling response
+ * (429 or 5xx) halves the rate and pauses all callers until the server's
+ * Retry-After time has passed; each run of successful sends then raises the rate
+ * again in small steps, up to the configured maximum.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class AdaptiveRateLimiter {
+
+    private static final double RATE_INCREASE_STEP = 0.1;
+    private static final double RATE_DECREASE_FACTOR = 0.5;
+
+    private final double minRate;
+    private final double maxRate;
+    private final double burstSize;
+    private final LongSupplier nanoClock;
+
+    private double currentRate;
+    private double availableTokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    private int successStreak;
+
+    /**
+     * @param initialRate Permits per second to start with
+     * @param minRate Lowest rate the limiter backs off to
+     * @param maxRate Highest rate the limiter recovers to
+     * @param burstSize Largest number of permits that can be taken at once after an idle period
+     */
+    public AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, double burstSize) {
+        this(initialRate, minRate, maxRate, burstSize, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock Monotonic time source in nanoseconds; tests pass a manual clock
+     */
+    AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, double burstSize, LongSupplier nanoClock) {
+        if (minRate <= 0 || maxRate < minRate || burstSize < 1) {
+            throw new IllegalArgumentException("Invalid rate limiter settings");
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.burstSize = burstSize;
+        this.nanoClock = nanoClock;
+        this.currentRate = Math.max(minRate, Math.min(maxRate, initialRate));
+        this.availableTokens = 1;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Blocks until a permit is available and no server-requested pause is active.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (true) {
+            refill();
+            long now = nanoClock.getAsLong();
+
+            long waitNanos;
+            if (now < pausedUntilNanos) {
+                waitNanos = pausedUntilNanos - now;
+            } else if (availableTokens >= 1) {
+                availableTokens -= 1;
+                return;
+            } else {
+                waitNanos = (long) ((1 - availableTokens) / currentRate * 1_000_000_000L);
+            }
+
+            // wait(0) would block forever
+            wait(Math.max(1, waitNanos / 1_000_000));
+        }
+    }
+
+    /**
+     * Records a successful request. Every run of successes as long as the current
+     * rate raises the rate by one step.
+     */
+    public synchronized void onSuccess() {
+        successStreak++;
+        if (successStreak >= Math.max(1, (int) Math.ceil(currentRate)) && currentRate < maxRate) {
+            currentRate = Math.min(maxRate, currentRate + RATE_INCREASE_STEP);
+            successStreak = 0;
+        }
+    }
+
+    /**
+     * Records a throttling response: halves the rate, drops saved-up tokens and
+     * pauses every caller for the given time.
+     *
+     * @param pauseMillis How long to pause, usually taken from Retry-After
+     */
+    public synchronized void onThrottle(long pauseMillis) {
+        refill();
+        successStreak = 0;
+        currentRate = Math.max(minRate, currentRate * RATE_DECREASE_FACTOR);
+        availableTokens = 0;
+        pausedUntilNanos = Math.max(pausedUntilNanos, nanoClock.getAsLong() + pauseMillis * 1_000_000L);
+        notifyAll();
+    }
+
+    public synchronized double getCurrentRate() {
+        return currentRate;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+        availableTokens = Math.min(burstSize, availableTokens + elapsedSeconds * currentRate);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,240 @@
+package smallbusinessbuddycrm.services.google;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Delivery telemetry for one email campaign.
+ *
+ * Every send attempt reported by the outbox dispatcher is folded into running
+ * totals: outcome, HTTP status, message bytes, rate limiter wait and Gmail latency.
+ * Latencies go into a fixed-bucket histogram, so percentiles cost the same no
+ * matter how many emails were sent. Throughput is measured over the last minute
+ * of completions, which is what the ETA is based on.
+ *
+ * Metrics live in memory for the running application; the outbox table remains
+ * the record of which recipients were reached.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class CampaignMetrics {
+
+    // Upper bounds of the latency buckets in milliseconds; the last bucket is open-ended
+    private static final long[] LATENCY_BUCKET_BOUNDS = {50, 100, 200, 300, 500, 750, 1000, 1500, 2000, 3000, 5000, 10000, 30000};
+    private static final long THROUGHPUT_WINDOW_MILLIS = 60_000;
+
+    private final String campaignId;
+    private final long startedAt = System.currentTimeMillis();
+
+    private final long[] latencyBuckets = new long[LATENCY_BUCKET_BOUNDS.length + 1];
+    private final Map<Integer, Integer> statusCounts = new TreeMap<>();
+    private final Deque<Long> recentCompletions = new ArrayDeque<>();
+
+    private int sent;
+    private int failed;
+    private int retried;
+    private int attempts;
+    private long bytesSent;
+    private long totalLatencyMillis;
+    private long maxLatencyMillis;
+    private long rateLimitWaitMillis;
+    private long lastActivityAt;
+
+    public CampaignMetrics(String campaignId) {
+        this.campaignId = campaignId;
+    }
+
+    /**
+     * Records one attempt.
+     *
+     * @param result Result from the send engine
+     * @param retryScheduled true if the email went back to the queue for another attempt
+     */
+    public synchronized void record(GmailSendEngine.SendResult result, boolean retryScheduled) {
+        long now = System.currentTimeMillis();
+        lastActivityAt = now;
+        attempts++;
+        statusCounts.merge(result.getStatusCode(), 1, Integer::sum);
+        rateLimitWaitMillis += result.getRateLimitWaitMillis();
+
+        // Attempts that never reached Gmail have no latency to report
+        if (result.getStatusCode() > 0) {
+            long latency = result.getElapsedMillis();
+            latencyBuckets[bucketFor(latency)]++;
+            totalLatencyMillis += latency;
+            maxLatencyMillis = Math.max(maxLatencyMillis, latency);
+        }
+
+        if (result.isSuccess()) {
+            sent++;
+            bytesSent += result.getMessageBytes();
+        } else if (retryScheduled) {
+            retried++;
+            return;
+        } else {
+            failed++;
+        }
+
+        recentCompletions.addLast(now);
+        trimWindow(now);
+    }
+
+    public String getCampaignId() {
+        return campaignId;
+    }
+
+    /**
+     * Consistent copy of the current values, for display.
+     */
+    public synchronized Snapshot snapshot() {
+        long now = System.currentTimeMillis();
+        trimWindow(now);
+
+        // Before a full window has passed, measure over the time since the first send
+        long window = Math.min(THROUGHPUT_WINDOW_MILLIS, Math.max(1, now - startedAt));
+        double perMinute = recentCompletions.size() * 60_000.0 / window;
+        // A campaign that went quiet has no current throughput
+        if (lastActivityAt > 0 && now - lastActivityAt > THROUGHPUT_WINDOW_MILLIS) {
+            perMinute = 0;
+        }
+
+        long latencyCount = 0;
+        for (long bucket : latencyBuckets) {
+            latencyCount += bucket;
+        }
+
+        return new Snapshot(campaignId, startedAt, sent, failed, retried, attempts, bytesSent,
+                latencyCount > 0 ? totalLatencyMillis / latencyCount : 0,
+                percentile(0.50, latencyCount), percentile(0.95, latencyCount), maxLatencyMillis,
+                rateLimitWaitMillis, perMinute, latencyBuckets.clone(), new TreeMap<>(statusCounts));
+    }
+
+    /**
+     * Human-readable labels of the latency buckets, in histogram order.
+     */
+    public static String[] getLatencyBucketLabels() {
+        String[] labels = new String[LATENCY_BUCKET_BOUNDS.length + 1];
+        for (int i = 0; i < LATENCY_BUCKET_BOUNDS.length; i++) {
+            labels[i] = "≤ " + LATENCY_BUCKET_BOUNDS[i] + " ms";
+        }
+        labels[LATENCY_BUCKET_BOUNDS.length] = "> " + LATENCY_BUCKET_BOUNDS[LATENCY_BUCKET_BOUNDS.length - 1] + " ms";
+        return labels;
+    }
+
+    private static int bucketFor(long latencyMillis) {
+        for (int i = 0; i < LATENCY_BUCKET_BOUNDS.length; i++) {
+            if (latencyMillis <= LATENCY_BUCKET_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKET_BOUNDS.length;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile; the open-ended bucket
+     * reports the largest latency seen.
+     */
+    private long percentile(double fraction, long count) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < latencyBuckets.length; i++) {
+            seen += latencyBuckets[i];
+            if (seen >= rank) {
+                return i < LATENCY_BUCKET_BOUNDS.length ? Math.min(LATENCY_BUCKET_BOUNDS[i], maxLatencyMillis) : maxLatencyMillis;
+            }
+        }
+        return maxLatencyMillis;
+    }
+
+    private void trimWindow(long now) {
+        while (!recentCompletions.isEmpty() && now - recentCompletions.peekFirst() > THROUGHPUT_WINDOW_MILLIS) {
+            recentCompletions.removeFirst();
+        }
+    }
+
+    /**
+     * Campaign metrics at one point in time.
+     */
+    public static class Snapshot {
+        private final String campaignId;
+        private final long startedAt;
+        private final int sent;
+        private final int failed;
+        private final int retried;
+        private final int attempts;
+        private final long bytesSent;
+        private final long averageLatencyMillis;
+        private final long p50LatencyMillis;
+        private final long p95LatencyMillis;
+        private final long maxLatencyMillis;
+        private final long rateLimitWaitMillis;
+        private final double emailsPerMinute;
+        private final long[] latencyHistogram;
+        private final Map<Integer, Integer> statusCounts;
+
+        Snapshot(String campaignId, long startedAt, int sent, int failed, int retried, int attempts,
+                 long bytesSent, long averageLatencyMillis, long p50LatencyMillis, long p95LatencyMillis,
+                 long maxLatencyMillis, long rateLimitWaitMillis, double emailsPerMinute,
+                 long[] latencyHistogram, Map<Integer, Integer> statusCounts) {
+            this.campaignId = campaignId;
+            this.startedAt = startedAt;
+            this.sent = sent;
+            this.failed = failed;
+            this.retried = retried;
+            this.attempts = attempts;
+            this.bytesSent = bytesSent;
+            this.averageLatencyMillis = averageLatencyMillis;
+            this.p50LatencyMillis = p50LatencyMillis;
+            this.p95LatencyMillis = p95LatencyMillis;
+            this.maxLatencyMillis = maxLatencyMillis;
+            this.rateLimitWaitMillis = rateLimitWaitMillis;
+            this.emailsPerMinute = emailsPerMinute;
+            this.latencyHistogram = latencyHistogram;
+            this.statusCounts = statusCounts;
+        }
+
+        public String getCampaignId() { return campaignId; }
+        public long getStartedAt() { return startedAt; }
+        public int getSent() { return sent; }
+        public int getFailed() { return failed; }
+        /** Attempts that failed temporarily and were queued again. */
+        public int getRetried() { return retried; }
+        public int getAttempts() { return attempts; }
+        public long getBytesSent() { return bytesSent; }
+        public long getAverageLatencyMillis() { return averageLatencyMillis; }
+        public long getP50LatencyMillis() { return p50LatencyMillis; }
+        public long getP95LatencyMillis() { return p95LatencyMillis; }
+        public long getMaxLatencyMillis() { return maxLatencyMillis; }
+        /** Total time emails waited for the rate limiter. */
+        public long getRateLimitWaitMillis() { return rateLimitWaitMillis; }
+        /** Completed emails per minute over the last minute. */
+        public double getEmailsPerMinute() { return emailsPerMinute; }
+        /** Attempt counts per latency bucket, see getLatencyBucketLabels. */
+        public long[] getLatencyHistogram() { return latencyHistogram.clone(); }
+        /** Attempt counts per HTTP status; 0 means no response was received. */
+        public Map<Integer, Integer> getStatusCounts() { return Collections.unmodifiableMap(statusCounts); }
+
+        /**
+         * Estimated time to send the remaining emails at the current throughput.
+         *
+         * @param remaining Emails still queued or being sent
+         * @return Milliseconds, or -1 if there is no throughput to estimate from
+         */
+        public long estimateRemainingMillis(int remaining) {
+            if (remaining <= 0) {
+                return 0;
+            }
+            if (emailsPerMinute <= 0) {
+                return -1;
+            }
+            return (long) (remaining / emailsPerMinute * 60_000);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package smallbusinessbuddycrm.services.google;
+
+import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.utilities.TemplateProcessor;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders a newsletter campaign once and personalizes it per recipient.
+ *
+ * The plain text alternative is derived from the HTML once, and the complete
+ * multipart/alternative message is compiled into a skeleton of literal segments and
+ * slots. Rendering a recipient's message only concatenates the segments with the
+ * recipient address and any {{contact_attributes.*}} values, so the per-recipient
+ * cost is a single StringBuilder pass with no regex work.
+ *
+ * Slot values are taken from the contact through TemplateProcessor, the same way
+ * payment slip descriptions are filled. Values are HTML-escaped in the HTML part and
+ * stripped of line breaks in the Subject header. Other {{...}} markers are left as
+ * they are, as before.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class CampaignRenderer {
+
+    private static final Pattern SLOT_PATTERN = Pattern.compile("\\{\\{contact_attributes\\.([a-z_]+)\\}\\}");
+
+    // HTML to text conversion, compiled once instead of on every send
+    private static final Pattern BR_PATTERN = Pattern.compile("(?i)<br\\s*/?\\s*>");
+    private static final Pattern P_OPEN_PATTERN = Pattern.compile("(?i)<p\\s*[^>]*>");
+    private static final Pattern P_CLOSE_PATTERN = Pattern.compile("(?i)</p>");
+    private static final Pattern H_OPEN_PATTERN = Pattern.compile("(?i)<h[1-6]\\s*[^>]*>");
+    private static final Pattern H_CLOSE_PATTERN = Pattern.compile("(?i)</h[1-6]>");
+    private static final Pattern LI_OPEN_PATTERN = Pattern.compile("(?i)<li\\s*[^>]*>");
+    private static final Pattern LI_CLOSE_PATTERN = Pattern.compile("(?i)</li>");
+    private static final Pattern LINK_PATTERN = Pattern.compile("(?i)<a\\s+[^>]*href=\"([^\"]*)\"[^>]*>([^<]*)</a>");
+    private static final Pattern TAG_PATTERN = Pattern.compile("(?i)<[^>]*>");
+    private static final Pattern BLANK_LINES_PATTERN = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern LEADING_SPACE_PATTERN = Pattern.compile("^\\s+");
+
+    private enum SegmentType { LITERAL, RECIPIENT, HEADER_SLOT, TEXT_SLOT, HTML_SLOT }
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final Set<String> slotNames = new LinkedHashSet<>();
+    private final String plainTextBody;
+    private int literalLength;
+
+    /**
+     * Compiles the campaign. Done once per campaign, not per recipient.
+     *
+     * @param subject Email subject, may contain slots
+     * @param htmlBody Newsletter HTML, may contain slots
+     */
+    public CampaignRenderer(String subject, String htmlBody) {
+        this.plainTextBody = convertHtmlToPlainText(htmlBody);
+
+        String boundary = "newsletter_boundary_" + System.currentTimeMillis();
+        addLiteral("To: ");
+        segments.add(new Segment(SegmentType.RECIPIENT, null));
+        addLiteral("\r\nSubject: ");
+        compile(subject, SegmentType.HEADER_SLOT);
+        addLiteral("\r\nMIME-Version: 1.0\r\n" +
+                "Content-Type: multipart/alternative; boundary=\"" + boundary + "\"\r\n" +
+                "\r\n" +
+                "--" + boundary + "\r\n" +
+                "Content-Type: text/plain; charset=utf-8\r\n" +
+                "\r\n");
+        compile(plainTextBody, SegmentType.TEXT_SLOT);
+        addLiteral("\r\n" +
+                "--" + boundary + "\r\n" +
+                "Content-Type: text/html; charset=utf-8\r\n" +
+                "\r\n");
+        compile(htmlBody, SegmentType.HTML_SLOT);
+        addLiteral("\r\n--" + boundary + "--\r\n");
+    }
+
+    /**
+     * Whether the campaign contains any {{contact_attributes.*}} slots.
+     */
+    public boolean isPersonalized() {
+        return !slotNames.isEmpty();
+    }
+
+    /**
+     * Contact attribute names used by the campaign, e.g. first_name.
+     */
+    public Set<String> getSlotNames() {
+        return Collections.unmodifiableSet(slotNames);
+    }
+
+    public String getPlainTextBody() {
+        return plainTextBody;
+    }
+
+    /**
+     * Looks up the values for this campaign's slots on a contact.
+     *
+     * @param contact The recipient contact
+     * @return Attribute name to value, only for slots the campaign uses
+     */
+    public Map<String, String> resolveMergeFields(Contact contact) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : slotNames) {
+            values.put(name, TemplateProcessor.getContactAttribute(name, contact));
+        }
+        return values;
+    }
+
+    /**
+     * Renders the raw RFC 2822 message for one recipient.
+     *
+     * @param recipient Recipient email address
+     * @param mergeFields Slot values from resolveMergeFields or decodeMergeFields; may be null
+     * @return Raw message
+     */
+    public String render(String recipient, Map<String, String> mergeFields) {
+        StringBuilder message = new StringBuilder(literalLength + 256);
+        for (Segment segment : segments) {
+            switch (segment.type) {
+                case LITERAL -> message.append(segment.value);
+                case RECIPIENT -> message.append(recipient);
+                case HEADER_SLOT -> message.append(fieldValue(mergeFields, segment.value).replace('\r', ' ').replace('\n', ' '));
+                case TEXT_SLOT -> message.append(fieldValue(mergeFields, segment.value));
+                case HTML_SLOT -> appendHtmlEscaped(message, fieldValue(mergeFields, segment.value));
+            }
+        }
+        return message.toString();
+    }
+
+    /**
+     * Encodes slot values for storage with a queued email.
+     */
+    public static String encodeMergeFields(Map<String, String> mergeFields) {
+        if (mergeFields == null || mergeFields.isEmpty()) {
+            return null;
+        }
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, String> entry : mergeFields.entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append('&');
+            }
+            encoded.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(entry.getValue() != null ? entry.getValue() : "", StandardCharsets.UTF_8));
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * Decodes slot values stored by encodeMergeFields.
+     */
+    public static Map<String, String> decodeMergeFields(String encoded) {
+        Map<String, String> mergeFields = new LinkedHashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return mergeFields;
+        }
+        for (String pair : encoded.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                mergeFields.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return mergeFields;
+    }
+
+    /**
+     * Convert HTML to plain text for email clients that don't support HTML
+     * @param htmlContent HTML content
+     * @return Plain text version
+     */
+    public static String convertHtmlToPlainText(String htmlContent) {
+        if (htmlContent == null || htmlContent.trim().isEmpty()) {
+            return "";
+        }
+
+        String plainText = BR_PATTERN.matcher(htmlContent).replaceAll("\n");
+        plainText = P_OPEN_PATTERN.matcher(plainText).replaceAll("\n");
+        plainText = P_CLOSE_PATTERN.matcher(plainText).replaceAll("\n");
+        plainText = H_OPEN_PATTERN.matcher(plainText).replaceAll("\n** ");
+        plainText = H_CLOSE_PATTERN.matcher(plainText).replaceAll(" **\n");
+        plainText = LI_OPEN_PATTERN.matcher(plainText).replaceAll("\n• ");
+        plainText = LI_CLOSE_PATTERN.matcher(plainText).replaceAll("");
+        plainText = LINK_PATTERN.matcher(plainText).replaceAll("$2 ($1)");
+        // Remove all remaining HTML tags
+        plainText = TAG_PATTERN.matcher(plainText).replaceAll("");
+        // Clean up whitespace
+        plainText = BLANK_LINES_PATTERN.matcher(plainText).replaceAll("\n\n");
+        plainText = LEADING_SPACE_PATTERN.matcher(plainText).replaceAll("");
+
+        return plainText.trim();
+    }
+
+    private void compile(String template, SegmentType slotType) {
+        if (template == null) {
+            return;
+        }
+        Matcher matcher = SLOT_PATTERN.matcher(template);
+        int lastEnd = 0;
+        while (matcher.find()) {
+            addLiteral(template.substring(lastEnd, matcher.start()));
+            segments.add(new Segment(slotType, matcher.group(1)));
+            slotNames.add(matcher.group(1));
+            lastEnd = matcher.end();
+        }
+        addLiteral(template.substring(lastEnd));
+    }
+
+    private void addLiteral(String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        literalLength += text.length();
+        int last = segments.size() - 1;
+        if (last >= 0 && segments.get(last).type == SegmentType.LITERAL) {
+            // Merge adjacent literals so rendering appends as few pieces as possible
+            segments.set(last, new Segment(SegmentType.LITERAL, segments.get(last).value + text));
+        } else {
+            segments.add(new Segment(SegmentType.LITERAL, text));
+        }
+    }
+
+    private static String fieldValue(Map<String, String> mergeFields, String name) {
+        if (mergeFields == null) {
+            return "";
+        }
+        String value = mergeFields.get(name);
+        return value != null ? value : "";
+    }
+
+    private static void appendHtmlEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static class Segment {
+        private final SegmentType type;
+        private final String value;
+
+        Segment(SegmentType type, String value) {
+            this.type = type;
+            this.value = value;
+        }
+    }
+}
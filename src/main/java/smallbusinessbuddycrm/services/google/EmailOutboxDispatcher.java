@@ -0,0 +1,535 @@
+package smallbusinessbuddycrm.services.google;
+
+import smallbusinessbuddycrm.database.EmailOutboxDAO;
+import smallbusinessbuddycrm.model.EmailCampaign;
+import smallbusinessbuddycrm.model.OutboxEmail;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Background worker that drains the persistent email outbox.
+ *
+ * Bulk sends are written to the email_outbox table first. This dispatcher claims
+ * due rows in small batches, sends them through a GmailSendEngine and records the
+ * outcome of every row. Temporary failures (429, 5xx, network errors) go back to the
+ * queue with exponential backoff, or the server's Retry-After if that is longer;
+ * other failures are final. Rows claimed by a run that died are released on start,
+ * so an interrupted campaign continues after the application restarts.
+ *
+ * Messages are built when their row is claimed: from the stored raw message, from
+ * the row's OutboxSpool entry (payment slips with attachments), or by rendering the
+ * campaign's HTML with the row's merge fields. Spool entries are deleted once their
+ * row is final; entries of cancelled campaigns are swept up while the queue is idle.
+ *
+ * While no Gmail account is connected the dispatcher idles and keeps the queue;
+ * sendCampaign gives up waiting after the no-token timeout and leaves the rows queued.
+ * Every attempt is also recorded in the campaign's CampaignMetrics, which the
+ * campaign report shows while the campaign is sending, and counted in the
+ * application-wide metrics registry.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class EmailOutboxDispatcher {
+
+    public static final int MAX_ATTEMPTS = 6;
+
+    private static final int CLAIM_BATCH_SIZE = 20;
+    private static final long IDLE_POLL_MILLIS = 5000;
+    private static final long MIN_WAIT_MILLIS = 100;
+    private static final long DEFAULT_BASE_RETRY_MILLIS = 5_000;
+    private static final long MAX_RETRY_MILLIS = 30 * 60_000;
+    private static final long SPOOL_PURGE_INTERVAL_MILLIS = 10 * 60_000;
+    private static final long SPOOL_MIN_AGE_MILLIS = 60 * 60_000;
+    private static final long DEFAULT_NO_TOKEN_TIMEOUT_MILLIS = 2 * 60_000;
+
+    private static volatile EmailOutboxDispatcher instance;
+
+    private final EmailOutboxDAO outboxDAO;
+    private final GmailService gmailService;
+    private final Supplier<String> accessTokenSupplier;
+    private final List<OutboxListener> listeners = new CopyOnWriteArrayList<>();
+    // One compiled renderer per campaign; rows only add the recipient and merge fields
+    private final Map<String, CampaignRenderer> rendererCache = new ConcurrentHashMap<>();
+    private final Map<String, CampaignMetrics> campaignMetrics = new ConcurrentHashMap<>();
+    private final Object wakeMonitor = new Object();
+    // Held while a row's result is stored and reported, so sendCampaign never sees a
+    // final status in the database before the listeners have been told about it
+    private final Object recordLock = new Object();
+
+    private volatile boolean running;
+    private volatile GmailSendEngine sendEngine;
+    private volatile long noTokenTimeoutMillis = DEFAULT_NO_TOKEN_TIMEOUT_MILLIS;
+    private volatile long baseRetryMillis = DEFAULT_BASE_RETRY_MILLIS;
+    // When the dispatcher last found no access token, 0 while it has one
+    private volatile long tokenMissingSince;
+    // Dispatcher thread only
+    private long nextSpoolPurgeAt;
+    private Thread dispatcherThread;
+
+    /**
+     * Creates a dispatcher with explicit collaborators, e.g. a GmailService pointed
+     * at a local stand-in server.
+     *
+     * @param outboxDAO Outbox storage
+     * @param gmailService Service used to build and send messages
+     * @param accessTokenSupplier Supplies the current OAuth access token
+     */
+    public EmailOutboxDispatcher(EmailOutboxDAO outboxDAO, GmailService gmailService, Supplier<String> accessTokenSupplier) {
+        this.outboxDAO = outboxDAO;
+        this.gmailService = gmailService;
+        this.accessTokenSupplier = accessTokenSupplier;
+    }
+
+    public static EmailOutboxDispatcher getInstance() {
+        if (instance == null) {
+            synchronized (EmailOutboxDispatcher.class) {
+                if (instance == null) {
+                    GoogleOAuthManager oauthManager = GoogleOAuthManager.getInstance();
+                    instance = new EmailOutboxDispatcher(new EmailOutboxDAO(),
+                            oauthManager.getGmailService(), oauthManager::getValidAccessToken);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts the dispatcher thread. Calling start on a running dispatcher does nothing.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        dispatcherThread = new Thread(this::runLoop, "email-outbox-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+    }
+
+    /**
+     * Stops the dispatcher. Messages not yet sent stay queued for the next start.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+            dispatcherThread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * How long sendCampaign waits while no access token is available before giving up.
+     *
+     * @param noTokenTimeoutMillis Timeout in milliseconds
+     */
+    public void setNoTokenTimeoutMillis(long noTokenTimeoutMillis) {
+        this.noTokenTimeoutMillis = noTokenTimeoutMillis;
+    }
+
+    /**
+     * Delay before the first retry of a temporarily failed row; later retries double it.
+     * A longer Retry-After from Gmail still wins.
+     *
+     * @param baseRetryMillis Delay in milliseconds
+     */
+    public void setBaseRetryMillis(long baseRetryMillis) {
+        this.baseRetryMillis = baseRetryMillis;
+    }
+
+    /**
+     * Wakes the dispatcher so newly queued work is picked up immediately.
+     */
+    public void wakeUp() {
+        synchronized (wakeMonitor) {
+            wakeMonitor.notifyAll();
+        }
+    }
+
+    public void addListener(OutboxListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(OutboxListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Delivery telemetry of a campaign that sent at least one email since the application started.
+     *
+     * @param campaignId The campaign ID
+     * @return Current metrics, or empty if nothing was sent for the campaign in this session
+     */
+    public Optional<CampaignMetrics.Snapshot> getCampaignMetrics(String campaignId) {
+        CampaignMetrics metrics = campaignMetrics.get(campaignId);
+        return metrics != null ? Optional.of(metrics.snapshot()) : Optional.empty();
+    }
+
+    /**
+     * Queues a campaign and blocks until none of its rows are waiting or being sent.
+     * Recipients already waiting or sent under the same campaign ID are skipped, so a
+     * resent campaign only reaches the recipients it did not reach before; cancelled
+     * and failed recipients are queued again.
+     * Must not be called on the JavaFX Application Thread.
+     *
+     * @param campaign Campaign to queue
+     * @param emails One row per recipient
+     * @param onFinal Called from the dispatcher thread when a row of this campaign reaches a final status
+     * @return Outcome of this run
+     * @throws InterruptedException if the caller is interrupted; the campaign's queued rows are cancelled
+     * @throws IllegalStateException if the dispatcher stops, or has no access token for longer than
+     *         the no-token timeout; the campaign's rows stay queued for a later run
+     */
+    public CampaignSummary sendCampaign(EmailCampaign campaign, List<OutboxEmail> emails,
+                                        BiConsumer<OutboxEmail, GmailSendEngine.SendResult> onFinal)
+            throws InterruptedException {
+        return sendCampaign(campaign, emails, null, onFinal);
+    }
+
+    /**
+     * Same as {@link #sendCampaign(EmailCampaign, List, BiConsumer)}, and also reports how many
+     * rows the call waits for before sending starts. That is the rows queued now plus any
+     * of the campaign's rows still waiting from an earlier run, and onFinal is called
+     * exactly once for each of them, which makes it the total for progress displays.
+     *
+     * @param onQueued Called on the calling thread with the number of rows waited for, before
+     *                 any onFinal call; keep it short, results are not recorded meanwhile
+     */
+    public CampaignSummary sendCampaign(EmailCampaign campaign, List<OutboxEmail> emails, IntConsumer onQueued,
+                                        BiConsumer<OutboxEmail, GmailSendEngine.SendResult> onFinal)
+            throws InterruptedException {
+        String campaignId = campaign.getId();
+        // Counted from final transitions rather than status totals, since resent
+        // failed rows leave the FAILED count before they are sent again
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        OutboxListener listener = (email, result) -> {
+            if (!campaignId.equals(email.getCampaignId())) {
+                return;
+            }
+            if (OutboxEmail.STATUS_SENT.equals(email.getStatus())) {
+                sent.incrementAndGet();
+            } else if (OutboxEmail.STATUS_FAILED.equals(email.getStatus())) {
+                failed.incrementAndGet();
+            }
+            if (email.isFinal() && onFinal != null) {
+                onFinal.accept(email, result);
+            }
+            wakeUp();
+        };
+
+        try {
+            if (!outboxDAO.saveCampaign(campaign)) {
+                throw new IllegalStateException("Could not save email campaign " + campaignId);
+            }
+            int queued;
+            // No result is recorded while the listener is added and the rows are queued
+            // and counted, so every counted row reaches the listener exactly once
+            synchronized (recordLock) {
+                addListener(listener);
+                queued = outboxDAO.enqueue(emails);
+                if (queued < 0) {
+                    throw new IllegalStateException("Could not queue emails for campaign " + campaignId);
+                }
+                Map<String, Integer> queuedCounts = outboxDAO.countByStatus(campaignId);
+                int active = count(queuedCounts, OutboxEmail.STATUS_PENDING) + count(queuedCounts, OutboxEmail.STATUS_SENDING);
+                if (onQueued != null) {
+                    onQueued.accept(active);
+                }
+            }
+            System.out.println("📧 Campaign " + campaignId + ": queued " + queued + " of " + emails.size() + " emails");
+
+            start();
+            wakeUp();
+
+            long waitStart = System.currentTimeMillis();
+            Map<String, Integer> counts = countRecorded(campaignId);
+            while (count(counts, OutboxEmail.STATUS_PENDING) + count(counts, OutboxEmail.STATUS_SENDING) > 0) {
+                if (!running) {
+                    // Rows stay queued and are picked up when the dispatcher starts again
+                    throw new IllegalStateException("Email outbox dispatcher stopped");
+                }
+                long missingSince = tokenMissingSince;
+                if (missingSince != 0 &&
+                        System.currentTimeMillis() - Math.max(missingSince, waitStart) > noTokenTimeoutMillis) {
+                    // Rows stay queued and are sent once a Gmail account is connected
+                    throw new IllegalStateException("No Gmail access token; " +
+                            count(counts, OutboxEmail.STATUS_PENDING) + " emails stay queued");
+                }
+                synchronized (wakeMonitor) {
+                    wakeMonitor.wait(1000);
+                }
+                counts = countRecorded(campaignId);
+            }
+
+            getCampaignMetrics(campaignId).ifPresent(metrics -> System.out.println("📊 Campaign " + campaignId +
+                    ": " + metrics.getSent() + " sent, " + metrics.getFailed() + " failed, " +
+                    metrics.getRetried() + " retried, latency p50 " + metrics.getP50LatencyMillis() +
+                    " ms / p95 " + metrics.getP95LatencyMillis() + " ms, " + (metrics.getBytesSent() / 1024) +
+                    " KB, rate limiter wait " + metrics.getRateLimitWaitMillis() + " ms"));
+
+            return new CampaignSummary(queued, emails.size() - queued, sent.get(), failed.get());
+
+        } catch (InterruptedException e) {
+            int cancelled = outboxDAO.cancelCampaign(campaignId);
+            System.out.println("🛑 Campaign " + campaignId + " stopped, " + cancelled + " queued emails cancelled");
+            throw e;
+        } finally {
+            removeListener(listener);
+        }
+    }
+
+    /**
+     * Cancels the queued rows of a campaign. Requests already in flight finish normally.
+     *
+     * @param campaignId The campaign ID
+     * @return Number of rows cancelled
+     */
+    public int cancelCampaign(String campaignId) {
+        int cancelled = outboxDAO.cancelCampaign(campaignId);
+        wakeUp();
+        return cancelled;
+    }
+
+    private void runLoop() {
+        try {
+            dispatch();
+        } catch (Throwable t) {
+            System.err.println("❌ Email outbox dispatcher failed: " + t.getMessage());
+            t.printStackTrace();
+        } finally {
+            running = false;
+            wakeUp();
+        }
+    }
+
+    private void dispatch() {
+        int released = outboxDAO.releaseStaleClaims();
+        if (released > 0) {
+            System.out.println("🔄 Email outbox: released " + released + " emails claimed by a previous run");
+        }
+        int pending = outboxDAO.countPending();
+        if (pending > 0) {
+            System.out.println("🔄 Email outbox: resuming " + pending + " queued emails");
+        }
+
+        // One engine per run keeps the adaptive rate across batches; the outbox owns retries
+        sendEngine = GmailSendEngine.withConfiguredSettings(gmailService, accessTokenSupplier, 1);
+
+        while (running) {
+            try {
+                String accessToken = accessTokenSupplier.get();
+                if (accessToken == null || accessToken.isEmpty()) {
+                    if (tokenMissingSince == 0) {
+                        tokenMissingSince = System.currentTimeMillis();
+                    }
+                    idle(IDLE_POLL_MILLIS);
+                    continue;
+                }
+                tokenMissingSince = 0;
+
+                List<OutboxEmail> batch = outboxDAO.claimDue(CLAIM_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    purgeSpool();
+                    OptionalLong nextAttempt = outboxDAO.findNextAttemptTime();
+                    long wait = nextAttempt.isPresent() ?
+                            Math.max(MIN_WAIT_MILLIS, Math.min(IDLE_POLL_MILLIS, nextAttempt.getAsLong() - System.currentTimeMillis())) :
+                            IDLE_POLL_MILLIS;
+                    idle(wait);
+                    continue;
+                }
+
+                sendBatch(batch);
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                System.err.println("Error in email outbox dispatcher: " + e.getMessage());
+                e.printStackTrace();
+                try {
+                    idle(IDLE_POLL_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+
+        System.out.println("📧 Email outbox dispatcher stopped");
+    }
+
+    private void sendBatch(List<OutboxEmail> batch) {
+        List<GmailSendEngine.OutgoingEmail> outgoing = new ArrayList<>(batch.size());
+        for (OutboxEmail email : batch) {
+            outgoing.add(new GmailSendEngine.OutgoingEmail(email.getRecipient(), () -> buildMessage(email)));
+        }
+
+        long batchStart = System.nanoTime();
+        sendEngine.sendAll(outgoing, result -> record(batch.get(result.getIndex()), result));
+        MetricsRegistry.getInstance().timer("email.outbox.batch").recordSince(batchStart);
+    }
+
+    /**
+     * Deletes spool entries of campaigns with nothing left to send, e.g. cancelled ones.
+     * Only called between batches, when no message is being read from the spool. Entries
+     * written in the last SPOOL_MIN_AGE_MILLIS are kept, since a campaign being prepared
+     * has its entries before its rows are queued.
+     */
+    private void purgeSpool() {
+        long now = System.currentTimeMillis();
+        if (now < nextSpoolPurgeAt) {
+            return;
+        }
+        Set<String> activeCampaignIds = outboxDAO.findActiveCampaignIds();
+        if (activeCampaignIds == null) {
+            return;
+        }
+        nextSpoolPurgeAt = now + SPOOL_PURGE_INTERVAL_MILLIS;
+        int purged = OutboxSpool.purgeExcept(activeCampaignIds, SPOOL_MIN_AGE_MILLIS);
+        if (purged > 0) {
+            System.out.println("🧹 Email outbox: removed spooled attachments of " + purged + " finished campaigns");
+        }
+    }
+
+    private MimeMessageWriter buildMessage(OutboxEmail email) throws IOException {
+        if (email.getRawMessage() != null) {
+            return MimeMessageWriter.prebuilt(email.getRecipient(), email.getRawMessage());
+        }
+        if (email.getSpoolPath() != null) {
+            return OutboxSpool.readMessage(email.getRecipient(), Path.of(email.getSpoolPath()));
+        }
+
+        CampaignRenderer renderer = rendererCache.computeIfAbsent(email.getCampaignId(),
+                id -> outboxDAO.findCampaignById(id)
+                        .filter(campaign -> campaign.getHtmlBody() != null)
+                        .map(campaign -> new CampaignRenderer(campaign.getSubject(), campaign.getHtmlBody()))
+                        .orElse(null));
+        if (renderer == null) {
+            throw new IllegalStateException("No message stored for campaign " + email.getCampaignId());
+        }
+        return MimeMessageWriter.prebuilt(email.getRecipient(),
+                renderer.render(email.getRecipient(), CampaignRenderer.decodeMergeFields(email.getMergeFields())));
+    }
+
+    private Map<String, Integer> countRecorded(String campaignId) {
+        synchronized (recordLock) {
+            return outboxDAO.countByStatus(campaignId);
+        }
+    }
+
+    private void record(OutboxEmail email, GmailSendEngine.SendResult result) {
+        synchronized (recordLock) {
+            recordLocked(email, result);
+        }
+    }
+
+    private void recordLocked(OutboxEmail email, GmailSendEngine.SendResult result) {
+        email.setRawMessage(null);
+        email.setLastStatusCode(result.getStatusCode());
+        email.setLastError(result.getErrorMessage());
+
+        if (result.isSuccess()) {
+            outboxDAO.markSent(email.getId(), result.getStatusCode());
+            email.setStatus(OutboxEmail.STATUS_SENT);
+        } else if (result.isRetryable() && email.getAttempts() < MAX_ATTEMPTS) {
+            long delay = Math.max(result.getRetryAfterMillis(), retryDelayMillis(email.getAttempts()));
+            long nextAttemptAt = System.currentTimeMillis() + delay;
+            // A row whose campaign was cancelled meanwhile is not requeued
+            boolean requeued = outboxDAO.markForRetry(email.getId(), nextAttemptAt,
+                    result.getStatusCode(), result.getErrorMessage());
+            email.setNextAttemptAt(nextAttemptAt);
+            email.setStatus(requeued ? OutboxEmail.STATUS_PENDING : OutboxEmail.STATUS_CANCELLED);
+        } else {
+            outboxDAO.markFailed(email.getId(), result.getStatusCode(), result.getErrorMessage());
+            email.setStatus(OutboxEmail.STATUS_FAILED);
+        }
+
+        if (email.getSpoolPath() != null && !OutboxEmail.STATUS_PENDING.equals(email.getStatus())) {
+            OutboxSpool.deleteEntry(Path.of(email.getSpoolPath()));
+            email.setSpoolPath(null);
+        }
+
+        campaignMetrics.computeIfAbsent(email.getCampaignId(), CampaignMetrics::new)
+                .record(result, OutboxEmail.STATUS_PENDING.equals(email.getStatus()));
+        // email.sent, email.failed, email.cancelled, or email.retried for a row back in the queue
+        String outcome = OutboxEmail.STATUS_PENDING.equals(email.getStatus()) ? "retried" : email.getStatus().toLowerCase(Locale.ROOT);
+        MetricsRegistry.getInstance().counter("email." + outcome).increment();
+
+        for (OutboxListener listener : listeners) {
+            try {
+                listener.onEmailProcessed(email, result);
+            } catch (Exception e) {
+                System.err.println("Error in outbox listener: " + e.getMessage());
+            }
+        }
+    }
+
+    private long retryDelayMillis(int attempts) {
+        long exponential = Math.min(MAX_RETRY_MILLIS, baseRetryMillis << Math.min(Math.max(attempts - 1, 0), 10));
+        return exponential + ThreadLocalRandom.current().nextLong(exponential / 4 + 1);
+    }
+
+    private void idle(long millis) throws InterruptedException {
+        synchronized (wakeMonitor) {
+            wakeMonitor.wait(Math.max(1, millis));
+        }
+    }
+
+    private static int count(Map<String, Integer> counts, String status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    /**
+     * Notified after every attempt with the row's new status.
+     */
+    public interface OutboxListener {
+        void onEmailProcessed(OutboxEmail email, GmailSendEngine.SendResult result);
+    }
+
+    /**
+     * Outcome of one sendCampaign call.
+     */
+    public static class CampaignSummary {
+        private final int queued;
+        private final int skipped;
+        private final int sent;
+        private final int failed;
+
+        public CampaignSummary(int queued, int skipped, int sent, int failed) {
+            this.queued = queued;
+            this.skipped = skipped;
+            this.sent = sent;
+            this.failed = failed;
+        }
+
+        /** Rows newly added to the queue by this call. */
+        public int getQueued() { return queued; }
+        /** Recipients already queued for this campaign, or duplicated in the input. */
+        public int getSkipped() { return skipped; }
+        public int getSent() { return sent; }
+        public int getFailed() { return failed; }
+    }
+}
@@ -0,0 +1,628 @@
+package smallbusinessbuddycrm.services.google;
+
+import io.github.cdimascio.dotenv.Dotenv;
+import smallbusinessbuddycrm.services.metrics.Histogram;
+import smallbusinessbuddycrm.services.metrics.MetricsRegistry;
+import smallbusinessbuddycrm.services.metrics.Timer;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Concurrent bulk sender for the Gmail API.
+ *
+ * Messages are sent with HttpClient.sendAsync, with at most maxInFlight requests
+ * open at a time. An AdaptiveRateLimiter paces the requests: 429 and 5xx responses
+ * halve the rate and pause sending for the Retry-After time before the message is
+ * retried. Every recipient gets a SendResult, in the same order as the input.
+ *
+ * With a batch size above 1, messages that are ready together are packed into one
+ * multipart/mixed batch request and the per-part responses are handled exactly like
+ * single responses. If a batch fails as a whole its messages are sent one by one.
+ *
+ * Gmail charges 100 quota units per messages.send against a per-user limit of 250
+ * units per second, so the default rate stays just below 2.5 messages per second.
+ * Batching saves requests, not quota: each message in a batch still takes a rate
+ * limiter permit. Settings can be overridden with GMAIL_SEND_MAX_IN_FLIGHT,
+ * GMAIL_SEND_RATE, GMAIL_SEND_MAX_RATE and GMAIL_SEND_BATCH_SIZE in .env. Create one
+ * engine per bulk send; once cancelled it stays cancelled.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class GmailSendEngine {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+    public static final double DEFAULT_RATE_PER_SECOND = 2.0;
+    public static final double DEFAULT_MAX_RATE_PER_SECOND = 2.4;
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final int DEFAULT_BATCH_SIZE = 10;
+
+    private static final double MIN_RATE_PER_SECOND = 0.2;
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private final GmailService gmailService;
+    private final Supplier<String> accessTokenSupplier;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final int batchSize;
+    private final AdaptiveRateLimiter rateLimiter;
+
+    private volatile boolean cancelled;
+
+    // Stage timings across all engines, shown in the diagnostics panel
+    private final Timer buildTimer = MetricsRegistry.getInstance().timer("email.build");
+    private final Timer rateWaitTimer = MetricsRegistry.getInstance().timer("email.rate.wait");
+    private final Timer singleRequestTimer = MetricsRegistry.getInstance().timer("email.request.single");
+    private final Timer batchRequestTimer = MetricsRegistry.getInstance().timer("email.request.batch");
+    private final Histogram messageBytes = MetricsRegistry.getInstance().histogram("email.message.bytes");
+    private final Histogram batchSizes = MetricsRegistry.getInstance().histogram("email.request.batch.size");
+
+    /**
+     * @param gmailService Service used to send raw messages
+     * @param accessTokenSupplier Supplies the current OAuth access token for each request
+     * @param maxInFlight Maximum number of concurrent requests
+     * @param ratePerSecond Starting send rate
+     * @param maxRatePerSecond Highest rate the limiter recovers to
+     * @param maxAttempts Attempts per message before it is reported as failed; callers
+     *                    that persist their own retries (EmailOutboxDispatcher) pass 1
+     */
+    public GmailSendEngine(GmailService gmailService, Supplier<String> accessTokenSupplier,
+                           int maxInFlight, double ratePerSecond, double maxRatePerSecond, int maxAttempts) {
+        this(gmailService, accessTokenSupplier, maxInFlight, ratePerSecond, maxRatePerSecond, maxAttempts, 1);
+    }
+
+    /**
+     * @param batchSize Messages per batch request; 1 sends every message on its own
+     */
+    public GmailSendEngine(GmailService gmailService, Supplier<String> accessTokenSupplier,
+                           int maxInFlight, double ratePerSecond, double maxRatePerSecond, int maxAttempts,
+                           int batchSize) {
+        this.gmailService = gmailService;
+        this.accessTokenSupplier = accessTokenSupplier;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.batchSize = Math.max(1, Math.min(GmailService.MAX_BATCH_SIZE, batchSize));
+        this.rateLimiter = new AdaptiveRateLimiter(ratePerSecond, MIN_RATE_PER_SECOND,
+                Math.max(ratePerSecond, maxRatePerSecond), this.maxInFlight);
+    }
+
+    /**
+     * Creates an engine using the defaults, overridden by any GMAIL_SEND_* values in .env.
+     */
+    public static GmailSendEngine withConfiguredSettings(GmailService gmailService, Supplier<String> accessTokenSupplier) {
+        return withConfiguredSettings(gmailService, accessTokenSupplier, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Creates an engine with a specific attempt limit and the configured rate settings.
+     */
+    public static GmailSendEngine withConfiguredSettings(GmailService gmailService, Supplier<String> accessTokenSupplier,
+                                                         int maxAttempts) {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        int maxInFlight = parseInt(dotenv.get("GMAIL_SEND_MAX_IN_FLIGHT"), DEFAULT_MAX_IN_FLIGHT);
+        double rate = parseDouble(dotenv.get("GMAIL_SEND_RATE"), DEFAULT_RATE_PER_SECOND);
+        double maxRate = parseDouble(dotenv.get("GMAIL_SEND_MAX_RATE"), DEFAULT_MAX_RATE_PER_SECOND);
+        int batchSize = parseInt(dotenv.get("GMAIL_SEND_BATCH_SIZE"), DEFAULT_BATCH_SIZE);
+        return new GmailSendEngine(gmailService, accessTokenSupplier, maxInFlight, rate, maxRate, maxAttempts, batchSize);
+    }
+
+    /**
+     * Sends every message and blocks until each one has a final result.
+     * Must not be called on the JavaFX Application Thread.
+     *
+     * @param emails Messages to send
+     * @param onResult Called once per recipient as soon as its result is final, from a background thread
+     * @return Results in the same order as the input
+     */
+    public List<SendResult> sendAll(List<OutgoingEmail> emails, Consumer<SendResult> onResult) {
+        long startNanos = System.nanoTime();
+
+        SendResult[] results = new SendResult[emails.size()];
+        CountDownLatch remaining = new CountDownLatch(emails.size());
+        BlockingQueue<PendingSend> queue = new LinkedBlockingQueue<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        for (int i = 0; i < emails.size(); i++) {
+            queue.add(new PendingSend(i, emails.get(i)));
+        }
+
+        Consumer<SendResult> finish = result -> {
+            results[result.index] = result;
+            if (onResult != null) {
+                try {
+                    onResult.accept(result);
+                } catch (Exception e) {
+                    System.err.println("Error in send result callback: " + e.getMessage());
+                }
+            }
+            remaining.countDown();
+        };
+
+        try {
+            while (remaining.getCount() > 0) {
+                PendingSend pending = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (pending == null) {
+                    continue;
+                }
+                if (cancelled) {
+                    finish.accept(pending.cancelledResult());
+                    continue;
+                }
+
+                if (batchSize == 1 || pending.forceSingle) {
+                    acquirePermit(pending);
+                    inFlight.acquire();
+                    dispatch(pending, queue, inFlight, finish);
+                } else {
+                    dispatchGroup(collectGroup(pending, queue), queue, inFlight, finish);
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelled = true;
+            Thread.currentThread().interrupt();
+            List<PendingSend> unsent = new ArrayList<>();
+            queue.drainTo(unsent);
+            unsent.forEach(pending -> finish.accept(pending.cancelledResult()));
+        }
+
+        long succeeded = Arrays.stream(results).filter(r -> r != null && r.isSuccess()).count();
+        System.out.println("📧 Bulk send finished: " + succeeded + "/" + emails.size() + " sent in " +
+                (System.nanoTime() - startNanos) / 1_000_000 + " ms, final rate " +
+                String.format("%.2f", rateLimiter.getCurrentRate()) + "/s");
+        System.out.println("🔄 HTTP client: " + HttpClientFactory.getStats());
+
+        List<SendResult> ordered = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            // Still in flight when the caller was interrupted
+            ordered.add(results[i] != null ? results[i] :
+                    new SendResult(i, emails.get(i), false, 0, 0, "Cancelled", 0, true, 0));
+        }
+        return ordered;
+    }
+
+    /**
+     * Stops dispatching new messages. Requests already in flight finish normally.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public double getCurrentRate() {
+        return rateLimiter.getCurrentRate();
+    }
+
+    private void dispatch(PendingSend pending, BlockingQueue<PendingSend> queue, Semaphore inFlight,
+                          Consumer<SendResult> finish) {
+        pending.forceSingle = false;
+        String accessToken = accessTokenSupplier.get();
+        if (!prepare(pending, accessToken, finish)) {
+            inFlight.release();
+            return;
+        }
+        sendSingle(pending, accessToken, queue, inFlight, finish);
+    }
+
+    /**
+     * Sends a prepared message on its own. The caller holds an in-flight permit.
+     */
+    private void sendSingle(PendingSend pending, String accessToken, BlockingQueue<PendingSend> queue,
+                            Semaphore inFlight, Consumer<SendResult> finish) {
+        long requestStart = System.nanoTime();
+        gmailService.sendMessageAsync(accessToken, pending.message).whenComplete((response, error) -> {
+            inFlight.release();
+            long elapsed = System.nanoTime() - requestStart;
+            pending.elapsedNanos += elapsed;
+            singleRequestTimer.recordNanos(elapsed);
+
+            if (error != null) {
+                handleError(pending, error, queue, finish);
+            } else {
+                handleResponse(pending, response.statusCode(), response.headers().firstValue("Retry-After"),
+                        response.body(), queue, finish);
+            }
+        });
+    }
+
+    /**
+     * Takes the first message plus whatever else is already queued, up to the batch size.
+     */
+    private List<PendingSend> collectGroup(PendingSend first, BlockingQueue<PendingSend> queue) {
+        List<PendingSend> group = new ArrayList<>(batchSize);
+        group.add(first);
+        while (group.size() < batchSize) {
+            PendingSend next = queue.poll();
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+        return group;
+    }
+
+    /**
+     * Sends a group of messages: batchable ones in one batch request, messages too large
+     * for a batch part on their own. Runs on the dispatch thread, so it may block on permits.
+     */
+    private void dispatchGroup(List<PendingSend> group, BlockingQueue<PendingSend> queue, Semaphore inFlight,
+                               Consumer<SendResult> finish) throws InterruptedException {
+        String accessToken = accessTokenSupplier.get();
+        List<PendingSend> batch = new ArrayList<>(group.size());
+        for (PendingSend pending : group) {
+            if (cancelled) {
+                finish.accept(pending.cancelledResult());
+                continue;
+            }
+            // Quota is charged per message, batched or not
+            acquirePermit(pending);
+            if (!prepare(pending, accessToken, finish)) {
+                continue;
+            }
+            if (gmailService.isBatchable(pending.message)) {
+                batch.add(pending);
+            } else {
+                inFlight.acquire();
+                sendSingle(pending, accessToken, queue, inFlight, finish);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+        inFlight.acquire();
+        if (batch.size() == 1) {
+            sendSingle(batch.get(0), accessToken, queue, inFlight, finish);
+            return;
+        }
+
+        List<MimeMessageWriter> messages = new ArrayList<>(batch.size());
+        batch.forEach(pending -> messages.add(pending.message));
+
+        long requestStart = System.nanoTime();
+        gmailService.sendBatchAsync(accessToken, messages).whenComplete((response, error) -> {
+            inFlight.release();
+            long elapsed = System.nanoTime() - requestStart;
+            batch.forEach(pending -> pending.elapsedNanos += elapsed);
+            batchRequestTimer.recordNanos(elapsed);
+            batchSizes.record(batch.size());
+
+            if (error != null || !response.isSuccess()) {
+                int status = response != null ? response.getStatusCode() : 0;
+                System.err.println("⏳ Batch of " + batch.size() + " failed (" +
+                        (error != null ? error.getMessage() : "status " + status) + "), sending one by one");
+                if (isRetryable(status)) {
+                    rateLimiter.onThrottle(retryAfterMillis(response.getRetryAfter()).orElse(BASE_BACKOFF_MILLIS));
+                }
+                // The batch failing is not the messages' fault, so this does not use up an attempt
+                for (PendingSend pending : batch) {
+                    pending.attempts--;
+                    pending.forceSingle = true;
+                    queue.add(pending);
+                }
+                return;
+            }
+
+            // Throttled parts of one batch are one signal from the server, so the rate
+            // limiter slows down once, for the longest pause any part asked for
+            long[] pauses = new long[batch.size()];
+            long batchPause = -1;
+            for (int i = 0; i < batch.size(); i++) {
+                GmailService.BatchPart part = response.getParts().get(i);
+                if (part != null && isRetryable(part.getStatusCode())) {
+                    pauses[i] = retryPauseMillis(batch.get(i), part.getHeader("Retry-After"));
+                    batchPause = Math.max(batchPause, pauses[i]);
+                }
+            }
+            if (batchPause >= 0) {
+                rateLimiter.onThrottle(batchPause);
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                PendingSend pending = batch.get(i);
+                GmailService.BatchPart part = response.getParts().get(i);
+                if (part == null) {
+                    handleError(pending, new IllegalStateException("No response part for message"), queue, finish);
+                } else {
+                    handleStatus(pending, part.getStatusCode(), pauses[i], part.getBody(), queue, finish);
+                }
+            }
+        });
+    }
+
+    /**
+     * Takes a rate limiter permit for the message and records how long it waited.
+     */
+    private void acquirePermit(PendingSend pending) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        rateLimiter.acquire();
+        long waited = System.nanoTime() - waitStart;
+        pending.rateLimitWaitNanos += waited;
+        rateWaitTimer.recordNanos(waited);
+    }
+
+    /**
+     * Counts the attempt and builds the message if needed.
+     *
+     * @return false if the message got a final result instead
+     */
+    private boolean prepare(PendingSend pending, String accessToken, Consumer<SendResult> finish) {
+        pending.attempts++;
+
+        if (accessToken == null || accessToken.isEmpty()) {
+            finish.accept(pending.failedResult(0, "No access token"));
+            return false;
+        }
+        pending.accessToken = accessToken;
+
+        try {
+            if (pending.message == null) {
+                long buildStart = System.nanoTime();
+                pending.message = pending.email.getMessageBuilder().call();
+                pending.messageBytes = pending.message.getEstimatedSize();
+                buildTimer.recordSince(buildStart);
+                messageBytes.record(pending.messageBytes);
+            }
+        } catch (Exception e) {
+            finish.accept(pending.failedResult(0, "Could not build message: " + e.getMessage()));
+            return false;
+        }
+        return true;
+    }
+
+    private void handleError(PendingSend pending, Throwable error, BlockingQueue<PendingSend> queue,
+                             Consumer<SendResult> finish) {
+        // Connection problems are retried without slowing down other requests
+        long delay = backoffMillis(pending.attempts);
+        if (pending.attempts < maxAttempts && !cancelled) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> queue.add(pending));
+        } else {
+            finish.accept(pending.retryableResult(0, error.getMessage(), delay));
+        }
+    }
+
+    private void handleResponse(PendingSend pending, int status, Optional<String> retryAfter, String body,
+                                BlockingQueue<PendingSend> queue, Consumer<SendResult> finish) {
+        long pause = 0;
+        if (isRetryable(status)) {
+            pause = retryPauseMillis(pending, retryAfter);
+            rateLimiter.onThrottle(pause);
+        }
+        handleStatus(pending, status, pause, body, queue, finish);
+    }
+
+    /**
+     * Records the outcome of one response. For a retryable status the caller has
+     * already told the rate limiter to pause.
+     *
+     * @param pause Pause before the retry, used only for retryable statuses
+     */
+    private void handleStatus(PendingSend pending, int status, long pause, String body,
+                              BlockingQueue<PendingSend> queue, Consumer<SendResult> finish) {
+        if (status == 200) {
+            rateLimiter.onSuccess();
+            finish.accept(pending.successResult());
+        } else if (status == 401 && !pending.tokenRefreshed && gmailService.canRefreshTokens() && !cancelled) {
+            // Token expired mid-send: refresh it (concurrent 401s share one refresh) and
+            // retry once; the rejected attempt does not count
+            pending.tokenRefreshed = true;
+            pending.attempts--;
+            String rejectedToken = pending.accessToken;
+            CompletableFuture.runAsync(() -> gmailService.refreshRejectedToken(rejectedToken))
+                    .whenComplete((ignored, error) -> queue.add(pending));
+        } else if (isRetryable(status)) {
+            if (pending.attempts < maxAttempts && !cancelled) {
+                System.err.println("⏳ Gmail returned " + status + " for " + pending.email.getRecipient() +
+                        ", pausing " + pause + " ms before retry " + (pending.attempts + 1));
+                queue.add(pending);
+            } else {
+                finish.accept(pending.retryableResult(status, "Gmail API status " + status, pause));
+            }
+        } else {
+            System.err.println("❌ Gmail error " + status + " for " + pending.email.getRecipient() + ": " + body);
+            finish.accept(pending.failedResult(status, "Gmail API status " + status));
+        }
+    }
+
+    /**
+     * Pause asked for by Retry-After, or the attempt's backoff without one.
+     */
+    private static long retryPauseMillis(PendingSend pending, Optional<String> retryAfter) {
+        return retryAfterMillis(retryAfter).orElseGet(() -> backoffMillis(pending.attempts));
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private static long backoffMillis(int attempt) {
+        long exponential = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 10));
+        return exponential + ThreadLocalRandom.current().nextLong(exponential / 4 + 1);
+    }
+
+    /**
+     * Reads Retry-After as either delay-seconds or an HTTP date.
+     */
+    private static Optional<Long> retryAfterMillis(Optional<String> header) {
+        if (header.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String value = header.get().trim();
+        try {
+            return Optional.of(Math.min(MAX_BACKOFF_MILLIS, Long.parseLong(value) * 1000));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime retryAt = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                long millis = Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt).toMillis();
+                return Optional.of(Math.max(0, Math.min(MAX_BACKOFF_MILLIS, millis)));
+            } catch (DateTimeParseException ignored) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static double parseDouble(String value, double defaultValue) {
+        try {
+            return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * A message waiting to be sent. The message writer is built lazily on the dispatch
+     * thread and only writes the message, attachments included, while its request body
+     * is sent, so no message is held in memory as a whole.
+     */
+    public static class OutgoingEmail {
+        private final String recipient;
+        private final Callable<MimeMessageWriter> messageBuilder;
+
+        /**
+         * @param recipient Recipient email address, used for logging and results
+         * @param messageBuilder Builds the message writer, e.g. MimeMessageWriter.plainText with file-backed attachments
+         */
+        public OutgoingEmail(String recipient, Callable<MimeMessageWriter> messageBuilder) {
+            this.recipient = recipient;
+            this.messageBuilder = messageBuilder;
+        }
+
+        public String getRecipient() {
+            return recipient;
+        }
+
+        public Callable<MimeMessageWriter> getMessageBuilder() {
+            return messageBuilder;
+        }
+    }
+
+    /**
+     * Final outcome of sending one message.
+     */
+    public static class SendResult {
+        private final int index;
+        private final OutgoingEmail email;
+        private final boolean success;
+        private final int statusCode;
+        private final int attempts;
+        private final String errorMessage;
+        private final long elapsedNanos;
+        private final boolean retryable;
+        private final long retryAfterMillis;
+        private final long messageBytes;
+        private final long rateLimitWaitNanos;
+
+        SendResult(int index, OutgoingEmail email, boolean success, int statusCode, int attempts,
+                   String errorMessage, long elapsedNanos, boolean retryable, long retryAfterMillis) {
+            this(index, email, success, statusCode, attempts, errorMessage, elapsedNanos, retryable,
+                    retryAfterMillis, 0, 0);
+        }
+
+        SendResult(int index, OutgoingEmail email, boolean success, int statusCode, int attempts,
+                   String errorMessage, long elapsedNanos, boolean retryable, long retryAfterMillis,
+                   long messageBytes, long rateLimitWaitNanos) {
+            this.index = index;
+            this.email = email;
+            this.success = success;
+            this.statusCode = statusCode;
+            this.attempts = attempts;
+            this.errorMessage = errorMessage;
+            this.elapsedNanos = elapsedNanos;
+            this.retryable = retryable;
+            this.retryAfterMillis = retryAfterMillis;
+            this.messageBytes = messageBytes;
+            this.rateLimitWaitNanos = rateLimitWaitNanos;
+        }
+
+        /** Position of the message in the list passed to sendAll. */
+        public int getIndex() { return index; }
+        public OutgoingEmail getEmail() { return email; }
+        public String getRecipient() { return email.getRecipient(); }
+        public boolean isSuccess() { return success; }
+        /** HTTP status of the last attempt, or 0 if no response was received. */
+        public int getStatusCode() { return statusCode; }
+        public int getAttempts() { return attempts; }
+        public String getErrorMessage() { return errorMessage; }
+        /** Time spent waiting on Gmail across all attempts. */
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+        /** True if the failure was temporary (429, 5xx or no response) and the attempts ran out. */
+        public boolean isRetryable() { return retryable; }
+        /** Suggested wait before trying again, from Retry-After or the backoff schedule. */
+        public long getRetryAfterMillis() { return retryAfterMillis; }
+        /** Estimated size of the message in bytes, or 0 if it was never built. */
+        public long getMessageBytes() { return messageBytes; }
+        /** Time spent waiting for the rate limiter across all attempts. */
+        public long getRateLimitWaitMillis() { return rateLimitWaitNanos / 1_000_000; }
+    }
+
+    private static class PendingSend {
+        private final int index;
+        private final OutgoingEmail email;
+        private MimeMessageWriter message;
+        private int attempts;
+        private long elapsedNanos;
+        private boolean forceSingle;
+        private String accessToken;
+        private boolean tokenRefreshed;
+        private long messageBytes;
+        private long rateLimitWaitNanos;
+
+        PendingSend(int index, OutgoingEmail email) {
+            this.index = index;
+            this.email = email;
+        }
+
+        SendResult successResult() {
+            return result(true, 200, null, false, 0);
+        }
+
+        SendResult failedResult(int statusCode, String errorMessage) {
+            return result(false, statusCode, errorMessage, false, 0);
+        }
+
+        SendResult retryableResult(int statusCode, String errorMessage, long retryAfterMillis) {
+            return result(false, statusCode, errorMessage, true, retryAfterMillis);
+        }
+
+        private SendResult result(boolean success, int statusCode, String errorMessage, boolean retryable,
+                                  long retryAfterMillis) {
+            message = null;
+            return new SendResult(index, email, success, statusCode, attempts, errorMessage, elapsedNanos,
+                    retryable, retryAfterMillis, messageBytes, rateLimitWaitNanos);
+        }
+
+        SendResult cancelledResult() {
+            // Never sent, so it is always safe to try again later
+            return retryableResult(0, "Cancelled", 0);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package smallbusinessbuddycrm.services.google;
 
+import io.github.cdimascio.dotenv.Dotenv;
+
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -7,24 +9,142 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 import java.io.ByteArrayOutputStream;
 import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Enhanced Gmail service with attachment support for payment slips
  */
 public class GmailService {
 
+    private static final String DEFAULT_API_BASE_URL = "https://gmail.googleapis.com";
+
+    // messages.send takes the message Base64url-encoded inside {"raw":"..."}
+    private static final byte[] RAW_PAYLOAD_PREFIX = "{\"raw\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RAW_PAYLOAD_SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CRLF_BYTES = {'\r', '\n'};
+    private static final int PAYLOAD_PIPE_SIZE = 64 * 1024;
+
+    // Google's limit for one batch request; Gmail suggests staying at or below 50
+    public static final int MAX_BATCH_SIZE = 100;
+    private static final Pattern BOUNDARY_PATTERN = Pattern.compile("(?i)boundary=\"?([^\";]+)\"?");
+    private static final Pattern RESPONSE_ID_PATTERN = Pattern.compile("(?im)^Content-ID:\\s*<?response-item-(\\d+)>?");
+
+    // Messages above the threshold go to the upload endpoint as message/rfc822, which skips
+    // the Base64url layer and the 5 MB limit of messages.send JSON (uploads allow 35 MB)
+    private static final long DEFAULT_UPLOAD_THRESHOLD_BYTES = 1024 * 1024;
+    private static final long RESUMABLE_UPLOAD_THRESHOLD_BYTES = 5 * 1024 * 1024;
+    private static final int MAX_UPLOAD_RESUMES = 3;
+    private static final Duration UPLOAD_TIMEOUT = Duration.ofMinutes(5);
+
+    // Writes request bodies into pipes while the HTTP client reads the other end, and
+    // spools messages for the upload endpoint to temporary files
+    private static final AtomicInteger payloadWriterCount = new AtomicInteger();
+    private static final ExecutorService payloadWriters = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "gmail-payload-writer-" + payloadWriterCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final HttpClient httpClient;
+    private final String apiBaseUrl;
+    private final long uploadThresholdBytes;
 
+    // Returns a fresh access token for one that Gmail rejected with 401, or null
+    private volatile UnaryOperator<String> tokenRefresher;
+
+    /**
+     * Creates a service for the Gmail API, or for the server set in GMAIL_API_BASE_URL
+     * in .env (used to point the app at a local stand-in server). GMAIL_UPLOAD_THRESHOLD_BYTES
+     * sets the message size above which the upload endpoint is used.
+     */
     public GmailService() {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(30))
-                .build();
+        this(Dotenv.configure().ignoreIfMissing().load());
+    }
+
+    private GmailService(Dotenv dotenv) {
+        this(dotenv.get("GMAIL_API_BASE_URL", DEFAULT_API_BASE_URL),
+                parseThreshold(dotenv.get("GMAIL_UPLOAD_THRESHOLD_BYTES")));
+    }
+
+    /**
+     * Creates a service for a specific API server, e.g. a local stand-in for testing
+     * @param apiBaseUrl Scheme, host and port without a trailing slash
+     */
+    public GmailService(String apiBaseUrl) {
+        this(apiBaseUrl, DEFAULT_UPLOAD_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Creates a service for a specific API server and upload threshold
+     * @param apiBaseUrl Scheme, host and port without a trailing slash
+     * @param uploadThresholdBytes Messages larger than this are sent through the upload endpoint
+     */
+    public GmailService(String apiBaseUrl, long uploadThresholdBytes) {
+        this.apiBaseUrl = apiBaseUrl.endsWith("/") ? apiBaseUrl.substring(0, apiBaseUrl.length() - 1) : apiBaseUrl;
+        this.uploadThresholdBytes = uploadThresholdBytes;
+        this.httpClient = HttpClientFactory.getSharedClient();
+    }
+
+    /**
+     * Lets sends recover from an access token that expired or was revoked mid-send:
+     * after a 401 the rejected token is handed to the refresher and the send is
+     * retried once with the token it returns.
+     * @param tokenRefresher Maps a rejected access token to a fresh one, or null if none is available
+     */
+    public void setTokenRefresher(UnaryOperator<String> tokenRefresher) {
+        this.tokenRefresher = tokenRefresher;
+    }
+
+    boolean canRefreshTokens() {
+        return tokenRefresher != null;
+    }
+
+    /**
+     * @return A fresh access token to replace the rejected one, or null
+     */
+    String refreshRejectedToken(String rejectedToken) {
+        UnaryOperator<String> refresher = tokenRefresher;
+        return refresher != null ? refresher.apply(rejectedToken) : null;
+    }
+
+    private static long parseThreshold(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_UPLOAD_THRESHOLD_BYTES;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("❌ Invalid GMAIL_UPLOAD_THRESHOLD_BYTES: " + value);
+            return DEFAULT_UPLOAD_THRESHOLD_BYTES;
+        }
     }
 
     /**
@@ -45,22 +165,8 @@ public class GmailService {
                 return false;
             }
 
-            String email = buildEmailMessageWithAttachments(to, subject, body, attachments);
-            String encodedEmail = Base64.getUrlEncoder()
-                    .withoutPadding()
-                    .encodeToString(email.getBytes(StandardCharsets.UTF_8));
-
-            String jsonPayload = "{\"raw\":\"" + encodedEmail + "\"}";
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("https://gmail.googleapis.com/gmail/v1/users/me/messages/send"))
-                    .header("Authorization", "Bearer " + accessToken)
-                    .header("Content-Type", "application/json")
-                    .timeout(Duration.ofSeconds(30))
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            MimeMessageWriter email = MimeMessageWriter.plainText(to, subject, body).withAttachments(attachments);
+            HttpResponse<String> response = sendMessage(accessToken, email);
 
             System.out.println("📧 Gmail API status: " + response.statusCode());
 
@@ -96,34 +202,11 @@ public class GmailService {
                                    String organizationName, String amount, String description,
                                    byte[] pdfContent, BufferedImage barcodeImage) {
         try {
-            // Create email content
-            String subject = "Payment Slip - " + organizationName;
+            String subject = buildPaymentSlipSubject(organizationName);
             String body = buildPaymentSlipEmailBody(payerName, organizationName, amount, description);
 
-            // Create attachments list
-            java.util.List<EmailAttachment> attachments = new java.util.ArrayList<>();
-
-            // Add PDF attachment if provided
-            if (pdfContent != null) {
-                attachments.add(new EmailAttachment(
-                        "payment_slip_" + System.currentTimeMillis() + ".pdf",
-                        "application/pdf",
-                        pdfContent
-                ));
-            }
-
-            // Add barcode image attachment if provided
-            if (barcodeImage != null) {
-                byte[] imageBytes = convertImageToBytes(barcodeImage);
-                attachments.add(new EmailAttachment(
-                        "payment_barcode_" + System.currentTimeMillis() + ".png",
-                        "image/png",
-                        imageBytes
-                ));
-            }
-
             return sendEmailWithAttachments(accessToken, recipientEmail, subject, body,
-                    attachments.toArray(new EmailAttachment[0]));
+                    buildPaymentSlipAttachments(pdfContent, barcodeImage));
 
         } catch (Exception e) {
             System.err.println("❌ Error sending payment slip: " + e.getMessage());
@@ -132,6 +215,42 @@ public class GmailService {
         }
     }
 
+    /**
+     * Subject of payment slip emails
+     * @param organizationName Name of the organization receiving payment
+     */
+    public String buildPaymentSlipSubject(String organizationName) {
+        return "Payment Slip - " + organizationName;
+    }
+
+    /**
+     * Creates the PDF and barcode attachments for a payment slip email
+     */
+    private EmailAttachment[] buildPaymentSlipAttachments(byte[] pdfContent, BufferedImage barcodeImage) throws Exception {
+        java.util.List<EmailAttachment> attachments = new java.util.ArrayList<>();
+
+        // Add PDF attachment if provided
+        if (pdfContent != null) {
+            attachments.add(new EmailAttachment(
+                    "payment_slip_" + System.currentTimeMillis() + ".pdf",
+                    "application/pdf",
+                    pdfContent
+            ));
+        }
+
+        // Add barcode image attachment if provided
+        if (barcodeImage != null) {
+            byte[] imageBytes = convertImageToBytes(barcodeImage);
+            attachments.add(new EmailAttachment(
+                    "payment_barcode_" + System.currentTimeMillis() + ".png",
+                    "image/png",
+                    imageBytes
+            ));
+        }
+
+        return attachments.toArray(new EmailAttachment[0]);
+    }
+
     /**
      * Sends an email via Gmail API (original method for backward compatibility)
      */
@@ -140,62 +259,399 @@ public class GmailService {
     }
 
     /**
-     * Builds the raw email message with attachments in RFC 2822 format
+     * Sends a message without blocking the calling thread. Messages up to the upload
+     * threshold are streamed into a messages.send request; larger ones are spooled to a
+     * temporary file and uploaded from disk, see sendAsUploadAsync.
+     * The caller inspects the status code; rate limiting and retries are left to GmailSendEngine.
+     * @param accessToken OAuth access token
+     * @param message Message to send, written when the request body is sent
+     * @return Future completing with the Gmail API response
+     */
+    public CompletableFuture<HttpResponse<String>> sendMessageAsync(String accessToken, MimeMessageWriter message) {
+        if (message.getEstimatedSize() > uploadThresholdBytes) {
+            return sendAsUploadAsync(accessToken, message);
+        }
+        return httpClient.sendAsync(buildSendRequest(accessToken, message::writeTo), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Sends a message through messages.send, or through the upload endpoint when its
+     * estimated size is above the upload threshold. A 401 is retried once with a
+     * refreshed token when a token refresher is set.
      */
-    private String buildEmailMessageWithAttachments(String to, String subject, String body, EmailAttachment... attachments) {
-        StringBuilder email = new StringBuilder();
-        String boundary = "boundary_" + System.currentTimeMillis();
+    private HttpResponse<String> sendMessage(String accessToken, MimeMessageWriter message)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = sendMessageOnce(accessToken, message);
+        if (response.statusCode() == 401 && canRefreshTokens()) {
+            String refreshedToken = refreshRejectedToken(accessToken);
+            if (refreshedToken != null) {
+                System.out.println("🔄 Access token rejected, retrying with refreshed token");
+                response = sendMessageOnce(refreshedToken, message);
+            }
+        }
+        return response;
+    }
+
+    private HttpResponse<String> sendMessageOnce(String accessToken, MimeMessageWriter message)
+            throws IOException, InterruptedException {
+        try {
+            return sendMessageAsync(accessToken, message).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                cause = unchecked.getCause();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(cause);
+        }
+    }
 
-        // Email headers
-        email.append("To: ").append(to).append("\r\n");
-        email.append("Subject: ").append(subject).append("\r\n");
-        email.append("MIME-Version: 1.0\r\n");
+    /**
+     * Spools the message to a temporary file and uploads it from disk as message/rfc822.
+     * Simple media uploads are used up to 5 MB, resumable uploads above that so a dropped
+     * connection continues from the last byte the server received. The file is written on
+     * a payload writer thread and deleted once the upload has finished either way.
+     */
+    private CompletableFuture<HttpResponse<String>> sendAsUploadAsync(String accessToken, MimeMessageWriter message) {
+        return CompletableFuture.supplyAsync(() -> spool(message), payloadWriters)
+                .thenCompose(messageFile -> uploadFileAsync(accessToken, messageFile)
+                        .whenComplete((response, error) -> deleteQuietly(messageFile)));
+    }
 
-        if (attachments != null && attachments.length > 0) {
-            email.append("Content-Type: multipart/mixed; boundary=\"").append(boundary).append("\"\r\n");
-        } else {
-            email.append("Content-Type: text/plain; charset=utf-8\r\n");
+    private static Path spool(MimeMessageWriter message) {
+        Path messageFile = null;
+        try {
+            messageFile = Files.createTempFile("sbb-message-", ".eml");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(messageFile))) {
+                message.writeTo(out);
+            }
+            return messageFile;
+        } catch (IOException e) {
+            deleteQuietly(messageFile);
+            throw new UncheckedIOException(e);
         }
+    }
 
-        email.append("\r\n");
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("❌ Could not delete spooled message " + file + ": " + e.getMessage());
+        }
+    }
 
-        if (attachments != null && attachments.length > 0) {
-            // Email body part
-            email.append("--").append(boundary).append("\r\n");
-            email.append("Content-Type: text/plain; charset=utf-8\r\n");
-            email.append("\r\n");
-            email.append(body).append("\r\n");
+    private CompletableFuture<HttpResponse<String>> uploadFileAsync(String accessToken, Path messageFile) {
+        long size;
+        try {
+            size = Files.size(messageFile);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (size > RESUMABLE_UPLOAD_THRESHOLD_BYTES) {
+            System.out.println("📤 Resumable upload of " + (size / 1024) + " KB message");
+            return sendResumableUploadAsync(accessToken, messageFile, size);
+        }
 
-            // Attachment parts
-            for (EmailAttachment attachment : attachments) {
-                email.append("--").append(boundary).append("\r\n");
-                email.append("Content-Type: ").append(attachment.getMimeType()).append("\r\n");
-                email.append("Content-Transfer-Encoding: base64\r\n");
-                email.append("Content-Disposition: attachment; filename=\"").append(attachment.getFileName()).append("\"\r\n");
-                email.append("\r\n");
+        System.out.println("📤 Media upload of " + (size / 1024) + " KB message");
+        try {
+            return httpClient.sendAsync(buildUploadRequest(accessToken, "media", null)
+                            .header("Content-Type", "message/rfc822")
+                            .POST(HttpRequest.BodyPublishers.ofFile(messageFile))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (FileNotFoundException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs a resumable upload: opens a session, PUTs the file, and after a network error asks
+     * the server how much it has and sends the rest.
+     */
+    private CompletableFuture<HttpResponse<String>> sendResumableUploadAsync(String accessToken, Path messageFile,
+                                                                             long size) {
+        return httpClient.sendAsync(buildUploadRequest(accessToken, "resumable", null)
+                                .header("X-Upload-Content-Type", "message/rfc822")
+                                .header("X-Upload-Content-Length", String.valueOf(size))
+                                .POST(HttpRequest.BodyPublishers.noBody())
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString())
+                .thenCompose(session -> {
+                    Optional<String> location = session.headers().firstValue("Location");
+                    if (session.statusCode() != 200 || location.isEmpty()) {
+                        // Let the caller see the error response (401, 429, ...) as it would for a direct send
+                        return CompletableFuture.completedFuture(session);
+                    }
+                    return uploadFrom(accessToken, URI.create(location.get()), messageFile, 0, size, 0);
+                });
+    }
 
-                // Encode attachment content as base64
-                String base64Content = Base64.getEncoder().encodeToString(attachment.getContent());
-                // Split base64 content into lines of 76 characters (RFC requirement)
-                for (int i = 0; i < base64Content.length(); i += 76) {
-                    int end = Math.min(i + 76, base64Content.length());
-                    email.append(base64Content.substring(i, end)).append("\r\n");
+    /**
+     * PUTs the file from the given offset to the session; after a network error asks the
+     * server how far it got and continues from there, up to MAX_UPLOAD_RESUMES times.
+     */
+    private CompletableFuture<HttpResponse<String>> uploadFrom(String accessToken, URI sessionUri, Path messageFile,
+                                                              long offset, long size, int resume) {
+        CompletableFuture<HttpResponse<String>> upload;
+        try {
+            upload = httpClient.sendAsync(buildUploadRequest(accessToken, null, sessionUri)
+                            .header("Content-Range", "bytes " + offset + "-" + (size - 1) + "/" + size)
+                            .PUT(fileRange(messageFile, offset, size))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (FileNotFoundException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return upload.exceptionallyCompose(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!(cause instanceof IOException) || resume >= MAX_UPLOAD_RESUMES) {
+                return CompletableFuture.failedFuture(cause);
+            }
+            System.err.println("⏳ Upload interrupted, checking session: " + cause.getMessage());
+
+            return httpClient.sendAsync(buildUploadRequest(accessToken, null, sessionUri)
+                                    .header("Content-Range", "bytes */" + size)
+                                    .PUT(HttpRequest.BodyPublishers.noBody())
+                                    .build(),
+                            HttpResponse.BodyHandlers.ofString())
+                    .thenCompose(status -> {
+                        if (status.statusCode() != 308) {
+                            // Either the upload completed after all, or the session is gone
+                            return CompletableFuture.completedFuture(status);
+                        }
+                        // Range: bytes=0-N lists what the server has; no header means nothing yet
+                        long received = status.headers().firstValue("Range")
+                                .map(range -> Long.parseLong(range.substring(range.indexOf('-') + 1)) + 1)
+                                .orElse(0L);
+                        System.out.println("🔄 Resuming upload at byte " + received + " of " + size);
+                        return uploadFrom(accessToken, sessionUri, messageFile, received, size, resume + 1);
+                    });
+        });
+    }
+
+    /**
+     * Publishes the file from the given offset to its end
+     */
+    private static HttpRequest.BodyPublisher fileRange(Path file, long offset, long size) throws FileNotFoundException {
+        if (offset == 0) {
+            return HttpRequest.BodyPublishers.ofFile(file);
+        }
+        return HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                InputStream in = Files.newInputStream(file);
+                in.skipNBytes(offset);
+                return in;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), size - offset);
+    }
+
+    /**
+     * Starts an upload endpoint request, either a new upload of the given type or a
+     * request against an existing resumable session
+     */
+    private HttpRequest.Builder buildUploadRequest(String accessToken, String uploadType, URI sessionUri) {
+        URI uri = sessionUri != null
+                ? sessionUri
+                : URI.create(apiBaseUrl + "/upload/gmail/v1/users/me/messages/send?uploadType=" + uploadType);
+        return HttpRequest.newBuilder()
+                .uri(uri)
+                .header("Authorization", "Bearer " + accessToken)
+                .timeout(UPLOAD_TIMEOUT);
+    }
+
+    /**
+     * Builds the messages.send request. The body is streamed: the message is written
+     * through a Base64url encoder into a pipe that the HTTP client reads, so neither
+     * the encoded message nor the JSON payload is ever held in memory as a whole.
+     */
+    private HttpRequest buildSendRequest(String accessToken, MessageContent message) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiBaseUrl + "/gmail/v1/users/me/messages/send"))
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> openPipedBody(out -> writeRawPayload(out, message))))
+                .build();
+    }
+
+    /**
+     * Writes the {"raw":"..."} payload, encoding the message through a Base64url encoder
+     */
+    private static void writeRawPayload(OutputStream out, MessageContent message) throws IOException {
+        out.write(RAW_PAYLOAD_PREFIX);
+        try (OutputStream encoded = Base64.getUrlEncoder().withoutPadding()
+                .wrap(new MimeMessageWriter.NonClosingOutputStream(out))) {
+            message.writeTo(encoded);
+        }
+        out.write(RAW_PAYLOAD_SUFFIX);
+    }
+
+    /**
+     * Starts writing a request body into a pipe and returns the reading end.
+     * Called again by the HTTP client if the request has to be resent.
+     */
+    private InputStream openPipedBody(MessageContent body) {
+        PipedInputStream payload = new PipedInputStream(PAYLOAD_PIPE_SIZE);
+        PipedOutputStream sink;
+        try {
+            sink = new PipedOutputStream(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        payloadWriters.execute(() -> {
+            try (OutputStream out = sink) {
+                body.writeTo(out);
+            } catch (IOException e) {
+                System.err.println("❌ Error streaming email payload: " + e.getMessage());
+                // Closing the reading end fails the request instead of sending a truncated message
+                try {
+                    payload.close();
+                } catch (IOException ignored) {
                 }
             }
+        });
+
+        return payload;
+    }
+
+    /**
+     * Whether a message can go into a batch request. Batch parts use messages.send
+     * JSON, so messages that would need the upload endpoint are sent on their own.
+     */
+    public boolean isBatchable(MimeMessageWriter message) {
+        return message.getEstimatedSize() <= uploadThresholdBytes;
+    }
 
-            email.append("--").append(boundary).append("--\r\n");
-        } else {
-            // Simple email without attachments
-            email.append(body);
+    /**
+     * Sends several messages in one multipart/mixed batch request, saving a request
+     * and its headers per message. Each message still counts against the sending quota.
+     * The messages are streamed into the request body one after the other.
+     * The response is split back into one part per message.
+     * @param accessToken OAuth access token
+     * @param messages Messages, at most MAX_BATCH_SIZE and each batchable
+     * @return Future with the outer status and, when it is 200, a part per message in input order
+     */
+    public CompletableFuture<BatchResponse> sendBatchAsync(String accessToken, java.util.List<MimeMessageWriter> messages) {
+        if (messages.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " messages per batch");
         }
 
-        return email.toString();
+        String boundary = "batch_" + Long.toHexString(System.nanoTime());
+        MessageContent body = out -> {
+            for (int i = 0; i < messages.size(); i++) {
+                out.write(("--" + boundary + "\r\n" +
+                        "Content-Type: application/http\r\n" +
+                        "Content-ID: <item-" + i + ">\r\n" +
+                        "\r\n" +
+                        "POST /gmail/v1/users/me/messages/send\r\n" +
+                        "Content-Type: application/json\r\n" +
+                        "\r\n").getBytes(StandardCharsets.US_ASCII));
+                writeRawPayload(out, messages.get(i)::writeTo);
+                out.write(CRLF_BYTES);
+            }
+            out.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        };
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(apiBaseUrl + "/batch/gmail/v1"))
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Content-Type", "multipart/mixed; boundary=" + boundary)
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> openPipedBody(body)))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> parseBatchResponse(response, messages.size()));
+    }
+
+    /**
+     * Splits a multipart/mixed batch response into its parts. Parts are matched to
+     * requests by Content-ID (response-item-N), falling back to their order.
+     */
+    private static BatchResponse parseBatchResponse(HttpResponse<String> response, int expectedParts) {
+        Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+        if (response.statusCode() != 200) {
+            return new BatchResponse(response.statusCode(), retryAfter, response.body(), java.util.List.of());
+        }
+
+        String boundary = response.headers().firstValue("Content-Type")
+                .map(GmailService::boundaryOf)
+                .orElse(null);
+        if (boundary == null) {
+            return new BatchResponse(response.statusCode(), retryAfter, "Batch response without boundary", java.util.List.of());
+        }
+
+        BatchPart[] parts = new BatchPart[expectedParts];
+        String[] segments = response.body().replace("\r\n", "\n").split("(?m)^--" + Pattern.quote(boundary));
+        int position = 0;
+        for (String segment : segments) {
+            if (segment.startsWith("--") || segment.isBlank() || !segment.contains("HTTP/")) {
+                continue; // Preamble or closing delimiter
+            }
+
+            int contentStart = segment.indexOf("\n\n");
+            if (contentStart < 0) {
+                continue;
+            }
+            String partHeaders = segment.substring(0, contentStart);
+            String content = segment.substring(contentStart + 2).strip();
+
+            int index = position++;
+            Matcher idMatcher = RESPONSE_ID_PATTERN.matcher(partHeaders);
+            if (idMatcher.find()) {
+                index = Integer.parseInt(idMatcher.group(1));
+            }
+            if (index < 0 || index >= expectedParts) {
+                continue;
+            }
+
+            // Embedded response: status line, headers, blank line, body
+            String[] headerAndBody = content.split("\n\n", 2);
+            String[] headerLines = headerAndBody[0].split("\n");
+            String[] statusLine = headerLines[0].trim().split(" ");
+            int statusCode = statusLine.length > 1 ? parseStatus(statusLine[1]) : 0;
+
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < headerLines.length; i++) {
+                int colon = headerLines[i].indexOf(':');
+                if (colon > 0) {
+                    headers.put(headerLines[i].substring(0, colon).trim().toLowerCase(),
+                            headerLines[i].substring(colon + 1).trim());
+                }
+            }
+            parts[index] = new BatchPart(index, statusCode, headers, headerAndBody.length > 1 ? headerAndBody[1].strip() : "");
+        }
+
+        return new BatchResponse(response.statusCode(), retryAfter, null, Arrays.asList(parts));
+    }
+
+    private static String boundaryOf(String contentType) {
+        Matcher matcher = BOUNDARY_PATTERN.matcher(contentType);
+        return matcher.find() ? matcher.group(1).trim() : null;
+    }
+
+    private static int parseStatus(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
     /**
      * Builds the email body for payment slip notifications
      */
-    private String buildPaymentSlipEmailBody(String payerName, String organizationName, String amount, String description) {
+    public String buildPaymentSlipEmailBody(String payerName, String organizationName, String amount, String description) {
         return "Dear " + payerName + ",\n\n" +
                 "Please find attached your payment slip for " + organizationName + ".\n\n" +
                 "Payment Details:\n" +
@@ -284,7 +740,7 @@ public class GmailService {
     public boolean validateGmailAccess(String accessToken) {
         try {
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("https://gmail.googleapis.com/gmail/v1/users/me/profile"))
+                    .uri(URI.create(apiBaseUrl + "/gmail/v1/users/me/profile"))
                     .header("Authorization", "Bearer " + accessToken)
                     .timeout(Duration.ofSeconds(10))
                     .GET()
@@ -302,7 +758,88 @@ public class GmailService {
     }
 
     public void cleanup() {
-        // Cleanup any resources if needed
+        // The HTTP client is shared application-wide and stays open
+    }
+
+    /**
+     * Outcome of a batch request. When the batch itself failed (status other than 200)
+     * there are no parts and the caller should fall back to single sends.
+     */
+    public static class BatchResponse {
+        private final int statusCode;
+        private final Optional<String> retryAfter;
+        private final String error;
+        private final java.util.List<BatchPart> parts;
+
+        BatchResponse(int statusCode, Optional<String> retryAfter, String error, java.util.List<BatchPart> parts) {
+            this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
+            this.error = error;
+            this.parts = parts;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public Optional<String> getRetryAfter() {
+            return retryAfter;
+        }
+
+        /** Response body or parse problem when the batch failed as a whole. */
+        public String getError() {
+            return error;
+        }
+
+        /** One entry per message in request order; an entry is null if its part was missing. */
+        public java.util.List<BatchPart> getParts() {
+            return parts;
+        }
+
+        public boolean isSuccess() {
+            return statusCode == 200 && error == null;
+        }
+    }
+
+    /**
+     * The embedded HTTP response for one message of a batch
+     */
+    public static class BatchPart {
+        private final int index;
+        private final int statusCode;
+        private final Map<String, String> headers;
+        private final String body;
+
+        BatchPart(int index, int statusCode, Map<String, String> headers, String body) {
+            this.index = index;
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public Optional<String> getHeader(String name) {
+            return Optional.ofNullable(headers.get(name.toLowerCase()));
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+
+    /**
+     * Message content that can be written to a stream more than once
+     */
+    @FunctionalInterface
+    interface MessageContent {
+        void writeTo(OutputStream out) throws IOException;
     }
 
     /**
@@ -312,11 +849,23 @@ public class GmailService {
         private final String fileName;
         private final String mimeType;
         private final byte[] content;
+        private final Path file;
 
         public EmailAttachment(String fileName, String mimeType, byte[] content) {
             this.fileName = fileName;
             this.mimeType = mimeType;
             this.content = content;
+            this.file = null;
+        }
+
+        /**
+         * Attachment read from disk each time the message is written, e.g. a spooled PDF
+         */
+        public EmailAttachment(String fileName, String mimeType, Path file) {
+            this.fileName = fileName;
+            this.mimeType = mimeType;
+            this.content = null;
+            this.file = file;
         }
 
         public String getFileName() {
@@ -327,8 +876,33 @@ public class GmailService {
             return mimeType;
         }
 
+        /**
+         * Returns the content, reading it into memory for file-backed attachments
+         */
         public byte[] getContent() {
-            return content;
+            if (content != null) {
+                return content;
+            }
+            try {
+                return Files.readAllBytes(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public InputStream openStream() throws IOException {
+            return content != null ? new ByteArrayInputStream(content) : Files.newInputStream(file);
+        }
+
+        public long getSize() {
+            if (content != null) {
+                return content.length;
+            }
+            try {
+                return Files.size(file);
+            } catch (IOException e) {
+                return 0;
+            }
         }
     }
 
@@ -339,22 +913,8 @@ public class GmailService {
      * @param htmlBody HTML content
      * @return Formatted email message
      */
-    private String buildHtmlEmailMessage(String to, String subject, String htmlBody) {
-        StringBuilder email = new StringBuilder();
-
-        // Email headers
-        email.append("To: ").append(to).append("\r\n");
-        email.append("Subject: ").append(subject).append("\r\n");
-        email.append("MIME-Version: 1.0\r\n");
-
-        // IMPORTANT: Set content type to HTML instead of plain text
-        email.append("Content-Type: text/html; charset=utf-8\r\n");
-        email.append("\r\n");
-
-        // HTML body content
-        email.append(htmlBody);
-
-        return email.toString();
+    public String buildHtmlEmailMessage(String to, String subject, String htmlBody) {
+        return MimeMessageWriter.html(to, subject, htmlBody).toRawMessage();
     }
 
     /**
@@ -378,25 +938,11 @@ public class GmailService {
 
             // Auto-generate plain text version if not provided
             if (plainTextBody == null || plainTextBody.trim().isEmpty()) {
-                plainTextBody = convertHtmlToPlainText(htmlBody);
+                plainTextBody = CampaignRenderer.convertHtmlToPlainText(htmlBody);
             }
 
-            String email = buildMultipartEmailMessage(to, subject, htmlBody, plainTextBody);
-            String encodedEmail = Base64.getUrlEncoder()
-                    .withoutPadding()
-                    .encodeToString(email.getBytes(StandardCharsets.UTF_8));
-
-            String jsonPayload = "{\"raw\":\"" + encodedEmail + "\"}";
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("https://gmail.googleapis.com/gmail/v1/users/me/messages/send"))
-                    .header("Authorization", "Bearer " + accessToken)
-                    .header("Content-Type", "application/json")
-                    .timeout(Duration.ofSeconds(30))
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            MimeMessageWriter email = MimeMessageWriter.alternative(to, subject, plainTextBody, htmlBody);
+            HttpResponse<String> response = sendMessage(accessToken, email);
 
             System.out.println("📧 Gmail API status: " + response.statusCode());
 
@@ -416,74 +962,6 @@ public class GmailService {
         }
     }
 
-    /**
-     * Builds multipart email with both HTML and plain text versions
-     * @param to Recipient email
-     * @param subject Email subject
-     * @param htmlBody HTML content
-     * @param plainTextBody Plain text content
-     * @return Formatted multipart email message
-     */
-    private String buildMultipartEmailMessage(String to, String subject, String htmlBody, String plainTextBody) {
-        StringBuilder email = new StringBuilder();
-        String boundary = "newsletter_boundary_" + System.currentTimeMillis();
-
-        // Email headers
-        email.append("To: ").append(to).append("\r\n");
-        email.append("Subject: ").append(subject).append("\r\n");
-        email.append("MIME-Version: 1.0\r\n");
-        email.append("Content-Type: multipart/alternative; boundary=\"").append(boundary).append("\"\r\n");
-        email.append("\r\n");
-
-        // Plain text version
-        email.append("--").append(boundary).append("\r\n");
-        email.append("Content-Type: text/plain; charset=utf-8\r\n");
-        email.append("\r\n");
-        email.append(plainTextBody).append("\r\n");
-
-        // HTML version
-        email.append("--").append(boundary).append("\r\n");
-        email.append("Content-Type: text/html; charset=utf-8\r\n");
-        email.append("\r\n");
-        email.append(htmlBody).append("\r\n");
-
-        // End boundary
-        email.append("--").append(boundary).append("--\r\n");
-
-        return email.toString();
-    }
-
-    /**
-     * Convert HTML to plain text for email clients that don't support HTML
-     * @param htmlContent HTML content
-     * @return Plain text version
-     */
-    private String convertHtmlToPlainText(String htmlContent) {
-        if (htmlContent == null || htmlContent.trim().isEmpty()) {
-            return "";
-        }
-
-        // Simple HTML to text conversion
-        String plainText = htmlContent
-                // Replace common HTML tags with meaningful text
-                .replaceAll("(?i)<br\\s*/?\\s*>", "\n")
-                .replaceAll("(?i)<p\\s*[^>]*>", "\n")
-                .replaceAll("(?i)</p>", "\n")
-                .replaceAll("(?i)<h[1-6]\\s*[^>]*>", "\n** ")
-                .replaceAll("(?i)</h[1-6]>", " **\n")
-                .replaceAll("(?i)<li\\s*[^>]*>", "\n• ")
-                .replaceAll("(?i)</li>", "")
-                .replaceAll("(?i)<a\\s+[^>]*href=\"([^\"]*)\"[^>]*>([^<]*)</a>", "$2 ($1)")
-                // Remove all remaining HTML tags
-                .replaceAll("(?i)<[^>]*>", "")
-                // Clean up whitespace
-                .replaceAll("\\n\\s*\\n", "\n\n")
-                .replaceAll("^\\s+", "")
-                .trim();
-
-        return plainText;
-    }
-
     /**
      * Sends an HTML newsletter via Gmail API
      * @param accessToken OAuth access token
@@ -501,22 +979,8 @@ public class GmailService {
                 return false;
             }
 
-            String email = buildHtmlEmailMessage(to, subject, htmlBody);
-            String encodedEmail = Base64.getUrlEncoder()
-                    .withoutPadding()
-                    .encodeToString(email.getBytes(StandardCharsets.UTF_8));
-
-            String jsonPayload = "{\"raw\":\"" + encodedEmail + "\"}";
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("https://gmail.googleapis.com/gmail/v1/users/me/messages/send"))
-                    .header("Authorization", "Bearer " + accessToken)
-                    .header("Content-Type", "application/json")
-                    .timeout(Duration.ofSeconds(30))
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            MimeMessageWriter email = MimeMessageWriter.html(to, subject, htmlBody);
+            HttpResponse<String> response = sendMessage(accessToken, email);
 
             System.out.println("📧 Gmail API status: " + response.statusCode());
 
@@ -2,12 +2,28 @@ package smallbusinessbuddycrm.services.google;
 
 import smallbusinessbuddycrm.model.OAuthToken;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Singleton class to manage Google OAuth state across the entire application
  * This ensures that all dialogs and controllers can access the same OAuth session
+ *
+ * The access token is refreshed ahead of its expiry by a background scheduler, so a
+ * long bulk send never runs into an expired token. All refreshes go through one
+ * single-flight path: threads that need a refresh while one is running wait for it
+ * instead of starting their own, and the token file is written once per refresh.
  */
 public class GoogleOAuthManager {
-    private static GoogleOAuthManager instance;
+    private static volatile GoogleOAuthManager instance;
+
+    // Refresh this long before expiry; callers asking for a token refresh if it is this close
+    private static final long PROACTIVE_REFRESH_MILLIS = 5 * 60_000;
+    private static final long EXPIRY_SKEW_MILLIS = 60_000;
+    private static final long REFRESH_RETRY_MILLIS = 60_000;
 
     // Services
     private TokenManager tokenManager;
@@ -15,13 +31,25 @@ public class GoogleOAuthManager {
     private GmailService gmailService;
 
     // Current state
-    private OAuthToken currentToken;
-    private boolean isConnected = false;
+    private volatile OAuthToken currentToken;
+    private volatile boolean isConnected = false;
+
+    // Token refresh
+    private final Object refreshLock = new Object();
+    private CompletableFuture<Boolean> refreshInFlight;
+    private ScheduledFuture<?> scheduledRefresh;
+    private final ScheduledExecutorService refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "oauth-token-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private GoogleOAuthManager() {
         this.tokenManager = new TokenManager();
         this.oauthService = new OAuthService();
         this.gmailService = new GmailService();
+        // Senders hand back a token Gmail rejected with 401 and retry once with the result
+        this.gmailService.setTokenRefresher(this::refreshRejectedToken);
 
         // Try to load saved tokens on initialization
         loadSavedTokens();
@@ -46,18 +74,18 @@ public class GoogleOAuthManager {
             OAuthToken savedToken = tokenManager.loadSavedTokens();
             if (savedToken != null && savedToken.isValid()) {
                 // Validate token is still good
-                if (oauthService.validateToken(savedToken.getAccessToken())) {
+                if (!savedToken.isExpired() && oauthService.validateToken(savedToken.getAccessToken())) {
                     currentToken = savedToken;
                     isConnected = true;
+                    scheduleProactiveRefresh();
                     System.out.println("✅ OAuth Manager: Loaded valid saved token for " + savedToken.getUserEmail());
                 } else if (savedToken.hasRefreshToken()) {
                     // Try to refresh the token
-                    String newAccessToken = oauthService.refreshAccessToken(savedToken.getRefreshToken());
-                    if (newAccessToken != null) {
-                        currentToken = savedToken.withUpdatedAccessToken(newAccessToken);
-                        tokenManager.saveTokens(currentToken);
-                        isConnected = true;
+                    currentToken = savedToken;
+                    if (refreshSingleFlight()) {
                         System.out.println("✅ OAuth Manager: Refreshed token for " + currentToken.getUserEmail());
+                    } else {
+                        currentToken = null;
                     }
                 }
             }
@@ -72,6 +100,7 @@ public class GoogleOAuthManager {
     public void updateConnection(OAuthToken token, boolean connected) {
         this.currentToken = token;
         this.isConnected = connected;
+        scheduleProactiveRefresh();
 
         if (connected && token != null) {
             System.out.println("✅ OAuth Manager: Connection updated - " + token.getUserEmail());
@@ -101,7 +130,20 @@ public class GoogleOAuthManager {
      * Get current access token
      */
     public String getAccessToken() {
-        return currentToken != null ? currentToken.getAccessToken() : null;
+        OAuthToken token = currentToken;
+        return token != null ? token.getAccessToken() : null;
+    }
+
+    /**
+     * Get an access token that is not about to expire, refreshing it first if needed.
+     * Blocks while a refresh runs, so do not call it on the JavaFX Application Thread.
+     */
+    public String getValidAccessToken() {
+        OAuthToken token = currentToken;
+        if (token != null && token.expiresWithin(EXPIRY_SKEW_MILLIS) && token.hasRefreshToken()) {
+            refreshSingleFlight();
+        }
+        return getAccessToken();
     }
 
     /**
@@ -132,6 +174,14 @@ public class GoogleOAuthManager {
         return gmailService;
     }
 
+    /**
+     * Create a send engine for one bulk send using the current OAuth session.
+     * The token is read per request, so a refresh during the run is picked up.
+     */
+    public GmailSendEngine createSendEngine() {
+        return GmailSendEngine.withConfiguredSettings(gmailService, this::getValidAccessToken);
+    }
+
     /**
      * Get OAuth service instance
      */
@@ -152,32 +202,127 @@ public class GoogleOAuthManager {
     public void clearConnection() {
         this.currentToken = null;
         this.isConnected = false;
+        scheduleProactiveRefresh();
         tokenManager.clearSavedTokens();
         System.out.println("🧹 OAuth Manager: Connection cleared");
     }
 
     /**
-     * Refresh access token if needed
+     * Refresh access token if it expires soon or its expiry is unknown
+     * @return true if the current token is usable afterwards
      */
     public boolean refreshTokenIfNeeded() {
-        if (currentToken == null || !currentToken.hasRefreshToken()) {
+        OAuthToken token = currentToken;
+        if (token == null || !token.hasRefreshToken()) {
             return false;
         }
+        if (token.hasKnownExpiry() && !token.expiresWithin(PROACTIVE_REFRESH_MILLIS)) {
+            return true;
+        }
+        return refreshSingleFlight();
+    }
+
+    /**
+     * Called by senders after Gmail rejected a token with 401.
+     * @param rejectedToken The access token that was rejected
+     * @return Token to retry with, or null if no fresh token could be obtained
+     */
+    public String refreshRejectedToken(String rejectedToken) {
+        OAuthToken token = currentToken;
+        if (token == null || !token.hasRefreshToken()) {
+            return null;
+        }
+        // Another sender already replaced the rejected token
+        if (rejectedToken != null && !rejectedToken.equals(token.getAccessToken())) {
+            return token.getAccessToken();
+        }
+        return refreshSingleFlight() ? getAccessToken() : null;
+    }
+
+    /**
+     * Refreshes the access token, or waits for the refresh already in progress.
+     * Only the thread that starts a refresh calls the token endpoint and saves the tokens.
+     * @return true if the refresh succeeded
+     */
+    private boolean refreshSingleFlight() {
+        CompletableFuture<Boolean> refresh;
+        boolean owner = false;
+        synchronized (refreshLock) {
+            if (refreshInFlight == null) {
+                refreshInFlight = new CompletableFuture<>();
+                owner = true;
+            }
+            refresh = refreshInFlight;
+        }
 
+        if (!owner) {
+            return refresh.join();
+        }
+
+        boolean refreshed = false;
         try {
-            String newAccessToken = oauthService.refreshAccessToken(currentToken.getRefreshToken());
-            if (newAccessToken != null) {
-                currentToken = currentToken.withUpdatedAccessToken(newAccessToken);
-                tokenManager.saveTokens(currentToken);
-                isConnected = true;
-                System.out.println("✅ OAuth Manager: Token refreshed successfully");
-                return true;
+            OAuthToken token = currentToken;
+            if (token != null && token.hasRefreshToken()) {
+                OAuthToken newToken = oauthService.refreshAccessToken(token);
+                if (newToken != null && newToken.isValid()) {
+                    currentToken = newToken;
+                    tokenManager.saveTokens(newToken);
+                    isConnected = true;
+                    refreshed = true;
+                    System.out.println("✅ OAuth Manager: Token refreshed, valid for " +
+                            (newToken.getExpiresAt() - System.currentTimeMillis()) / 60_000 + " min");
+                }
             }
         } catch (Exception e) {
             System.err.println("Error refreshing token: " + e.getMessage());
+        } finally {
+            synchronized (refreshLock) {
+                refreshInFlight = null;
+            }
+            refresh.complete(refreshed);
         }
 
-        return false;
+        if (refreshed) {
+            scheduleProactiveRefresh();
+        }
+        return refreshed;
+    }
+
+    private void runScheduledRefresh() {
+        if (refreshSingleFlight()) {
+            return;
+        }
+        System.err.println("⏳ OAuth Manager: Scheduled token refresh failed, retrying in 1 min");
+        synchronized (refreshLock) {
+            if (isConnected && currentToken != null) {
+                scheduledRefresh = refreshScheduler.schedule(this::runScheduledRefresh,
+                        REFRESH_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Schedules the next refresh a few minutes before the current token expires,
+     * replacing any earlier schedule. A failed refresh is retried every minute.
+     */
+    private void scheduleProactiveRefresh() {
+        synchronized (refreshLock) {
+            if (scheduledRefresh != null) {
+                scheduledRefresh.cancel(false);
+                scheduledRefresh = null;
+            }
+
+            OAuthToken token = currentToken;
+            if (!isConnected || token == null || !token.hasRefreshToken()) {
+                return;
+            }
+
+            long delay = token.hasKnownExpiry()
+                    ? Math.max(0, token.getExpiresAt() - PROACTIVE_REFRESH_MILLIS - System.currentTimeMillis())
+                    : 0;
+            scheduledRefresh = refreshScheduler.schedule(this::runScheduledRefresh, delay, TimeUnit.MILLISECONDS);
+            System.out.println("🔄 OAuth Manager: Next token refresh in " + delay / 1000 + " s");
+        }
     }
 
     /**
@@ -190,7 +335,7 @@ public class GoogleOAuthManager {
         }
 
         try {
-            return gmailService.sendEmail(currentToken.getAccessToken(), to, subject, body);
+            return gmailService.sendEmail(getValidAccessToken(), to, subject, body);
         } catch (Exception e) {
             System.err.println("Error sending email: " + e.getMessage());
             return false;
@@ -210,7 +355,7 @@ public class GoogleOAuthManager {
 
         try {
             return gmailService.sendPaymentSlip(
-                    currentToken.getAccessToken(), to, payerName, organizationName,
+                    getValidAccessToken(), to, payerName, organizationName,
                     amount, description, pdfContent, barcodeImage
             );
         } catch (Exception e) {
@@ -230,7 +375,7 @@ public class GoogleOAuthManager {
 
         try {
             return gmailService.sendTestEmail(
-                    currentToken.getAccessToken(),
+                    getValidAccessToken(),
                     currentToken.getUserEmail(),
                     currentToken.getUserName()
             );
@@ -251,7 +396,7 @@ public class GoogleOAuthManager {
 
         try {
             return gmailService.sendQuickTestEmail(
-                    currentToken.getAccessToken(),
+                    getValidAccessToken(),
                     currentToken.getUserEmail(),
                     currentToken.getUserName()
             );
@@ -270,7 +415,7 @@ public class GoogleOAuthManager {
         }
 
         try {
-            return gmailService.validateGmailAccess(currentToken.getAccessToken());
+            return gmailService.validateGmailAccess(getValidAccessToken());
         } catch (Exception e) {
             System.err.println("Error validating Gmail access: " + e.getMessage());
             return false;
@@ -281,25 +426,13 @@ public class GoogleOAuthManager {
      * Force refresh token
      */
     public boolean forceRefreshToken() {
-        if (currentToken == null || !currentToken.hasRefreshToken()) {
+        OAuthToken token = currentToken;
+        if (token == null || !token.hasRefreshToken()) {
             System.err.println("❌ No refresh token available");
             return false;
         }
 
-        try {
-            String newAccessToken = oauthService.refreshAccessToken(currentToken.getRefreshToken());
-            if (newAccessToken != null) {
-                currentToken = currentToken.withUpdatedAccessToken(newAccessToken);
-                tokenManager.saveTokens(currentToken);
-                isConnected = true;
-                System.out.println("✅ OAuth Manager: Token force refreshed successfully");
-                return true;
-            }
-        } catch (Exception e) {
-            System.err.println("Error force refreshing token: " + e.getMessage());
-        }
-
-        return false;
+        return refreshSingleFlight();
     }
 
     /**
@@ -349,7 +482,7 @@ public class GoogleOAuthManager {
         }
 
         try {
-            return gmailService.sendHtmlNewsletter(currentToken.getAccessToken(), to, subject, htmlContent);
+            return gmailService.sendHtmlNewsletter(getValidAccessToken(), to, subject, htmlContent);
         } catch (Exception e) {
             System.err.println("Error sending HTML newsletter: " + e.getMessage());
             return false;
@@ -366,7 +499,7 @@ public class GoogleOAuthManager {
         }
 
         try {
-            return gmailService.sendMultipartNewsletter(currentToken.getAccessToken(), to, subject, htmlContent, plainTextContent);
+            return gmailService.sendMultipartNewsletter(getValidAccessToken(), to, subject, htmlContent, plainTextContent);
         } catch (Exception e) {
             System.err.println("Error sending multipart newsletter: " + e.getMessage());
             return false;
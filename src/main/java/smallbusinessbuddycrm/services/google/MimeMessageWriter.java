@@ -0,0 +1,265 @@
+package smallbusinessbuddycrm.services.google;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Streaming writer for RFC 2822 email messages.
+ *
+ * The previous builders assembled the whole message in a StringBuilder, with every
+ * attachment Base64-encoded to one String and then split into lines with substring.
+ * This writer streams the message to an OutputStream instead: attachment content is
+ * read in small chunks and encoded through Base64's MIME encoder (76-character
+ * lines), so no full copy of an attachment or of the message is held in memory.
+ *
+ * The produced messages are byte-for-byte the same layout as before: a single
+ * text/plain or text/html part, multipart/alternative for newsletters, and
+ * multipart/mixed when attachments are present. Messages rendered elsewhere, such as
+ * CampaignRenderer output, are wrapped with prebuilt() so every sender takes one type.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class MimeMessageWriter {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final int COPY_BUFFER_SIZE = 8190; // Multiple of 3, so chunks encode without padding
+
+    private final String to;
+    private final String subject;
+    private final String plainTextBody;
+    private final String htmlBody;
+    // Complete message rendered by someone else, written as it is
+    private final String rawMessage;
+    private final List<GmailService.EmailAttachment> attachments = new ArrayList<>();
+
+    private MimeMessageWriter(String to, String subject, String plainTextBody, String htmlBody) {
+        this(to, subject, plainTextBody, htmlBody, null);
+    }
+
+    private MimeMessageWriter(String to, String subject, String plainTextBody, String htmlBody, String rawMessage) {
+        this.to = to;
+        this.subject = subject;
+        this.plainTextBody = plainTextBody;
+        this.htmlBody = htmlBody;
+        this.rawMessage = rawMessage;
+    }
+
+    /**
+     * Plain text message; becomes multipart/mixed once attachments are added.
+     */
+    public static MimeMessageWriter plainText(String to, String subject, String body) {
+        return new MimeMessageWriter(to, subject, body, null);
+    }
+
+    /**
+     * Single-part HTML message.
+     */
+    public static MimeMessageWriter html(String to, String subject, String htmlBody) {
+        return new MimeMessageWriter(to, subject, null, htmlBody);
+    }
+
+    /**
+     * multipart/alternative message with plain text and HTML versions.
+     */
+    public static MimeMessageWriter alternative(String to, String subject, String plainTextBody, String htmlBody) {
+        return new MimeMessageWriter(to, subject, plainTextBody, htmlBody);
+    }
+
+    /**
+     * Message that is already a complete raw RFC 2822 message, e.g. from CampaignRenderer.
+     */
+    public static MimeMessageWriter prebuilt(String to, String rawMessage) {
+        return new MimeMessageWriter(to, null, null, null, rawMessage);
+    }
+
+    /**
+     * Adds attachments to a plain text message.
+     *
+     * @param newAttachments Attachments, read when the message is written
+     * @return This writer
+     */
+    public MimeMessageWriter withAttachments(GmailService.EmailAttachment... newAttachments) {
+        if (htmlBody != null || rawMessage != null) {
+            throw new IllegalStateException("Attachments are only supported on plain text messages");
+        }
+        if (newAttachments != null) {
+            for (GmailService.EmailAttachment attachment : newAttachments) {
+                attachments.add(attachment);
+            }
+        }
+        return this;
+    }
+
+    public String getRecipient() {
+        return to;
+    }
+
+    /**
+     * Writes the message. The stream is flushed but not closed.
+     *
+     * @param out Destination
+     * @throws IOException if writing or reading an attachment fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        Writer text = new OutputStreamWriter(new NonClosingOutputStream(out), StandardCharsets.UTF_8);
+
+        if (rawMessage != null) {
+            text.write(rawMessage);
+            text.flush();
+            return;
+        }
+
+        // Email headers
+        text.write("To: " + to + "\r\n");
+        text.write("Subject: " + subject + "\r\n");
+        text.write("MIME-Version: 1.0\r\n");
+
+        if (!attachments.isEmpty()) {
+            writeMixed(text, out);
+        } else if (plainTextBody != null && htmlBody != null) {
+            writeAlternative(text);
+        } else if (htmlBody != null) {
+            text.write("Content-Type: text/html; charset=utf-8\r\n");
+            text.write("\r\n");
+            text.write(htmlBody);
+        } else {
+            text.write("Content-Type: text/plain; charset=utf-8\r\n");
+            text.write("\r\n");
+            text.write(plainTextBody);
+        }
+
+        text.flush();
+    }
+
+    /**
+     * Writes the message into a String, for callers that store raw messages.
+     *
+     * @return Raw RFC 2822 message
+     */
+    public String toRawMessage() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, getEstimatedSize()));
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void writeMixed(Writer text, OutputStream out) throws IOException {
+        String boundary = "boundary_" + System.currentTimeMillis();
+        text.write("Content-Type: multipart/mixed; boundary=\"" + boundary + "\"\r\n");
+        text.write("\r\n");
+
+        // Email body part
+        text.write("--" + boundary + "\r\n");
+        text.write("Content-Type: text/plain; charset=utf-8\r\n");
+        text.write("\r\n");
+        text.write(plainTextBody + "\r\n");
+
+        // Attachment parts
+        for (GmailService.EmailAttachment attachment : attachments) {
+            text.write("--" + boundary + "\r\n");
+            text.write("Content-Type: " + attachment.getMimeType() + "\r\n");
+            text.write("Content-Transfer-Encoding: base64\r\n");
+            text.write("Content-Disposition: attachment; filename=\"" + attachment.getFileName() + "\"\r\n");
+            text.write("\r\n");
+            text.flush();
+
+            writeBase64Lines(attachment, out);
+        }
+
+        text.write("--" + boundary + "--\r\n");
+    }
+
+    private void writeAlternative(Writer text) throws IOException {
+        String boundary = "newsletter_boundary_" + System.currentTimeMillis();
+        text.write("Content-Type: multipart/alternative; boundary=\"" + boundary + "\"\r\n");
+        text.write("\r\n");
+
+        // Plain text version
+        text.write("--" + boundary + "\r\n");
+        text.write("Content-Type: text/plain; charset=utf-8\r\n");
+        text.write("\r\n");
+        text.write(plainTextBody + "\r\n");
+
+        // HTML version
+        text.write("--" + boundary + "\r\n");
+        text.write("Content-Type: text/html; charset=utf-8\r\n");
+        text.write("\r\n");
+        text.write(htmlBody + "\r\n");
+
+        // End boundary
+        text.write("--" + boundary + "--\r\n");
+    }
+
+    /**
+     * Streams attachment content through the MIME Base64 encoder, which breaks the
+     * output into 76-character CRLF-separated lines. A final CRLF ends the last line;
+     * empty content writes no lines at all.
+     */
+    private void writeBase64Lines(GmailService.EmailAttachment attachment, OutputStream out) throws IOException {
+        OutputStream encoder = Base64.getMimeEncoder().wrap(new NonClosingOutputStream(out));
+        long total = 0;
+        try (InputStream content = attachment.openStream()) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                encoder.write(buffer, 0, read);
+                total += read;
+            }
+        }
+        // Closing the encoder writes the final padded quantum; the underlying stream stays open
+        encoder.close();
+        if (total > 0) {
+            out.write(CRLF);
+        }
+    }
+
+    /**
+     * Approximate size of the written message in bytes, without writing it.
+     */
+    public long getEstimatedSize() {
+        if (rawMessage != null) {
+            // Characters are at least one byte each
+            return rawMessage.length();
+        }
+        long size = 512;
+        size += plainTextBody != null ? plainTextBody.length() : 0;
+        size += htmlBody != null ? htmlBody.length() : 0;
+        for (GmailService.EmailAttachment attachment : attachments) {
+            size += attachment.getSize() * 4 / 3 + attachment.getSize() / 38 + 256;
+        }
+        return size;
+    }
+
+    /**
+     * Lets encoders and writers be closed or flushed without closing the stream they wrap.
+     */
+    static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
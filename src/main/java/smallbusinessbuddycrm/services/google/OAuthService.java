@@ -1,6 +1,7 @@
 package smallbusinessbuddycrm.services.google;
 
 import io.github.cdimascio.dotenv.Dotenv;
+import smallbusinessbuddycrm.model.OAuthToken;
 import smallbusinessbuddycrm.utilities.JsonUtils;
 
 import java.net.URI;
@@ -33,9 +34,8 @@ public class OAuthService {
             throw new IllegalStateException("Missing required environment variables: GOOGLE_OAUTH_CLIENT_ID, GOOGLE_OAUTH_CLIENT_SECRET, or GOOGLE_OAUTH_REDIRECT_URI");
         }
 
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(30))
-                .build();
+        // Token, refresh and userinfo calls share the Gmail connection pool
+        this.httpClient = HttpClientFactory.getSharedClient();
     }
 
     /**
@@ -116,6 +116,48 @@ public class OAuthService {
      * @return New access token or null if failed
      */
     public String refreshAccessToken(String refreshToken) {
+        String responseBody = requestTokenRefresh(refreshToken);
+        return responseBody != null ? JsonUtils.extractValue(responseBody, "access_token") : null;
+    }
+
+    /**
+     * Refreshes the access token of a session, keeping the new token's expiry
+     * @param token Current token with a refresh token
+     * @return Refreshed token or null if failed
+     */
+    public OAuthToken refreshAccessToken(OAuthToken token) {
+        if (token == null) {
+            return null;
+        }
+
+        String responseBody = requestTokenRefresh(token.getRefreshToken());
+        if (responseBody == null) {
+            return null;
+        }
+
+        String newAccessToken = JsonUtils.extractValue(responseBody, "access_token");
+        if (newAccessToken == null) {
+            System.err.println("❌ No access token in refresh response");
+            return null;
+        }
+        long expiresIn = OAuthToken.DEFAULT_LIFETIME_SECONDS;
+        try {
+            String expiresInValue = JsonUtils.extractValue(responseBody, "expires_in");
+            if (expiresInValue != null) {
+                expiresIn = Long.parseLong(expiresInValue.trim());
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("❌ Invalid expires_in in refresh response: " + e.getMessage());
+        }
+        return token.withUpdatedAccessToken(newAccessToken, expiresIn);
+    }
+
+    /**
+     * Calls the token endpoint with a refresh token
+     * @param refreshToken Refresh token
+     * @return Response body containing a new access token, or null if failed
+     */
+    private String requestTokenRefresh(String refreshToken) {
         if (refreshToken == null || refreshToken.isEmpty()) {
             System.out.println("❌ No refresh token available");
             return null;
@@ -143,7 +185,7 @@ public class OAuthService {
                 String newAccessToken = JsonUtils.extractValue(response.body(), "access_token");
                 if (newAccessToken != null && !newAccessToken.isEmpty()) {
                     System.out.println("✅ Access token refreshed successfully");
-                    return newAccessToken;
+                    return response.body();
                 }
             } else {
                 System.err.println("❌ Token refresh failed with status: " + response.statusCode());
@@ -219,6 +261,6 @@ public class OAuthService {
     }
 
     public void cleanup() {
-        // Cleanup any resources if needed
+        // The HTTP client is shared application-wide and stays open
     }
 }
\ No newline at end of file
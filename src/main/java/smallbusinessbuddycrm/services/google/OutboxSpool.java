@@ -0,0 +1,224 @@
+package smallbusinessbuddycrm.services.google;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Persistent spool for queued emails with attachments.
+ *
+ * Payment slip emails carry a PDF and a barcode PNG. Instead of storing each finished
+ * message, Base64 attachments included, in the email_outbox table, the sender writes
+ * the message text and the attachment files into one spool entry per outbox row and
+ * queues only the entry's path. The dispatcher turns the entry into a MimeMessageWriter
+ * with file-backed attachments when it claims the row, so attachments are streamed
+ * from disk into the request and never held in memory or in the database.
+ *
+ * An entry is a directory with subject.txt, body.txt and the attachments under their
+ * file names; the MIME type follows the file extension. Entries live under
+ * ~/.smallbusinesscrm/outbox (or the sbb.outbox.spool system property), grouped by
+ * campaign, so queued emails survive a restart like the rest of the outbox.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public final class OutboxSpool {
+
+    private static final String SUBJECT_FILE = "subject.txt";
+    private static final String BODY_FILE = "body.txt";
+
+    private OutboxSpool() {
+    }
+
+    /**
+     * Directory holding all spool entries.
+     */
+    public static Path getRoot() {
+        String configured = System.getProperty("sbb.outbox.spool");
+        if (configured != null && !configured.isBlank()) {
+            return Path.of(configured);
+        }
+        return Path.of(System.getProperty("user.home"), ".smallbusinesscrm", "outbox");
+    }
+
+    /**
+     * Creates the entry for one queued email, replacing an earlier entry for the same
+     * campaign and recipient key.
+     *
+     * @param campaignId Campaign of the outbox row
+     * @param recipientKey Recipient key of the outbox row
+     * @param subject Email subject
+     * @param body Plain text body
+     * @return Entry directory; add attachments with addAttachment
+     * @throws IOException if the entry cannot be written
+     */
+    public static Path createEntry(String campaignId, String recipientKey, String subject, String body)
+            throws IOException {
+        Path entry = campaignDirectory(campaignId).resolve(hash(recipientKey));
+        deleteEntry(entry);
+        Files.createDirectories(entry);
+        Files.writeString(entry.resolve(SUBJECT_FILE), subject != null ? subject : "", StandardCharsets.UTF_8);
+        Files.writeString(entry.resolve(BODY_FILE), body != null ? body : "", StandardCharsets.UTF_8);
+        return entry;
+    }
+
+    /**
+     * Copies a file into an entry as an attachment.
+     *
+     * @param entry Entry directory from createEntry
+     * @param fileName Attachment file name; its extension decides the MIME type
+     * @param source File to copy
+     */
+    public static void addAttachment(Path entry, String fileName, Path source) throws IOException {
+        Files.copy(source, attachmentPath(entry, fileName), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes content into an entry as an attachment.
+     *
+     * @param entry Entry directory from createEntry
+     * @param fileName Attachment file name; its extension decides the MIME type
+     * @param content Attachment content
+     */
+    public static void addAttachment(Path entry, String fileName, byte[] content) throws IOException {
+        Files.write(attachmentPath(entry, fileName), content);
+    }
+
+    /**
+     * Builds the message of an entry. Attachments are read from the entry while the
+     * message is written.
+     *
+     * @param recipient Recipient address
+     * @param entry Entry directory
+     * @return Message writer
+     * @throws IOException if the entry is missing or unreadable
+     */
+    public static MimeMessageWriter readMessage(String recipient, Path entry) throws IOException {
+        String subject = Files.readString(entry.resolve(SUBJECT_FILE), StandardCharsets.UTF_8);
+        String body = Files.readString(entry.resolve(BODY_FILE), StandardCharsets.UTF_8);
+
+        List<GmailService.EmailAttachment> attachments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(entry)) {
+            files.filter(file -> !isTextFile(file))
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .forEach(file -> attachments.add(new GmailService.EmailAttachment(
+                            file.getFileName().toString(), mimeType(file), file)));
+        }
+
+        return MimeMessageWriter.plainText(recipient, subject, body)
+                .withAttachments(attachments.toArray(new GmailService.EmailAttachment[0]));
+    }
+
+    /**
+     * Deletes an entry. Missing entries are ignored.
+     */
+    public static void deleteEntry(Path entry) {
+        deleteTree(entry);
+    }
+
+    /**
+     * Deletes the entries of campaigns that have nothing left to send.
+     *
+     * @param activeCampaignIds Campaigns with rows still waiting or being sent
+     * @param minAgeMillis Campaign directories changed more recently than this are kept
+     * @return Number of campaign directories deleted
+     */
+    public static int purgeExcept(Set<String> activeCampaignIds, long minAgeMillis) {
+        Path root = getRoot();
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+
+        Set<String> activeDirectories = new HashSet<>();
+        activeCampaignIds.forEach(id -> activeDirectories.add(directoryName(id)));
+
+        long cutoff = System.currentTimeMillis() - minAgeMillis;
+        int deleted = 0;
+        try (Stream<Path> campaigns = Files.list(root)) {
+            for (Path campaign : campaigns.toList()) {
+                if (!activeDirectories.contains(campaign.getFileName().toString())
+                        && Files.getLastModifiedTime(campaign).toMillis() < cutoff) {
+                    deleteTree(campaign);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error cleaning outbox spool " + root + ": " + e.getMessage());
+        }
+        return deleted;
+    }
+
+    private static Path campaignDirectory(String campaignId) {
+        return getRoot().resolve(directoryName(campaignId));
+    }
+
+    /**
+     * Campaign IDs are generated, but are still reduced to safe file name characters.
+     */
+    private static String directoryName(String campaignId) {
+        return campaignId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static Path attachmentPath(Path entry, String fileName) {
+        Path target = entry.resolve(Path.of(fileName).getFileName().toString());
+        if (isTextFile(target)) {
+            throw new IllegalArgumentException("Reserved attachment name: " + fileName);
+        }
+        return target;
+    }
+
+    private static boolean isTextFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.equals(SUBJECT_FILE) || name.equals(BODY_FILE);
+    }
+
+    private static String mimeType(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".pdf")) {
+            return "application/pdf";
+        }
+        if (name.endsWith(".png")) {
+            return "image/png";
+        }
+        return "application/octet-stream";
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteTree(Path path) {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not delete spooled email " + path + ": " + e.getMessage());
+        }
+    }
+}
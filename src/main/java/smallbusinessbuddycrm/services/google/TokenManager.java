@@ -26,6 +26,7 @@ public class TokenManager {
             props.setProperty("user_email", token.getUserEmail() != null ? token.getUserEmail() : "");
             props.setProperty("user_name", token.getUserName() != null ? token.getUserName() : "");
             props.setProperty("saved_at", String.valueOf(System.currentTimeMillis()));
+            props.setProperty("expires_at", String.valueOf(token.getExpiresAt()));
 
             File configDir = new File(System.getProperty("user.home"), CONFIG_DIR_NAME);
             configDir.mkdirs();
@@ -70,6 +71,7 @@ public class TokenManager {
                     props.getProperty("user_email"),
                     props.getProperty("user_name")
             );
+            token.setExpiresAt(parseExpiresAt(props));
 
             System.out.println("🔍 Loaded from file:");
             System.out.println("  - Access Token: " + (token.getAccessToken() != null && !token.getAccessToken().isEmpty() ? "present" : "missing"));
@@ -92,6 +94,26 @@ public class TokenManager {
         }
     }
 
+    /**
+     * Reads the stored expiry. Files saved before expiry was tracked get the default
+     * lifetime counted from when they were saved.
+     */
+    private long parseExpiresAt(Properties props) {
+        try {
+            String expiresAt = props.getProperty("expires_at");
+            if (expiresAt != null && !expiresAt.isEmpty() && Long.parseLong(expiresAt) > 0) {
+                return Long.parseLong(expiresAt);
+            }
+            String savedAt = props.getProperty("saved_at");
+            if (savedAt != null && !savedAt.isEmpty()) {
+                return Long.parseLong(savedAt) + OAuthToken.DEFAULT_LIFETIME_SECONDS * 1000;
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("❌ Invalid token expiry in saved tokens: " + e.getMessage());
+        }
+        return 0;
+    }
+
     /**
      * Clears all saved tokens from local storage
      */
@@ -135,7 +157,9 @@ public class TokenManager {
 
             if (accessToken != null && !accessToken.isEmpty()) {
                 System.out.println("✅ Token parsing successful!");
-                return new OAuthToken(accessToken, refreshToken, null, null);
+                OAuthToken token = new OAuthToken(accessToken, refreshToken, null, null);
+                token.setExpiresIn(parseExpiresIn(responseBody));
+                return token;
             } else {
                 System.err.println("❌ Failed to extract access token");
                 // Try manual extraction as fallback
@@ -148,6 +172,23 @@ public class TokenManager {
         }
     }
 
+    /**
+     * Reads expires_in from a token response, falling back to the default lifetime
+     * @param responseBody JSON response from OAuth token endpoint
+     * @return Lifetime in seconds
+     */
+    public long parseExpiresIn(String responseBody) {
+        try {
+            String expiresIn = JsonUtils.extractValue(responseBody, "expires_in");
+            if (expiresIn != null && !expiresIn.isEmpty()) {
+                return Long.parseLong(expiresIn.trim());
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("❌ Invalid expires_in: " + e.getMessage());
+        }
+        return OAuthToken.DEFAULT_LIFETIME_SECONDS;
+    }
+
     /**
      * Manual token extraction as fallback method
      * @param responseBody JSON response body
@@ -172,7 +213,9 @@ public class TokenManager {
                 if (endIndex != -1) {
                     String accessToken = responseBody.substring(startIndex, endIndex);
                     System.out.println("✅ Manual extraction successful");
-                    return new OAuthToken(accessToken, null, null, null);
+                    OAuthToken token = new OAuthToken(accessToken, null, null, null);
+                    token.setExpiresIn(parseExpiresIn(responseBody));
+                    return token;
                 }
             }
 
@@ -208,12 +251,7 @@ public class TokenManager {
         System.out.println("📧 Email: '" + userEmail + "'");
         System.out.println("👤 Name: '" + userName + "'");
 
-        return new OAuthToken(
-                token.getAccessToken(),
-                token.getRefreshToken(),
-                userEmail,
-                userName
-        );
+        return token.withUserInfo(userEmail, userName);
     }
 
     /**
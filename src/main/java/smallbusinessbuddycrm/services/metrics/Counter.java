@@ -0,0 +1,39 @@
+package smallbusinessbuddycrm.services.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count of events, such as emails sent or slips generated.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class Counter {
+
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long getValue() {
+        return value.sum();
+    }
+
+    void reset() {
+        value.reset();
+    }
+}
@@ -0,0 +1,116 @@
+package smallbusinessbuddycrm.services.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of recorded values over fixed buckets.
+ *
+ * Recording is lock-free and costs the same no matter how many values were
+ * recorded, so histograms can sit on hot paths such as reading result rows.
+ * Percentiles are reported as the upper bound of the bucket that holds them,
+ * capped at the largest value seen.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class Histogram {
+
+    // Upper bounds for sizes such as rows and bytes; the last bucket is open-ended
+    static final long[] SIZE_BUCKET_BOUNDS = {0, 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000,
+            10_000, 25_000, 50_000, 100_000, 250_000, 1_000_000, 10_000_000};
+
+    private final String name;
+    private final long[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram(String name) {
+        this(name, SIZE_BUCKET_BOUNDS);
+    }
+
+    Histogram(String name, long[] bounds) {
+        this.name = name;
+        this.bounds = bounds;
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one value; negative values are recorded as zero.
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        buckets[bucketFor(recorded)].increment();
+        count.increment();
+        sum.add(recorded);
+        max.accumulate(recorded);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile.
+     *
+     * @param fraction Percentile as a fraction, e.g. 0.95
+     * @return Value at the percentile, 0 if nothing was recorded
+     */
+    public long percentile(double fraction) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long largest = max.get();
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < bounds.length ? Math.min(bounds[i], largest) : largest;
+            }
+        }
+        return largest;
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    private int bucketFor(long value) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (value <= bounds[i]) {
+                return i;
+            }
+        }
+        return bounds.length;
+    }
+}
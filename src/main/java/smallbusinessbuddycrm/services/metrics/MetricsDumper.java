@@ -0,0 +1,115 @@
+package smallbusinessbuddycrm.services.metrics;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the metrics registry to a JSON file at a fixed interval, for offline analysis.
+ *
+ * The dump is off unless METRICS_DUMP_FILE is set in .env. The file is rewritten
+ * every METRICS_DUMP_INTERVAL_SECONDS (default 60) and once more when the dumper
+ * stops; each write goes through a temporary file, so a reader never sees a
+ * half-written document. Values are cumulative since application start.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class MetricsDumper {
+
+    private static final long DEFAULT_INTERVAL_SECONDS = 60;
+
+    private static MetricsDumper running;
+
+    private final Path file;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics-dump");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private MetricsDumper(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Starts the periodic dump if METRICS_DUMP_FILE is configured. Calling it again
+     * while a dump is running does nothing.
+     */
+    public static synchronized void startIfConfigured() {
+        if (running != null) {
+            return;
+        }
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        String fileName = dotenv.get("METRICS_DUMP_FILE");
+        if (fileName == null || fileName.isBlank()) {
+            return;
+        }
+        long intervalSeconds = parsePositive(dotenv.get("METRICS_DUMP_INTERVAL_SECONDS"), DEFAULT_INTERVAL_SECONDS);
+
+        running = new MetricsDumper(Paths.get(fileName.trim()).toAbsolutePath());
+        running.scheduler.scheduleWithFixedDelay(running::dumpQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        System.out.println("📊 Writing metrics to " + running.file + " every " + intervalSeconds + " s");
+    }
+
+    /**
+     * Stops the periodic dump and writes the final values.
+     */
+    public static synchronized void stop() {
+        if (running == null) {
+            return;
+        }
+        running.scheduler.shutdownNow();
+        running.dumpQuietly();
+        running = null;
+    }
+
+    /**
+     * Writes the current metrics to a file.
+     *
+     * @param target File to write; its parent directories are created
+     * @throws IOException if the file cannot be written
+     */
+    public static void dumpTo(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temporary, MetricsRegistry.getInstance().toJson(), StandardCharsets.UTF_8);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void dumpQuietly() {
+        try {
+            dumpTo(file);
+        } catch (IOException e) {
+            System.err.println("❌ Error writing metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long parsePositive(String value, long defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            return parsed > 0 ? parsed : defaultValue;
+        } catch (NumberFormatException e) {
+            System.err.println("❌ Invalid metrics setting: " + value);
+            return defaultValue;
+        }
+    }
+}
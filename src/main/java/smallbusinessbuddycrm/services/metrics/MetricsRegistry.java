@@ -0,0 +1,213 @@
+package smallbusinessbuddycrm.services.metrics;
+
+import smallbusinessbuddycrm.utilities.JsonUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Application-wide registry of counters, timers and histograms.
+ *
+ * Metrics are created on first use by name and live for the running application.
+ * Names are dot-separated, starting with the area they belong to:
+ * - db.&lt;DAO&gt;.&lt;method&gt; - query time per DAO method, with .rows and .bytes histograms
+ * - view.load.&lt;view&gt; - FXML load time of a main view
+ * - slips.* - stages of payment slip generation
+ * - pdf.* - HTML to PDF rendering
+ * - email.* - stages and outcomes of email sending
+ *
+ * Features:
+ * - Lock-free recording, safe to call from any thread
+ * - Consistent snapshots for the diagnostics panel
+ * - JSON export for offline analysis, see MetricsDumper
+ * - Extra JSON sections from other components, such as the slow-query log
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class MetricsRegistry {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static volatile MetricsRegistry instance;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<String>> sections = new ConcurrentSkipListMap<>();
+    private volatile long startedAt = System.currentTimeMillis();
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            synchronized (MetricsRegistry.class) {
+                if (instance == null) {
+                    instance = new MetricsRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, Histogram::new);
+    }
+
+    /**
+     * Adds a section to the JSON export, written after the metrics under the given key.
+     *
+     * @param name JSON key of the section
+     * @param json Supplies the section as a JSON value, called on every export
+     */
+    public void registerSection(String name, Supplier<String> json) {
+        sections.put(name, json);
+    }
+
+    /**
+     * Clears all recorded values. Metrics stay registered.
+     */
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        timers.values().forEach(Timer::reset);
+        histograms.values().forEach(Histogram::reset);
+        startedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Time of application start or the last reset.
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Current values of all metrics that recorded anything, sorted by name.
+     */
+    public List<MetricSnapshot> snapshot() {
+        List<MetricSnapshot> snapshots = new ArrayList<>(counters.size() + timers.size() + histograms.size());
+
+        for (Counter counter : counters.values()) {
+            long value = counter.getValue();
+            if (value > 0) {
+                snapshots.add(new MetricSnapshot(counter.getName(), MetricType.COUNTER, value, value, 0, 0, 0, 0));
+            }
+        }
+        for (Timer timer : timers.values()) {
+            if (timer.getCount() > 0) {
+                snapshots.add(new MetricSnapshot(timer.getName(), MetricType.TIMER, timer.getCount(),
+                        timer.getTotalMillis(), timer.getMeanMillis(), timer.percentileMillis(0.50),
+                        timer.percentileMillis(0.95), timer.getMaxMillis()));
+            }
+        }
+        for (Histogram histogram : histograms.values()) {
+            long count = histogram.getCount();
+            if (count > 0) {
+                snapshots.add(new MetricSnapshot(histogram.getName(), MetricType.HISTOGRAM, count,
+                        histogram.getSum(), (double) histogram.getSum() / count, histogram.percentile(0.50),
+                        histogram.percentile(0.95), histogram.getMax()));
+            }
+        }
+
+        snapshots.sort(Comparator.comparing(MetricSnapshot::getName).thenComparing(MetricSnapshot::getType));
+        return snapshots;
+    }
+
+    /**
+     * All metrics as a JSON document. Timer values are in milliseconds.
+     */
+    public String toJson() {
+        List<MetricSnapshot> snapshots = snapshot();
+        long now = System.currentTimeMillis();
+
+        StringBuilder json = new StringBuilder(256 + snapshots.size() * 160);
+        json.append("{\n");
+        json.append("  \"timestamp\": \"").append(LocalDateTime.now().format(TIMESTAMP_FORMAT)).append("\",\n");
+        json.append("  \"uptimeMillis\": ").append(now - startedAt).append(",\n");
+        json.append("  \"metrics\": [");
+        for (int i = 0; i < snapshots.size(); i++) {
+            MetricSnapshot metric = snapshots.get(i);
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\"name\": \"").append(JsonUtils.escapeJsonString(metric.getName())).append('"');
+            json.append(", \"type\": \"").append(metric.getType().name().toLowerCase(Locale.ROOT)).append('"');
+            json.append(", \"count\": ").append(metric.getCount());
+            if (metric.getType() != MetricType.COUNTER) {
+                json.append(", \"total\": ").append(format(metric.getTotal()));
+                json.append(", \"mean\": ").append(format(metric.getMean()));
+                json.append(", \"p50\": ").append(format(metric.getP50()));
+                json.append(", \"p95\": ").append(format(metric.getP95()));
+                json.append(", \"max\": ").append(format(metric.getMax()));
+            }
+            json.append('}');
+        }
+        json.append(snapshots.isEmpty() ? "]" : "\n  ]");
+        for (Map.Entry<String, Supplier<String>> section : sections.entrySet()) {
+            json.append(",\n  \"").append(JsonUtils.escapeJsonString(section.getKey())).append("\": ")
+                    .append(section.getValue().get());
+        }
+        json.append("\n}\n");
+        return json.toString();
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value)) {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    public enum MetricType { COUNTER, TIMER, HISTOGRAM }
+
+    /**
+     * One metric at one point in time. For counters only the count is set;
+     * timer values are in milliseconds.
+     */
+    public static class MetricSnapshot {
+        private final String name;
+        private final MetricType type;
+        private final long count;
+        private final double total;
+        private final double mean;
+        private final double p50;
+        private final double p95;
+        private final double max;
+
+        MetricSnapshot(String name, MetricType type, long count, double total, double mean,
+                       double p50, double p95, double max) {
+            this.name = name;
+            this.type = type;
+            this.count = count;
+            this.total = total;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.max = max;
+        }
+
+        public String getName() { return name; }
+        public MetricType getType() { return type; }
+        public long getCount() { return count; }
+        public double getTotal() { return total; }
+        public double getMean() { return mean; }
+        public double getP50() { return p50; }
+        public double getP95() { return p95; }
+        public double getMax() { return max; }
+    }
+}
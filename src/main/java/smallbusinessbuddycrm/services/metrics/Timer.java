@@ -0,0 +1,89 @@
+package smallbusinessbuddycrm.services.metrics;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Duration histogram for one operation.
+ *
+ * Durations are kept in microseconds, so sub-millisecond operations such as
+ * indexed lookups still show up, and reported in milliseconds.
+ *
+ * Usage:
+ * <pre>
+ * long start = System.nanoTime();
+ * ...
+ * MetricsRegistry.getInstance().timer("slips.barcode").recordSince(start);
+ * </pre>
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class Timer {
+
+    // Upper bounds in microseconds, from 50 µs to 30 s; the last bucket is open-ended
+    private static final long[] DURATION_BUCKET_BOUNDS_MICROS = {50, 100, 250, 500, 1_000, 2_500, 5_000,
+            10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000,
+            10_000_000, 30_000_000};
+
+    private final Histogram durations;
+
+    Timer(String name) {
+        this.durations = new Histogram(name, DURATION_BUCKET_BOUNDS_MICROS);
+    }
+
+    public String getName() {
+        return durations.getName();
+    }
+
+    public void recordNanos(long nanos) {
+        durations.record(nanos / 1_000);
+    }
+
+    public void recordMillis(long millis) {
+        durations.record(millis * 1_000);
+    }
+
+    /**
+     * Records the time since a System.nanoTime() reading.
+     */
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Runs the task and records how long it took, also when it throws.
+     */
+    public <T> T time(Callable<T> task) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            recordSince(start);
+        }
+    }
+
+    public long getCount() {
+        return durations.getCount();
+    }
+
+    public double getTotalMillis() {
+        return durations.getSum() / 1_000.0;
+    }
+
+    public double getMeanMillis() {
+        long count = durations.getCount();
+        return count > 0 ? durations.getSum() / 1_000.0 / count : 0;
+    }
+
+    public double getMaxMillis() {
+        return durations.getMax() / 1_000.0;
+    }
+
+    public double percentileMillis(double fraction) {
+        return durations.percentile(fraction) / 1_000.0;
+    }
+
+    void reset() {
+        durations.reset();
+    }
+}
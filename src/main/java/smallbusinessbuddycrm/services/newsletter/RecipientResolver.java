@@ -0,0 +1,193 @@
+package smallbusinessbuddycrm.services.newsletter;
+
+import smallbusinessbuddycrm.database.ContactDAO;
+import smallbusinessbuddycrm.model.Contact;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns contact lists into the set of addresses a campaign is sent to.
+ *
+ * Contacts from all selected lists are taken in order, their addresses are
+ * normalized (trimmed, mailto: and angle brackets removed, lower-cased) and checked
+ * against a practical address syntax. The first contact with a given address is
+ * kept; later contacts with the same address (a parent listed once per child, or a
+ * contact in several lists) are suppressed, as are missing and malformed addresses.
+ * Suppressed contacts are reported with the reason, so they can be shown before
+ * anything is sent and no API call or quota is spent on them.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class RecipientResolver {
+
+    private static final int MAX_ADDRESS_LENGTH = 254;
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+
+    // Dot-atom local part and a domain of dot-separated labels ending in a 2+ letter TLD
+    private static final Pattern ADDRESS_PATTERN = Pattern.compile(
+            "^[a-z0-9!#$%&'*+/=?^_`{|}~-]+(\\.[a-z0-9!#$%&'*+/=?^_`{|}~-]+)*" +
+            "@([a-z0-9]([a-z0-9-]{0,61}[a-z0-9])?\\.)+[a-z]{2,63}$");
+
+    /**
+     * Why a contact does not receive the campaign.
+     */
+    public enum SuppressionReason { MISSING_ADDRESS, INVALID_ADDRESS, DUPLICATE_ADDRESS }
+
+    private final ContactDAO contactDAO;
+
+    public RecipientResolver() {
+        this(new ContactDAO());
+    }
+
+    public RecipientResolver(ContactDAO contactDAO) {
+        this.contactDAO = contactDAO;
+    }
+
+    /**
+     * Expands the given lists and resolves their contacts.
+     *
+     * @param listIds IDs of the contact lists, in priority order
+     * @return Recipients and suppressed contacts
+     */
+    public Resolution resolveLists(Collection<Integer> listIds) {
+        List<Contact> contacts = new ArrayList<>();
+        for (Integer listId : listIds) {
+            contacts.addAll(contactDAO.getContactsInList(listId));
+        }
+        return resolve(contacts);
+    }
+
+    /**
+     * Resolves contacts to unique, valid recipient addresses.
+     *
+     * @param contacts Contacts in priority order; the first contact per address is kept
+     * @return Recipients and suppressed contacts
+     */
+    public Resolution resolve(Collection<Contact> contacts) {
+        List<Recipient> recipients = new ArrayList<>(contacts.size());
+        List<SuppressedRecipient> suppressed = new ArrayList<>();
+        Set<String> seen = new HashSet<>(contacts.size() * 2);
+
+        for (Contact contact : contacts) {
+            String rawAddress = contact.getEmail();
+            String address = normalize(rawAddress);
+
+            if (address.isEmpty()) {
+                suppressed.add(new SuppressedRecipient(contact, rawAddress, SuppressionReason.MISSING_ADDRESS));
+            } else if (!isValidAddress(address)) {
+                suppressed.add(new SuppressedRecipient(contact, rawAddress, SuppressionReason.INVALID_ADDRESS));
+            } else if (!seen.add(address)) {
+                suppressed.add(new SuppressedRecipient(contact, rawAddress, SuppressionReason.DUPLICATE_ADDRESS));
+            } else {
+                recipients.add(new Recipient(address, contact));
+            }
+        }
+
+        return new Resolution(contacts.size(), recipients, suppressed);
+    }
+
+    /**
+     * Normalized form of an address: trimmed, without a mailto: prefix or angle
+     * brackets, lower-cased.
+     *
+     * @param address Address as entered, may be null
+     * @return Normalized address, empty if there is none
+     */
+    public static String normalize(String address) {
+        if (address == null) {
+            return "";
+        }
+        String normalized = address.trim();
+        if (normalized.regionMatches(true, 0, "mailto:", 0, 7)) {
+            normalized = normalized.substring(7).trim();
+        }
+        if (normalized.startsWith("<") && normalized.endsWith(">")) {
+            normalized = normalized.substring(1, normalized.length() - 1).trim();
+        }
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks the syntax of a normalized address. Quoted local parts and IP literals
+     * are not accepted; they do not occur in contact data and Gmail rejects most of them.
+     */
+    public static boolean isValidAddress(String normalizedAddress) {
+        if (normalizedAddress.length() > MAX_ADDRESS_LENGTH) {
+            return false;
+        }
+        int at = normalizedAddress.indexOf('@');
+        if (at < 1 || at > MAX_LOCAL_PART_LENGTH) {
+            return false;
+        }
+        return ADDRESS_PATTERN.matcher(normalizedAddress).matches();
+    }
+
+    /**
+     * A contact that receives the campaign.
+     */
+    public static class Recipient {
+        private final String address;
+        private final Contact contact;
+
+        Recipient(String address, Contact contact) {
+            this.address = address;
+            this.contact = contact;
+        }
+
+        /** Normalized address the campaign is sent to. */
+        public String getAddress() { return address; }
+        public Contact getContact() { return contact; }
+    }
+
+    /**
+     * A contact left out of the campaign, with the reason.
+     */
+    public static class SuppressedRecipient {
+        private final Contact contact;
+        private final String rawAddress;
+        private final SuppressionReason reason;
+
+        SuppressedRecipient(Contact contact, String rawAddress, SuppressionReason reason) {
+            this.contact = contact;
+            this.rawAddress = rawAddress;
+            this.reason = reason;
+        }
+
+        public Contact getContact() { return contact; }
+        /** Address as stored on the contact, may be null. */
+        public String getRawAddress() { return rawAddress; }
+        public SuppressionReason getReason() { return reason; }
+    }
+
+    /**
+     * Outcome of resolving a set of contacts.
+     */
+    public static class Resolution {
+        private final int contactCount;
+        private final List<Recipient> recipients;
+        private final List<SuppressedRecipient> suppressed;
+
+        Resolution(int contactCount, List<Recipient> recipients, List<SuppressedRecipient> suppressed) {
+            this.contactCount = contactCount;
+            this.recipients = Collections.unmodifiableList(recipients);
+            this.suppressed = Collections.unmodifiableList(suppressed);
+        }
+
+        /** Contacts looked at, including suppressed ones. */
+        public int getContactCount() { return contactCount; }
+        public List<Recipient> getRecipients() { return recipients; }
+        public List<SuppressedRecipient> getSuppressed() { return suppressed; }
+
+        public long countSuppressed(SuppressionReason reason) {
+            return suppressed.stream().filter(s -> s.getReason() == reason).count();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package smallbusinessbuddycrm.utilities;
+
+import smallbusinessbuddycrm.database.DatabaseConnection;
+import smallbusinessbuddycrm.database.IndexAdvisor;
+import smallbusinessbuddycrm.database.SlowQueryLog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Headless index review: captures a workload with the LoadTestHarness scenarios and
+ * reports which indexes it uses, which are redundant or unused and which are missing.
+ *
+ * The suggested changes are written as an SQL migration. Before writing it, the tool
+ * copies the database and measures INSERT throughput on the affected tables before and
+ * after applying the migration to the copy; the numbers go into the script header.
+ * The database in sbb.db.url is only changed with --apply.
+ *
+ * Usage:
+ * <pre>
+ * java -Dsbb.db.url=jdbc:sqlite:/tmp/sbb-100k.db -cp SmallBusinessBuddy-CRM-1.0-SNAPSHOT-fat.jar \
+ *      smallbusinessbuddycrm.utilities.IndexAdvisorTool [--iterations 1] [--only regex]
+ *      [--migration index-migration.sql] [--drop-unused] [--throughput-rows 2000] [--apply]
+ * </pre>
+ *
+ * Unused indexes are only dropped with --drop-unused: the harness does not cover every
+ * screen, so an index it never reads may still serve a query it does not run.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class IndexAdvisorTool {
+
+    public static void main(String[] args) {
+        int iterations = 1;
+        Pattern only = null;
+        String migrationFile = "index-migration.sql";
+        boolean dropUnused = false;
+        int throughputRows = IndexAdvisor.DEFAULT_THROUGHPUT_ROWS;
+        boolean apply = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                    case "--only" -> only = Pattern.compile(args[++i]);
+                    case "--migration" -> migrationFile = args[++i];
+                    case "--drop-unused" -> dropUnused = true;
+                    case "--throughput-rows" -> throughputRows = Integer.parseInt(args[++i]);
+                    case "--apply" -> apply = true;
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.err.println("Usage: IndexAdvisorTool [--iterations N] [--only regex] [--migration file.sql] " +
+                    "[--drop-unused] [--throughput-rows N] [--apply]");
+            System.exit(2);
+        }
+
+        if (System.getProperty("sbb.db.url") == null) {
+            System.err.println("⚠️ sbb.db.url is not set, reviewing the application database");
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        System.out.println("🔄 Capturing workload...");
+        SlowQueryLog.getInstance().reset();
+        LoadTestHarness harness = new LoadTestHarness(Math.max(1, iterations), 200, 200, 0, false, only, false);
+        harness.run();
+        List<SlowQueryLog.QueryStats> workload = SlowQueryLog.getInstance().getQueryStats();
+
+        int exitCode = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            IndexAdvisor.Report report = IndexAdvisor.analyze(conn, workload);
+            System.out.println();
+            System.out.println(report.format());
+
+            List<String> migration = report.migrationStatements(dropUnused);
+            if (migration.isEmpty()) {
+                System.out.println("✅ No index changes suggested");
+            } else {
+                Set<String> tables = report.affectedTables(dropUnused);
+                System.out.println("⏳ Measuring write throughput on a copy of the database (" + tables + ")...");
+                IndexAdvisor.WriteThroughput throughput =
+                        IndexAdvisor.compareWriteThroughput(conn, migration, tables, throughputRows);
+                throughput.format().forEach(line -> System.out.println("   " + line));
+
+                Files.writeString(Paths.get(migrationFile), report.toMigrationScript(dropUnused, throughput),
+                        StandardCharsets.UTF_8);
+                System.out.println("✅ Migration written to " + migrationFile + " (" + migration.size() + " statements)");
+
+                if (apply) {
+                    IndexAdvisor.applyMigration(conn, migration);
+                    System.out.println("✅ Migration applied");
+                }
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("❌ Index review failed: " + e.getMessage());
+            e.printStackTrace();
+            exitCode = 1;
+        }
+        // PdfRenderingService keeps daemon workers; nothing else holds the JVM
+        System.exit(exitCode);
+    }
+}
@@ -0,0 +1,441 @@
+package smallbusinessbuddycrm.utilities;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.pdf417.PDF417Writer;
+import smallbusinessbuddycrm.database.ContactDAO;
+import smallbusinessbuddycrm.database.ListsDAO;
+import smallbusinessbuddycrm.database.OrganizationDAO;
+import smallbusinessbuddycrm.database.PaymentTemplateDAO;
+import smallbusinessbuddycrm.database.TeacherDAO;
+import smallbusinessbuddycrm.database.UnderagedDAO;
+import smallbusinessbuddycrm.database.WorkshopDAO;
+import smallbusinessbuddycrm.database.WorkshopParticipantDAO;
+import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.model.Organization;
+import smallbusinessbuddycrm.model.PaymentTemplate;
+import smallbusinessbuddycrm.model.Workshop;
+import smallbusinessbuddycrm.services.Hub3Encoder;
+import smallbusinessbuddycrm.services.PdfRenderingService;
+
+import java.awt.image.BufferedImage;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Headless load test of the DAO reads, searches, imports and slip generation.
+ *
+ * Runs each scenario once to warm up and then a number of timed iterations
+ * against the database in sbb.db.url, normally one filled by
+ * SyntheticDataGenerator, and prints min / average / p95 / max per scenario.
+ * The scenarios call the same DAO methods and slip code the screens use, so the
+ * numbers reflect what a user waits for at that data volume.
+ *
+ * Usage:
+ * <pre>
+ * java -Dsbb.db.url=jdbc:sqlite:/tmp/sbb-100k.db -cp SmallBusinessBuddy-CRM-1.0-SNAPSHOT-fat.jar \
+ *      smallbusinessbuddycrm.utilities.LoadTestHarness [--iterations 5] [--lookups 1000]
+ *      [--import-rows 500] [--slips 100] [--pdf] [--only regex] [--report results.json] [--verbose]
+ * </pre>
+ *
+ * The DAOs log heavily to stdout; that output is discarded while a scenario runs
+ * unless --verbose is given. The import scenario deletes the contacts it created.
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class LoadTestHarness {
+
+    private final int iterations;
+    private final int lookups;
+    private final int importRows;
+    private final int slipCount;
+    private final boolean renderPdf;
+    private final Pattern only;
+    private final boolean verbose;
+
+    private final ContactDAO contactDAO = new ContactDAO();
+    private final ListsDAO listsDAO = new ListsDAO();
+    private final UnderagedDAO underagedDAO = new UnderagedDAO();
+    private final WorkshopDAO workshopDAO = new WorkshopDAO();
+    private final WorkshopParticipantDAO participantDAO = new WorkshopParticipantDAO();
+    private final TeacherDAO teacherDAO = new TeacherDAO();
+
+    private final Random random = new Random(7);
+    private final PrintStream console = System.out;
+    private final List<Result> results = new ArrayList<>();
+
+    public LoadTestHarness(int iterations, int lookups, int importRows, int slipCount,
+                           boolean renderPdf, Pattern only, boolean verbose) {
+        this.iterations = iterations;
+        this.lookups = lookups;
+        this.importRows = importRows;
+        this.slipCount = slipCount;
+        this.renderPdf = renderPdf;
+        this.only = only;
+        this.verbose = verbose;
+    }
+
+    public static void main(String[] args) {
+        int iterations = 5;
+        int lookups = 1_000;
+        int importRows = 500;
+        int slips = 100;
+        boolean pdf = false;
+        Pattern only = null;
+        String report = null;
+        boolean verbose = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                    case "--lookups" -> lookups = Integer.parseInt(args[++i]);
+                    case "--import-rows" -> importRows = Integer.parseInt(args[++i]);
+                    case "--slips" -> slips = Integer.parseInt(args[++i]);
+                    case "--pdf" -> pdf = true;
+                    case "--only" -> only = Pattern.compile(args[++i]);
+                    case "--report" -> report = args[++i];
+                    case "--verbose" -> verbose = true;
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.err.println("Usage: LoadTestHarness [--iterations N] [--lookups N] [--import-rows N] [--slips N] " +
+                    "[--pdf] [--only regex] [--report file.json] [--verbose]");
+            System.exit(2);
+        }
+
+        if (System.getProperty("sbb.db.url") == null) {
+            System.err.println("⚠️ sbb.db.url is not set, running against the application database");
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        LoadTestHarness harness = new LoadTestHarness(Math.max(1, iterations), lookups, importRows, slips, pdf, only, verbose);
+        harness.run();
+        harness.printReport();
+        if (report != null) {
+            try {
+                harness.writeJsonReport(report);
+                System.out.println("✅ Report written to " + report);
+            } catch (IOException e) {
+                System.err.println("❌ Could not write report: " + e.getMessage());
+            }
+        }
+        // PdfRenderingService keeps daemon workers; nothing else holds the JVM
+        System.exit(0);
+    }
+
+    /**
+     * Runs all selected scenarios.
+     */
+    public void run() {
+        List<Contact> contacts = quietly(contactDAO::getAllContacts);
+        if (contacts.isEmpty()) {
+            System.err.println("⚠️ No contacts in the database; run SyntheticDataGenerator first");
+        }
+        System.out.println("📊 Load test against " + contacts.size() + " contacts, " + iterations + " iterations per scenario");
+
+        int[] contactIds = contacts.stream().mapToInt(Contact::getId).toArray();
+
+        // Reads
+        measure("contacts.getAll", () -> contactDAO.getAllContacts().size());
+        measure("contacts.getById x" + lookups, () -> {
+            int found = 0;
+            for (int i = 0; i < lookups && contactIds.length > 0; i++) {
+                if (contactDAO.getContactById(contactIds[random.nextInt(contactIds.length)]) != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+        measure("contacts.upcomingBirthdays", () -> contactDAO.getContactsWithUpcomingBirthdays(30).size());
+        measure("contacts.byAgeRange", () -> contactDAO.getContactsByAgeRange(18, 65).size());
+        measure("underaged.getAll", () -> underagedDAO.getAllUnderagedMembers().size());
+        measure("lists.getAllActive", () -> listsDAO.getAllActiveLists().size());
+
+        int largestListId = quietly(this::findLargestListId);
+        if (largestListId > 0) {
+            measure("lists.contactsInLargestList", () -> contactDAO.getContactsInList(largestListId).size());
+        }
+
+        List<Workshop> workshops = quietly(workshopDAO::getAllWorkshops);
+        measure("workshops.getAll", () -> workshopDAO.getAllWorkshops().size());
+        measure("workshops.participantsWithDetails x20", () -> {
+            int rows = 0;
+            for (int i = 0; i < Math.min(20, workshops.size()); i++) {
+                rows += participantDAO.getWorkshopParticipantsWithDetails(workshops.get(i).getId()).size();
+            }
+            return rows;
+        });
+
+        // Searches
+        measure("search.contacts (in memory)", () -> searchContacts(contacts, "kova"));
+        measure("search.workshops", () -> workshopDAO.searchWorkshops("radionica").size());
+        measure("search.teachers", () -> teacherDAO.searchTeachers("an").size());
+        measure("search.lists", () -> listsDAO.searchListsByName("Član").size());
+
+        // Imports: one createContact per row, as the import dialog does
+        List<Integer> importedIds = new ArrayList<>();
+        measure("import.createContact x" + importRows, () -> {
+            int created = 0;
+            for (int i = 0; i < importRows; i++) {
+                Contact contact = importedContact(i);
+                if (contactDAO.createContact(contact)) {
+                    importedIds.add(contact.getId());
+                    created++;
+                }
+            }
+            return created;
+        }, () -> {
+            if (!importedIds.isEmpty()) {
+                contactDAO.deleteContacts(new ArrayList<>(importedIds));
+                importedIds.clear();
+            }
+        });
+
+        // Slip generation
+        runSlipScenarios(contacts);
+    }
+
+    private void runSlipScenarios(List<Contact> contacts) {
+        Organization organization = quietly(() -> new OrganizationDAO().getFirst().orElse(null));
+        PaymentTemplate template = quietly(() -> {
+            try {
+                List<PaymentTemplate> templates = new PaymentTemplateDAO().getActivePaymentTemplates();
+                return templates.isEmpty() ? null : templates.get(0);
+            } catch (Exception e) {
+                return null;
+            }
+        });
+        if (organization == null || template == null || contacts.isEmpty()) {
+            System.err.println("⚠️ Skipping slip scenarios: organization, payment template or contacts missing");
+            return;
+        }
+
+        List<Contact> slipContacts = contacts.subList(0, Math.min(slipCount, contacts.size()));
+        Map<EncodeHintType, Object> hints = new HashMap<>();
+        hints.put(EncodeHintType.CHARACTER_SET, "ISO-8859-2");
+        hints.put(EncodeHintType.ERROR_CORRECTION, 2);
+        hints.put(EncodeHintType.PDF417_COMPACT, false);
+        hints.put(EncodeHintType.MARGIN, 10);
+
+        Map<Integer, String> slipHtml = new LinkedHashMap<>();
+        measure("slips.generate x" + slipContacts.size(), () -> {
+            slipHtml.clear();
+            for (Contact contact : slipContacts) {
+                String description = TemplateProcessor.processTemplate(template.getDescription(), contact, null);
+                String payload = Hub3Encoder.forCurrentThread()
+                        .begin(true)
+                        .amount(template.getAmount())
+                        .field(contact.getFirstName() + " " + contact.getLastName())
+                        .address(contact.getStreetName(), contact.getStreetNum())
+                        .place(contact.getPostalCode(), contact.getCity())
+                        .field(organization.getName())
+                        .address(organization.getStreetName(), organization.getStreetNum())
+                        .place(organization.getPostalCode(), organization.getCity())
+                        .field(organization.getIban())
+                        .field(template.getModelOfPayment())
+                        .field(template.getPozivNaBroj())
+                        .field("")
+                        .field(description)
+                        .encode();
+                BitMatrix matrix = new PDF417Writer().encode(payload, BarcodeFormat.PDF_417, 450, 150, hints);
+                BufferedImage barcode = MatrixToImageWriter.toBufferedImage(matrix);
+                slipHtml.put(contact.getId(), UplatnicaHtmlGenerator.generateUplatnicaHtml(
+                        contact, organization, template, barcode, null));
+            }
+            return slipHtml.size();
+        });
+
+        if (renderPdf) {
+            measure("slips.renderPdf x" + slipContacts.size(),
+                    () -> PdfRenderingService.getInstance().renderAll(slipHtml).size());
+        }
+    }
+
+    private int findLargestListId() {
+        int bestId = -1;
+        int bestCount = -1;
+        for (var list : listsDAO.getAllActiveLists()) {
+            int count = listsDAO.getContactCountForList(list.getId());
+            if (count > bestCount) {
+                bestCount = count;
+                bestId = list.getId();
+            }
+        }
+        return bestId;
+    }
+
+    private static int searchContacts(List<Contact> contacts, String term) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        int matches = 0;
+        for (Contact contact : contacts) {
+            if (contains(contact.getFirstName(), needle) || contains(contact.getLastName(), needle)
+                    || contains(contact.getEmail(), needle)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static boolean contains(String value, String needle) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private Contact importedContact(int index) {
+        Contact contact = new Contact();
+        contact.setFirstName("Uvoz");
+        contact.setLastName("Testni " + index);
+        contact.setEmail("uvoz" + index + "." + System.nanoTime() + "@example.com");
+        contact.setPhoneNum("+385 91 000 " + String.format("%04d", index % 10000));
+        contact.setStreetName("Ilica");
+        contact.setStreetNum(String.valueOf(1 + index % 200));
+        contact.setPostalCode("10000");
+        contact.setCity("Zagreb");
+        contact.setCreatedAt(java.time.LocalDateTime.now().toString());
+        contact.setUpdatedAt(java.time.LocalDateTime.now().toString());
+        return contact;
+    }
+
+    private void measure(String name, Scenario scenario) {
+        measure(name, scenario, null);
+    }
+
+    private void measure(String name, Scenario scenario, Runnable cleanup) {
+        if (only != null && !only.matcher(name).find()) {
+            return;
+        }
+        console.println("⏳ " + name);
+        long[] nanos = new long[iterations];
+        int rows = 0;
+        try {
+            quietly(() -> runOnce(scenario, cleanup)); // warm-up
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                rows = quietly(() -> runOnce(scenario, null));
+                nanos[i] = System.nanoTime() - start;
+                if (cleanup != null) {
+                    quietly(() -> {
+                        cleanup.run();
+                        return 0;
+                    });
+                }
+            }
+            results.add(new Result(name, rows, nanos));
+        } catch (RuntimeException e) {
+            console.println("❌ " + name + " failed: " + e.getMessage());
+        }
+    }
+
+    private static int runOnce(Scenario scenario, Runnable cleanup) {
+        try {
+            return scenario.run();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (cleanup != null) {
+                cleanup.run();
+            }
+        }
+    }
+
+    /**
+     * Runs the action with stdout discarded, unless running verbose.
+     */
+    private <T> T quietly(java.util.function.Supplier<T> action) {
+        if (verbose) {
+            return action.get();
+        }
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return action.get();
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Prints one line per scenario.
+     */
+    public void printReport() {
+        console.println();
+        console.printf("%-42s %8s %10s %10s %10s %10s%n", "Scenario", "Rows", "Min ms", "Avg ms", "P95 ms", "Max ms");
+        for (Result result : results) {
+            console.printf(Locale.ROOT, "%-42s %8d %10.1f %10.1f %10.1f %10.1f%n", result.name, result.rows,
+                    result.minMillis(), result.averageMillis(), result.percentileMillis(0.95), result.maxMillis());
+        }
+    }
+
+    /**
+     * Writes the results as JSON, one object per scenario.
+     */
+    public void writeJsonReport(String path) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+            writer.println("{");
+            writer.println("  \"database\": \"" + JsonUtils.escapeJsonString(System.getProperty("sbb.db.url", "default")) + "\",");
+            writer.println("  \"iterations\": " + iterations + ",");
+            writer.println("  \"scenarios\": [");
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                writer.printf(Locale.ROOT, "    {\"name\": \"%s\", \"rows\": %d, \"minMs\": %.3f, \"avgMs\": %.3f, " +
+                                "\"p95Ms\": %.3f, \"maxMs\": %.3f}%s%n",
+                        JsonUtils.escapeJsonString(result.name), result.rows, result.minMillis(), result.averageMillis(),
+                        result.percentileMillis(0.95), result.maxMillis(), i < results.size() - 1 ? "," : "");
+            }
+            writer.println("  ]");
+            writer.println("}");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Scenario {
+        /** Runs the scenario once and returns the number of rows or items handled. */
+        int run() throws Exception;
+    }
+
+    private static class Result {
+        private final String name;
+        private final int rows;
+        private final long[] sortedNanos;
+
+        Result(String name, int rows, long[] nanos) {
+            this.name = name;
+            this.rows = rows;
+            this.sortedNanos = nanos.clone();
+            Arrays.sort(this.sortedNanos);
+        }
+
+        double minMillis() {
+            return sortedNanos[0] / 1_000_000.0;
+        }
+
+        double maxMillis() {
+            return sortedNanos[sortedNanos.length - 1] / 1_000_000.0;
+        }
+
+        double averageMillis() {
+            return Arrays.stream(sortedNanos).average().orElse(0) / 1_000_000.0;
+        }
+
+        double percentileMillis(double fraction) {
+            int index = (int) Math.ceil(fraction * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,610 @@
+package smallbusinessbuddycrm.utilities;
+
+import smallbusinessbuddycrm.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Command-line generator of realistic CRM data for performance work.
+ *
+ * Fills the schema created by DatabaseConnection.initializeDatabase() with
+ * Croatian names and addresses, OIB-style PINs with a valid check digit,
+ * families (underaged members linked to a parent contact), teachers, workshops
+ * with participants, contact lists and payment templates. The same seed produces
+ * the same people, families and memberships, so timings from different runs are
+ * comparable; dates are placed relative to the day of the run.
+ *
+ * Usage:
+ * <pre>
+ * java -Dsbb.db.url=jdbc:sqlite:/tmp/sbb-100k.db -cp SmallBusinessBuddy-CRM-1.0-SNAPSHOT-fat.jar \
+ *      smallbusinessbuddycrm.utilities.SyntheticDataGenerator --contacts 100000 [--seed 42]
+ *      [--workshops N] [--lists N] [--allow-default-db]
+ * </pre>
+ *
+ * Rows are appended to whatever the database already holds. To protect the
+ * application database, the generator refuses to run unless sbb.db.url is set,
+ * or --allow-default-db is given.
+ *
+ * Features:
+ * - 1k to 1M contacts, about a third of them with one to three children
+ * - Some shared and missing email addresses, as in real member data
+ * - Batched inserts in large transactions, progress output per table
+ * - ANALYZE at the end so SQLite plans queries with realistic statistics
+ *
+ * @author Small Business Buddy CRM Team
+ * @version 1.0
+ */
+public class SyntheticDataGenerator {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COMMIT_EVERY = 50_000;
+
+    private static final String[] FEMALE_NAMES = {
+            "Ana", "Ivana", "Marija", "Petra", "Lucija", "Maja", "Katarina", "Martina", "Nikolina", "Sara",
+            "Ema", "Mia", "Lana", "Tena", "Dora", "Jelena", "Vesna", "Snježana", "Željka", "Mirjana"
+    };
+    private static final String[] MALE_NAMES = {
+            "Ivan", "Marko", "Luka", "Josip", "Tomislav", "Petar", "Ante", "Nikola", "Matej", "Filip",
+            "Karlo", "Domagoj", "Hrvoje", "Krešimir", "Dario", "Goran", "Željko", "Stjepan", "Mario", "Davor"
+    };
+    private static final String[] LAST_NAMES = {
+            "Horvat", "Kovačević", "Babić", "Marić", "Jurić", "Novak", "Kovačić", "Knežević", "Vuković",
+            "Marković", "Petrović", "Matić", "Tomić", "Pavlović", "Kovač", "Božić", "Blažević", "Grgić",
+            "Pavić", "Radić", "Perić", "Filipović", "Šarić", "Lovrić", "Vidović", "Perković", "Popović",
+            "Bošnjak", "Jukić", "Barišić", "Đurić", "Šimić", "Čulo", "Živković"
+    };
+    private static final String[][] PLACES = {
+            {"10000", "Zagreb"}, {"21000", "Split"}, {"51000", "Rijeka"}, {"31000", "Osijek"},
+            {"23000", "Zadar"}, {"22000", "Šibenik"}, {"20000", "Dubrovnik"}, {"42000", "Varaždin"},
+            {"47000", "Karlovac"}, {"35000", "Slavonski Brod"}, {"52100", "Pula"}, {"44000", "Sisak"},
+            {"40000", "Čakovec"}, {"32100", "Vinkovci"}, {"10410", "Velika Gorica"}
+    };
+    private static final String[] STREETS = {
+            "Ilica", "Vukovarska", "Ulica kralja Zvonimira", "Savska cesta", "Frankopanska",
+            "Ulica Ivana Gundulića", "Ulica Matije Gupca", "Ulica Stjepana Radića", "Zagrebačka",
+            "Splitska", "Obala kneza Branimira", "Ulica Ruđera Boškovića", "Ulica Petra Preradovića",
+            "Šetalište Ivana Meštrovića", "Trg kralja Tomislava", "Ulica Augusta Šenoe"
+    };
+    private static final String[] EMAIL_DOMAINS = {"gmail.com", "yahoo.com", "net.hr", "t-com.hr", "hotmail.com", "outlook.com"};
+    private static final String[] WORKSHOP_NAMES = {
+            "Likovna radionica", "Kreativno pisanje", "Robotika za djecu", "Keramika", "Fotografija",
+            "Plesna radionica", "Programiranje u Pythonu", "Šah za početnike", "Gitara", "Engleski jezik",
+            "Joga", "Kuharska radionica", "Dramska skupina", "Zbor"
+    };
+    private static final String[] LIST_THEMES = {
+            "Newsletter", "Članovi", "Roditelji", "Volonteri", "Donatori", "Polaznici radionica",
+            "Bivši članovi", "Upisi", "Ljetni kamp", "Natjecanje"
+    };
+    private static final String[][] PAYMENT_TEMPLATES = {
+            {"Članarina", "Članarina - {{contact_attributes.first_name}} {{contact_attributes.last_name}}", "25.00", "HR01"},
+            {"Radionica", "Radionica - {{underaged_attributes.first_name}} {{underaged_attributes.last_name}}", "40.00", "HR01"},
+            {"Upisnina", "Upisnina {{custom_text.2025/2026}}", "15.00", "HR00"},
+            {"Kotizacija", "Kotizacija za natjecanje", "60.00", "HR00"},
+            {"Donacija", "Donacija udruzi", "10.00", "HR99"}
+    };
+    private static final String[] PAYMENT_STATUSES = {"PAID", "PENDING", "REFUNDED", "CANCELLED"};
+    private static final int[] PAYMENT_STATUS_WEIGHTS = {60, 30, 5, 5};
+
+    private final Random random;
+    private final String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
+    private final LocalDate today = LocalDate.now();
+
+    private final int contactCount;
+    private final int workshopCount;
+    private final int listCount;
+
+    public SyntheticDataGenerator(int contactCount, int workshopCount, int listCount, long seed) {
+        this.contactCount = contactCount;
+        this.workshopCount = workshopCount;
+        this.listCount = listCount;
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) {
+        int contacts = 1_000;
+        Integer workshops = null;
+        int lists = 20;
+        long seed = 42;
+        boolean allowDefaultDb = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--contacts" -> contacts = Integer.parseInt(args[++i]);
+                    case "--workshops" -> workshops = Integer.parseInt(args[++i]);
+                    case "--lists" -> lists = Integer.parseInt(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    case "--allow-default-db" -> allowDefaultDb = true;
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ " + e.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+
+        if (System.getProperty("sbb.db.url") == null && !allowDefaultDb) {
+            System.err.println("❌ Set -Dsbb.db.url=jdbc:sqlite:<file> so the application database is not filled " +
+                    "with synthetic data, or pass --allow-default-db.");
+            System.exit(2);
+        }
+        if (contacts < 1) {
+            System.err.println("❌ --contacts must be at least 1");
+            System.exit(2);
+        }
+
+        int workshopTotal = workshops != null ? workshops : Math.max(5, contacts / 100);
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(contacts, workshopTotal, lists, seed);
+        try {
+            generator.generate();
+        } catch (SQLException e) {
+            System.err.println("❌ Data generation failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: SyntheticDataGenerator --contacts N [--workshops N] [--lists N] [--seed N] [--allow-default-db]");
+    }
+
+    /**
+     * Creates the schema if needed and appends the generated data.
+     */
+    public void generate() throws SQLException {
+        long start = System.nanoTime();
+        DatabaseConnection.initializeDatabase();
+
+        try (Connection conn = DatabaseConnection.openConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                // Generated data can be regenerated, so durability is traded for speed
+                stmt.execute("PRAGMA synchronous = OFF");
+            }
+            conn.setAutoCommit(false);
+
+            ensureOrganization(conn);
+            generatePaymentTemplates(conn);
+
+            long firstContactId = nextId(conn, "contacts");
+            long[] underagedRange = generateContactsAndFamilies(conn, firstContactId);
+            long lastContactId = firstContactId + contactCount - 1;
+
+            long firstTeacherId = nextId(conn, "teachers");
+            int teacherCount = Math.max(3, workshopCount / 10);
+            generateTeachers(conn, firstTeacherId, teacherCount);
+
+            generateWorkshops(conn, firstTeacherId, teacherCount, firstContactId, lastContactId, underagedRange);
+            generateLists(conn, firstContactId, lastContactId);
+
+            conn.commit();
+            conn.setAutoCommit(true);
+            System.out.println("🔄 Updating query planner statistics...");
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ANALYZE");
+            }
+        }
+
+        System.out.println("✅ Synthetic data generated in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private void ensureOrganization(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM organization")) {
+            if (rs.next() && rs.getInt(1) > 0) {
+                return;
+            }
+        }
+        String sql = """
+            INSERT INTO organization (name, IBAN, street_name, street_num, postal_code, city, email, phone_num, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, "Udruga Čarobni štapić");
+            stmt.setString(2, "HR1210010051863000160");
+            stmt.setString(3, "Ilica");
+            stmt.setString(4, "242");
+            stmt.setString(5, "10000");
+            stmt.setString(6, "Zagreb");
+            stmt.setString(7, "info@udruga-primjer.hr");
+            stmt.setString(8, "+385 1 234 5678");
+            stmt.setString(9, timestamp);
+            stmt.setString(10, timestamp);
+            stmt.executeUpdate();
+        }
+        System.out.println("✅ Organization created");
+    }
+
+    private void generatePaymentTemplates(Connection conn) throws SQLException {
+        String sql = """
+            INSERT INTO payment_template (name, description, amount, model_of_payment, poziv_na_broj, is_active, created_at, updated_at)
+            VALUES (?, ?, ?, ?, NULL, 1, ?, ?)
+            """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (String[] template : PAYMENT_TEMPLATES) {
+                stmt.setString(1, template[0] + " (generirano)");
+                stmt.setString(2, template[1]);
+                stmt.setBigDecimal(3, new java.math.BigDecimal(template[2]));
+                stmt.setString(4, template[3]);
+                stmt.setString(5, timestamp);
+                stmt.setString(6, timestamp);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        System.out.println("✅ " + PAYMENT_TEMPLATES.length + " payment templates created");
+    }
+
+    /**
+     * Inserts contacts and their children with explicit IDs, so children can point
+     * at their parent without reading generated keys back.
+     *
+     * @return First and last underaged ID, or {0, -1} if none were created
+     */
+    private long[] generateContactsAndFamilies(Connection conn, long firstContactId) throws SQLException {
+        String contactSql = """
+            INSERT INTO contacts (id, first_name, last_name, birthday, pin, street_name, street_num, postal_code,
+                city, email, phone_num, is_member, member_since, member_until, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        String underagedSql = """
+            INSERT INTO underaged (id, first_name, last_name, birth_date, age, pin, gender, is_member,
+                member_since, member_until, note, created_at, updated_at, contact_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NULL, ?, ?, ?)
+            """;
+
+        long firstUnderagedId = nextId(conn, "underaged");
+        long underagedId = firstUnderagedId;
+        String previousEmail = null;
+        int pendingContacts = 0;
+        int pendingUnderaged = 0;
+
+        try (PreparedStatement contactStmt = conn.prepareStatement(contactSql);
+             PreparedStatement underagedStmt = conn.prepareStatement(underagedSql)) {
+
+            for (int i = 0; i < contactCount; i++) {
+                long contactId = firstContactId + i;
+                boolean female = random.nextBoolean();
+                String firstName = pick(female ? FEMALE_NAMES : MALE_NAMES);
+                String lastName = pick(LAST_NAMES);
+                String[] place = pick(PLACES);
+                LocalDate birthday = randomDate(LocalDate.of(1950, 1, 1), LocalDate.of(2005, 12, 31));
+                boolean member = random.nextInt(100) < 60;
+
+                String email;
+                int emailRoll = random.nextInt(100);
+                if (emailRoll < 3) {
+                    email = null;
+                } else if (emailRoll < 4 && previousEmail != null) {
+                    // Partners sharing one address
+                    email = previousEmail;
+                } else {
+                    email = toAscii(firstName + "." + lastName).toLowerCase(Locale.ROOT) +
+                            (random.nextInt(4) == 0 ? String.valueOf(random.nextInt(100)) : "") +
+                            "." + contactId + "@" + pick(EMAIL_DOMAINS);
+                }
+                if (email != null) {
+                    previousEmail = email;
+                }
+
+                contactStmt.setLong(1, contactId);
+                contactStmt.setString(2, firstName);
+                contactStmt.setString(3, lastName);
+                contactStmt.setString(4, birthday.toString());
+                contactStmt.setString(5, randomOib());
+                contactStmt.setString(6, pick(STREETS));
+                contactStmt.setString(7, String.valueOf(1 + random.nextInt(150)) + (random.nextInt(10) == 0 ? "a" : ""));
+                contactStmt.setString(8, place[0]);
+                contactStmt.setString(9, place[1]);
+                contactStmt.setString(10, email);
+                contactStmt.setString(11, String.format("+385 9%d %03d %04d", random.nextInt(10), random.nextInt(1000), random.nextInt(10000)));
+                setMembership(contactStmt, 12, member);
+                contactStmt.setString(15, timestamp);
+                contactStmt.setString(16, timestamp);
+                contactStmt.addBatch();
+                pendingContacts++;
+
+                // About a third of the contacts are parents of one to three children
+                if (random.nextInt(100) < 35) {
+                    int children = 1 + random.nextInt(3);
+                    for (int c = 0; c < children; c++) {
+                        boolean girl = random.nextBoolean();
+                        LocalDate birthDate = randomDate(today.minusYears(18).plusDays(1), today.minusYears(3));
+                        boolean childMember = random.nextBoolean();
+
+                        underagedStmt.setLong(1, underagedId++);
+                        underagedStmt.setString(2, pick(girl ? FEMALE_NAMES : MALE_NAMES));
+                        underagedStmt.setString(3, lastName);
+                        underagedStmt.setString(4, birthDate.toString());
+                        underagedStmt.setInt(5, Period.between(birthDate, today).getYears());
+                        underagedStmt.setString(6, randomOib());
+                        underagedStmt.setString(7, girl ? "Female" : "Male");
+                        setMembership(underagedStmt, 8, childMember);
+                        underagedStmt.setString(11, timestamp);
+                        underagedStmt.setString(12, timestamp);
+                        underagedStmt.setLong(13, contactId);
+                        underagedStmt.addBatch();
+                        pendingUnderaged++;
+                    }
+                }
+
+                if (pendingContacts >= BATCH_SIZE) {
+                    contactStmt.executeBatch();
+                    pendingContacts = 0;
+                }
+                if (pendingUnderaged >= BATCH_SIZE) {
+                    underagedStmt.executeBatch();
+                    pendingUnderaged = 0;
+                }
+                if ((i + 1) % COMMIT_EVERY == 0) {
+                    contactStmt.executeBatch();
+                    underagedStmt.executeBatch();
+                    pendingContacts = 0;
+                    pendingUnderaged = 0;
+                    conn.commit();
+                    System.out.println("📤 " + (i + 1) + " / " + contactCount + " contacts");
+                }
+            }
+
+            contactStmt.executeBatch();
+            underagedStmt.executeBatch();
+            conn.commit();
+        }
+
+        long underagedCount = underagedId - firstUnderagedId;
+        System.out.println("✅ " + contactCount + " contacts and " + underagedCount + " underaged members created");
+        return new long[]{firstUnderagedId, underagedId - 1};
+    }
+
+    private void generateTeachers(Connection conn, long firstTeacherId, int teacherCount) throws SQLException {
+        String sql = """
+            INSERT INTO teachers (id, first_name, last_name, email, phone_num, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < teacherCount; i++) {
+                String firstName = pick(random.nextBoolean() ? FEMALE_NAMES : MALE_NAMES);
+                String lastName = pick(LAST_NAMES);
+                stmt.setLong(1, firstTeacherId + i);
+                stmt.setString(2, firstName);
+                stmt.setString(3, lastName);
+                stmt.setString(4, toAscii(firstName + "." + lastName).toLowerCase(Locale.ROOT) + ".teacher" + (firstTeacherId + i) + "@udruga-primjer.hr");
+                stmt.setString(5, String.format("+385 9%d %03d %04d", random.nextInt(10), random.nextInt(1000), random.nextInt(10000)));
+                stmt.setString(6, timestamp);
+                stmt.setString(7, timestamp);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        conn.commit();
+        System.out.println("✅ " + teacherCount + " teachers created");
+    }
+
+    private void generateWorkshops(Connection conn, long firstTeacherId, int teacherCount,
+                                   long firstContactId, long lastContactId, long[] underagedRange) throws SQLException {
+        String workshopSql = """
+            INSERT INTO workshops (id, name, from_date, to_date, teacher_id, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+        String participantSql = """
+            INSERT INTO workshop_participants (workshop_id, underaged_id, contact_id, participant_type,
+                payment_status, notes, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, NULL, ?, ?)
+            """;
+
+        long firstWorkshopId = nextId(conn, "workshops");
+        boolean hasChildren = underagedRange[1] >= underagedRange[0];
+        int participantTotal = 0;
+        int pending = 0;
+
+        try (PreparedStatement workshopStmt = conn.prepareStatement(workshopSql);
+             PreparedStatement participantStmt = conn.prepareStatement(participantSql)) {
+
+            for (int i = 0; i < workshopCount; i++) {
+                long workshopId = firstWorkshopId + i;
+                LocalDate fromDate = randomDate(LocalDate.of(2023, 1, 1), today.plusDays(180));
+                LocalDate toDate = fromDate.plusDays(random.nextInt(90));
+
+                workshopStmt.setLong(1, workshopId);
+                workshopStmt.setString(2, pick(WORKSHOP_NAMES) + " " + (fromDate.getYear()) + "/" + (i + 1));
+                workshopStmt.setString(3, fromDate.toString());
+                workshopStmt.setString(4, toDate.toString());
+                workshopStmt.setLong(5, firstTeacherId + random.nextInt(teacherCount));
+                workshopStmt.setString(6, timestamp);
+                workshopStmt.setString(7, timestamp);
+                workshopStmt.addBatch();
+
+                int participants = 8 + random.nextInt(23);
+                Set<Long> seen = new HashSet<>();
+                for (int p = 0; p < participants; p++) {
+                    boolean child = hasChildren && random.nextInt(100) < 60;
+                    long id = child
+                            ? randomId(underagedRange[0], underagedRange[1])
+                            : randomId(firstContactId, lastContactId);
+                    // Children and adults share the set; negative keys keep them apart
+                    if (!seen.add(child ? -id : id)) {
+                        continue;
+                    }
+
+                    participantStmt.setLong(1, workshopId);
+                    if (child) {
+                        participantStmt.setLong(2, id);
+                        participantStmt.setNull(3, java.sql.Types.INTEGER);
+                        participantStmt.setString(4, "CHILD");
+                    } else {
+                        participantStmt.setNull(2, java.sql.Types.INTEGER);
+                        participantStmt.setLong(3, id);
+                        participantStmt.setString(4, "ADULT");
+                    }
+                    participantStmt.setString(5, weightedStatus());
+                    participantStmt.setString(6, timestamp);
+                    participantStmt.setString(7, timestamp);
+                    participantStmt.addBatch();
+                    participantTotal++;
+                    pending++;
+                }
+
+                if (pending >= BATCH_SIZE) {
+                    workshopStmt.executeBatch();
+                    participantStmt.executeBatch();
+                    pending = 0;
+                }
+            }
+
+            workshopStmt.executeBatch();
+            participantStmt.executeBatch();
+            conn.commit();
+        }
+
+        System.out.println("✅ " + workshopCount + " workshops with " + participantTotal + " participants created");
+    }
+
+    private void generateLists(Connection conn, long firstContactId, long lastContactId) throws SQLException {
+        String listSql = """
+            INSERT INTO lists (id, name, description, type, object_type, creator, folder, created_at, updated_at, is_deleted)
+            VALUES (?, ?, ?, 'CUSTOM', 'CONTACT', 'generator', NULL, ?, ?, 0)
+            """;
+        String memberSql = "INSERT OR IGNORE INTO list_contacts (list_id, contact_id, added_at) VALUES (?, ?, ?)";
+
+        long firstListId = nextId(conn, "lists");
+        long memberTotal = 0;
+
+        try (PreparedStatement listStmt = conn.prepareStatement(listSql);
+             PreparedStatement memberStmt = conn.prepareStatement(memberSql)) {
+
+            for (int i = 0; i < listCount; i++) {
+                long listId = firstListId + i;
+                String theme = LIST_THEMES[i % LIST_THEMES.length];
+                listStmt.setLong(1, listId);
+                listStmt.setString(2, theme + " " + (i + 1));
+                listStmt.setString(3, "Generirana lista (" + theme.toLowerCase(Locale.ROOT) + ")");
+                listStmt.setString(4, timestamp);
+                listStmt.setString(5, timestamp);
+                listStmt.executeUpdate();
+
+                // Between 1 % and 10 % of all contacts per list
+                double share = 0.01 + random.nextDouble() * 0.09;
+                int pending = 0;
+                for (long contactId = firstContactId; contactId <= lastContactId; contactId++) {
+                    if (random.nextDouble() >= share) {
+                        continue;
+                    }
+                    memberStmt.setLong(1, listId);
+                    memberStmt.setLong(2, contactId);
+                    memberStmt.setString(3, timestamp);
+                    memberStmt.addBatch();
+                    memberTotal++;
+                    if (++pending >= BATCH_SIZE) {
+                        memberStmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+                memberStmt.executeBatch();
+                conn.commit();
+            }
+        }
+
+        System.out.println("✅ " + listCount + " lists with " + memberTotal + " memberships created");
+    }
+
+    private void setMembership(PreparedStatement stmt, int firstIndex, boolean member) throws SQLException {
+        stmt.setInt(firstIndex, member ? 1 : 0);
+        if (member) {
+            LocalDate since = randomDate(LocalDate.of(2015, 1, 1), today);
+            stmt.setString(firstIndex + 1, since.toString());
+            stmt.setString(firstIndex + 2, since.plusYears(1 + random.nextInt(3)).toString());
+        } else {
+            stmt.setString(firstIndex + 1, null);
+            stmt.setString(firstIndex + 2, null);
+        }
+    }
+
+    /**
+     * First free ID of a table; IDs are assigned explicitly, so this is read once
+     * per table before inserting.
+     */
+    private static long nextId(Connection conn, String table) throws SQLException {
+        long next = 1;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            if (rs.next()) {
+                next = rs.getLong(1);
+            }
+        }
+        // AUTOINCREMENT never reuses IDs of deleted rows; stay above them as well
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT seq + 1 FROM sqlite_sequence WHERE name = ?")) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    next = Math.max(next, rs.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            // sqlite_sequence only exists once an AUTOINCREMENT table has had a row
+        }
+        return next;
+    }
+
+    /**
+     * Eleven digits with an ISO 7064 MOD 11,10 check digit, the format of the OIB.
+     */
+    private String randomOib() {
+        char[] digits = new char[11];
+        int remainder = 10;
+        for (int i = 0; i < 10; i++) {
+            int digit = i == 0 ? 1 + random.nextInt(9) : random.nextInt(10);
+            digits[i] = (char) ('0' + digit);
+            remainder = (remainder + digit) % 10;
+            if (remainder == 0) {
+                remainder = 10;
+            }
+            remainder = (remainder * 2) % 11;
+        }
+        int check = 11 - remainder;
+        digits[10] = (char) ('0' + (check == 10 ? 0 : check));
+        return new String(digits);
+    }
+
+    private String weightedStatus() {
+        int roll = random.nextInt(100);
+        for (int i = 0; i < PAYMENT_STATUSES.length; i++) {
+            roll -= PAYMENT_STATUS_WEIGHTS[i];
+            if (roll < 0) {
+                return PAYMENT_STATUSES[i];
+            }
+        }
+        return PAYMENT_STATUSES[0];
+    }
+
+    private LocalDate randomDate(LocalDate from, LocalDate to) {
+        long days = to.toEpochDay() - from.toEpochDay();
+        return from.plusDays(days > 0 ? (long) (random.nextDouble() * (days + 1)) : 0);
+    }
+
+    private long randomId(long first, long last) {
+        return first + (long) (random.nextDouble() * (last - first + 1));
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String toAscii(String text) {
+        String decomposed = Normalizer.normalize(text.replace("đ", "d").replace("Đ", "D"), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").replace(' ', '.');
+    }
+}
@@ -0,0 +1,30 @@
+package smallbusinessbuddycrm.controllers.underaged;
+
+import org.junit.jupiter.api.Test;
+import smallbusinessbuddycrm.services.Hub3Fixtures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares manual generator payloads with the ones the original builder wrote for the same form.
+ */
+class BarcodeGeneratorViewControllerTest {
+
+    @Test
+    void formValuesAreTrimmed() {
+        String payload = BarcodeGeneratorViewController.buildHub3Payload("123456",
+                "Ivan Horvat ", " Vukovarska 5", "51000 Rijeka",
+                "Udruga Čitaonica", "Korzo 1", "51000 Rijeka",
+                "HR6523400091110123456", "HR99", "", "OTHR", " Donacija ");
+
+        assertEquals(Hub3Fixtures.load("manual.txt"), payload);
+    }
+
+    @Test
+    void zeroAmountAndEmptyFormAreWrittenAsZeroAndEmptyFields() {
+        String payload = BarcodeGeneratorViewController.buildHub3Payload("0",
+                "", "", "", "", "", "", "", "", "", "", "");
+
+        assertEquals(Hub3Fixtures.load("manual-zero-amount.txt"), payload);
+    }
+}
@@ -0,0 +1,33 @@
+package smallbusinessbuddycrm.controllers.utilities;
+
+import org.junit.jupiter.api.Test;
+import smallbusinessbuddycrm.controllers.utilities.MultipleGenerationBarcodeDialogTest.SlipData;
+import smallbusinessbuddycrm.services.Hub3Fixtures;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares single-slip payloads with the ones the original builder wrote for the same input.
+ */
+class BarcodePaymentDialogTest {
+
+    @Test
+    void editedAmountReplacesTheTemplateAmount() {
+        String payload = BarcodePaymentDialog.buildHub3Payload(
+                SlipData.partialPayer(), SlipData.partialOrganization(), "2550", new BigDecimal("30.00"),
+                "HR01", "00042", "Članarina");
+
+        assertEquals(Hub3Fixtures.load("single-edited-amount.txt"), payload);
+    }
+
+    @Test
+    void templateAmountIsUsedWhenTheFieldIsEmpty() {
+        String payload = BarcodePaymentDialog.buildHub3Payload(
+                SlipData.payer(), SlipData.organization(), null, new BigDecimal("30.00"),
+                null, "00042", "Članarina za ožujak");
+
+        assertEquals(Hub3Fixtures.load("single-template-amount.txt"), payload);
+    }
+}
@@ -0,0 +1,105 @@
+package smallbusinessbuddycrm.controllers.utilities;
+
+import org.junit.jupiter.api.Test;
+import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.model.Organization;
+import smallbusinessbuddycrm.services.Hub3Fixtures;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares bulk slip payloads with the ones the original builder wrote for the same input.
+ */
+class MultipleGenerationBarcodeDialogTest {
+
+    @Test
+    void fullSlipFoldsDiacritics() {
+        String payload = MultipleGenerationBarcodeDialog.buildHub3Payload(
+                SlipData.payer(), SlipData.organization(), new BigDecimal("25.50"),
+                "HR01", "12345678901", "Članarina za ožujak - Luka Šarić");
+
+        assertEquals(Hub3Fixtures.load("bulk.txt"), payload);
+    }
+
+    @Test
+    void partialAddressesAndMissingModel() {
+        String payload = MultipleGenerationBarcodeDialog.buildHub3Payload(
+                SlipData.partialPayer(), SlipData.partialOrganization(), new BigDecimal("25.5"),
+                null, "", "Članarina");
+
+        assertEquals(Hub3Fixtures.load("bulk-partial.txt"), payload);
+    }
+
+    @Test
+    void missingOrganizationNameAndIbanAreWrittenAsEmptyFields() {
+        // The original builder wrote a missing IBAN as the text "null"
+        String payload = MultipleGenerationBarcodeDialog.buildHub3Payload(
+                SlipData.payer(), new Organization(), new BigDecimal("25.50"),
+                "HR01", "12345678901", "Članarina");
+
+        assertEquals(Hub3Fixtures.loadWithNullsAsEmpty("bulk-null-organization.txt"), payload);
+    }
+
+    @Test
+    void reusedEncoderStartsEveryPayloadAfresh() {
+        MultipleGenerationBarcodeDialog.buildHub3Payload(
+                SlipData.partialPayer(), SlipData.partialOrganization(), new BigDecimal("25.5"),
+                null, "", "Članarina");
+
+        String payload = MultipleGenerationBarcodeDialog.buildHub3Payload(
+                SlipData.payer(), SlipData.organization(), new BigDecimal("25.50"),
+                "HR01", "12345678901", "Članarina za ožujak - Luka Šarić");
+
+        assertEquals(Hub3Fixtures.load("bulk.txt"), payload);
+    }
+
+    /**
+     * Contacts and organizations the slip tests in this package share.
+     */
+    static final class SlipData {
+
+        private SlipData() {
+        }
+
+        static Contact payer() {
+            return contact("Ulica Žrtava fašizma", "12", "10000", "Zagreb");
+        }
+
+        static Contact partialPayer() {
+            return contact("Ilica", null, null, "Split");
+        }
+
+        static Organization organization() {
+            return organization("Trg Ćirila i Metoda", "3", "31400", "Đakovo");
+        }
+
+        static Organization partialOrganization() {
+            return organization(null, "3", "21000", " ");
+        }
+
+        private static Contact contact(String street, String streetNum, String postalCode, String city) {
+            Contact contact = new Contact();
+            contact.setId(42);
+            contact.setFirstName("Ivana");
+            contact.setLastName("Šarić");
+            contact.setStreetName(street);
+            contact.setStreetNum(streetNum);
+            contact.setPostalCode(postalCode);
+            contact.setCity(city);
+            return contact;
+        }
+
+        private static Organization organization(String street, String streetNum, String postalCode, String city) {
+            Organization organization = new Organization();
+            organization.setName("Sportski klub Đakovo");
+            organization.setIban("HR1210010051863000160");
+            organization.setStreetName(street);
+            organization.setStreetNum(streetNum);
+            organization.setPostalCode(postalCode);
+            organization.setCity(city);
+            return organization;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package smallbusinessbuddycrm.controllers.workshop;
+
+import org.junit.jupiter.api.Test;
+import smallbusinessbuddycrm.model.Contact;
+import smallbusinessbuddycrm.model.Organization;
+import smallbusinessbuddycrm.services.Hub3Fixtures;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares workshop slip payloads with the ones the original builder wrote for the same input.
+ */
+class WorkshopPaymentSlipsControllerTest {
+
+    @Test
+    void childWithoutPayerContactLeavesThePayerAddressEmpty() {
+        Organization organization = organization("Trg Ćirila i Metoda", "3", "31400", "Đakovo");
+
+        String payload = WorkshopPaymentSlipsController.buildHub3Payload(
+                "Petra Kovačić", null, organization, new BigDecimal("40.00"),
+                "HR00", "1001", "Radionica keramike");
+
+        assertEquals(Hub3Fixtures.load("workshop-child.txt"), payload);
+    }
+
+    @Test
+    void adultWithPartialAddressesAndMissingModel() {
+        Contact payer = new Contact();
+        payer.setStreetName("Ilica");
+        payer.setCity("Split");
+        Organization organization = organization(null, "3", "21000", " ");
+
+        String payload = WorkshopPaymentSlipsController.buildHub3Payload(
+                "Ivana Šarić", payer, organization, new BigDecimal("40"),
+                null, "", "Radionica keramike - Ivana Šarić");
+
+        assertEquals(Hub3Fixtures.load("workshop-adult.txt"), payload);
+    }
+
+    @Test
+    void missingOrganizationNameAndIbanAreWrittenAsEmptyFields() {
+        // The original builder wrote both as the text "null"
+        String payload = WorkshopPaymentSlipsController.buildHub3Payload(
+                "Petra Kovačić", null, new Organization(), new BigDecimal("40.00"),
+                "HR00", "1001", "Radionica keramike");
+
+        assertEquals(Hub3Fixtures.loadWithNullsAsEmpty("workshop-null-organization.txt"), payload);
+    }
+
+    private static Organization organization(String street, String streetNum, String postalCode, String city) {
+        Organization organization = new Organization();
+        organization.setName("Sportski klub Đakovo");
+        organization.setIban("HR1210010051863000160");
+        organization.setStreetName(street);
+        organization.setStreetNum(streetNum);
+        organization.setPostalCode(postalCode);
+        organization.setCity(city);
+        return organization;
+    }
+}
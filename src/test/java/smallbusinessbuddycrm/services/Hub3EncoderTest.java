@@ -0,0 +1,41 @@
+package smallbusinessbuddycrm.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Contract tests for Hub3Encoder. The payloads of the slip generators that use it are
+ * tested next to each generator, against fixtures from the builders it replaced.
+ */
+class Hub3EncoderTest {
+
+    @Test
+    void emptyManualAmountIsWrittenAsZero() {
+        String payload = Hub3Encoder.forCurrentThread()
+                .begin(false)
+                .amountCents("")
+                .field("").field("").field("").field("").field("").field("")
+                .field("").field("").field("").field("").field("")
+                .encode();
+
+        assertEquals("000000000000000", payload.split("\n")[2]);
+    }
+
+    @Test
+    void incompletePayloadIsRejected() {
+        Hub3Encoder encoder = new Hub3Encoder().begin(false).amount(BigDecimal.ONE).field("Ivan Horvat");
+
+        assertThrows(IllegalStateException.class, encoder::encode);
+    }
+
+    @Test
+    void negativeAmountIsRejected() {
+        Hub3Encoder encoder = new Hub3Encoder().begin(false);
+
+        assertThrows(IllegalArgumentException.class, () -> encoder.amount(new BigDecimal("-1.00")));
+    }
+}
@@ -0,0 +1,40 @@
+package smallbusinessbuddycrm.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * HUB-3 payloads in hub3/, captured from the StringBuilder-based builders the slip
+ * generators used before Hub3Encoder. Each file ends with one newline that is not
+ * part of the payload.
+ */
+public final class Hub3Fixtures {
+
+    private Hub3Fixtures() {
+    }
+
+    /**
+     * Payload stored in hub3/{@code name}.
+     */
+    public static String load(String name) {
+        try (InputStream in = Hub3Fixtures.class.getResourceAsStream("hub3/" + name)) {
+            assertNotNull(in, "Missing fixture " + name);
+            String payload = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return payload.substring(0, payload.length() - 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Payload stored in hub3/{@code name}, with every field the old builders wrote as
+     * the text "null" turned into an empty field, as Hub3Encoder writes it.
+     */
+    public static String loadWithNullsAsEmpty(String name) {
+        return load(name).replaceAll("(?m)^null$", "");
+    }
+}
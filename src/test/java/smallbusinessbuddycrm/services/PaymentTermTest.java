@@ -0,0 +1,35 @@
+package smallbusinessbuddycrm.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaymentTermTest {
+
+    private static final LocalDate AUGUST_17 = LocalDate.of(2026, 8, 17);
+
+    @Test
+    void termStartsOnTheFirstDayOfItsPeriod() {
+        assertEquals(LocalDateTime.of(2026, 8, 1, 0, 0), PaymentTerm.MONTH.startOf(AUGUST_17));
+        assertEquals(LocalDateTime.of(2026, 7, 1, 0, 0), PaymentTerm.QUARTER.startOf(AUGUST_17));
+        assertEquals(LocalDateTime.of(2026, 1, 1, 0, 0), PaymentTerm.YEAR.startOf(AUGUST_17));
+    }
+
+    @Test
+    void quarterBoundaries() {
+        assertEquals(LocalDateTime.of(2026, 1, 1, 0, 0), PaymentTerm.QUARTER.startOf(LocalDate.of(2026, 3, 31)));
+        assertEquals(LocalDateTime.of(2026, 4, 1, 0, 0), PaymentTerm.QUARTER.startOf(LocalDate.of(2026, 4, 1)));
+        assertEquals(LocalDateTime.of(2026, 10, 1, 0, 0), PaymentTerm.QUARTER.startOf(LocalDate.of(2026, 12, 31)));
+    }
+
+    @Test
+    void configuredValueIsParsedLeniently() {
+        assertEquals(PaymentTerm.QUARTER, PaymentTerm.parse(" quarter "));
+        assertEquals(PaymentTerm.MONTH, PaymentTerm.parse(null));
+        assertEquals(PaymentTerm.MONTH, PaymentTerm.parse(""));
+        assertEquals(PaymentTerm.MONTH, PaymentTerm.parse("fortnight"));
+    }
+}
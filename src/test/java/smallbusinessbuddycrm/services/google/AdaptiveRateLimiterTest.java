@@ -0,0 +1,144 @@
+package smallbusinessbuddycrm.services.google;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs AdaptiveRateLimiter on a manual clock, so refills and pauses only happen
+ * when a test moves the clock forward.
+ */
+class AdaptiveRateLimiterTest {
+
+    private static final double DELTA = 1e-9;
+    private static final long MILLIS = 1_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(1_000 * MILLIS);
+
+    @Test
+    void throttleHalvesTheRateDownToTheMinimum() {
+        AdaptiveRateLimiter limiter = limiter(2.0, 0.4, 2.4, 1);
+
+        limiter.onThrottle(0);
+        assertEquals(1.0, limiter.getCurrentRate(), DELTA);
+        limiter.onThrottle(0);
+        assertEquals(0.5, limiter.getCurrentRate(), DELTA);
+        limiter.onThrottle(0);
+        assertEquals(0.4, limiter.getCurrentRate(), DELTA);
+    }
+
+    @Test
+    void rateRisesOneStepPerRunOfSuccessesAsLongAsTheRate() {
+        AdaptiveRateLimiter limiter = limiter(2.0, 0.2, 2.25, 1);
+
+        limiter.onSuccess();
+        assertEquals(2.0, limiter.getCurrentRate(), DELTA);
+        limiter.onSuccess();
+        assertEquals(2.1, limiter.getCurrentRate(), DELTA);
+
+        // ceil(2.1) = 3 successes for the next step
+        limiter.onSuccess();
+        limiter.onSuccess();
+        assertEquals(2.1, limiter.getCurrentRate(), DELTA);
+        limiter.onSuccess();
+        assertEquals(2.2, limiter.getCurrentRate(), DELTA);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(2.25, limiter.getCurrentRate(), DELTA);
+    }
+
+    @Test
+    void throttleResetsTheSuccessStreak() {
+        AdaptiveRateLimiter limiter = limiter(2.0, 0.2, 2.4, 1);
+
+        limiter.onSuccess();
+        limiter.onThrottle(0);
+        limiter.onSuccess();
+        assertEquals(1.1, limiter.getCurrentRate(), DELTA, "one success is a full run at rate 1.0");
+    }
+
+    @Test
+    void initialRateIsClampedToTheConfiguredRange() {
+        assertEquals(2.4, limiter(5.0, 0.2, 2.4, 1).getCurrentRate(), DELTA);
+        assertEquals(0.2, limiter(0.01, 0.2, 2.4, 1).getCurrentRate(), DELTA);
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(1.0, 0, 2.0, 1));
+        assertThrows(IllegalArgumentException.class, () -> limiter(1.0, 2.0, 1.0, 1));
+        assertThrows(IllegalArgumentException.class, () -> limiter(1.0, 0.2, 2.0, 0.5));
+    }
+
+    @Test
+    void permitsRefillAtTheCurrentRateUpToTheBurstSize() throws Exception {
+        AdaptiveRateLimiter limiter = limiter(2.0, 0.2, 2.4, 2);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), limiter::acquire, "starts with one permit");
+        Thread waiting = acquireInBackground(limiter);
+        assertStillWaiting(waiting);
+
+        clock.addAndGet(500 * MILLIS);
+        waiting.join(2_000);
+        assertFalse(waiting.isAlive(), "a permit refills after 1 / rate seconds");
+
+        // A long idle period saves up no more than the burst size
+        clock.addAndGet(60_000 * MILLIS);
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            limiter.acquire();
+            limiter.acquire();
+        });
+        Thread third = acquireInBackground(limiter);
+        assertStillWaiting(third);
+        third.interrupt();
+        third.join(2_000);
+    }
+
+    @Test
+    void throttlePausesCallersForTheRequestedTime() throws Exception {
+        AdaptiveRateLimiter limiter = limiter(2.0, 0.2, 2.4, 4);
+        clock.addAndGet(10_000 * MILLIS);
+
+        limiter.onThrottle(200);
+        Thread waiting = acquireInBackground(limiter);
+
+        // Permits would have refilled by now, but the pause is still active
+        clock.addAndGet(150 * MILLIS);
+        assertStillWaiting(waiting);
+
+        clock.addAndGet(1_000 * MILLIS);
+        waiting.join(2_000);
+        assertFalse(waiting.isAlive(), "callers continue once the pause has passed");
+    }
+
+    private AdaptiveRateLimiter limiter(double initialRate, double minRate, double maxRate, double burstSize) {
+        return new AdaptiveRateLimiter(initialRate, minRate, maxRate, burstSize, clock::get);
+    }
+
+    private static Thread acquireInBackground(AdaptiveRateLimiter limiter) {
+        Thread thread = new Thread(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void assertStillWaiting(Thread thread) throws InterruptedException {
+        thread.join(300);
+        assertTrue(thread.isAlive(), "acquire should still be waiting");
+    }
+}
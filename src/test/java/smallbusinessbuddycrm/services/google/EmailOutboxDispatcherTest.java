@@ -0,0 +1,331 @@
+package smallbusinessbuddycrm.services.google;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import smallbusinessbuddycrm.database.DatabaseConnection;
+import smallbusinessbuddycrm.database.EmailOutboxDAO;
+import smallbusinessbuddycrm.model.EmailCampaign;
+import smallbusinessbuddycrm.model.OutboxEmail;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EmailOutboxDispatcher against a local stand-in for the Gmail API, with the
+ * outbox in the test database (sbb.db.url) and the spool under target.
+ */
+class EmailOutboxDispatcherTest {
+
+    private static final Pattern RAW_PATTERN = Pattern.compile("\"raw\":\"([A-Za-z0-9_-]*)\"");
+    private static final String REJECTED_RECIPIENT = "rejected@example.com";
+
+    private final List<String> deliveredMessages = Collections.synchronizedList(new ArrayList<>());
+    // Recipients whose first request gets a 503 with Retry-After: 1
+    private final Set<String> throttledOnce = ConcurrentHashMap.newKeySet();
+    private final Map<String, List<Long>> requestTimes = new ConcurrentHashMap<>();
+    private final EmailOutboxDAO outboxDAO = new EmailOutboxDAO();
+    private HttpServer server;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeAll
+    static void initializeDatabase() {
+        DatabaseConnection.initializeDatabase();
+        // Rows queued by an earlier, interrupted test run would be sent again
+        EmailOutboxDAO outboxDAO = new EmailOutboxDAO();
+        outboxDAO.findActiveCampaignIds().forEach(outboxDAO::cancelCampaign);
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void sendsSpooledPaymentSlipsBuiltAtClaimTime() throws Exception {
+        dispatcher = newDispatcher(() -> "test-token");
+        String campaignId = "payment-slips-test-" + UUID.randomUUID();
+
+        List<OutboxEmail> emails = new ArrayList<>();
+        List<Path> entries = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String recipient = "parent" + i + "@example.com";
+            Path entry = OutboxSpool.createEntry(campaignId, recipient + "#" + i,
+                    "Payment Slip - Test Club", "Dear parent " + i);
+            OutboxSpool.addAttachment(entry, "payment_slip_" + i + ".pdf",
+                    ("%PDF-1.4 slip " + i).getBytes(StandardCharsets.US_ASCII));
+            entries.add(entry);
+            emails.add(spooledEmail(campaignId, recipient, i, entry));
+        }
+
+        EmailOutboxDispatcher.CampaignSummary summary = dispatcher.sendCampaign(campaign(campaignId), emails, null);
+
+        assertEquals(3, summary.getQueued());
+        assertEquals(3, summary.getSent());
+        assertEquals(0, summary.getFailed());
+        assertEquals(3, deliveredMessages.size());
+        for (int i = 0; i < 3; i++) {
+            String message = findDelivered("parent" + i + "@example.com");
+            assertTrue(message.contains("Subject: Payment Slip - Test Club"));
+            assertTrue(message.contains("filename=\"payment_slip_" + i + ".pdf\""));
+            assertTrue(message.contains(Base64.getMimeEncoder().encodeToString(
+                    ("%PDF-1.4 slip " + i).getBytes(StandardCharsets.US_ASCII))));
+            assertFalse(Files.exists(entries.get(i)), "spool entry is deleted once sent");
+        }
+        for (OutboxEmail email : outboxDAO.findByCampaign(campaignId)) {
+            assertEquals(OutboxEmail.STATUS_SENT, email.getStatus());
+            assertNull(email.getRawMessage());
+        }
+    }
+
+    @Test
+    void resendingACampaignSkipsRecipientsAlreadyQueued() throws Exception {
+        dispatcher = newDispatcher(() -> "test-token");
+        String campaignId = "payment-slips-test-" + UUID.randomUUID();
+
+        Path first = OutboxSpool.createEntry(campaignId, "a@example.com#1", "Payment Slip - Test Club", "First");
+        dispatcher.sendCampaign(campaign(campaignId),
+                List.of(spooledEmail(campaignId, "a@example.com", 1, first)), null);
+
+        Path again = OutboxSpool.createEntry(campaignId, "a@example.com#1", "Payment Slip - Test Club", "Again");
+        Path second = OutboxSpool.createEntry(campaignId, "b@example.com#2", "Payment Slip - Test Club", "Second");
+        AtomicInteger waitedFor = new AtomicInteger(-1);
+        EmailOutboxDispatcher.CampaignSummary summary = dispatcher.sendCampaign(campaign(campaignId),
+                List.of(spooledEmail(campaignId, "a@example.com", 1, again),
+                        spooledEmail(campaignId, "b@example.com", 2, second)), waitedFor::set, null);
+
+        assertEquals(1, waitedFor.get(), "progress counts only the recipient actually queued");
+        assertEquals(1, summary.getQueued());
+        assertEquals(1, summary.getSkipped());
+        assertEquals(1, summary.getSent());
+        assertEquals(2, deliveredMessages.size());
+    }
+
+    @Test
+    void rejectedRecipientFailsWithoutRetry() throws Exception {
+        dispatcher = newDispatcher(() -> "test-token");
+        String campaignId = "payment-slips-test-" + UUID.randomUUID();
+
+        Path accepted = OutboxSpool.createEntry(campaignId, "ok@example.com#1", "Payment Slip - Test Club", "Body");
+        Path rejected = OutboxSpool.createEntry(campaignId, REJECTED_RECIPIENT + "#2", "Payment Slip - Test Club", "Body");
+        EmailOutboxDispatcher.CampaignSummary summary = dispatcher.sendCampaign(campaign(campaignId),
+                List.of(spooledEmail(campaignId, "ok@example.com", 1, accepted),
+                        spooledEmail(campaignId, REJECTED_RECIPIENT, 2, rejected)), null);
+
+        assertEquals(1, summary.getSent());
+        assertEquals(1, summary.getFailed());
+        assertFalse(Files.exists(rejected), "spool entry is deleted once the row failed");
+    }
+
+    @Test
+    void givesUpWaitingWhenNoAccessTokenIsAvailable() throws Exception {
+        dispatcher = newDispatcher(() -> null);
+        dispatcher.setNoTokenTimeoutMillis(500);
+        String campaignId = "payment-slips-test-" + UUID.randomUUID();
+
+        Path entry = OutboxSpool.createEntry(campaignId, "a@example.com#1", "Payment Slip - Test Club", "Body");
+        long start = System.currentTimeMillis();
+        assertThrows(IllegalStateException.class, () -> dispatcher.sendCampaign(campaign(campaignId),
+                List.of(spooledEmail(campaignId, "a@example.com", 1, entry)), null));
+
+        assertTrue(System.currentTimeMillis() - start < 15_000);
+        assertTrue(deliveredMessages.isEmpty());
+        Map<String, Integer> counts = outboxDAO.countByStatus(campaignId);
+        assertEquals(1, counts.getOrDefault(OutboxEmail.STATUS_PENDING, 0), "the row stays queued");
+        assertTrue(Files.exists(entry), "the spool entry is kept for a later run");
+
+        dispatcher.cancelCampaign(campaignId);
+    }
+
+    @Test
+    void throttledEmailIsRetriedAfterRetryAfter() throws Exception {
+        dispatcher = newDispatcher(() -> "test-token");
+        dispatcher.setBaseRetryMillis(100);
+        String campaignId = "payment-slips-test-" + UUID.randomUUID();
+        throttledOnce.add("busy@example.com");
+
+        Path entry = OutboxSpool.createEntry(campaignId, "busy@example.com#1", "Payment Slip - Test Club", "Body");
+        EmailOutboxDispatcher.CampaignSummary summary = dispatcher.sendCampaign(campaign(campaignId),
+                List.of(spooledEmail(campaignId, "busy@example.com", 1, entry)), null);
+
+        assertEquals(1, summary.getSent());
+        assertEquals(0, summary.getFailed());
+        List<Long> times = requestTimes.get("busy@example.com");
+        assertEquals(2, times.size());
+        assertTrue(times.get(1) - times.get(0) >= 950_000_000L, "the retry waits for Retry-After, not the shorter backoff");
+        OutboxEmail row = outboxDAO.findByCampaign(campaignId).get(0);
+        assertEquals(OutboxEmail.STATUS_SENT, row.getStatus());
+        assertEquals(2, row.getAttempts());
+        assertFalse(Files.exists(entry), "spool entry is kept for the retry and deleted once sent");
+    }
+
+    @Test
+    void rowsClaimedByAPreviousRunAreSentAfterRestart() throws Exception {
+        String campaignId = "payment-slips-test-" + UUID.randomUUID();
+        assertTrue(outboxDAO.saveCampaign(campaign(campaignId)));
+        List<OutboxEmail> emails = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            String recipient = "stale" + i + "@example.com";
+            Path entry = OutboxSpool.createEntry(campaignId, recipient + "#" + i, "Payment Slip - Test Club", "Body");
+            emails.add(spooledEmail(campaignId, recipient, i, entry));
+        }
+        assertEquals(2, outboxDAO.enqueue(emails));
+
+        // A run that claimed the rows and then died before recording any result
+        outboxDAO.claimDue(20);
+        assertEquals(2, outboxDAO.countByStatus(campaignId).getOrDefault(OutboxEmail.STATUS_SENDING, 0));
+
+        dispatcher = newDispatcher(() -> "test-token");
+        EmailOutboxDispatcher.CampaignSummary summary = dispatcher.sendCampaign(campaign(campaignId), List.of(), null);
+
+        assertEquals(2, summary.getSent());
+        findDelivered("stale0@example.com");
+        findDelivered("stale1@example.com");
+        Map<String, Integer> counts = outboxDAO.countByStatus(campaignId);
+        assertEquals(2, counts.getOrDefault(OutboxEmail.STATUS_SENT, 0));
+        assertEquals(0, counts.getOrDefault(OutboxEmail.STATUS_SENDING, 0));
+    }
+
+    @Test
+    void cancelledRecipientsAreQueuedAgainWhenTheCampaignIsResent() throws Exception {
+        String campaignId = "payment-slips-test-" + UUID.randomUUID();
+        assertTrue(outboxDAO.saveCampaign(campaign(campaignId)));
+        Path first = OutboxSpool.createEntry(campaignId, "a@example.com#1", "Payment Slip - Test Club", "First");
+        assertEquals(1, outboxDAO.enqueue(List.of(spooledEmail(campaignId, "a@example.com", 1, first))));
+
+        dispatcher = newDispatcher(() -> "test-token");
+        assertEquals(1, dispatcher.cancelCampaign(campaignId));
+        assertTrue(outboxDAO.findRecipientKeys(campaignId).isEmpty(), "cancelled keys are not reported as queued");
+
+        Path again = OutboxSpool.createEntry(campaignId, "a@example.com#1", "Payment Slip - Test Club", "Again");
+        EmailOutboxDispatcher.CampaignSummary summary = dispatcher.sendCampaign(campaign(campaignId),
+                List.of(spooledEmail(campaignId, "a@example.com", 1, again)), null);
+
+        assertEquals(1, summary.getQueued());
+        assertEquals(0, summary.getSkipped());
+        assertEquals(1, summary.getSent());
+        assertTrue(findDelivered("a@example.com").contains("Again"));
+        OutboxEmail row = outboxDAO.findByCampaign(campaignId).get(0);
+        assertEquals(OutboxEmail.STATUS_SENT, row.getStatus());
+        assertEquals(1, row.getAttempts());
+    }
+
+    private EmailOutboxDispatcher newDispatcher(java.util.function.Supplier<String> tokenSupplier) {
+        GmailService gmailService = new GmailService("http://127.0.0.1:" + server.getAddress().getPort());
+        return new EmailOutboxDispatcher(outboxDAO, gmailService, tokenSupplier);
+    }
+
+    private static EmailCampaign campaign(String campaignId) {
+        return new EmailCampaign(campaignId, "Test payment slips", "Payment Slip - Test Club", null);
+    }
+
+    private static OutboxEmail spooledEmail(String campaignId, String recipient, int slip, Path entry) {
+        OutboxEmail email = new OutboxEmail(campaignId, recipient, null);
+        email.setRecipientKey(recipient + "#" + slip);
+        email.setSpoolPath(entry.toString());
+        return email;
+    }
+
+    private String findDelivered(String recipient) {
+        synchronized (deliveredMessages) {
+            return deliveredMessages.stream()
+                    .filter(message -> message.startsWith("To: " + recipient + "\r\n"))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("No message delivered to " + recipient));
+        }
+    }
+
+    /**
+     * Accepts single and batch sends; messages to REJECTED_RECIPIENT get a 400 and the
+     * first message to a throttledOnce recipient gets a 503 with Retry-After: 1.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.US_ASCII);
+        List<Integer> statuses = new ArrayList<>();
+        Matcher matcher = RAW_PATTERN.matcher(body);
+        while (matcher.find()) {
+            String message = new String(Base64.getUrlDecoder().decode(matcher.group(1)), StandardCharsets.UTF_8);
+            String recipient = message.substring("To: ".length(), message.indexOf("\r\n"));
+            requestTimes.computeIfAbsent(recipient, key -> new CopyOnWriteArrayList<>()).add(System.nanoTime());
+            if (message.startsWith("To: " + REJECTED_RECIPIENT)) {
+                statuses.add(400);
+            } else if (throttledOnce.remove(recipient)) {
+                statuses.add(503);
+            } else {
+                deliveredMessages.add(message);
+                statuses.add(200);
+            }
+        }
+
+        byte[] response;
+        int status;
+        if (exchange.getRequestURI().getPath().startsWith("/batch")) {
+            StringBuilder parts = new StringBuilder();
+            for (int i = 0; i < statuses.size(); i++) {
+                parts.append("--response_boundary\r\n")
+                        .append("Content-Type: application/http\r\n")
+                        .append("Content-ID: <response-item-").append(i).append(">\r\n\r\n")
+                        .append(statusLine(statuses.get(i)))
+                        .append(statuses.get(i) == 503 ? "\r\nRetry-After: 1" : "")
+                        .append("\r\n\r\n{}\r\n");
+            }
+            parts.append("--response_boundary--\r\n");
+            response = parts.toString().getBytes(StandardCharsets.US_ASCII);
+            status = 200;
+            exchange.getResponseHeaders().add("Content-Type", "multipart/mixed; boundary=response_boundary");
+        } else {
+            status = statuses.isEmpty() ? 400 : statuses.get(0);
+            response = "{\"id\":\"test\"}".getBytes(StandardCharsets.US_ASCII);
+            if (status == 503) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+            }
+        }
+        exchange.sendResponseHeaders(status, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+
+    private static String statusLine(int status) {
+        switch (status) {
+            case 200: return "HTTP/1.1 200 OK";
+            case 503: return "HTTP/1.1 503 Service Unavailable";
+            default: return "HTTP/1.1 400 Bad Request";
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package smallbusinessbuddycrm.services.google;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs GmailSendEngine against a local stand-in for the Gmail API whose responses
+ * each test scripts. Messages are sent one per request.
+ */
+class GmailSendEngineTest {
+
+    private final List<Long> requestTimes = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private volatile Responder responder;
+    private HttpServer server;
+    private GmailService gmailService;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        gmailService = new GmailService("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void throttledMessageWaitsForRetryAfterAndSlowsDown() {
+        responder = (request, exchange) -> {
+            if (request == 0) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                return 429;
+            }
+            return 200;
+        };
+        GmailSendEngine engine = engine(() -> "token", 3);
+
+        GmailSendEngine.SendResult result = sendOne(engine);
+
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getAttempts());
+        assertEquals(2, requestTimes.size());
+        assertTrue(requestTimes.get(1) - requestTimes.get(0) >= 950_000_000L, "the retry waits for Retry-After");
+        assertTrue(engine.getCurrentRate() < 10.0, "the rate limiter slowed down");
+    }
+
+    @Test
+    void retryAfterInSecondsIsReportedWhenAttemptsRunOut() {
+        assertEquals(7_000, retryAfterFor("7"));
+    }
+
+    @Test
+    void retryAfterAsHttpDateIsReportedAsTheRemainingTime() {
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(5));
+
+        long retryAfter = retryAfterFor(date);
+
+        assertTrue(retryAfter > 3_000 && retryAfter <= 5_000, "got " + retryAfter);
+    }
+
+    @Test
+    void retryAfterIsCappedAtOneMinute() {
+        assertEquals(60_000, retryAfterFor("3600"));
+    }
+
+    @Test
+    void unreadableRetryAfterFallsBackToTheBackoff() {
+        long retryAfter = retryAfterFor("soon");
+
+        // First attempt: one second plus up to a quarter of jitter
+        assertTrue(retryAfter >= 1_000 && retryAfter <= 1_250, "got " + retryAfter);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        responder = (request, exchange) -> {
+            exchange.getResponseHeaders().add("Retry-After", "0");
+            return 503;
+        };
+
+        GmailSendEngine.SendResult result = sendOne(engine(() -> "token", 3));
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.isRetryable(), "a temporary failure stays retryable for the caller");
+        assertEquals(503, result.getStatusCode());
+        assertEquals(3, result.getAttempts());
+        assertEquals(3, requestTimes.size());
+    }
+
+    @Test
+    void rejectedMessageFailsWithoutRetry() {
+        responder = (request, exchange) -> 400;
+
+        GmailSendEngine.SendResult result = sendOne(engine(() -> "token", 3));
+
+        assertFalse(result.isSuccess());
+        assertFalse(result.isRetryable());
+        assertEquals(400, result.getStatusCode());
+        assertEquals(1, requestTimes.size());
+    }
+
+    @Test
+    void expiredTokenIsRefreshedWithoutUsingAnAttempt() {
+        AtomicReference<String> token = new AtomicReference<>("expired");
+        gmailService.setTokenRefresher(rejected -> {
+            token.set("fresh");
+            return "fresh";
+        });
+        responder = (request, exchange) -> "Bearer fresh".equals(authorizations.get(request)) ? 200 : 401;
+
+        // With one attempt, only a 401 that does not count can still end in success
+        GmailSendEngine.SendResult result = sendOne(engine(token::get, 1));
+
+        assertTrue(result.isSuccess());
+        assertEquals(1, result.getAttempts());
+        assertEquals(List.of("Bearer expired", "Bearer fresh"), authorizations);
+    }
+
+    private GmailSendEngine engine(java.util.function.Supplier<String> tokenSupplier, int maxAttempts) {
+        return new GmailSendEngine(gmailService, tokenSupplier, 1, 10.0, 10.0, maxAttempts);
+    }
+
+    private static GmailSendEngine.SendResult sendOne(GmailSendEngine engine) {
+        GmailSendEngine.OutgoingEmail email = new GmailSendEngine.OutgoingEmail("member@example.com",
+                () -> MimeMessageWriter.plainText("member@example.com", "Membership fee", "Body"));
+        List<GmailSendEngine.SendResult> results = engine.sendAll(List.of(email), null);
+        assertEquals(1, results.size());
+        return results.get(0);
+    }
+
+    /**
+     * Retry-After reported for a message throttled on its only attempt.
+     */
+    private long retryAfterFor(String header) {
+        responder = (request, exchange) -> {
+            exchange.getResponseHeaders().add("Retry-After", header);
+            return 429;
+        };
+
+        GmailSendEngine.SendResult result = sendOne(engine(() -> "token", 1));
+
+        assertTrue(result.isRetryable());
+        assertEquals(429, result.getStatusCode());
+        return result.getRetryAfterMillis();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        int request;
+        synchronized (requestTimes) {
+            request = requestTimes.size();
+            requestTimes.add(System.nanoTime());
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        }
+
+        int status = responder.respond(request, exchange);
+        byte[] response = (status == 200 ? "{\"id\":\"test\"}" : "{\"error\":{}}").getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+
+    /**
+     * Picks the status for the n-th request (from 0) and may add response headers.
+     */
+    private interface Responder {
+        int respond(int request, HttpExchange exchange);
+    }
+}